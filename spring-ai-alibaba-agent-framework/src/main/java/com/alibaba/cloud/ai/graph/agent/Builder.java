@@ -19,8 +19,10 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import com.alibaba.cloud.ai.graph.CompileConfig;
@@ -113,6 +115,14 @@ public abstract class Builder {
 	
 	protected Executor executor;
 
+	protected boolean parallelToolExecution;
+
+	protected Executor toolExecutor;
+
+	protected int maxParallelToolCalls;
+
+	protected Set<String> sequentialToolNames = new HashSet<>();
+
 	public Builder name(String name) {
 		this.name = name;
 		return this;
@@ -345,6 +355,60 @@ public abstract class Builder {
 		return this;
 	}
 
+	/**
+	 * Enables concurrent execution of the tool calls the model returns in a single turn.
+	 * <p>
+	 * Tool responses keep the order of the tool calls, and state updates made by tools
+	 * are merged in that same order. Every call still goes through the configured
+	 * {@link ToolInterceptor}s.
+	 * @param parallelToolExecution whether to execute tool calls concurrently
+	 * @return this builder instance
+	 */
+	public Builder parallelToolExecution(boolean parallelToolExecution) {
+		this.parallelToolExecution = parallelToolExecution;
+		return this;
+	}
+
+	/**
+	 * Sets the executor used to run tool calls concurrently. On JDK 21+ a
+	 * virtual-thread-per-task executor is a good fit for I/O bound tools. If not set,
+	 * the {@link #executor(Executor)} of this agent is used, falling back to virtual
+	 * threads, or to a dedicated thread pool before Java 21.
+	 * @param toolExecutor the {@link Executor} to use for tool calls
+	 * @return this builder instance
+	 */
+	public Builder toolExecutor(Executor toolExecutor) {
+		Assert.notNull(toolExecutor, "toolExecutor cannot be null");
+		this.toolExecutor = toolExecutor;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of tool calls executed at the same time within one turn.
+	 * @param maxParallelToolCalls the concurrency limit, or a value less than or equal to
+	 * zero for no limit
+	 * @return this builder instance
+	 */
+	public Builder maxParallelToolCalls(int maxParallelToolCalls) {
+		this.maxParallelToolCalls = maxParallelToolCalls;
+		return this;
+	}
+
+	/**
+	 * Marks tools that are not safe to run concurrently. Calls to these tools always run
+	 * one at a time, even when {@link #parallelToolExecution(boolean)} is enabled, and act
+	 * as barriers: they start once the calls requested before them have finished, and the
+	 * calls requested after them start once they have returned.
+	 * @param toolNames the names of the tools to execute sequentially
+	 * @return this builder instance
+	 */
+	public Builder sequentialToolNames(String... toolNames) {
+		Assert.notNull(toolNames, "toolNames cannot be null");
+		Assert.noNullElements(toolNames, "toolNames cannot contain null elements");
+		this.sequentialToolNames.addAll(List.of(toolNames));
+		return this;
+	}
+
 	protected CompileConfig buildConfig() {
 		if (compileConfig != null) {
 			return compileConfig;
@@ -232,6 +232,15 @@ public class DefaultBuilder extends Builder {
 			toolBuilder.toolContext(toolContext);
 		}
 
+		if (parallelToolExecution) {
+			toolBuilder.parallelToolExecution(true)
+				.maxParallelToolCalls(maxParallelToolCalls)
+				.sequentialToolNames(sequentialToolNames);
+			if (toolExecutor != null) {
+				toolBuilder.toolExecutor(toolExecutor);
+			}
+		}
+
 		toolNode = toolBuilder.build();
 
 		return new ReactAgent(llmNode, toolNode, buildConfig(), this);
@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.graph.agent.flow.agent;
 
+import com.alibaba.cloud.ai.graph.JoinPolicy;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.agent.Agent;
@@ -61,11 +62,14 @@ public class ParallelAgent extends FlowAgent {
 
 	private final Integer maxConcurrency;
 
+	private final JoinPolicy joinPolicy;
+
 	protected ParallelAgent(ParallelAgentBuilder builder) throws GraphStateException {
 		super(builder.name, builder.description, builder.compileConfig, builder.subAgents, builder.stateSerializer, builder.executor);
 		this.mergeStrategy = builder.mergeStrategy != null ? builder.mergeStrategy : new DefaultMergeStrategy();
 		this.maxConcurrency = builder.maxConcurrency;
 		this.mergeOutputKey = builder.mergeOutputKey;
+		this.joinPolicy = builder.joinPolicy != null ? builder.joinPolicy : JoinPolicy.all();
 	}
 
 	public static ParallelAgentBuilder builder() {
@@ -77,6 +81,7 @@ public class ParallelAgent extends FlowAgent {
 		// Add parallel-specific properties to config
 		config.customProperty("mergeStrategy", this.mergeStrategy);
 		config.customProperty("maxConcurrency", this.maxConcurrency);
+		config.customProperty("joinPolicy", this.joinPolicy);
 
 		return FlowGraphBuilder.buildGraph(FlowAgentEnum.PARALLEL.getType(), config);
 	}
@@ -101,6 +106,14 @@ public class ParallelAgent extends FlowAgent {
 		return maxConcurrency;
 	}
 
+	/**
+	 * Gets the policy deciding when the sub-agents stop being waited for.
+	 * @return the join policy
+	 */
+	public JoinPolicy joinPolicy() {
+		return joinPolicy;
+	}
+
 	/**
 	 * Strategy interface for merging parallel execution results.
 	 */
@@ -144,6 +157,8 @@ public class ParallelAgent extends FlowAgent {
 
 		private String mergeOutputKey;
 
+		private JoinPolicy joinPolicy;
+
 		/**
 		 * Sets the merge strategy for combining parallel execution results.
 		 * @param mergeStrategy the strategy to use for merging results
@@ -154,6 +169,19 @@ public class ParallelAgent extends FlowAgent {
 			return this;
 		}
 
+		/**
+		 * Sets when the parallel execution stops waiting for the sub-agents, e.g.
+		 * {@link JoinPolicy#any()} to continue with the first sub-agent that completes.
+		 * Sub-agents that are no longer waited for are cancelled and their outputs are
+		 * left out of the merge. Defaults to {@link JoinPolicy#all()}.
+		 * @param joinPolicy the join policy
+		 * @return this builder instance for method chaining
+		 */
+		public ParallelAgentBuilder joinPolicy(JoinPolicy joinPolicy) {
+			this.joinPolicy = joinPolicy;
+			return this;
+		}
+
 		public ParallelAgentBuilder mergeOutputKey(String mergeOutputKey) {
 			this.mergeOutputKey = mergeOutputKey;
 			return this;
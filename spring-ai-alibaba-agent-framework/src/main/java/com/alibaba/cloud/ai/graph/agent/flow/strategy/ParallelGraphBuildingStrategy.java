@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.graph.agent.flow.strategy;
 
+import com.alibaba.cloud.ai.graph.JoinPolicy;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.agent.Agent;
 import com.alibaba.cloud.ai.graph.agent.BaseAgent;
@@ -74,15 +75,19 @@ public class ParallelGraphBuildingStrategy implements FlowGraphBuildingStrategy
 				baseAgentList, mergeStrategy, maxConcurrency)));
 
 		// Process sub-agents for parallel execution
+		List<String> subAgentNames = new ArrayList<>(config.getSubAgents().size());
 		for (Agent subAgent : config.getSubAgents()) {
 			// Add the current sub-agent as a node
 			FlowGraphBuildingStrategy.addSubAgentNode(subAgent, graph);
-			// Connect root to each sub-agent (fan-out)
-			graph.addEdge(rootAgent.name(), subAgent.name());
+			subAgentNames.add(subAgent.name());
 			// Connect each sub-agent to aggregator (gather)
 			graph.addEdge(subAgent.name(), aggregatorNodeName);
 		}
 
+		// Connect root to each sub-agent (fan-out)
+		JoinPolicy joinPolicy = (JoinPolicy) config.getCustomProperty("joinPolicy");
+		graph.addParallelEdges(rootAgent.name(), subAgentNames, joinPolicy != null ? joinPolicy : JoinPolicy.all());
+
 		// Connect aggregator to END
 		graph.addEdge(aggregatorNodeName, END);
 
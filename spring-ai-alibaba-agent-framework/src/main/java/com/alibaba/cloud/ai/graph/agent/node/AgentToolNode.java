@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.graph.agent.node;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.action.NodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.executor.NodeActionExecutors;
 import com.alibaba.cloud.ai.graph.state.RemoveByHash;
 import com.alibaba.cloud.ai.graph.agent.interceptor.ToolInterceptor;
 import com.alibaba.cloud.ai.graph.agent.interceptor.ToolCallRequest;
@@ -39,9 +40,18 @@ import org.springframework.ai.tool.resolution.ToolCallbackResolver;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -71,6 +81,14 @@ public class AgentToolNode implements NodeActionWithConfig {
 
 	private ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
 
+	private boolean parallelToolExecution;
+
+	private Executor toolExecutor;
+
+	private int maxParallelToolCalls;
+
+	private Set<String> sequentialToolNames;
+
 	public AgentToolNode(Builder builder) {
 		this.agentName = builder.agentName;
 		this.enableActingLog = builder.enableActingLog;
@@ -78,6 +96,10 @@ public class AgentToolNode implements NodeActionWithConfig {
 		this.toolCallbacks = builder.toolCallbacks;
 		this.toolContext = builder.toolContext;
         this.toolExecutionExceptionProcessor = builder.toolExecutionExceptionProcessor;
+		this.parallelToolExecution = builder.parallelToolExecution;
+		this.toolExecutor = builder.toolExecutor;
+		this.maxParallelToolCalls = builder.maxParallelToolCalls;
+		this.sequentialToolNames = builder.sequentialToolNames;
     }
 
 	public void setToolCallbacks(List<ToolCallback> toolCallbacks) {
@@ -111,9 +133,7 @@ public class AgentToolNode implements NodeActionWithConfig {
 				logger.info("[ThreadId {}] Agent {} acting with {} tools.", config.threadId().orElse(THREAD_ID_DEFAULT), agentName, assistantMessage.getToolCalls().size());
 			}
 
-			for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
-				// Execute tool call with interceptor chain
-				ToolCallResponse response = executeToolCallWithInterceptors(toolCall, state, config, extraStateFromToolCall);
+			for (ToolCallResponse response : executeToolCalls(assistantMessage.getToolCalls(), state, config, extraStateFromToolCall)) {
 				toolResponses.add(response.toToolResponse());
 			}
 
@@ -146,13 +166,10 @@ public class AgentToolNode implements NodeActionWithConfig {
 				logger.info("[ThreadId {}] Agent {} acting with {} tools ({} tools provided results).", config.threadId().orElse(THREAD_ID_DEFAULT), agentName, assistantMessage.getToolCalls().size(), existingResponses.size());
 			}
 
-			for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
-				if (executedToolNames.contains(toolCall.name())) {
-					continue;
-				}
-
-				// Execute tool call with interceptor chain
-				ToolCallResponse response = executeToolCallWithInterceptors(toolCall, state, config, extraStateFromToolCall);
+			List<AssistantMessage.ToolCall> pendingToolCalls = assistantMessage.getToolCalls().stream()
+					.filter(toolCall -> !executedToolNames.contains(toolCall.name()))
+					.toList();
+			for (ToolCallResponse response : executeToolCalls(pendingToolCalls, state, config, extraStateFromToolCall)) {
 				allResponses.add(response.toToolResponse());
 			}
 
@@ -181,6 +198,146 @@ public class AgentToolNode implements NodeActionWithConfig {
 		return updatedState;
 	}
 
+	/**
+	 * Execute the given tool calls and return their responses in the same order as the
+	 * tool calls.
+	 * <p>
+	 * When parallel tool execution is disabled, or there is at most one tool call, the calls
+	 * run one after another on the calling thread. Otherwise, every call whose tool is not
+	 * listed in {@code sequentialToolNames} is submitted to the tool executor, with at most
+	 * {@code maxParallelToolCalls} of them in flight at the same time. A sequential tool is
+	 * a barrier at its position: it runs on the calling thread once every call requested
+	 * before it has finished, and the calls requested after it are only submitted once it
+	 * has returned, so side effects keep the order requested by the model. Each call writes its
+	 * state updates into a private map, and these maps are merged into
+	 * {@code extraStateFromToolCall} in tool call order so that the result does not depend on
+	 * completion order.
+	 */
+	private List<ToolCallResponse> executeToolCalls(
+			List<AssistantMessage.ToolCall> toolCalls,
+			OverAllState state,
+			RunnableConfig config,
+			Map<String, Object> extraStateFromToolCall) {
+
+		if (!parallelToolExecution || toolCalls.size() <= 1) {
+			List<ToolCallResponse> responses = new ArrayList<>(toolCalls.size());
+			for (AssistantMessage.ToolCall toolCall : toolCalls) {
+				// Execute tool call with interceptor chain
+				responses.add(executeToolCallWithInterceptors(toolCall, state, config, extraStateFromToolCall));
+			}
+			return responses;
+		}
+
+		Executor executor = resolveToolExecutor(config);
+		Semaphore permits = maxParallelToolCalls > 0 ? new Semaphore(maxParallelToolCalls) : null;
+
+		int size = toolCalls.size();
+		List<CompletableFuture<ToolCallResponse>> futures = new ArrayList<>(size);
+		List<Map<String, Object>> extraStates = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			futures.add(null);
+			extraStates.add(new HashMap<>());
+		}
+
+		if (enableActingLog) {
+			logger.info("[ThreadId {}] Agent {} acting, executing {} tools concurrently (max in flight: {}).", config.threadId()
+					.orElse(THREAD_ID_DEFAULT), agentName, size, maxParallelToolCalls > 0 ? maxParallelToolCalls : size);
+		}
+
+		try {
+			for (int i = 0; i < size; i++) {
+				AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+				Map<String, Object> extraState = extraStates.get(i);
+				if (sequentialToolNames.contains(toolCall.name())) {
+					// Tools that opted out of concurrent execution run on the calling thread
+					awaitAll(futures);
+					futures.set(i, CompletableFuture
+						.completedFuture(executeToolCallWithInterceptors(toolCall, state, config, extraState)));
+					continue;
+				}
+				if (permits != null) {
+					permits.acquire();
+				}
+				CompletableFuture<ToolCallResponse> future;
+				try {
+					future = CompletableFuture.supplyAsync(
+							() -> executeToolCallWithInterceptors(toolCall, state, config, extraState), executor);
+				}
+				catch (RuntimeException e) {
+					if (permits != null) {
+						permits.release();
+					}
+					throw e;
+				}
+				if (permits != null) {
+					future.whenComplete((response, throwable) -> permits.release());
+				}
+				futures.set(i, future);
+			}
+			awaitAll(futures);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Interrupted while waiting to execute tool calls", e);
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+
+		List<ToolCallResponse> responses = new ArrayList<>(size);
+		for (CompletableFuture<ToolCallResponse> future : futures) {
+			responses.add(future.join());
+		}
+
+		// Merge extra state in tool call order so the result is deterministic
+		for (Map<String, Object> extraState : extraStates) {
+			extraStateFromToolCall.putAll(extraState);
+		}
+		return responses;
+	}
+
+	private static void awaitAll(List<CompletableFuture<ToolCallResponse>> futures) {
+		CompletableFuture.allOf(futures.stream().filter(Objects::nonNull).toArray(CompletableFuture[]::new)).join();
+	}
+
+	/**
+	 * Tool calls usually block on I/O, so they run on virtual threads when the JVM
+	 * supports them and on a dedicated pool of daemon threads otherwise, never on the
+	 * common fork join pool.
+	 */
+	private Executor resolveToolExecutor(RunnableConfig config) {
+		if (toolExecutor != null) {
+			return toolExecutor;
+		}
+		return config.metadata(RunnableConfig.DEFAULT_PARALLEL_EXECUTOR_KEY)
+				.filter(value -> value instanceof Executor)
+				.map(Executor.class::cast)
+				.orElseGet(AgentToolNode::defaultToolExecutor);
+	}
+
+	private static Executor defaultToolExecutor() {
+		if (NodeActionExecutors.isVirtualThreadSupported()) {
+			return NodeActionExecutors.virtualThreadExecutor();
+		}
+		return DefaultToolExecutor.EXECUTOR;
+	}
+
+	private static final class DefaultToolExecutor {
+
+		private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+		private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(task, "agent-tool-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	}
+
 	/**
 	 * Execute a tool call with interceptor chain support.
 	 */
@@ -275,6 +432,14 @@ public class AgentToolNode implements NodeActionWithConfig {
 
 		private ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
 
+		private boolean parallelToolExecution;
+
+		private Executor toolExecutor;
+
+		private int maxParallelToolCalls;
+
+		private Set<String> sequentialToolNames = new HashSet<>();
+
 		private Builder() {
 		}
 
@@ -308,6 +473,45 @@ public class AgentToolNode implements NodeActionWithConfig {
 			return this;
 		}
 
+		/**
+		 * Enables concurrent execution of the tool calls returned by the model in one turn.
+		 * Responses are still returned in tool call order.
+		 */
+		public Builder parallelToolExecution(boolean parallelToolExecution) {
+			this.parallelToolExecution = parallelToolExecution;
+			return this;
+		}
+
+		/**
+		 * Sets the executor used for concurrent tool calls. A virtual-thread-per-task
+		 * executor is a good fit for I/O bound tools. If not set, the agent's parallel
+		 * executor from {@link RunnableConfig#DEFAULT_PARALLEL_EXECUTOR_KEY} is used, and
+		 * virtual threads, or a dedicated thread pool before Java 21, as a last resort.
+		 */
+		public Builder toolExecutor(Executor toolExecutor) {
+			this.toolExecutor = toolExecutor;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of tool calls executed at the same time within one turn.
+		 * A value less than or equal to zero means no limit.
+		 */
+		public Builder maxParallelToolCalls(int maxParallelToolCalls) {
+			this.maxParallelToolCalls = maxParallelToolCalls;
+			return this;
+		}
+
+		/**
+		 * Sets the names of tools that are not safe to run concurrently. Calls to these
+		 * tools always run on the calling thread, one at a time, after every call requested
+		 * before them and before every call requested after them.
+		 */
+		public Builder sequentialToolNames(Set<String> sequentialToolNames) {
+			this.sequentialToolNames = new HashSet<>(sequentialToolNames);
+			return this;
+		}
+
 		public AgentToolNode build() {
 			return new AgentToolNode(this);
 		}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.agent;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.agent.node.AgentToolNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static com.alibaba.cloud.ai.graph.agent.tools.ToolContextConstants.AGENT_STATE_FOR_UPDATE_CONTEXT_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for concurrent tool call execution in {@link AgentToolNode}.
+ */
+class ParallelToolExecutionTest {
+
+	private static final long TOOL_LATENCY_MS = 300;
+
+	private ExecutorService executor;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	private final Map<String, String> executingThreads = new ConcurrentHashMap<>();
+
+	private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void testToolCallsRunConcurrentlyAndKeepOrder() throws Exception {
+		AgentToolNode toolNode = toolNodeBuilder(List.of("a", "b", "c", "d"))
+			.parallelToolExecution(true)
+			.build();
+
+		long start = System.currentTimeMillis();
+		Map<String, Object> result = toolNode.apply(stateWithToolCalls("a", "b", "c", "d"), RunnableConfig.builder().build());
+		long elapsed = System.currentTimeMillis() - start;
+
+		assertTrue(elapsed < TOOL_LATENCY_MS * 3, "tool calls should overlap, took " + elapsed + "ms");
+		assertEquals(List.of("a", "b", "c", "d"), responseNames(result));
+		assertEquals(List.of("result-a", "result-b", "result-c", "result-d"), responseData(result));
+		// every tool writes the same key, the last tool call in order must win
+		assertEquals("d", result.get("last_tool"));
+		assertEquals("a", result.get("tool_a"));
+	}
+
+	@Test
+	void testMaxParallelToolCallsLimitsConcurrency() throws Exception {
+		AgentToolNode toolNode = toolNodeBuilder(List.of("a", "b", "c", "d"))
+			.parallelToolExecution(true)
+			.maxParallelToolCalls(2)
+			.build();
+
+		Map<String, Object> result = toolNode.apply(stateWithToolCalls("a", "b", "c", "d"), RunnableConfig.builder().build());
+
+		assertEquals(List.of("a", "b", "c", "d"), responseNames(result));
+		assertTrue(maxInFlight.get() <= 2, "at most 2 tool calls should be in flight, was " + maxInFlight.get());
+	}
+
+	@Test
+	void testSequentialToolsRunOnCallingThread() throws Exception {
+		AgentToolNode toolNode = toolNodeBuilder(List.of("a", "b", "c"))
+			.parallelToolExecution(true)
+			.sequentialToolNames(Set.of("b"))
+			.build();
+
+		Map<String, Object> result = toolNode.apply(stateWithToolCalls("a", "b", "c"), RunnableConfig.builder().build());
+
+		assertEquals(List.of("a", "b", "c"), responseNames(result));
+		assertEquals(Thread.currentThread().getName(), executingThreads.get("b"));
+		assertTrue(!Thread.currentThread().getName().equals(executingThreads.get("a")));
+	}
+
+	@Test
+	void testSequentialToolsAreBarriersAtTheirPosition() throws Exception {
+		AgentToolNode toolNode = toolNodeBuilder(List.of("a", "b", "c", "d"))
+			.parallelToolExecution(true)
+			.sequentialToolNames(Set.of("b"))
+			.build();
+
+		Map<String, Object> result = toolNode.apply(stateWithToolCalls("a", "b", "c", "d"), RunnableConfig.builder().build());
+
+		assertEquals(List.of("a", "b", "c", "d"), responseNames(result));
+		assertTrue(events.indexOf("end:a") < events.indexOf("start:b"), "b should start after a, was " + events);
+		assertTrue(events.indexOf("end:b") < events.indexOf("start:c"), "c should start after b, was " + events);
+		assertTrue(events.indexOf("end:b") < events.indexOf("start:d"), "d should start after b, was " + events);
+	}
+
+	@Test
+	void testDefaultExecutorIsNotTheCommonPool() throws Exception {
+		AgentToolNode toolNode = AgentToolNode.builder()
+			.agentName("parallel_tool_agent")
+			.toolCallbacks(List.of(tool("a"), tool("b")))
+			.parallelToolExecution(true)
+			.build();
+
+		toolNode.apply(stateWithToolCalls("a", "b"), RunnableConfig.builder().build());
+
+		assertEquals(2, executingThreads.size());
+		executingThreads.values()
+			.forEach(thread -> assertTrue(!thread.contains("ForkJoinPool"), "tool ran on " + thread));
+	}
+
+	@Test
+	void testSequentialExecutionByDefault() throws Exception {
+		AgentToolNode toolNode = toolNodeBuilder(List.of("a", "b")).build();
+
+		Map<String, Object> result = toolNode.apply(stateWithToolCalls("a", "b"), RunnableConfig.builder().build());
+
+		assertEquals(List.of("a", "b"), responseNames(result));
+		assertEquals(1, maxInFlight.get());
+		assertEquals(Thread.currentThread().getName(), executingThreads.get("a"));
+	}
+
+	private AgentToolNode.Builder toolNodeBuilder(List<String> toolNames) {
+		List<ToolCallback> callbacks = new ArrayList<>();
+		for (String toolName : toolNames) {
+			callbacks.add(tool(toolName));
+		}
+		return AgentToolNode.builder()
+			.agentName("parallel_tool_agent")
+			.toolCallbacks(callbacks)
+			.toolExecutor(executor)
+			.toolExecutionExceptionProcessor(DefaultToolExecutionExceptionProcessor.builder().alwaysThrow(false).build());
+	}
+
+	private ToolCallback tool(String toolName) {
+		return FunctionToolCallback.builder(toolName, new SlowTool(toolName))
+			.description("Slow tool " + toolName)
+			.inputType(String.class)
+			.build();
+	}
+
+	private OverAllState stateWithToolCalls(String... toolNames) {
+		List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+		for (String toolName : toolNames) {
+			toolCalls.add(new AssistantMessage.ToolCall("call-" + toolName, "function", toolName, "\"" + toolName + "\""));
+		}
+		AssistantMessage assistantMessage = AssistantMessage.builder().content("").toolCalls(toolCalls).build();
+		return new OverAllState(Map.of("messages", List.of(new UserMessage("go"), assistantMessage)));
+	}
+
+	private static List<String> responseNames(Map<String, Object> result) {
+		ToolResponseMessage message = (ToolResponseMessage) result.get("messages");
+		return message.getResponses().stream().map(ToolResponseMessage.ToolResponse::name).toList();
+	}
+
+	private static List<String> responseData(Map<String, Object> result) {
+		ToolResponseMessage message = (ToolResponseMessage) result.get("messages");
+		return message.getResponses().stream().map(response -> response.responseData().replace("\"", "")).toList();
+	}
+
+	private class SlowTool implements BiFunction<String, ToolContext, String> {
+
+		private final String name;
+
+		SlowTool(String name) {
+			this.name = name;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public String apply(String input, ToolContext toolContext) {
+			events.add("start:" + name);
+			int current = inFlight.incrementAndGet();
+			maxInFlight.accumulateAndGet(current, Math::max);
+			executingThreads.put(name, Thread.currentThread().getName());
+			try {
+				Thread.sleep(TOOL_LATENCY_MS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				inFlight.decrementAndGet();
+				events.add("end:" + name);
+			}
+			Map<String, Object> extraState = (Map<String, Object>) toolContext.getContext()
+				.get(AGENT_STATE_FOR_UPDATE_CONTEXT_KEY);
+			extraState.put("last_tool", name);
+			extraState.put("tool_" + name, name);
+			return "result-" + name;
+		}
+
+	}
+
+}
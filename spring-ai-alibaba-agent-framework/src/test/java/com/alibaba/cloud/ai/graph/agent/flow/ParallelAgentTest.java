@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.graph.agent.flow;
 
+import com.alibaba.cloud.ai.graph.JoinPolicy;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
@@ -68,6 +69,7 @@ class ParallelAgentTest {
 		assertEquals("Processes data through multiple parallel operations", parallelAgent.description());
 		assertEquals(3, parallelAgent.subAgents().size());
 		assertEquals(3, parallelAgent.maxConcurrency());
+		assertEquals(JoinPolicy.all(), parallelAgent.joinPolicy());
 		assertTrue(parallelAgent.mergeStrategy() instanceof ParallelAgent.DefaultMergeStrategy);
 	}
 
@@ -127,6 +129,7 @@ class ParallelAgentTest {
 			.subAgents(List.of(agent1, agent2))
 			.mergeStrategy(new ParallelAgent.ListMergeStrategy())
 			.maxConcurrency(5)
+			.joinPolicy(JoinPolicy.quorum())
 			.build();
 
 		assertNotNull(parallelAgent);
@@ -135,6 +138,7 @@ class ParallelAgentTest {
 		assertEquals(2, parallelAgent.subAgents().size());
 		assertNotNull(parallelAgent.mergeStrategy());
 		assertEquals(5, parallelAgent.maxConcurrency());
+		assertEquals(JoinPolicy.quorum(), parallelAgent.joinPolicy());
 	}
 
 	@Test
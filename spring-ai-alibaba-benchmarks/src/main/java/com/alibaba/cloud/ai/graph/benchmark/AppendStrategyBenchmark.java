@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AppendStrategy} with the copying implementation it replaced when
+ * growing a message history one message at a time, as a ReAct loop does.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar AppendStrategyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppendStrategyBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int historySize;
+
+	@Param({ "appendable", "legacy" })
+	public String implementation;
+
+	private KeyStrategy strategy;
+
+	private Message[] messages;
+
+	private Object history;
+
+	@Setup
+	public void setUp() {
+		strategy = "legacy".equals(implementation) ? new LegacyAppendStrategy() : new AppendStrategy();
+		messages = new Message[historySize];
+		for (int i = 0; i < historySize; i++) {
+			messages[i] = i % 2 == 0 ? new UserMessage("question " + i) : new AssistantMessage("answer " + i);
+		}
+		history = grow(strategy, messages);
+	}
+
+	private static Object grow(KeyStrategy strategy, Message[] messages) {
+		Object value = null;
+		for (Message message : messages) {
+			value = strategy.apply(value, List.of(message));
+		}
+		return value;
+	}
+
+	/**
+	 * Builds a history of {@code historySize} messages by appending one message at a
+	 * time.
+	 */
+	@Benchmark
+	public Object growHistory() {
+		return grow(strategy, messages);
+	}
+
+	/**
+	 * Appends a single message to an existing history of {@code historySize} messages.
+	 * The history is not replaced, so every invocation appends to the same snapshot,
+	 * which is also what parallel branches do.
+	 */
+	@Benchmark
+	public void appendToSnapshot(Blackhole blackhole) {
+		blackhole.consume(strategy.apply(history, List.of(messages[0])));
+	}
+
+}
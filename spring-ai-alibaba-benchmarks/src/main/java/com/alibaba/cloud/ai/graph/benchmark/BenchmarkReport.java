@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes their results as a JSON report, to be kept and
+ * compared across versions. It takes the same arguments as the JMH launcher; the report
+ * goes to {@value #DEFAULT_REPORT} unless {@code -rff} names another file.
+ * <p>
+ * The iterations, forks and parameters of each benchmark are fixed by its annotations,
+ * and its data is generated deterministically, so two reports differ only by the code
+ * and the machine they were measured on. Run with
+ * {@code java -cp target/benchmarks.jar com.alibaba.cloud.ai.graph.benchmark.BenchmarkReport}.
+ */
+public final class BenchmarkReport {
+
+	static final String DEFAULT_REPORT = "jmh-report.json";
+
+	private BenchmarkReport() {
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		Options options = new OptionsBuilder().parent(commandLine)
+			.resultFormat(ResultFormatType.JSON)
+			.result(commandLine.getResult().orElse(DEFAULT_REPORT))
+			.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.file.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.mysql.CreateOption;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.mysql.MysqlSaver;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+
+/**
+ * Measures the cost per checkpoint of the {@link MemorySaver}, the
+ * {@link FileSystemSaver} and a JDBC saver, the {@link MysqlSaver} on an in-memory H2
+ * database in MySQL mode, with the default Jackson state serializer.
+ * <p>
+ * Each thread keeps its {@value #HISTORY} most recent checkpoints, each holding an
+ * agent state of {@code messages} messages. {@code put} saves a new checkpoint,
+ * {@code get} and {@code list} read from the cache of the saver, and {@link Load#load}
+ * reads the latest checkpoint through a new saver, i.e. from storage, which the
+ * {@link MemorySaver} does not have. Run with
+ * {@code java -jar target/benchmarks.jar CheckpointSaverBenchmark}.
+ * <p>
+ * The {@code h2} numbers are not representative of MySQL: H2 stores {@code saved_at}
+ * as a {@code TIMESTAMP(9)}, and {@code JSON_EXTRACT} is a Java alias matching the
+ * json with a regular expression. They compare the JDBC saver with the other savers,
+ * not with a MySQL server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckpointSaverBenchmark {
+
+	static final int HISTORY = 32;
+
+	// H2 has no JSON_EXTRACT, and stores a string bound to a JSON column as a json string
+	private static final String CREATE_TABLES = """
+			CREATE TABLE GRAPH_THREAD (
+			   thread_id VARCHAR(36) PRIMARY KEY,
+			   thread_name VARCHAR(255),
+			   is_released BOOLEAN DEFAULT FALSE NOT NULL
+			);
+			CREATE UNIQUE INDEX IDX_GRAPH_THREAD_NAME_RELEASED ON GRAPH_THREAD(thread_name, is_released);
+			CREATE TABLE GRAPH_CHECKPOINT (
+			   checkpoint_id VARCHAR(36) PRIMARY KEY,
+			   thread_id VARCHAR(36) NOT NULL,
+			   node_id VARCHAR(255),
+			   next_node_id VARCHAR(255),
+			   state_data CLOB NOT NULL,
+			   saved_at TIMESTAMP(9) DEFAULT CURRENT_TIMESTAMP(9),
+			   seq BIGINT NOT NULL AUTO_INCREMENT,
+			   CONSTRAINT GRAPH_FK_THREAD FOREIGN KEY(thread_id) REFERENCES GRAPH_THREAD(thread_id) ON DELETE CASCADE
+			);
+			CREATE INDEX IDX_GRAPH_CHECKPOINT_SEQ ON GRAPH_CHECKPOINT(seq);
+			CREATE ALIAS JSON_EXTRACT FOR "com.alibaba.cloud.ai.graph.benchmark.CheckpointSaverBenchmark.jsonExtract";
+			CREATE ALIAS JSON_UNQUOTE FOR "com.alibaba.cloud.ai.graph.benchmark.CheckpointSaverBenchmark.jsonUnquote";
+			""";
+
+	private static final Pattern BINARY_PAYLOAD = Pattern.compile("\"binaryPayload\"\\s*:\\s*\"([^\"]*)\"");
+
+	@Param({ "memory", "file", "h2" })
+	public String saver;
+
+	@Param({ "10", "1000" })
+	public int messages;
+
+	private final RunnableConfig config = RunnableConfig.builder().threadId("benchmark").build();
+
+	private Map<String, Object> state;
+
+	private BaseCheckpointSaver checkpointSaver;
+
+	private Path folder;
+
+	private JdbcConnectionPool dataSource;
+
+	private int step;
+
+	/**
+	 * Returns the value of a top-level string property of a json document, in place of
+	 * the MySQL function of the same name.
+	 */
+	public static String jsonExtract(String json, String path) {
+		Matcher matcher = BINARY_PAYLOAD.matcher(json);
+		if (!"$.binaryPayload".equals(path) || !matcher.find()) {
+			return null;
+		}
+		return matcher.group(1);
+	}
+
+	public static String jsonUnquote(String value) {
+		return value;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		state = StateSerializerBenchmark.agentState(messages);
+		switch (saver) {
+			case "memory" -> {
+			}
+			case "file" -> folder = Files.createTempDirectory("checkpoint-benchmark");
+			case "h2" -> {
+				dataSource = JdbcConnectionPool
+					.create("jdbc:h2:mem:checkpoints" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+				try (Connection connection = dataSource.getConnection();
+						Statement statement = connection.createStatement()) {
+					statement.execute(CREATE_TABLES);
+				}
+			}
+			default -> throw new IllegalArgumentException("Unknown saver " + saver);
+		}
+		checkpointSaver = newSaver();
+		for (int i = 0; i < HISTORY; i++) {
+			put();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, SQLException {
+		if (dataSource != null) {
+			try (Connection connection = dataSource.getConnection();
+					Statement statement = connection.createStatement()) {
+				statement.execute("SHUTDOWN");
+			}
+			dataSource.dispose();
+		}
+		if (folder != null) {
+			try (Stream<Path> files = Files.walk(folder)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private BaseCheckpointSaver newSaver() {
+		return switch (saver) {
+			case "memory" -> MemorySaver.builder().maxCheckpointsPerThread(HISTORY).build();
+			case "file" -> FileSystemSaver.builder().targetFolder(folder).maxCheckpointsPerThread(HISTORY).build();
+			case "h2" -> MysqlSaver.builder()
+				.dataSource(dataSource)
+				.createOption(CreateOption.CREATE_NONE)
+				.lazyLoading(true)
+				.maxCheckpointsPerThread(HISTORY)
+				.build();
+			default -> throw new IllegalArgumentException("Unknown saver " + saver);
+		};
+	}
+
+	@Benchmark
+	public RunnableConfig put() throws Exception {
+		Checkpoint checkpoint = Checkpoint.builder()
+			.nodeId("node-" + step++)
+			.nextNodeId(END)
+			.state(state)
+			.build();
+		return checkpointSaver.put(config, checkpoint);
+	}
+
+	@Benchmark
+	public Optional<Checkpoint> get() {
+		return checkpointSaver.get(config);
+	}
+
+	@Benchmark
+	public Collection<Checkpoint> list() {
+		return checkpointSaver.list(config);
+	}
+
+	/**
+	 * Reads the latest checkpoint from storage, for the savers that have one. Nested
+	 * benchmarks do not inherit the settings of the enclosing class.
+	 */
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Fork(1)
+	@State(Scope.Benchmark)
+	public static class Load {
+
+		@Param({ "file", "h2" })
+		public String saver;
+
+		@Param({ "10", "1000" })
+		public int messages;
+
+		private final CheckpointSaverBenchmark storage = new CheckpointSaverBenchmark();
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			storage.saver = saver;
+			storage.messages = messages;
+			storage.setUp();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException, SQLException {
+			storage.tearDown();
+		}
+
+		@Benchmark
+		public Optional<Checkpoint> load() {
+			return storage.newSaver().get(storage.config);
+		}
+
+	}
+
+}
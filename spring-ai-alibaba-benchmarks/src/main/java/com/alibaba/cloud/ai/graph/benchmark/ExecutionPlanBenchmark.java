@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+
+/**
+ * Measures the executor overhead per node hop on a graph of {@value #NODES} trivial
+ * nodes, chained either with plain edges or with conditional edges. Checkpointing is
+ * disabled so that the score reflects node and edge resolution rather than persistence.
+ * <p>
+ * Scores are node hops per second. Run with
+ * {@code java -jar target/benchmarks.jar ExecutionPlanBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionPlanBenchmark {
+
+	static final int NODES = 50;
+
+	@Param({ "direct", "conditional" })
+	public String edges;
+
+	private CompiledGraph graph;
+
+	@Setup
+	public void setUp() throws GraphStateException {
+		graph = chain(NODES, "conditional".equals(edges))
+			.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+	}
+
+	static StateGraph chain(int nodes, boolean conditional) throws GraphStateException {
+		StateGraph graph = new StateGraph(() -> Map.of("step", new ReplaceStrategy()));
+		for (int i = 0; i < nodes; i++) {
+			int step = i;
+			AsyncNodeActionWithConfig action = (state, config) -> CompletableFuture
+				.completedFuture(Map.of("step", step));
+			graph.addNode(node(i), action);
+		}
+		graph.addEdge(START, node(0));
+		for (int i = 0; i < nodes; i++) {
+			String target = i + 1 < nodes ? node(i + 1) : END;
+			if (conditional) {
+				graph.addConditionalEdges(node(i), edge_async(state -> "next"), Map.of("next", target));
+			}
+			else {
+				graph.addEdge(node(i), target);
+			}
+		}
+		return graph;
+	}
+
+	static String node(int index) {
+		return "node_" + index;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NODES)
+	public Object run() {
+		return graph.invoke(Map.of()).orElseThrow();
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import com.alibaba.cloud.ai.graph.streaming.GraphFlux;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+
+/**
+ * Measures the overhead of the graph engine itself on graph shapes of exactly
+ * {@value #HOPS} node hops, where a hop is the execution of one node action that does
+ * nothing but return a constant update. Checkpointing is disabled, so the scores are
+ * the baseline that model, tool and persistence latencies add to.
+ * <ul>
+ * <li>{@code chain}: a linear chain of nodes joined by plain edges.</li>
+ * <li>{@code loop}: a single node routed back to itself by a conditional edge until it
+ * has run {@value #HOPS} times.</li>
+ * <li>{@code fanout}: a fork node whose edges to {@code HOPS - 2} branches are run by a
+ * {@code ParallelNode}, followed by a join node.</li>
+ * <li>{@code subgraph}: a chain of {@value #SUBGRAPHS} compiled subgraphs, each run by a
+ * {@code SubCompiledGraphNode} around a chain of {@code HOPS / SUBGRAPHS} nodes.</li>
+ * <li>{@code stream}: a linear chain streamed with {@link CompiledGraph#stream(Map)},
+ * every node returning a {@link GraphFlux} of {@value #CHUNKS} chunks.</li>
+ * </ul>
+ * {@link #hops()} scores node hops per second and {@link #hopLatency()} samples the
+ * latency of a run divided by its hops, whose {@code p0.99} is the per-hop latency of
+ * the slowest runs. With {@code -prof gc}, {@code gc.alloc.rate.norm} is the allocation
+ * per hop. Run with {@code java -jar target/benchmarks.jar GraphExecutionBenchmark -prof gc}.
+ */
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphExecutionBenchmark {
+
+	static final int HOPS = 32;
+
+	static final int SUBGRAPHS = 4;
+
+	static final int CHUNKS = 4;
+
+	@Param({ "chain", "loop", "fanout", "subgraph", "stream" })
+	public String shape;
+
+	private CompiledGraph graph;
+
+	private boolean streaming;
+
+	@Setup
+	public void setUp() throws GraphStateException {
+		StateGraph stateGraph = switch (shape) {
+			case "chain" -> ExecutionPlanBenchmark.chain(HOPS, false);
+			case "loop" -> loop(HOPS);
+			case "fanout" -> fanOut(HOPS - 2);
+			case "subgraph" -> subgraphs(SUBGRAPHS, HOPS / SUBGRAPHS);
+			case "stream" -> streamingChain(HOPS);
+			default -> throw new IllegalArgumentException("Unknown graph shape: " + shape);
+		};
+		graph = stateGraph.compile(compileConfig());
+		streaming = "stream".equals(shape);
+	}
+
+	static CompileConfig compileConfig() {
+		return CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build();
+	}
+
+	static StateGraph loop(int hops) throws GraphStateException {
+		AsyncNodeActionWithConfig action = (state, config) -> CompletableFuture
+			.completedFuture(Map.of("step", state.value("step", 0) + 1));
+		return new StateGraph(() -> Map.of("step", new ReplaceStrategy())).addNode("loop", action)
+			.addEdge(START, "loop")
+			.addConditionalEdges("loop", edge_async(state -> state.value("step", 0) < hops ? "loop" : END),
+					Map.of("loop", "loop", END, END));
+	}
+
+	static StateGraph fanOut(int branches) throws GraphStateException {
+		StateGraph graph = new StateGraph(() -> Map.of("step", new ReplaceStrategy()));
+		graph.addNode("fork", constant(0)).addNode("join", constant(branches + 1));
+		graph.addEdge(START, "fork");
+		for (int i = 0; i < branches; i++) {
+			graph.addNode(ExecutionPlanBenchmark.node(i), constant(i + 1));
+			graph.addEdge("fork", ExecutionPlanBenchmark.node(i));
+			graph.addEdge(ExecutionPlanBenchmark.node(i), "join");
+		}
+		return graph.addEdge("join", END);
+	}
+
+	static StateGraph subgraphs(int subgraphs, int nodes) throws GraphStateException {
+		StateGraph graph = new StateGraph(() -> Map.of("step", new ReplaceStrategy()));
+		String previous = START;
+		for (int i = 0; i < subgraphs; i++) {
+			String id = "subgraph_" + i;
+			graph.addNode(id, ExecutionPlanBenchmark.chain(nodes, false).compile(compileConfig()));
+			graph.addEdge(previous, id);
+			previous = id;
+		}
+		return graph.addEdge(previous, END);
+	}
+
+	static StateGraph streamingChain(int nodes) throws GraphStateException {
+		StateGraph graph = new StateGraph(() -> Map.of("step", new ReplaceStrategy()));
+		for (int i = 0; i < nodes; i++) {
+			String id = ExecutionPlanBenchmark.node(i);
+			AsyncNodeActionWithConfig action = (state, config) -> CompletableFuture.completedFuture(
+					Map.of("step", GraphFlux.of(id, "step", Flux.range(0, CHUNKS), Function.identity(),
+							Object::toString)));
+			graph.addNode(id, action);
+			graph.addEdge(i == 0 ? START : ExecutionPlanBenchmark.node(i - 1), id);
+		}
+		return graph.addEdge(ExecutionPlanBenchmark.node(nodes - 1), END);
+	}
+
+	private static AsyncNodeActionWithConfig constant(int step) {
+		return (state, config) -> CompletableFuture.completedFuture(Map.of("step", step));
+	}
+
+	private Object run() {
+		if (streaming) {
+			return graph.stream(Map.of()).blockLast();
+		}
+		return graph.invoke(Map.of()).orElseThrow();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(HOPS)
+	public Object hops() {
+		return run();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@OperationsPerInvocation(HOPS)
+	public Object hopLatency() {
+		return run();
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.agent.ReactAgent;
+import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the overhead of a {@link ReactAgent} tool loop: a scripted model asks for
+ * the {@code echo} tool {@value #ROUNDS} times before answering, so every call makes
+ * {@value #HOPS} node hops, {@code ROUNDS + 1} through the model node and
+ * {@code ROUNDS} through the tool node. The model answers immediately and checkpointing
+ * is disabled, so the scores are the agent overhead separate from model latency.
+ * <p>
+ * {@link #hops()} scores node hops per second and {@link #hopLatency()} samples the
+ * latency of a call divided by its hops. With {@code -prof gc},
+ * {@code gc.alloc.rate.norm} is the allocation per hop. Run with
+ * {@code java -jar target/benchmarks.jar ReactAgentBenchmark -prof gc}.
+ */
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReactAgentBenchmark {
+
+	static final int ROUNDS = 8;
+
+	static final int HOPS = 2 * ROUNDS + 1;
+
+	private ReactAgent agent;
+
+	@Setup
+	public void setUp() {
+		agent = ReactAgent.builder()
+			.name("benchmark_agent")
+			.model(new ScriptedChatModel(ROUNDS))
+			.tools(FunctionToolCallback.builder("echo", Function.<String>identity())
+				.description("Returns its input")
+				.inputType(String.class)
+				.build())
+			.compileConfig(GraphExecutionBenchmark.compileConfig())
+			.build();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(HOPS)
+	public Object hops() throws GraphRunnerException {
+		return agent.call("echo");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@OperationsPerInvocation(HOPS)
+	public Object hopLatency() throws GraphRunnerException {
+		return agent.call("echo");
+	}
+
+	/**
+	 * A chat model that calls the {@code echo} tool until the conversation holds the
+	 * given number of tool responses, then answers.
+	 */
+	static class ScriptedChatModel implements ChatModel {
+
+		private final int rounds;
+
+		ScriptedChatModel(int rounds) {
+			this.rounds = rounds;
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			int responses = 0;
+			for (Message message : prompt.getInstructions()) {
+				if (message instanceof ToolResponseMessage) {
+					responses++;
+				}
+			}
+			AssistantMessage output = responses < rounds
+					? AssistantMessage.builder()
+						.content("")
+						.toolCalls(List.of(new AssistantMessage.ToolCall("call-" + responses, "function", "echo",
+								"\"round " + responses + "\"")))
+						.build()
+					: new AssistantMessage("done");
+			return new ChatResponse(List.of(new Generation(output)));
+		}
+
+		@Override
+		public Flux<ChatResponse> stream(Prompt prompt) {
+			return Flux.just(call(prompt));
+		}
+
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.plain_text.jackson.SpringAIJacksonStateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.std.SpringAIStateSerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the state serializers on a ReAct-style message history of 10 to 10k
+ * messages: a system prompt, then user questions, tool calls, tool responses and
+ * answers. {@code jackson} is {@link SpringAIJacksonStateSerializer}, the
+ * {@link com.alibaba.cloud.ai.graph.serializer.plain_text.PlainTextStateSerializer}
+ * the graphs use by default, and {@code objectStream} is {@link SpringAIStateSerializer}.
+ * <p>
+ * Besides the timings, {@code write} reports the {@link Written#bytes bytes} and the
+ * {@link Written#states states} it wrote, whose ratio is the size of the serialized
+ * state. Every serializer is checked to restore the state it wrote. Run with
+ * {@code java -jar target/benchmarks.jar StateSerializerBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StateSerializerBenchmark {
+
+	@Param({ "binary", "jackson", "objectStream" })
+	public String serializer;
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int messages;
+
+	private StateSerializer stateSerializer;
+
+	private Map<String, Object> data;
+
+	private byte[] bytes;
+
+	static StateSerializer serializer(String name) {
+		return switch (name) {
+			case "binary" -> new BinaryStateSerializer();
+			case "jackson" -> new SpringAIJacksonStateSerializer(OverAllState::new);
+			case "objectStream" -> new SpringAIStateSerializer();
+			default -> throw new IllegalArgumentException("Unknown serializer " + name);
+		};
+	}
+
+	/**
+	 * Builds the state of an agent holding {@code size} messages, one tool call every
+	 * third turn.
+	 */
+	static Map<String, Object> agentState(int size) {
+		List<Message> messages = new ArrayList<>();
+		messages.add(new SystemMessage("You are a helpful assistant. Answer concisely and cite your sources."));
+		for (int i = 0; messages.size() < size; i++) {
+			messages.add(new UserMessage("Could you summarize what changed in the quarterly report number " + i
+					+ ", and whether the revenue forecast was revised?"));
+			if (i % 3 == 0) {
+				var toolCall = new AssistantMessage.ToolCall("call_" + i, "function", "search_reports",
+						"{\"query\":\"quarterly report " + i + "\",\"limit\":5}");
+				messages.add(AssistantMessage.builder()
+					.content("")
+					.properties(Map.of("finishReason", "TOOL_CALLS", "model", "qwen-max"))
+					.toolCalls(List.of(toolCall))
+					.build());
+				messages.add(ToolResponseMessage.builder()
+					.responses(List.of(new ToolResponseMessage.ToolResponse("call_" + i, "search_reports",
+							"{\"hits\":[{\"title\":\"Report " + i + "\",\"summary\":\"Revenue grew 4% quarter over quarter.\"}]}")))
+					.build());
+			}
+			messages.add(AssistantMessage.builder()
+				.content("Report " + i + " shows revenue growing 4% quarter over quarter; "
+						+ "the forecast was revised upwards by one point.")
+				.properties(Map.of("finishReason", "STOP", "model", "qwen-max", "id", "chatcmpl-" + i))
+				.build());
+		}
+		Map<String, Object> data = new HashMap<>();
+		data.put("messages", new ArrayList<>(messages.subList(0, size)));
+		data.put("input", "Summarize the quarterly reports");
+		data.put("iteration", size);
+		return data;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, ClassNotFoundException {
+		stateSerializer = serializer(serializer);
+		data = agentState(messages);
+		bytes = stateSerializer.dataToBytes(data);
+		Map<String, Object> restored = stateSerializer.dataFromBytes(bytes);
+		if (!data.get("messages").equals(restored.get("messages"))) {
+			throw new IllegalStateException(serializer + " does not restore the messages it wrote");
+		}
+	}
+
+	/**
+	 * Counts what {@code write} wrote. JMH sums these counters over the iterations, so
+	 * the size of the serialized state is their ratio.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Written {
+
+		public long bytes;
+
+		public long states;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+			states = 0;
+		}
+
+	}
+
+	@Benchmark
+	public byte[] write(Written written) throws IOException {
+		byte[] result = stateSerializer.dataToBytes(data);
+		written.bytes += result.length;
+		written.states++;
+		return result;
+	}
+
+	@Benchmark
+	public Map<String, Object> read() throws IOException, ClassNotFoundException {
+		return stateSerializer.dataFromBytes(bytes);
+	}
+
+	@Benchmark
+	public Map<String, Object> roundTrip() throws IOException, ClassNotFoundException {
+		return stateSerializer.dataFromBytes(stateSerializer.dataToBytes(data));
+	}
+
+	@Benchmark
+	public OverAllState cloneObject() throws IOException, ClassNotFoundException {
+		return stateSerializer.cloneObject(data);
+	}
+
+}
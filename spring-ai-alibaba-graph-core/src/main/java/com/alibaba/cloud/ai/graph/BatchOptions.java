@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Options of a batch execution of a {@link CompiledGraph}.
+ * <p>
+ * Each input of a batch runs as an independent execution of the graph, with its own
+ * {@link RunnableConfig}. By default every item gets a distinct thread id, derived from
+ * the thread id of the base configuration and the index of the item, so that concurrent
+ * items never share checkpoints.
+ *
+ * @see CompiledGraph#batch(java.util.List, BatchOptions)
+ * @see CompiledGraph#batchAsFlux(java.util.List, BatchOptions)
+ */
+public final class BatchOptions {
+
+	private final int maxConcurrency;
+
+	private final boolean ordered;
+
+	private final boolean failFast;
+
+	private final RunnableConfig config;
+
+	private final String threadIdPrefix;
+
+	private final BiFunction<Integer, Map<String, Object>, RunnableConfig> configProvider;
+
+	private final Executor executor;
+
+	private BatchOptions(Builder builder) {
+		this.maxConcurrency = builder.maxConcurrency;
+		this.ordered = builder.ordered;
+		this.failFast = builder.failFast;
+		this.config = builder.config;
+		this.threadIdPrefix = builder.config.threadId().orElseGet(() -> "batch-" + UUID.randomUUID());
+		this.configProvider = builder.configProvider;
+		this.executor = builder.executor;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the options used when none are given: as many concurrent items as there
+	 * are available processors, results in input order and failures isolated per item.
+	 * @return the default options
+	 */
+	public static BatchOptions defaults() {
+		return builder().build();
+	}
+
+	/**
+	 * Returns the maximum number of items executed at the same time.
+	 * @return the concurrency limit
+	 */
+	public int maxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Returns whether results are emitted in input order. If false, results are emitted
+	 * as soon as their item completes.
+	 * @return true if results follow the order of the inputs
+	 */
+	public boolean ordered() {
+		return ordered;
+	}
+
+	/**
+	 * Returns whether the first failed item fails the whole batch. If false, a failed
+	 * item produces a failed {@link BatchResult} and the other items keep running.
+	 * @return true if the batch stops at the first failure
+	 */
+	public boolean failFast() {
+		return failFast;
+	}
+
+	/**
+	 * Returns the executor running the items, or null to use Reactor's bounded elastic
+	 * scheduler.
+	 * @return the executor
+	 */
+	public Executor executor() {
+		return executor;
+	}
+
+	/**
+	 * Returns the configuration of the item at the given index.
+	 * @param index the index of the item in the batch
+	 * @param input the input of the item
+	 * @return the configuration used to execute the item
+	 */
+	public RunnableConfig configFor(int index, Map<String, Object> input) {
+		if (configProvider != null) {
+			return requireNonNull(configProvider.apply(index, input), "configProvider returned a null config!");
+		}
+		return RunnableConfig.builder(config).threadId(threadIdPrefix + "-" + index).build();
+	}
+
+	/**
+	 * Builder for {@link BatchOptions}.
+	 */
+	public static final class Builder {
+
+		private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+		private boolean ordered = true;
+
+		private boolean failFast = false;
+
+		private RunnableConfig config = RunnableConfig.builder().build();
+
+		private BiFunction<Integer, Map<String, Object>, RunnableConfig> configProvider;
+
+		private Executor executor;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the maximum number of items executed at the same time. Defaults to the
+		 * number of available processors.
+		 * @param maxConcurrency the concurrency limit
+		 * @return this builder
+		 */
+		public Builder maxConcurrency(int maxConcurrency) {
+			if (maxConcurrency <= 0) {
+				throw new IllegalArgumentException("maxConcurrency must be > 0!");
+			}
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		/**
+		 * Sets whether results are emitted in input order or as items complete. Defaults
+		 * to true.
+		 * @param ordered true to emit results in input order
+		 * @return this builder
+		 */
+		public Builder ordered(boolean ordered) {
+			this.ordered = ordered;
+			return this;
+		}
+
+		/**
+		 * Sets whether the first failed item fails the whole batch. Defaults to false.
+		 * @param failFast true to stop at the first failure
+		 * @return this builder
+		 */
+		public Builder failFast(boolean failFast) {
+			this.failFast = failFast;
+			return this;
+		}
+
+		/**
+		 * Sets the configuration every item derives its own from. Each item gets the
+		 * thread id {@code <threadId>-<index>}, or a random prefix if the configuration
+		 * has no thread id.
+		 * @param config the base configuration
+		 * @return this builder
+		 */
+		public Builder config(RunnableConfig config) {
+			this.config = requireNonNull(config, "config cannot be null!");
+			return this;
+		}
+
+		/**
+		 * Sets the function returning the configuration of each item from its index and
+		 * input, replacing the configuration derived from {@link #config(RunnableConfig)}.
+		 * @param configProvider the function creating item configurations
+		 * @return this builder
+		 */
+		public Builder configProvider(BiFunction<Integer, Map<String, Object>, RunnableConfig> configProvider) {
+			this.configProvider = requireNonNull(configProvider, "configProvider cannot be null!");
+			return this;
+		}
+
+		/**
+		 * Sets the executor running the items. Defaults to Reactor's bounded elastic
+		 * scheduler.
+		 * @param executor the executor
+		 * @return this builder
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = requireNonNull(executor, "executor cannot be null!");
+			return this;
+		}
+
+		public BatchOptions build() {
+			return new BatchOptions(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import java.util.Optional;
+
+/**
+ * The outcome of one item of a batch execution.
+ *
+ * @param index the index of the item in the batch inputs
+ * @param config the configuration the item was executed with
+ * @param output the last output of the execution, null if it failed
+ * @param error the error that failed the execution, null if it succeeded
+ * @see CompiledGraph#batch(java.util.List, BatchOptions)
+ */
+public record BatchResult(int index, RunnableConfig config, NodeOutput output, Throwable error) {
+
+	static BatchResult success(int index, RunnableConfig config, NodeOutput output) {
+		return new BatchResult(index, config, output, null);
+	}
+
+	static BatchResult failure(int index, RunnableConfig config, Throwable error) {
+		return new BatchResult(index, config, null, error);
+	}
+
+	/**
+	 * Returns whether the item completed without error.
+	 * @return true if the item succeeded
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * Returns the final state of the item.
+	 * @return the final state, empty if the item failed
+	 */
+	public Optional<OverAllState> state() {
+		return Optional.ofNullable(output).map(NodeOutput::state);
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A map that reads through to a parent map without copying it and keeps its own writes
+ * in a private delta.
+ * <p>
+ * Used by {@link OverAllState#branches(int)} so that the branches of a parallel node see
+ * the state of the graph as it was when they were forked, while each of them only
+ * allocates memory for the keys it writes. The parent map must not be modified while the
+ * branch map is in use, which is why branches read through to an unmodifiable snapshot.
+ * Instances are serialized as a plain {@link HashMap}.
+ *
+ * @param <V> the type of the values
+ */
+final class BranchMap<V> extends AbstractMap<String, V> implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private static final Object REMOVED = new Object();
+
+	private final Map<String, V> parent;
+
+	/**
+	 * Values written by the branch, {@link #REMOVED} for keys removed from the parent.
+	 */
+	private final Map<String, Object> delta = new HashMap<>();
+
+	/**
+	 * Whether the parent is hidden after {@link #clear()}.
+	 */
+	private boolean detached;
+
+	BranchMap(Map<String, V> parent) {
+		this.parent = requireNonNull(parent, "parent cannot be null");
+	}
+
+	/**
+	 * Returns the number of keys written or removed by the branch.
+	 * @return the size of the delta
+	 */
+	int deltaSize() {
+		return delta.size();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		Object value = delta.get(key);
+		if (value != null || delta.containsKey(key)) {
+			return value == REMOVED ? null : (V) value;
+		}
+		return detached ? null : parent.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Object value = delta.get(key);
+		if (value != null || delta.containsKey(key)) {
+			return value != REMOVED;
+		}
+		return !detached && parent.containsKey(key);
+	}
+
+	@Override
+	public V put(String key, V value) {
+		V previous = get(key);
+		delta.put(key, value);
+		return previous;
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (!containsKey(key)) {
+			return null;
+		}
+		V previous = get(key);
+		String name = (String) key;
+		if (!detached && parent.containsKey(name)) {
+			delta.put(name, REMOVED);
+		}
+		else {
+			delta.remove(name);
+		}
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		delta.clear();
+		detached = true;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (Iterator<?> it = new EntryIterator(); it.hasNext(); it.next()) {
+			size++;
+		}
+		return size;
+	}
+
+	@Override
+	public Set<Entry<String, V>> entrySet() {
+		return new AbstractSet<>() {
+
+			@Override
+			public Iterator<Entry<String, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return BranchMap.this.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Iterates over the values written by the branch, then over the parent entries the
+	 * branch has neither written nor removed.
+	 */
+	private final class EntryIterator implements Iterator<Entry<String, V>> {
+
+		private final Iterator<Entry<String, Object>> deltaEntries = delta.entrySet().iterator();
+
+		private final Iterator<Entry<String, V>> parentEntries = detached ? null : parent.entrySet().iterator();
+
+		private Entry<String, V> next;
+
+		private Entry<String, Object> nextDeltaEntry;
+
+		private String lastKey;
+
+		private Entry<String, Object> lastDeltaEntry;
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean hasNext() {
+			while (next == null && deltaEntries.hasNext()) {
+				Entry<String, Object> entry = deltaEntries.next();
+				if (entry.getValue() != REMOVED) {
+					next = new SimpleImmutableEntry<>(entry.getKey(), (V) entry.getValue());
+					nextDeltaEntry = entry;
+				}
+			}
+			while (next == null && parentEntries != null && parentEntries.hasNext()) {
+				Entry<String, V> entry = parentEntries.next();
+				if (!delta.containsKey(entry.getKey())) {
+					next = new SimpleImmutableEntry<>(entry);
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public Entry<String, V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Entry<String, V> entry = next;
+			lastKey = entry.getKey();
+			lastDeltaEntry = nextDeltaEntry;
+			next = null;
+			nextDeltaEntry = null;
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			if (lastKey == null) {
+				throw new IllegalStateException();
+			}
+			if (lastDeltaEntry != null) {
+				// a tombstone keeps the delta structurally unchanged while it is iterated
+				lastDeltaEntry.setValue(REMOVED);
+			}
+			else {
+				delta.put(lastKey, REMOVED);
+			}
+			lastKey = null;
+			lastDeltaEntry = null;
+		}
+
+	}
+
+	@Serial
+	private Object writeReplace() {
+		return new HashMap<>(this);
+	}
+
+}
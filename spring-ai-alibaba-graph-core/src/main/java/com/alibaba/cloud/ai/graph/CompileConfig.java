@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.graph;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEventBus;
 import com.alibaba.cloud.ai.graph.store.Store;
 import io.micrometer.observation.ObservationRegistry;
 
@@ -48,6 +49,7 @@ public class CompileConfig {
 
 	private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 	private Deque<GraphLifecycleListener> lifecycleListeners = new LinkedBlockingDeque<>(25);
+	private LifecycleEventBus lifecycleEventBus;
 
 	// private BaseCheckpointSaver checkpointSaver; // replaced with SaverConfig
 	private Set<String> interruptsBefore = Set.of();
@@ -56,6 +58,16 @@ public class CompileConfig {
 
 	private int recursionLimit = 100;
 
+	private SnapshotMode snapshotMode = SnapshotMode.COPY_ON_WRITE;
+
+	private ExecutorMode executorMode = ExecutorMode.PLATFORM_THREADS;
+
+	private int maxConcurrentNodeActions = 0;
+
+	private boolean offloadBlockingNodeActions = false;
+
+	private CheckpointDurability checkpointDurability = CheckpointDurability.SYNC;
+
 	// ================================================================================================================
 	// Getter Methods
 	// ================================================================================================================
@@ -64,6 +76,51 @@ public class CompileConfig {
 		return recursionLimit;
 	}
 
+	/**
+	 * Returns how state snapshots are taken for checkpoints, interrupts and node outputs.
+	 * @return the snapshot mode
+	 */
+	public SnapshotMode snapshotMode() {
+		return snapshotMode;
+	}
+
+	/**
+	 * Returns the kind of threads that run parallel branches and offloaded node actions
+	 * when the {@link RunnableConfig} does not provide an executor.
+	 * @return the executor mode
+	 */
+	public ExecutorMode executorMode() {
+		return executorMode;
+	}
+
+	/**
+	 * Returns the maximum number of parallel branches and offloaded node actions a
+	 * compiled graph runs at the same time, across all of its executions.
+	 * @return the limit, or 0 if unbounded
+	 */
+	public int maxConcurrentNodeActions() {
+		return maxConcurrentNodeActions;
+	}
+
+	/**
+	 * Returns whether node actions created through
+	 * {@link com.alibaba.cloud.ai.graph.action.AsyncNodeAction#node_async} and
+	 * {@link com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig#node_async} run
+	 * on the node action executor instead of the thread driving the graph.
+	 * @return true if blocking node actions are offloaded, false otherwise
+	 */
+	public boolean offloadBlockingNodeActions() {
+		return offloadBlockingNodeActions;
+	}
+
+	/**
+	 * Returns when checkpoints are written to the checkpoint saver.
+	 * @return the checkpoint durability
+	 */
+	public CheckpointDurability checkpointDurability() {
+		return checkpointDurability;
+	}
+
 	/**
 	 * Returns the current state of the thread release flag.
 	 *
@@ -82,6 +139,15 @@ public class CompileConfig {
 		return lifecycleListeners;
 	}
 
+	/**
+	 * Returns the bus delivering events to lifecycle listeners using
+	 * {@link GraphLifecycleListener.Delivery#ASYNC} delivery.
+	 * @return the configured bus, or {@link LifecycleEventBus#shared()} if none is set
+	 */
+	public LifecycleEventBus lifecycleEventBus() {
+		return lifecycleEventBus != null ? lifecycleEventBus : LifecycleEventBus.shared();
+	}
+
 	/**
 	 * Gets observation registry for monitoring and tracing.
 	 * @return The observation registry instance.
@@ -196,6 +262,77 @@ public class CompileConfig {
 			return this;
 		}
 
+		/**
+		 * Sets how state snapshots are taken for checkpoints, interrupts and node
+		 * outputs. Defaults to {@link SnapshotMode#COPY_ON_WRITE}.
+		 * @param snapshotMode The snapshot mode to use.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder snapshotMode(SnapshotMode snapshotMode) {
+			if (snapshotMode == null) {
+				throw new IllegalArgumentException("snapshotMode cannot be null!");
+			}
+			this.config.snapshotMode = snapshotMode;
+			return this;
+		}
+
+		/**
+		 * Sets the kind of threads that run parallel branches and offloaded node
+		 * actions. Defaults to {@link ExecutorMode#PLATFORM_THREADS}. Executors set on
+		 * the {@link RunnableConfig} take precedence.
+		 * @param executorMode The executor mode to use.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder executorMode(ExecutorMode executorMode) {
+			if (executorMode == null) {
+				throw new IllegalArgumentException("executorMode cannot be null!");
+			}
+			this.config.executorMode = executorMode;
+			return this;
+		}
+
+		/**
+		 * Limits the number of parallel branches and offloaded node actions a compiled
+		 * graph runs at the same time. Tasks above the limit are queued until a running
+		 * one completes, without blocking the submitting thread.
+		 * @param maxConcurrentNodeActions The limit, or 0 for no limit.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder maxConcurrentNodeActions(int maxConcurrentNodeActions) {
+			if (maxConcurrentNodeActions < 0) {
+				throw new IllegalArgumentException("maxConcurrentNodeActions must be >= 0!");
+			}
+			this.config.maxConcurrentNodeActions = maxConcurrentNodeActions;
+			return this;
+		}
+
+		/**
+		 * Sets whether node actions created from synchronous actions through
+		 * {@code node_async} run on the node action executor, so that blocking calls
+		 * made by them do not hold the thread driving the graph.
+		 * @param offloadBlockingNodeActions Flag indicating whether to offload blocking
+		 * node actions.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder offloadBlockingNodeActions(boolean offloadBlockingNodeActions) {
+			this.config.offloadBlockingNodeActions = offloadBlockingNodeActions;
+			return this;
+		}
+
+		/**
+		 * Sets when checkpoints are written to the checkpoint saver. Defaults to
+		 * {@link CheckpointDurability#SYNC}.
+		 * @param checkpointDurability the checkpoint durability
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder checkpointDurability(CheckpointDurability checkpointDurability) {
+			if (checkpointDurability == null) {
+				throw new IllegalArgumentException("checkpointDurability cannot be null!");
+			}
+			this.config.checkpointDurability = checkpointDurability;
+			return this;
+		}
+
 		/**
 		 * Sets the observation registry for monitoring and tracing.
 		 * @param observationRegistry The ObservationRegistry to use.
@@ -287,6 +424,17 @@ public class CompileConfig {
 			return this;
 		}
 
+		/**
+		 * Sets the bus delivering events to asynchronous lifecycle listeners. Defaults to
+		 * {@link LifecycleEventBus#shared()}.
+		 * @param lifecycleEventBus the lifecycle event bus
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder lifecycleEventBus(LifecycleEventBus lifecycleEventBus) {
+			this.config.lifecycleEventBus = lifecycleEventBus;
+			return this;
+		}
+
 		/**
 		 * Sets the Store instance for long-term memory storage.
 		 * @param store The Store instance to use.
@@ -329,9 +477,87 @@ public class CompileConfig {
 		this.interruptsAfter = config.interruptsAfter;
 		this.releaseThread = config.releaseThread;
 		this.lifecycleListeners = config.lifecycleListeners;
+		this.lifecycleEventBus = config.lifecycleEventBus;
 		this.observationRegistry = config.observationRegistry;
 		this.interruptBeforeEdge = config.interruptBeforeEdge;
 		this.store = config.store;
+		this.snapshotMode = config.snapshotMode;
+		this.executorMode = config.executorMode;
+		this.maxConcurrentNodeActions = config.maxConcurrentNodeActions;
+		this.offloadBlockingNodeActions = config.offloadBlockingNodeActions;
+		this.checkpointDurability = config.checkpointDurability;
+	}
+
+	/**
+	 * Defines how the graph takes snapshots of the state it emits or persists.
+	 */
+	public enum SnapshotMode {
+
+		/**
+		 * Copies the state map and shares the values it holds. Updates applied through
+		 * key strategies never leak into a snapshot, since they replace values instead of
+		 * mutating them, and append-only channels are shared in O(1). Values, including
+		 * nested maps and lists, mutated in place by a node are visible in earlier
+		 * snapshots.
+		 */
+		COPY_ON_WRITE,
+
+		/**
+		 * Deep copies the state through a round trip of the configured
+		 * {@link com.alibaba.cloud.ai.graph.serializer.StateSerializer}. Snapshots are
+		 * fully isolated from the running state at the cost of serializing the whole
+		 * state on every step.
+		 */
+		SERIALIZER_CLONE
+
+	}
+
+	/**
+	 * Defines the threads that run parallel branches and offloaded node actions.
+	 */
+	public enum ExecutorMode {
+
+		/**
+		 * Uses the shared bounded pool of platform threads of
+		 * {@link com.alibaba.cloud.ai.graph.internal.node.ParallelNode}.
+		 */
+		PLATFORM_THREADS,
+
+		/**
+		 * Starts a virtual thread per task, so that branches blocked on I/O such as model
+		 * or tool calls do not hold a platform thread. Requires Java 21 or later; on
+		 * older runtimes {@link #PLATFORM_THREADS} is used instead.
+		 */
+		VIRTUAL_THREADS
+
+	}
+
+	/**
+	 * Defines when the checkpoints of an execution are written to the checkpoint saver.
+	 * Whatever the mode, every pending checkpoint is written before an execution is
+	 * interrupted, completes or fails, and before its thread is released.
+	 */
+	public enum CheckpointDurability {
+
+		/**
+		 * Writes each checkpoint before the next node runs.
+		 */
+		SYNC,
+
+		/**
+		 * Writes checkpoints in order on a background thread while the next nodes run,
+		 * so that the latency of the saver is taken off the execution path. A crash may
+		 * lose the checkpoints not yet written.
+		 */
+		ASYNC,
+
+		/**
+		 * Writes only the last checkpoint, when the execution is interrupted, completes
+		 * or fails. Intermediate checkpoints are not kept, so the execution cannot be
+		 * resumed or replayed from them.
+		 */
+		EXIT
+
 	}
 
 }
@@ -22,6 +22,7 @@ import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 import com.alibaba.cloud.ai.graph.exception.Errors;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.exception.RunnableErrors;
+import com.alibaba.cloud.ai.graph.executor.Bulkhead;
 import com.alibaba.cloud.ai.graph.internal.edge.Edge;
 import com.alibaba.cloud.ai.graph.internal.edge.EdgeValue;
 import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
@@ -29,11 +30,13 @@ import com.alibaba.cloud.ai.graph.internal.node.Node;
 import com.alibaba.cloud.ai.graph.scheduling.ScheduleConfig;
 import com.alibaba.cloud.ai.graph.scheduling.ScheduledAgentTask;
 import com.alibaba.cloud.ai.graph.state.StateSnapshot;
+import com.alibaba.cloud.ai.graph.utils.SerializationUtils;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,6 +50,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
 import static com.alibaba.cloud.ai.graph.StateGraph.Edges;
@@ -88,6 +93,17 @@ public class CompiledGraph {
 
 	private final ProcessedNodesEdgesAndConfig processedData;
 
+	/**
+	 * The execution plan, resolved from the node factories and edges.
+	 */
+	final ExecutionPlan executionPlan;
+
+	/**
+	 * Limits the parallel branches and offloaded node actions running at the same time,
+	 * null if unbounded.
+	 */
+	final Bulkhead nodeActionBulkhead;
+
 	private int maxIterations = 25;
 
 	/**
@@ -99,6 +115,8 @@ public class CompiledGraph {
 	protected CompiledGraph(StateGraph stateGraph, CompileConfig compileConfig) throws GraphStateException {
 		this.maxIterations = compileConfig.recursionLimit();
 		this.stateGraph = stateGraph;
+		this.nodeActionBulkhead = compileConfig.maxConcurrentNodeActions() > 0
+				? new Bulkhead(compileConfig.maxConcurrentNodeActions()) : null;
 
 
 		this.keyStrategyMap = stateGraph.getKeyStrategyFactory()
@@ -202,7 +220,8 @@ public class CompiledGraph {
 
 			var actionNodeIds = targetList.stream().map(EdgeValue::id).toList();
 
-			var parallelNode = new ParallelNode(e.sourceId(), actions, actionNodeIds, keyStrategyMap, compileConfig);
+			var parallelNode = new ParallelNode(e.sourceId(), actions, actionNodeIds, keyStrategyMap, compileConfig,
+					nodeActionBulkhead, stateGraph.joinPolicies.get(e.sourceId()));
 
 				nodeFactories.put(parallelNode.id(), parallelNode.actionFactory());
 
@@ -213,6 +232,8 @@ public class CompiledGraph {
 			}
 
 		}
+
+		this.executionPlan = new ExecutionPlan(nodeFactories, edges, this.compileConfig);
 	}
 
 	public Collection<StateSnapshot> getStateHistory(RunnableConfig config) {
@@ -225,6 +246,25 @@ public class CompiledGraph {
 			.collect(toList());
 	}
 
+	/**
+	 * Get a page of the StateSnapshots of the given RunnableConfig, newest first.
+	 * @param config the RunnableConfig
+	 * @param afterCheckpointId the id of the checkpoint the page starts after, or null to
+	 * start from the latest one
+	 * @param limit the maximum number of snapshots to return
+	 * @return the StateSnapshots of the page
+	 * @throws IllegalStateException if the saver is not defined
+	 */
+	public Collection<StateSnapshot> getStateHistory(RunnableConfig config, String afterCheckpointId, int limit) {
+		BaseCheckpointSaver saver = compileConfig.checkpointSaver()
+			.orElseThrow(() -> (new IllegalStateException("Missing CheckpointSaver!")));
+
+		return saver.list(config, afterCheckpointId, limit)
+			.stream()
+			.map(checkpoint -> StateSnapshot.of(keyStrategyMap, checkpoint, config, stateGraph.getStateFactory()))
+			.collect(toList());
+	}
+
 	/**
 	 * Same of {@link #stateOf(RunnableConfig)} but throws an IllegalStateException if
 	 * checkpoint is not found.
@@ -395,7 +435,7 @@ public class CompiledGraph {
 	 */
 	OverAllState cloneState(Map<String, Object> data, OverAllState overAllState)
 			throws IOException, ClassNotFoundException {
-		return new OverAllState(stateGraph.getStateSerializer().cloneObject(data).data(), overAllState.keyStrategies(), overAllState.getStore());
+		return new OverAllState(snapshotData(data), overAllState.keyStrategies(), overAllState.getStore());
 	}
 
 	/**
@@ -404,14 +444,37 @@ public class CompiledGraph {
 	 * @return the over all state
 	 */
 	public OverAllState cloneState(Map<String, Object> data) throws IOException, ClassNotFoundException {
-		return new OverAllState(stateGraph.getStateSerializer().cloneObject(data).data(), getKeyStrategyMap());
+		return new OverAllState(snapshotData(data), getKeyStrategyMap());
+	}
+
+	/**
+	 * Takes a snapshot of the state data according to
+	 * {@link CompileConfig#snapshotMode()}.
+	 * @param data the data
+	 * @return the snapshot of the data
+	 */
+	private Map<String, Object> snapshotData(Map<String, Object> data) throws IOException, ClassNotFoundException {
+		if (compileConfig.snapshotMode() == CompileConfig.SnapshotMode.SERIALIZER_CLONE) {
+			return stateGraph.getStateSerializer().cloneObject(data).data();
+		}
+		return SerializationUtils.snapshotMap(data);
 	}
 
 	/**
 	 * Package-private access to nodes for ReactiveNodeGenerator.
 	 */
 	public AsyncNodeActionWithConfig getNodeAction(String nodeId) {
-		Node.ActionFactory factory = nodeFactories.get(nodeId);
+		return createNodeAction(nodeId, nodeFactories.get(nodeId));
+	}
+
+	/**
+	 * Creates the action of the node with the given execution plan index.
+	 */
+	AsyncNodeActionWithConfig getNodeAction(int nodeIndex, String nodeId) {
+		return createNodeAction(nodeId, executionPlan.actionFactory(nodeIndex));
+	}
+
+	private AsyncNodeActionWithConfig createNodeAction(String nodeId, Node.ActionFactory factory) {
 		try {
 			return factory != null ? factory.apply(compileConfig) : null;
 		} catch (GraphStateException e) {
@@ -589,6 +652,65 @@ public class CompiledGraph {
 		return invokeAndGetOutput(inputs, RunnableConfig.builder().build());
 	}
 
+	/**
+	 * Executes the graph once per input, with the default {@link BatchOptions}.
+	 * @param inputs the inputs of the executions
+	 * @return one result per input, in input order
+	 * @see #batch(List, BatchOptions)
+	 */
+	public List<BatchResult> batch(List<Map<String, Object>> inputs) {
+		return batch(inputs, BatchOptions.defaults());
+	}
+
+	/**
+	 * Executes the graph once per input, running at most
+	 * {@link BatchOptions#maxConcurrency()} executions at the same time, and waits for
+	 * all of them.
+	 * @param inputs the inputs of the executions
+	 * @param options the batch options
+	 * @return one result per input, in input order or in completion order depending on
+	 * {@link BatchOptions#ordered()}
+	 */
+	public List<BatchResult> batch(List<Map<String, Object>> inputs, BatchOptions options) {
+		return batchAsFlux(inputs, options).collectList().block();
+	}
+
+	/**
+	 * Executes the graph once per input, running at most
+	 * {@link BatchOptions#maxConcurrency()} executions at the same time, and emits the
+	 * result of each execution.
+	 * <p>
+	 * Executions are subscribed on the executor of the options, so that blocking node
+	 * actions of one item do not hold back the others. Unless
+	 * {@link BatchOptions#failFast()} is set, a failed execution is emitted as a failed
+	 * {@link BatchResult} and does not affect the other items.
+	 * @param inputs the inputs of the executions
+	 * @param options the batch options
+	 * @return a Flux emitting one result per input, in input order or in completion
+	 * order depending on {@link BatchOptions#ordered()}
+	 */
+	public Flux<BatchResult> batchAsFlux(List<Map<String, Object>> inputs, BatchOptions options) {
+		Objects.requireNonNull(inputs, "inputs cannot be null");
+		Objects.requireNonNull(options, "options cannot be null");
+		Scheduler scheduler = options.executor() != null ? Schedulers.fromExecutor(options.executor())
+				: Schedulers.boundedElastic();
+		Function<Integer, Mono<BatchResult>> item = index -> batchItem(index, inputs.get(index), options, scheduler);
+		Flux<Integer> indexes = Flux.range(0, inputs.size());
+		return options.ordered() ? indexes.flatMapSequential(item, options.maxConcurrency())
+				: indexes.flatMap(item, options.maxConcurrency());
+	}
+
+	private Mono<BatchResult> batchItem(int index, Map<String, Object> input, BatchOptions options,
+			Scheduler scheduler) {
+		return Mono.defer(() -> {
+			RunnableConfig config = options.configFor(index, input);
+			Mono<BatchResult> result = stream(input, config).last()
+				.map(output -> BatchResult.success(index, config, output));
+			return options.failFast() ? result
+					: result.onErrorResume(error -> Mono.just(BatchResult.failure(index, config, error)));
+		}).subscribeOn(scheduler);
+	}
+
 	/**
 	 * Schedule the graph execution with enhanced configuration options.
 	 * @param scheduleConfig the schedule configuration
@@ -614,7 +736,7 @@ public class CompiledGraph {
 	 * @return the last StateSnapshot of the given RunnableConfig if any
 	 */
 	public Optional<StateSnapshot> lastStateOf(RunnableConfig config) {
-		return getStateHistory(config).stream().findFirst();
+		return stateOf(RunnableConfig.builder(config).checkPointId(null).build());
 	}
 
 	/**
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.internal.edge.EdgeValue;
+import com.alibaba.cloud.ai.graph.internal.node.Node;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+
+/**
+ * Execution plan of a {@link CompiledGraph}, resolved once at compile time.
+ * <p>
+ * Every node, including {@link StateGraph#START} and {@link StateGraph#END}, gets a dense
+ * integer index. Node actions, edges, the targets of plain edges, the mappings of
+ * conditional edges and the interrupt points are stored in arrays and bit sets indexed
+ * by it, so that moving from one node to the next does not go through string keyed
+ * lookups.
+ */
+final class ExecutionPlan {
+
+	/**
+	 * Index returned for node ids that are not part of the graph.
+	 */
+	static final int UNKNOWN = -1;
+
+	static final int START_INDEX = 0;
+
+	static final int END_INDEX = 1;
+
+	/**
+	 * A resolved edge target.
+	 * @param id the node id
+	 * @param index the node index, {@link #UNKNOWN} if the node is not part of the graph
+	 */
+	record Target(String id, int index) {
+	}
+
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	private final List<String> nodeIds = new ArrayList<>();
+
+	private final Node.ActionFactory[] actionFactories;
+
+	private final EdgeValue[] edges;
+
+	private final Target[] edgeTargets;
+
+	private final List<Map<String, Target>> routes;
+
+	private final BitSet interruptsBefore = new BitSet();
+
+	private final BitSet interruptsAfter = new BitSet();
+
+	ExecutionPlan(Map<String, Node.ActionFactory> nodeFactories, Map<String, EdgeValue> edges,
+			CompileConfig compileConfig) {
+		register(START);
+		register(END);
+		nodeFactories.keySet().forEach(this::register);
+		edges.keySet().forEach(this::register);
+
+		int size = nodeIds.size();
+		this.actionFactories = new Node.ActionFactory[size];
+		this.edges = new EdgeValue[size];
+		this.edgeTargets = new Target[size];
+		this.routes = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String nodeId = nodeIds.get(i);
+			actionFactories[i] = nodeFactories.get(nodeId);
+			EdgeValue edge = edges.get(nodeId);
+			this.edges[i] = edge;
+			Map<String, Target> route = null;
+			if (edge != null && edge.id() != null) {
+				edgeTargets[i] = target(edge.id());
+			}
+			else if (edge != null && edge.value() != null) {
+				route = new HashMap<>();
+				for (Map.Entry<String, String> mapping : edge.value().mappings().entrySet()) {
+					route.put(mapping.getKey(), target(mapping.getValue()));
+				}
+			}
+			routes.add(route);
+		}
+		compileConfig.interruptsBefore().forEach(nodeId -> set(interruptsBefore, nodeId));
+		compileConfig.interruptsAfter().forEach(nodeId -> set(interruptsAfter, nodeId));
+	}
+
+	private void register(String nodeId) {
+		if (!indexes.containsKey(nodeId)) {
+			indexes.put(nodeId, nodeIds.size());
+			nodeIds.add(nodeId);
+		}
+	}
+
+	private void set(BitSet bits, String nodeId) {
+		int index = indexOf(nodeId);
+		if (index != UNKNOWN) {
+			bits.set(index);
+		}
+	}
+
+	private Target target(String nodeId) {
+		return new Target(nodeId, indexOf(nodeId));
+	}
+
+	/**
+	 * Returns the index of the given node.
+	 * @param nodeId the node id
+	 * @return the node index, or {@link #UNKNOWN} if the node is not part of the graph
+	 */
+	int indexOf(String nodeId) {
+		if (nodeId == null) {
+			return UNKNOWN;
+		}
+		Integer index = indexes.get(nodeId);
+		return index != null ? index : UNKNOWN;
+	}
+
+	Node.ActionFactory actionFactory(int index) {
+		return index != UNKNOWN ? actionFactories[index] : null;
+	}
+
+	EdgeValue edge(int index) {
+		return index != UNKNOWN ? edges[index] : null;
+	}
+
+	/**
+	 * Returns the target of the plain edge leaving the given node.
+	 * @param index the node index
+	 * @return the target, or null if the node has no plain edge
+	 */
+	Target edgeTarget(int index) {
+		return index != UNKNOWN ? edgeTargets[index] : null;
+	}
+
+	/**
+	 * Returns the target mapped to the given route by the conditional edge leaving the
+	 * given node.
+	 * @param index the node index
+	 * @param route the route returned by the edge condition
+	 * @return the target, or null if the route is not mapped
+	 */
+	Target routeTarget(int index, String route) {
+		Map<String, Target> targets = index != UNKNOWN ? routes.get(index) : null;
+		return targets != null ? targets.get(route) : null;
+	}
+
+	boolean interruptBefore(int index) {
+		return index != UNKNOWN && interruptsBefore.get(index);
+	}
+
+	boolean interruptAfter(int index) {
+		return index != UNKNOWN && interruptsAfter.get(index);
+	}
+
+	int size() {
+		return nodeIds.size();
+	}
+
+}
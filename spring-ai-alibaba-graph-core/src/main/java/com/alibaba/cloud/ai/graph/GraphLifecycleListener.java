@@ -15,6 +15,10 @@
  */
 package com.alibaba.cloud.ai.graph;
 
+import com.alibaba.cloud.ai.graph.listener.LifecycleEvent;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEventBus;
+
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +32,46 @@ import java.util.Map;
  */
 public interface GraphLifecycleListener {
 
+	/**
+	 * How events are delivered to a listener.
+	 */
+	enum Delivery {
+
+		/**
+		 * Callbacks are invoked on the thread executing the graph, with the live state.
+		 */
+		SYNC,
+
+		/**
+		 * Events are published to the {@link LifecycleEventBus} of the graph and
+		 * delivered in batches through {@link #onEvents(List)}, with a snapshot of the
+		 * state. Events may be dropped when the bus is saturated.
+		 */
+		ASYNC
+
+	}
+
+	/**
+	 * Returns how events are delivered to this listener. Defaults to
+	 * {@link Delivery#SYNC}.
+	 * @return the delivery mode
+	 */
+	default Delivery delivery() {
+		return Delivery.SYNC;
+	}
+
+	/**
+	 * Callback receiving a batch of events when this listener uses
+	 * {@link Delivery#ASYNC} delivery. By default each event is dispatched to the
+	 * matching callback, in order.
+	 * @param events the events, in the order they were published
+	 */
+	default void onEvents(List<LifecycleEvent> events) {
+		for (LifecycleEvent event : events) {
+			event.dispatchTo(this);
+		}
+	}
+
 	/**
 	 * Callback triggered when a node in the graph starts execution.
 	 * @param nodeId The unique identifier of the node.
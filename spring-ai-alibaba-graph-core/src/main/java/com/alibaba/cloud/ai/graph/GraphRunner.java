@@ -17,6 +17,9 @@ package com.alibaba.cloud.ai.graph;
 
 import com.alibaba.cloud.ai.graph.executor.MainGraphExecutor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 
 import java.util.Optional;
@@ -29,6 +32,8 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class GraphRunner {
 
+	private static final Logger log = LoggerFactory.getLogger(GraphRunner.class);
+
 	private final CompiledGraph compiledGraph;
 
 	private final RunnableConfig config;
@@ -50,7 +55,12 @@ public class GraphRunner {
 			try {
 				GraphRunnerContext context = new GraphRunnerContext(initialState, config, compiledGraph);
 				// Delegate to the main execution handler - demonstrates polymorphism
-				return mainGraphExecutor.execute(context, resultValue);
+				return mainGraphExecutor.execute(context, resultValue)
+					.doOnNext(response -> flushCheckpointsOnExit(context, response))
+					.onErrorResume(error -> {
+						flushCheckpointsQuietly(context);
+						return Flux.error(error);
+					});
 			}
 			catch (Exception e) {
 				return Flux.error(e);
@@ -58,6 +68,31 @@ public class GraphRunner {
 		});
 	}
 
+	/**
+	 * Writes the pending checkpoints before the final response of an interrupted,
+	 * completed or failed execution is emitted.
+	 */
+	private void flushCheckpointsOnExit(GraphRunnerContext context, GraphResponse<NodeOutput> response) {
+		if (!response.isDone() && !response.isError()) {
+			return;
+		}
+		try {
+			context.flushCheckpoints();
+		}
+		catch (Exception e) {
+			throw Exceptions.propagate(e);
+		}
+	}
+
+	private void flushCheckpointsQuietly(GraphRunnerContext context) {
+		try {
+			context.flushCheckpoints();
+		}
+		catch (Exception e) {
+			log.error("Error writing checkpoints of a failed execution", e);
+		}
+	}
+
 	public Optional<Object> resultValue() {
 		return Optional.ofNullable(resultValue.get());
 	}
@@ -18,12 +18,14 @@ package com.alibaba.cloud.ai.graph;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
 import com.alibaba.cloud.ai.graph.action.Command;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.CheckpointWriter;
 import com.alibaba.cloud.ai.graph.exception.RunnableErrors;
+import com.alibaba.cloud.ai.graph.executor.NodeActionExecutors;
 import com.alibaba.cloud.ai.graph.internal.node.SubCompiledGraphNodeAction;
 import com.alibaba.cloud.ai.graph.state.StateSnapshot;
 import com.alibaba.cloud.ai.graph.streaming.GraphFlux;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
-import com.alibaba.cloud.ai.graph.utils.SystemClock;
+import com.alibaba.cloud.ai.graph.utils.LifeListenerUtil;
 import com.alibaba.cloud.ai.graph.utils.TypeRef;
 
 import org.springframework.ai.chat.messages.Message;
@@ -36,16 +38,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
-import static com.alibaba.cloud.ai.graph.StateGraph.NODE_AFTER;
-import static com.alibaba.cloud.ai.graph.StateGraph.NODE_BEFORE;
 import static com.alibaba.cloud.ai.graph.StateGraph.START;
-import static com.alibaba.cloud.ai.graph.StateGraph.ERROR;
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
 
@@ -70,16 +70,30 @@ public class GraphRunnerContext {
 
 	String nextNodeId;
 
+	int currentNodeIndex = ExecutionPlan.UNKNOWN;
+
+	int nextNodeIndex = ExecutionPlan.UNKNOWN;
+
 	Usage tokenUsage;
 
 	String resumeFrom;
 
 	ReturnFromEmbed returnFromEmbed;
 
+	boolean nextStepRequested;
+
+	private final CheckpointWriter checkpointWriter;
+
 	public GraphRunnerContext(OverAllState initialState, RunnableConfig config, CompiledGraph compiledGraph)
 			throws Exception {
 		this.compiledGraph = compiledGraph;
 		this.config = config;
+		CompileConfig.CheckpointDurability durability = compiledGraph.compileConfig.checkpointDurability();
+		this.checkpointWriter = durability != CompileConfig.CheckpointDurability.SYNC
+				? compiledGraph.compileConfig.checkpointSaver()
+					.map(saver -> new CheckpointWriter(saver, durability))
+					.orElse(null)
+				: null;
 
 		if (config.metadata(RunnableConfig.HUMAN_FEEDBACK_METADATA_KEY).isPresent() || config.checkPointId().isPresent()) {
 			initializeFromResume(initialState, config);
@@ -110,8 +124,8 @@ public class GraphRunnerContext {
 			this.config = config.withCheckPointId(null);
 		}
 
-		this.currentNodeId = null;
-		this.nextNodeId = checkpoint.getNextNodeId();
+		setCurrentNodeId(null);
+		setNextNodeId(checkpoint.getNextNodeId());
 		this.overallState = initialState.input(checkpoint.getState());
 		this.resumeFrom = checkpoint.getNodeId();
 
@@ -129,8 +143,8 @@ public class GraphRunnerContext {
 
 		// Use CompiledGraph's getInitialState method
 		this.overallState = stateCreate(compiledGraph.getInitialState(inputs, config), initialState);
-		this.currentNodeId = START;
-		this.nextNodeId = null;
+		setCurrentNodeId(START);
+		setNextNodeId(null);
 	}
 
 	// FIXME, duplicated method with CompiledGraph.stateCreate, need to have a
@@ -152,10 +166,38 @@ public class GraphRunnerContext {
 		return nextNodeId == null && currentNodeId == null;
 	}
 
+	/**
+	 * Requests the execution loop to run another step once the current one completes.
+	 */
+	public void requestNextStep() {
+		this.nextStepRequested = true;
+	}
+
+	/**
+	 * Returns whether another step has been requested since the last call and resets the
+	 * request.
+	 * @return true if the execution loop should run another step, false otherwise
+	 */
+	public boolean pollNextStepRequested() {
+		boolean result = nextStepRequested;
+		nextStepRequested = false;
+		return result;
+	}
+
 	public boolean isMaxIterationsReached() {
 		return iteration.incrementAndGet() > compiledGraph.getMaxIterations();
 	}
 
+	/**
+	 * Returns the executor running offloaded node actions of this execution, bounded by
+	 * the bulkhead of the graph if one is configured.
+	 * @return the node action executor
+	 */
+	public Executor getNodeActionExecutor() {
+		return NodeActionExecutors.resolve(config, null, compiledGraph.compileConfig,
+				compiledGraph.nodeActionBulkhead);
+	}
+
 	public boolean isStartNode() {
 		return START.equals(currentNodeId);
 	}
@@ -165,20 +207,20 @@ public class GraphRunnerContext {
 	}
 
 	public boolean shouldInterrupt() {
-		return shouldInterruptBefore(nextNodeId, currentNodeId) || shouldInterruptAfter(currentNodeId, nextNodeId);
+		return shouldInterruptBefore() || shouldInterruptAfter();
 	}
 
-	private boolean shouldInterruptBefore(String nodeId, String previousNodeId) {
-		if (previousNodeId == null)
+	private boolean shouldInterruptBefore() {
+		if (currentNodeId == null)
 			return false;
-		return compiledGraph.compileConfig.interruptsBefore().contains(nodeId);
+		return compiledGraph.executionPlan.interruptBefore(nextNodeIndex);
 	}
 
-	private boolean shouldInterruptAfter(String nodeId, String previousNodeId) {
-		if (nodeId == null || Objects.equals(nodeId, previousNodeId))
+	private boolean shouldInterruptAfter() {
+		if (currentNodeId == null || Objects.equals(currentNodeId, nextNodeId))
 			return false;
-		return (compiledGraph.compileConfig.interruptBeforeEdge() && Objects.equals(nodeId, INTERRUPT_AFTER))
-				|| compiledGraph.compileConfig.interruptsAfter().contains(nodeId);
+		return (compiledGraph.compileConfig.interruptBeforeEdge() && Objects.equals(currentNodeId, INTERRUPT_AFTER))
+				|| compiledGraph.executionPlan.interruptAfter(currentNodeIndex);
 	}
 
 	// ================================================================================================================
@@ -189,53 +231,102 @@ public class GraphRunnerContext {
 		return compiledGraph.getNodeAction(nodeId);
 	}
 
+	/**
+	 * Creates the action of the current node.
+	 * @return the node action, or null if the current node has no action
+	 */
+	public AsyncNodeActionWithConfig getCurrentNodeAction() {
+		return compiledGraph.getNodeAction(currentNodeIndex, currentNodeId);
+	}
+
 	public Command getEntryPoint() throws Exception {
-		var entryPoint = compiledGraph.getEdge(START);
-		return nextNodeId(entryPoint, overallState.data(), "entryPoint");
+		return new Command(resolveNextNode(ExecutionPlan.START_INDEX, "entryPoint").id(), overallState.data());
 	}
 
 	public Command nextNodeId(String nodeId, Map<String, Object> state) throws Exception {
-		return nextNodeId(compiledGraph.getEdge(nodeId), state, nodeId);
+		return new Command(resolveNextNode(nodeIndexOf(nodeId), nodeId).id(), state);
+	}
+
+	/**
+	 * Evaluates the edge leaving the current node and sets the next node accordingly.
+	 * @throws Exception if the edge is missing or cannot be evaluated
+	 */
+	public void moveToNextNode() throws Exception {
+		ExecutionPlan.Target target = resolveNextNode(currentNodeIndex, currentNodeId);
+		this.nextNodeId = target.id();
+		this.nextNodeIndex = target.index();
 	}
 
-	private Command nextNodeId(com.alibaba.cloud.ai.graph.internal.edge.EdgeValue route, Map<String, Object> state,
-			String nodeId) throws Exception {
+	private ExecutionPlan.Target resolveNextNode(int nodeIndex, String nodeId) throws Exception {
+		ExecutionPlan plan = compiledGraph.executionPlan;
+		var route = plan.edge(nodeIndex);
 		if (route == null) {
 			throw RunnableErrors.missingEdge.exception(nodeId);
 		}
 		if (route.id() != null) {
-			return new Command(route.id(), state);
+			return plan.edgeTarget(nodeIndex);
 		}
 		if (route.value() != null) {
 			var command = route.value().action().apply(this.overallState, config).get();
 			var newRoute = command.gotoNode();
-			String result = route.value().mappings().get(newRoute);
+			ExecutionPlan.Target result = plan.routeTarget(nodeIndex, newRoute);
 			if (result == null) {
 				throw RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
 			}
 			this.mergeIntoCurrentState(command.update());
-			return new Command(result, state);
+			return result;
 		}
 		throw RunnableErrors.executionError.exception(format("invalid edge value for nodeId: [%s] !", nodeId));
 	}
 
+	private int nodeIndexOf(String nodeId) {
+		if (Objects.equals(nodeId, nextNodeId)) {
+			return nextNodeIndex;
+		}
+		if (Objects.equals(nodeId, currentNodeId)) {
+			return currentNodeIndex;
+		}
+		return compiledGraph.executionPlan.indexOf(nodeId);
+	}
+
 	// ================================================================================================================
 	// Checkpoint Methods
 	// ================================================================================================================
 
 	public Optional<Checkpoint> addCheckpoint(String nodeId, String nextNodeId) throws Exception {
-		if (compiledGraph.compileConfig.checkpointSaver().isPresent()) {
+		var saver = compiledGraph.compileConfig.checkpointSaver();
+		if (saver.isPresent()) {
 			var cp = Checkpoint.builder().nodeId(nodeId).state(cloneState(overallState.data())).nextNodeId(nextNodeId)
 					.build();
 			// Force checkPointId to null to ensure we append a new checkpoint instead of
 			// replacing the current one
 			RunnableConfig appendConfig = RunnableConfig.builder(config).checkPointId(null).build();
-			this.config = compiledGraph.compileConfig.checkpointSaver().get().put(appendConfig, cp);
+			if (checkpointWriter != null) {
+				checkpointWriter.write(appendConfig, cp);
+			}
+			else {
+				this.config = saver.get().put(appendConfig, cp);
+			}
 			return Optional.of(cp);
 		}
 		return Optional.empty();
 	}
 
+	/**
+	 * Waits until the checkpoints taken so far have been written to the checkpoint
+	 * saver. Does nothing when checkpoints are written synchronously.
+	 * @throws Exception if writing a checkpoint failed
+	 * @see CompileConfig#checkpointDurability()
+	 */
+	public void flushCheckpoints() throws Exception {
+		if (checkpointWriter != null) {
+			RunnableConfig written = checkpointWriter.flush();
+			if (written != null) {
+				this.config = config.withCheckPointId(written.checkPointId().orElse(null));
+			}
+		}
+	}
+
 	// ================================================================================================================
 	// Output Building Methods
 	// ================================================================================================================
@@ -319,29 +410,13 @@ public class GraphRunnerContext {
 	// ================================================================================================================
 
 	public void doListeners(String scene, Exception e) {
-		for (GraphLifecycleListener listener : compiledGraph.compileConfig.lifecycleListeners()) {
-			try {
-				switch (scene) {
-					case START:
-						listener.onStart(getCurrentNodeId(), getCurrentStateData(), config);
-						break;
-					case END:
-						listener.onComplete(END, getCurrentStateData(), config);
-						break;
-					case NODE_BEFORE:
-						listener.before(getCurrentNodeId(), getCurrentStateData(), config, SystemClock.now());
-						break;
-					case NODE_AFTER:
-						listener.after(getCurrentNodeId(), getCurrentStateData(), config, SystemClock.now());
-						break;
-					case ERROR:
-						listener.onError(getCurrentNodeId(), getCurrentStateData(), e, config);
-						break;
-				}
-			} catch (Exception ex) {
-				log.error("Error in listener", ex);
-			}
+		CompileConfig compileConfig = compiledGraph.compileConfig;
+		if (compileConfig.lifecycleListeners().isEmpty()) {
+			return;
 		}
+		String nodeId = END.equals(scene) ? END : getCurrentNodeId();
+		LifeListenerUtil.notifyListeners(LifeListenerUtil.iterator(compileConfig.lifecycleListeners(), false),
+				compileConfig.lifecycleEventBus(), scene, nodeId, getCurrentStateData(), config, e);
 	}
 
 	/**
@@ -384,6 +459,7 @@ public class GraphRunnerContext {
 	}
 
 	public void setCurrentNodeId(String nodeId) {
+		this.currentNodeIndex = nodeIndexOf(nodeId);
 		this.currentNodeId = nodeId;
 	}
 
@@ -392,6 +468,7 @@ public class GraphRunnerContext {
 	}
 
 	public void setNextNodeId(String nodeId) {
+		this.nextNodeIndex = nodeIndexOf(nodeId);
 		this.nextNodeId = nodeId;
 	}
 
@@ -21,7 +21,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
-import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
 
@@ -84,7 +83,7 @@ public interface HasMetadata<B extends HasMetadata.Builder<B>> {
 	 * @throws NullPointerException if nodeId is null
 	 */
 	static String formatNodeId(String nodeId) {
-		return format("%s(%s)", INTERRUPT_PREFIX, requireNonNull(nodeId, "nodeId cannot be null!"));
+		return INTERRUPT_PREFIX + '(' + requireNonNull(nodeId, "nodeId cannot be null!") + ')';
 	}
 
 	class Builder<B extends Builder<B>> {
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Defines when a parallel node stops waiting for its branches.
+ * <p>
+ * Branch results are merged, in branch order, as soon as they are available. Once the
+ * policy is satisfied, the remaining branches are cancelled: queued branches do not
+ * start, while running ones have their futures cancelled and their threads interrupted,
+ * so that they stop consuming threads and model tokens. A failed branch fails the
+ * parallel node as soon as the policy can no longer be satisfied.
+ *
+ * @see StateGraph#addParallelEdges(String, java.util.List, JoinPolicy)
+ */
+public final class JoinPolicy {
+
+	private static final int ALL = -1;
+
+	private static final int MAJORITY = -2;
+
+	private static final JoinPolicy ALL_POLICY = new JoinPolicy(ALL, null);
+
+	private final int required;
+
+	private final Duration deadline;
+
+	private JoinPolicy(int required, Duration deadline) {
+		this.required = required;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Waits for every branch. This is the default policy.
+	 * @return the policy
+	 */
+	public static JoinPolicy all() {
+		return ALL_POLICY;
+	}
+
+	/**
+	 * Completes with the first branch that succeeds.
+	 * @return the policy
+	 */
+	public static JoinPolicy any() {
+		return firstN(1);
+	}
+
+	/**
+	 * Completes with the first {@code n} branches that succeed, or with every branch if
+	 * there are fewer than {@code n}.
+	 * @param n the number of successful branches to wait for
+	 * @return the policy
+	 */
+	public static JoinPolicy firstN(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be > 0!");
+		}
+		return new JoinPolicy(n, null);
+	}
+
+	/**
+	 * Completes as soon as a strict majority of the branches succeed.
+	 * @return the policy
+	 */
+	public static JoinPolicy quorum() {
+		return new JoinPolicy(MAJORITY, null);
+	}
+
+	/**
+	 * Waits for every branch, but no longer than the given deadline.
+	 * @param deadline the maximum time to wait
+	 * @return the policy
+	 * @see #withDeadline(Duration)
+	 */
+	public static JoinPolicy deadline(Duration deadline) {
+		return all().withDeadline(deadline);
+	}
+
+	/**
+	 * Returns a copy of this policy bounded by the given deadline. When the deadline
+	 * expires, the parallel node completes with the results of the branches that have
+	 * finished so far and cancels the others.
+	 * @param deadline the maximum time to wait, measured from the start of the branches
+	 * @return the bounded policy
+	 */
+	public JoinPolicy withDeadline(Duration deadline) {
+		requireNonNull(deadline, "deadline cannot be null!");
+		if (deadline.isNegative() || deadline.isZero()) {
+			throw new IllegalArgumentException("deadline must be positive!");
+		}
+		return new JoinPolicy(required, deadline);
+	}
+
+	/**
+	 * Returns the number of branches that must succeed before the parallel node
+	 * completes.
+	 * @param branchCount the number of branches of the parallel node
+	 * @return the number of required branches
+	 */
+	public int requiredBranches(int branchCount) {
+		return switch (required) {
+			case ALL -> branchCount;
+			case MAJORITY -> branchCount / 2 + 1;
+			default -> Math.min(required, branchCount);
+		};
+	}
+
+	/**
+	 * Returns the maximum time to wait for the branches.
+	 * @return the deadline, or empty if unbounded
+	 */
+	public Optional<Duration> deadline() {
+		return Optional.ofNullable(deadline);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof JoinPolicy that)) {
+			return false;
+		}
+		return required == that.required && Objects.equals(deadline, that.deadline);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(required, deadline);
+	}
+
+	@Override
+	public String toString() {
+		String name = switch (required) {
+			case ALL -> "all";
+			case MAJORITY -> "quorum";
+			default -> "firstN(" + required + ")";
+		};
+		return deadline != null ? name + " within " + deadline : name;
+	}
+
+}
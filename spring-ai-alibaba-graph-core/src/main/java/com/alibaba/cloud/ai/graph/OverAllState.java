@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.graph;
 
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 import com.alibaba.cloud.ai.graph.store.Store;
+import com.alibaba.cloud.ai.graph.utils.SerializationUtils;
 import org.springframework.ai.util.json.JsonParser;
 import org.springframework.util.CollectionUtils;
 
@@ -116,6 +117,40 @@ public final class OverAllState implements Serializable {
 			.of(new OverAllState(new HashMap<>(this.data), new HashMap<>(this.keyStrategies), this.store));
 	}
 
+	/**
+	 * Returns a state for a branch of a parallel node, see {@link #branches(int)}.
+	 * @return the branch state
+	 */
+	public OverAllState branch() {
+		return branches(1).get(0);
+	}
+
+	/**
+	 * Returns the states for the branches of a parallel node. The returned states read
+	 * through to a single copy-on-write snapshot of this state, taken once for all of
+	 * them, and keep the writes of their branch, including registered key strategies, in
+	 * a private delta. Branches may therefore keep running after this state has been
+	 * updated, e.g. once a join policy no longer waits for them.
+	 * @param count the number of branches
+	 * @return the branch states
+	 */
+	public List<OverAllState> branches(int count) {
+		Map<String, Object> dataSnapshot = unmodifiableMap(SerializationUtils.snapshotMap(this.data));
+		Map<String, KeyStrategy> keyStrategiesSnapshot = unmodifiableMap(new HashMap<>(this.keyStrategies));
+		List<OverAllState> branches = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			branches.add(new OverAllState(new BranchMap<>(dataSnapshot), new BranchMap<>(keyStrategiesSnapshot),
+					this.store));
+		}
+		return branches;
+	}
+
+	private OverAllState(BranchMap<Object> data, BranchMap<KeyStrategy> keyStrategies, Store store) {
+		this.data = data;
+		this.keyStrategies = keyStrategies;
+		this.store = store;
+	}
+
 	/**
 	 * Instantiates a new Over all state.
 	 * @param data the data
@@ -42,6 +42,7 @@ public final class RunnableConfig implements HasMetadata<RunnableConfig.Builder>
 	public static final String STATE_UPDATE_METADATA_KEY = "STATE_UPDATE";
 	public static final String AGENT_NAME = "AGENT_NAME";
 	public static final String DEFAULT_PARALLEL_EXECUTOR_KEY = "_DEFAULT_PARALLEL_EXECUTOR_";
+	public static final String EXECUTOR_MODE_KEY = "_EXECUTOR_MODE_";
 
 	private final String threadId;
 
@@ -125,6 +126,9 @@ public final class RunnableConfig implements HasMetadata<RunnableConfig.Builder>
 	 * @return true if the node is marked as interrupted, false otherwise
 	 */
 	public boolean isInterrupted(String nodeId) {
+		if (interruptedNodes == null || interruptedNodes.isEmpty()) {
+			return false;
+		}
 		return interruptData(HasMetadata.formatNodeId(nodeId)).map(value -> Boolean.TRUE.equals(value)).orElse(false);
 	}
 
@@ -370,6 +374,19 @@ public final class RunnableConfig implements HasMetadata<RunnableConfig.Builder>
 			return addMetadata(DEFAULT_PARALLEL_EXECUTOR_KEY, requireNonNull(executor, "executor cannot be null!"));
 		}
 
+		/**
+		 * Runs the parallel nodes and offloaded node actions of this execution on the
+		 * shared executor of the given mode, overriding the
+		 * {@link CompileConfig#executorMode()} of the graph. Executors set through
+		 * {@link #addParallelNodeExecutor(String, Executor)} or
+		 * {@link #defaultParallelExecutor(Executor)} still take precedence.
+		 * @param executorMode the {@link CompileConfig.ExecutorMode} to use.
+		 * @return this {@code Builder} instance for method chaining.
+		 */
+		public Builder executorMode(CompileConfig.ExecutorMode executorMode) {
+			return addMetadata(EXECUTOR_MODE_KEY, requireNonNull(executorMode, "executorMode cannot be null!"));
+		}
+
 		public Builder clearContext() {
 			this.context.clear();
 			return this;
@@ -90,6 +90,11 @@ public class StateGraph {
 	 */
 	final Edges edges = new Edges();
 
+	/**
+	 * Join policies of the parallel edges, by source node id.
+	 */
+	final Map<String, JoinPolicy> joinPolicies = new HashMap<>();
+
 	/**
 	 * Factory for providing key strategies.
 	 */
@@ -376,6 +381,26 @@ public class StateGraph {
 		return this;
 	}
 
+	/**
+	 * Adds parallel edges from the source node to each of the target nodes, joined
+	 * according to the given policy.
+	 * @param sourceId the identifier of the source node
+	 * @param targetIds the identifiers of the target nodes
+	 * @param joinPolicy when the parallel node stops waiting for the target nodes
+	 * @return this state graph instance
+	 * @throws GraphStateException if the edge identifier is invalid
+	 * @see JoinPolicy
+	 */
+	public StateGraph addParallelEdges(String sourceId, List<String> targetIds, JoinPolicy joinPolicy)
+			throws GraphStateException {
+		Objects.requireNonNull(joinPolicy, "joinPolicy cannot be null");
+		for (String targetId : targetIds) {
+			addEdge(sourceId, targetId);
+		}
+		joinPolicies.put(sourceId, joinPolicy);
+		return this;
+	}
+
 	/**
 	 * Adds conditional edges to the graph based on the provided condition and mappings.
 	 * @param sourceId the identifier of the source node
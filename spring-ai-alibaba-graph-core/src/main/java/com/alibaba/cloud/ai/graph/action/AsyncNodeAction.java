@@ -16,7 +16,6 @@
 package com.alibaba.cloud.ai.graph.action;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
-import io.opentelemetry.context.Context;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -43,17 +42,7 @@ public interface AsyncNodeAction extends Function<OverAllState, CompletableFutur
 	 * @return an asynchronous node action
 	 */
 	static AsyncNodeAction node_async(NodeAction syncAction) {
-		return state -> {
-			Context context = Context.current();
-			CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
-			try {
-				result.complete(syncAction.apply(state));
-			}
-			catch (Exception e) {
-				result.completeExceptionally(e);
-			}
-			return result;
-		};
+		return new SyncNodeAction(syncAction);
 	}
 
 }
@@ -17,7 +17,6 @@ package com.alibaba.cloud.ai.graph.action;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
-import io.opentelemetry.context.Context;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -33,18 +32,14 @@ public interface AsyncNodeActionWithConfig
 	 */
 	CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config);
 
+	/**
+	 * Creates an asynchronous node action from a synchronous node action.
+	 * @param syncAction the synchronous node action
+	 * @return an asynchronous node action
+	 * @see SyncNodeActionAdapter
+	 */
 	static AsyncNodeActionWithConfig node_async(NodeActionWithConfig syncAction) {
-		return (state, config) -> {
-			Context context = Context.current();
-			CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
-			try {
-				result.complete(syncAction.apply(state, config));
-			}
-			catch (Exception e) {
-				result.completeExceptionally(e);
-			}
-			return result;
-		};
+		return new SyncNodeActionAdapter(syncAction);
 	}
 
 	/**
@@ -53,6 +48,10 @@ public interface AsyncNodeActionWithConfig
 	 * @return an AsyncNodeActionWithConfig that wraps the given AsyncNodeAction
 	 */
 	static AsyncNodeActionWithConfig of(AsyncNodeAction action) {
+		if (action instanceof SyncNodeAction syncNodeAction) {
+			NodeAction syncAction = syncNodeAction.action();
+			return new SyncNodeActionAdapter((state, config) -> syncAction.apply(state));
+		}
 		return (t, config) -> action.apply(t);
 	}
 
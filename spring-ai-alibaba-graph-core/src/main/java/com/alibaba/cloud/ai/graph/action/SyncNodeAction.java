@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.action;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link AsyncNodeAction} created from a synchronous {@link NodeAction}, kept
+ * recognisable so that {@link AsyncNodeActionWithConfig#of(AsyncNodeAction)} can turn it
+ * into a {@link SyncNodeActionAdapter}.
+ */
+record SyncNodeAction(NodeAction action) implements AsyncNodeAction {
+
+	@Override
+	public CompletableFuture<Map<String, Object>> apply(OverAllState state) {
+		CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+		try {
+			result.complete(action.apply(state));
+		}
+		catch (Exception e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.action;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.executor.Bulkhead;
+import io.opentelemetry.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adapts a synchronous {@link NodeActionWithConfig} to an
+ * {@link AsyncNodeActionWithConfig}.
+ * <p>
+ * {@link #apply(OverAllState, RunnableConfig)} runs the action on the calling thread and
+ * returns a completed future. When the graph is compiled with
+ * {@link com.alibaba.cloud.ai.graph.CompileConfig#offloadBlockingNodeActions()} enabled,
+ * {@link #applyAsync(OverAllState, RunnableConfig, Executor)} is used instead, so that
+ * blocking calls made by the action do not hold the thread driving the graph.
+ */
+public final class SyncNodeActionAdapter implements AsyncNodeActionWithConfig {
+
+	private final NodeActionWithConfig action;
+
+	public SyncNodeActionAdapter(NodeActionWithConfig action) {
+		this.action = requireNonNull(action, "action cannot be null!");
+	}
+
+	/**
+	 * Returns the adapted synchronous action.
+	 * @return the synchronous action
+	 */
+	public NodeActionWithConfig action() {
+		return action;
+	}
+
+	@Override
+	public CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config) {
+		CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+		run(result, state, config);
+		return result;
+	}
+
+	/**
+	 * Runs the action on the given executor, propagating the current tracing context.
+	 * @param state the agent state
+	 * @param config the runnable config
+	 * @param executor the executor running the action
+	 * @return a CompletableFuture completed with the result of the action
+	 */
+	public CompletableFuture<Map<String, Object>> applyAsync(OverAllState state, RunnableConfig config,
+			Executor executor) {
+		CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+		Runnable task = Context.current().wrap(() -> run(result, state, config));
+		try {
+			executor.execute(new Bulkhead.RejectableTask() {
+
+				@Override
+				public void run() {
+					task.run();
+				}
+
+				@Override
+				public void rejected(RejectedExecutionException ex) {
+					result.completeExceptionally(ex);
+				}
+
+			});
+		}
+		catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	private void run(CompletableFuture<Map<String, Object>> result, OverAllState state, RunnableConfig config) {
+		try {
+			result.complete(action.apply(state, config));
+		}
+		catch (Exception e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+}
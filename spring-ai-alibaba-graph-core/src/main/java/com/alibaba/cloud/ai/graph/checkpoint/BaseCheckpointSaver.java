@@ -17,8 +17,8 @@ package com.alibaba.cloud.ai.graph.checkpoint;
 
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,18 +27,71 @@ import static java.util.Optional.ofNullable;
 public interface BaseCheckpointSaver {
 	String THREAD_ID_DEFAULT = "$default";
 
-	default Optional<Checkpoint> getLast(LinkedList<Checkpoint> checkpoints, RunnableConfig config) {
-		return (checkpoints.isEmpty()) ? Optional.empty() : ofNullable(checkpoints.peek());
+	default Optional<Checkpoint> getLast(List<Checkpoint> checkpoints, RunnableConfig config) {
+		return (checkpoints.isEmpty()) ? Optional.empty() : ofNullable(checkpoints.get(0));
 	}
 
 	Collection<Checkpoint> list(RunnableConfig config);
 
+	/**
+	 * Lists a page of the checkpoints of a thread, newest first. Pages are chained by
+	 * passing the id of the last checkpoint of a page as the cursor of the next one.
+	 * Savers backed by a database override it to fetch a single page per call.
+	 * @param config the config of the thread
+	 * @param afterCheckpointId the id of the checkpoint preceding the page, null for the
+	 * first page
+	 * @param limit the maximum number of checkpoints of the page
+	 * @return the checkpoints of the page, empty once the history is exhausted
+	 */
+	default List<Checkpoint> list(RunnableConfig config, String afterCheckpointId, int limit) {
+		return page(list(config), afterCheckpointId, limit);
+	}
+
 	Optional<Checkpoint> get(RunnableConfig config);
 
 	RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception;
 
 	Tag release(RunnableConfig config) throws Exception;
 
+	/**
+	 * Deletes checkpoints of a thread, e.g. to enforce a
+	 * {@link CheckpointRetentionPolicy}. Unknown ids are ignored.
+	 * @param config the config of the thread
+	 * @param checkpointIds the ids of the checkpoints to delete
+	 * @throws UnsupportedOperationException if the saver cannot delete checkpoints
+	 * @throws Exception if the checkpoints cannot be deleted
+	 */
+	default void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot delete checkpoints!");
+	}
+
+	/**
+	 * Returns the page of the given checkpoints following the given cursor.
+	 * @param checkpoints the checkpoints, newest first
+	 * @param afterCheckpointId the id of the checkpoint preceding the page, null for the
+	 * first page
+	 * @param limit the maximum number of checkpoints of the page
+	 * @return the checkpoints of the page
+	 */
+	static List<Checkpoint> page(Collection<Checkpoint> checkpoints, String afterCheckpointId, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("limit must be > 0!");
+		}
+		List<Checkpoint> page = new ArrayList<>(Math.min(limit, checkpoints.size()));
+		boolean started = afterCheckpointId == null;
+		for (Checkpoint checkpoint : checkpoints) {
+			if (!started) {
+				started = checkpoint.getId().equals(afterCheckpointId);
+				continue;
+			}
+			if (page.size() == limit) {
+				break;
+			}
+			page.add(checkpoint);
+		}
+		return page;
+	}
+
 	record Tag(String threadId, Collection<Checkpoint> checkpoints) {
 		public Tag(String threadId, Collection<Checkpoint> checkpoints) {
 			this.threadId = threadId;
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides which checkpoints of a thread are no longer worth keeping. Policies are
+ * enforced by a {@link CompactingCheckpointSaver}, configured with
+ * {@link com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig#retentionPolicy(CheckpointRetentionPolicy)}.
+ * <p>
+ * The newest checkpoint of a thread is never expired, whatever the policy, since it is
+ * the one a thread resumes from.
+ */
+@FunctionalInterface
+public interface CheckpointRetentionPolicy {
+
+	/**
+	 * A checkpoint with the time it was saved.
+	 */
+	record Entry(Checkpoint checkpoint, Instant savedAt) {
+
+		public Entry {
+			requireNonNull(checkpoint, "checkpoint cannot be null!");
+			requireNonNull(savedAt, "savedAt cannot be null!");
+		}
+
+	}
+
+	/**
+	 * Returns the ids of the checkpoints to delete.
+	 * @param checkpoints the checkpoints of a thread, newest first
+	 * @param now the current time
+	 * @return the ids of the expired checkpoints
+	 */
+	Set<String> expired(List<Entry> checkpoints, Instant now);
+
+	/**
+	 * Expires the checkpoints expired by this policy or by the given one.
+	 * @param other another policy
+	 * @return the combined policy
+	 */
+	default CheckpointRetentionPolicy or(CheckpointRetentionPolicy other) {
+		requireNonNull(other, "other cannot be null!");
+		return (checkpoints, now) -> {
+			Set<String> expired = new HashSet<>(expired(checkpoints, now));
+			expired.addAll(other.expired(checkpoints, now));
+			return expired;
+		};
+	}
+
+	/**
+	 * Keeps the last checkpoints of a thread.
+	 * @param count the number of checkpoints to keep
+	 * @return the policy
+	 */
+	static CheckpointRetentionPolicy keepLast(int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("count must be > 0!");
+		}
+		return (checkpoints, now) -> {
+			Set<String> expired = new HashSet<>();
+			for (int i = count; i < checkpoints.size(); i++) {
+				expired.add(checkpoints.get(i).checkpoint().getId());
+			}
+			return expired;
+		};
+	}
+
+	/**
+	 * Keeps the checkpoints a thread can be resumed from after an interruption, i.e.
+	 * those whose next node is interrupted before, or whose node is interrupted after,
+	 * and the newest checkpoint.
+	 * @param interruptsBefore the nodes interrupted before being executed
+	 * @param interruptsAfter the nodes interrupted after being executed
+	 * @return the policy
+	 * @see com.alibaba.cloud.ai.graph.CompileConfig#interruptsBefore()
+	 * @see com.alibaba.cloud.ai.graph.CompileConfig#interruptsAfter()
+	 */
+	static CheckpointRetentionPolicy interruptsOnly(Collection<String> interruptsBefore,
+			Collection<String> interruptsAfter) {
+		Set<String> before = Set.copyOf(interruptsBefore);
+		Set<String> after = Set.copyOf(interruptsAfter);
+		return (checkpoints, now) -> {
+			Set<String> expired = new HashSet<>();
+			for (int i = 1; i < checkpoints.size(); i++) {
+				Checkpoint checkpoint = checkpoints.get(i).checkpoint();
+				boolean interrupted = (checkpoint.getNextNodeId() != null && before.contains(checkpoint.getNextNodeId()))
+						|| (checkpoint.getNodeId() != null && after.contains(checkpoint.getNodeId()));
+				if (!interrupted) {
+					expired.add(checkpoint.getId());
+				}
+			}
+			return expired;
+		};
+	}
+
+	/**
+	 * Thins out old checkpoints: the most recent ones are all kept, then one checkpoint
+	 * per age bucket, the buckets doubling in width, i.e. one checkpoint younger than
+	 * {@code base}, one between {@code base} and twice {@code base}, one between twice
+	 * and four times {@code base}, and so on.
+	 * @param base the width of the first bucket
+	 * @param keepRecent the number of most recent checkpoints kept regardless of age
+	 * @return the policy
+	 */
+	static CheckpointRetentionPolicy exponentialThinning(Duration base, int keepRecent) {
+		requireNonNull(base, "base cannot be null!");
+		if (base.isNegative() || base.isZero()) {
+			throw new IllegalArgumentException("base must be positive!");
+		}
+		if (keepRecent < 1) {
+			throw new IllegalArgumentException("keepRecent must be >= 1!");
+		}
+		long baseMillis = Math.max(1, base.toMillis());
+		return (checkpoints, now) -> {
+			Set<String> expired = new HashSet<>();
+			Set<Integer> buckets = new HashSet<>();
+			for (int i = 0; i < checkpoints.size(); i++) {
+				Entry entry = checkpoints.get(i);
+				long age = Math.max(0, Duration.between(entry.savedAt(), now).toMillis());
+				// bucket k holds the ages in [base * (2^k - 1), base * (2^(k+1) - 1))
+				int bucket = 63 - Long.numberOfLeadingZeros(age / baseMillis + 1);
+				// the newest checkpoint of each bucket is kept
+				if (!buckets.add(bucket) && i >= keepRecent) {
+					expired.add(entry.checkpoint().getId());
+				}
+			}
+			return expired;
+		};
+	}
+
+	/**
+	 * Expires the checkpoints older than the given age, except the newest one.
+	 * @param maxAge the maximum age of a checkpoint
+	 * @return the policy
+	 */
+	static CheckpointRetentionPolicy maxAge(Duration maxAge) {
+		requireNonNull(maxAge, "maxAge cannot be null!");
+		if (maxAge.isNegative()) {
+			throw new IllegalArgumentException("maxAge must not be negative!");
+		}
+		return (checkpoints, now) -> {
+			Set<String> expired = new HashSet<>();
+			Instant limit = now.minus(maxAge);
+			for (int i = 1; i < checkpoints.size(); i++) {
+				Entry entry = checkpoints.get(i);
+				if (entry.savedAt().isBefore(limit)) {
+					expired.add(entry.checkpoint().getId());
+				}
+			}
+			return expired;
+		};
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the checkpoints of one graph execution according to an
+ * {@link CompileConfig.CheckpointDurability} other than
+ * {@link CompileConfig.CheckpointDurability#SYNC}.
+ * <p>
+ * With {@link CompileConfig.CheckpointDurability#ASYNC}, checkpoints are queued and
+ * written one after the other on a background thread, in the order they were taken. At
+ * most {@value #MAX_PENDING_WRITES} writes are pending at a time; beyond that,
+ * {@link #write(RunnableConfig, Checkpoint)} waits until the oldest one is written, so
+ * that a slow saver cannot make checkpoints pile up in memory. A failed write does not
+ * prevent the following ones; the first failure since the last flush is reported by
+ * {@link #flush()}.
+ * <p>
+ * With {@link CompileConfig.CheckpointDurability#EXIT}, only the last checkpoint is
+ * kept, and it is written by {@link #flush()}.
+ */
+public final class CheckpointWriter {
+
+	static final int MAX_PENDING_WRITES = 64;
+
+	private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger threadNum = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "graph-checkpoint-writer-" + threadNum.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	});
+
+	private final BaseCheckpointSaver saver;
+
+	private final CompileConfig.CheckpointDurability durability;
+
+	private final Executor executor;
+
+	private final AtomicInteger pendingWrites = new AtomicInteger();
+
+	private final Semaphore writePermits = new Semaphore(MAX_PENDING_WRITES);
+
+	private CompletableFuture<RunnableConfig> tail = CompletableFuture.completedFuture(null);
+
+	/**
+	 * The first write failure since the last flush, later ones being suppressed.
+	 */
+	private Throwable failure;
+
+	private RunnableConfig lastConfig;
+
+	private Checkpoint lastCheckpoint;
+
+	public CheckpointWriter(BaseCheckpointSaver saver, CompileConfig.CheckpointDurability durability) {
+		this(saver, durability, DEFAULT_EXECUTOR);
+	}
+
+	public CheckpointWriter(BaseCheckpointSaver saver, CompileConfig.CheckpointDurability durability,
+			Executor executor) {
+		this.saver = requireNonNull(saver, "saver cannot be null!");
+		this.durability = requireNonNull(durability, "durability cannot be null!");
+		this.executor = requireNonNull(executor, "executor cannot be null!");
+		if (durability == CompileConfig.CheckpointDurability.SYNC) {
+			throw new IllegalArgumentException("SYNC checkpoints are written by the caller!");
+		}
+	}
+
+	/**
+	 * Queues a checkpoint for writing.
+	 * @param config the configuration to write the checkpoint with
+	 * @param checkpoint the checkpoint, whose state must no longer be modified
+	 */
+	public void write(RunnableConfig config, Checkpoint checkpoint) {
+		if (durability == CompileConfig.CheckpointDurability.EXIT) {
+			synchronized (this) {
+				lastConfig = config;
+				lastCheckpoint = checkpoint;
+			}
+			return;
+		}
+		writePermits.acquireUninterruptibly();
+		synchronized (this) {
+			pendingWrites.incrementAndGet();
+			// each write is chained to the previous one whether it succeeded or not
+			tail = tail.exceptionally(ex -> null)
+				.thenApplyAsync(ignored -> put(config, checkpoint), executor)
+				.whenComplete((result, ex) -> {
+					if (ex != null) {
+						recordFailure(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+					}
+					pendingWrites.decrementAndGet();
+					writePermits.release();
+				});
+		}
+	}
+
+	private synchronized void recordFailure(Throwable ex) {
+		if (failure == null) {
+			failure = ex;
+		}
+		else if (failure != ex) {
+			failure.addSuppressed(ex);
+		}
+	}
+
+	private RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) {
+		try {
+			return saver.put(config, checkpoint);
+		}
+		catch (Exception ex) {
+			throw new CompletionException(ex);
+		}
+	}
+
+	/**
+	 * Waits until every queued checkpoint has been written.
+	 * @return the configuration returned by the saver for the last written checkpoint,
+	 * or null if there was nothing to write
+	 * @throws Exception the first error raised by the saver since the last flush
+	 */
+	public RunnableConfig flush() throws Exception {
+		CompletableFuture<RunnableConfig> pending;
+		RunnableConfig config;
+		Checkpoint checkpoint;
+		synchronized (this) {
+			pending = tail;
+			tail = CompletableFuture.completedFuture(null);
+			config = lastConfig;
+			checkpoint = lastCheckpoint;
+			lastConfig = null;
+			lastCheckpoint = null;
+		}
+		if (checkpoint != null) {
+			return saver.put(config, checkpoint);
+		}
+		RunnableConfig written = pending.exceptionally(ex -> null).join();
+		Throwable error;
+		synchronized (this) {
+			error = failure;
+			failure = null;
+		}
+		if (error instanceof Exception cause) {
+			throw cause;
+		}
+		if (error != null) {
+			throw new CompletionException(error);
+		}
+		return written;
+	}
+
+	/**
+	 * Returns the number of checkpoints queued and not yet written.
+	 * @return the number of pending writes
+	 */
+	public int pendingWrites() {
+		return pendingWrites.get();
+	}
+
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} enforcing a {@link CheckpointRetentionPolicy} on the
+ * checkpoints stored by another saver.
+ * <p>
+ * Every append to a thread marks it for compaction. A thread is compacted on a
+ * background thread at most once per {@code compactionInterval}: its checkpoints are
+ * listed, the policy is evaluated, and the expired checkpoints are deleted with
+ * {@link BaseCheckpointSaver#delete(RunnableConfig, Collection)}. The newest checkpoint
+ * of a thread is always kept. Savers that cannot delete checkpoints are left untouched.
+ * <p>
+ * The time a checkpoint was saved is recorded in memory when it is put through this
+ * saver. Checkpoints written before, e.g. by a previous process, are considered saved
+ * when this saver first lists them.
+ *
+ * @see com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig#retentionPolicy(CheckpointRetentionPolicy)
+ */
+public final class CompactingCheckpointSaver implements BaseCheckpointSaver {
+
+	private static final Logger log = LoggerFactory.getLogger(CompactingCheckpointSaver.class);
+
+	static final int MAX_TRACKED_THREADS = 1024;
+
+	private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger threadNum = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "graph-checkpoint-retention-" + threadNum.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	});
+
+	/**
+	 * The compaction state of a thread.
+	 */
+	private static final class ThreadRetention {
+
+		private final RunnableConfig config;
+
+		private final Map<String, Instant> savedAt = new ConcurrentHashMap<>();
+
+		private Instant lastCompaction = Instant.MIN;
+
+		private boolean scheduled;
+
+		private ThreadRetention(RunnableConfig config) {
+			this.config = config;
+		}
+
+	}
+
+	private final BaseCheckpointSaver delegate;
+
+	private final CheckpointRetentionPolicy policy;
+
+	private final Duration compactionInterval;
+
+	private final Executor executor;
+
+	private final Clock clock;
+
+	private final Map<String, ThreadRetention> threads = new ConcurrentHashMap<>();
+
+	private final AtomicLong compactions = new AtomicLong();
+
+	private final AtomicLong deletedCheckpoints = new AtomicLong();
+
+	private volatile boolean deleteUnsupported;
+
+	CompactingCheckpointSaver(BaseCheckpointSaver delegate, CheckpointRetentionPolicy policy,
+			Duration compactionInterval, Executor executor, Clock clock) {
+		this.delegate = requireNonNull(delegate, "delegate cannot be null!");
+		this.policy = requireNonNull(policy, "policy cannot be null!");
+		this.compactionInterval = requireNonNull(compactionInterval, "compactionInterval cannot be null!");
+		if (compactionInterval.isNegative()) {
+			throw new IllegalArgumentException("compactionInterval must not be negative!");
+		}
+		this.executor = requireNonNull(executor, "executor cannot be null!");
+		this.clock = requireNonNull(clock, "clock cannot be null!");
+	}
+
+	/**
+	 * Wraps the given saver so that it enforces a retention policy.
+	 * @param delegate the saver storing the checkpoints
+	 * @param policy the retention policy
+	 * @param compactionInterval the minimum time between two compactions of a thread
+	 * @return the compacting saver; if the given saver already is one, its delegate is
+	 * wrapped again
+	 */
+	public static CompactingCheckpointSaver wrap(BaseCheckpointSaver delegate, CheckpointRetentionPolicy policy,
+			Duration compactionInterval) {
+		if (delegate instanceof CompactingCheckpointSaver compactingSaver) {
+			delegate = compactingSaver.delegate;
+		}
+		return new CompactingCheckpointSaver(delegate, policy, compactionInterval, DEFAULT_EXECUTOR,
+				Clock.systemUTC());
+	}
+
+	public BaseCheckpointSaver delegate() {
+		return delegate;
+	}
+
+	public CheckpointRetentionPolicy policy() {
+		return policy;
+	}
+
+	public Duration compactionInterval() {
+		return compactionInterval;
+	}
+
+	/**
+	 * Returns the number of thread compactions run so far.
+	 * @return the number of compactions
+	 */
+	public long compactions() {
+		return compactions.get();
+	}
+
+	/**
+	 * Returns the number of checkpoints deleted by compactions so far.
+	 * @return the number of deleted checkpoints
+	 */
+	public long deletedCheckpoints() {
+		return deletedCheckpoints.get();
+	}
+
+	@Override
+	public Collection<Checkpoint> list(RunnableConfig config) {
+		return delegate.list(config);
+	}
+
+	@Override
+	public List<Checkpoint> list(RunnableConfig config, String afterCheckpointId, int limit) {
+		return delegate.list(config, afterCheckpointId, limit);
+	}
+
+	@Override
+	public Optional<Checkpoint> get(RunnableConfig config) {
+		return delegate.get(config);
+	}
+
+	@Override
+	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+		RunnableConfig result = delegate.put(config, checkpoint);
+		ThreadRetention thread = thread(config);
+		thread.savedAt.putIfAbsent(checkpoint.getId(), clock.instant());
+		if (config.checkPointId().isEmpty()) {
+			scheduleCompaction(thread);
+		}
+		return result;
+	}
+
+	@Override
+	public void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		delegate.delete(config, checkpointIds);
+		ThreadRetention thread = threads.get(threadId(config));
+		if (thread != null) {
+			checkpointIds.forEach(thread.savedAt::remove);
+		}
+	}
+
+	@Override
+	public Tag release(RunnableConfig config) throws Exception {
+		threads.remove(threadId(config));
+		return delegate.release(config);
+	}
+
+	/**
+	 * Compacts every thread appended to through this saver, on the calling thread.
+	 * @return the number of deleted checkpoints
+	 * @throws Exception if a compaction fails
+	 */
+	public int compact() throws Exception {
+		int deleted = 0;
+		for (ThreadRetention thread : List.copyOf(threads.values())) {
+			deleted += compact(thread);
+		}
+		return deleted;
+	}
+
+	/**
+	 * Compacts a thread on the calling thread.
+	 * @param config the config of the thread
+	 * @return the number of deleted checkpoints
+	 * @throws Exception if the compaction fails
+	 */
+	public int compact(RunnableConfig config) throws Exception {
+		return compact(thread(config));
+	}
+
+	private void scheduleCompaction(ThreadRetention thread) {
+		if (deleteUnsupported) {
+			return;
+		}
+		synchronized (thread) {
+			Instant now = clock.instant();
+			if (thread.scheduled || now.isBefore(thread.lastCompaction.plus(compactionInterval))) {
+				return;
+			}
+			thread.scheduled = true;
+			thread.lastCompaction = now;
+		}
+		executor.execute(() -> {
+			try {
+				compact(thread);
+			}
+			catch (Exception ex) {
+				log.warn("Failed to compact the checkpoints of thread {}", threadId(thread.config), ex);
+			}
+			finally {
+				synchronized (thread) {
+					thread.scheduled = false;
+				}
+			}
+		});
+	}
+
+	private int compact(ThreadRetention thread) throws Exception {
+		if (deleteUnsupported) {
+			return 0;
+		}
+		compactions.incrementAndGet();
+		List<Checkpoint> checkpoints = List.copyOf(delegate.list(thread.config));
+		if (checkpoints.size() < 2) {
+			return 0;
+		}
+		Instant now = clock.instant();
+		List<CheckpointRetentionPolicy.Entry> entries = new ArrayList<>(checkpoints.size());
+		for (Checkpoint checkpoint : checkpoints) {
+			Instant savedAt = thread.savedAt.computeIfAbsent(checkpoint.getId(), id -> now);
+			entries.add(new CheckpointRetentionPolicy.Entry(checkpoint, savedAt));
+		}
+		Set<String> expired = new HashSet<>(policy.expired(entries, now));
+		expired.remove(checkpoints.get(0).getId());
+		if (expired.isEmpty()) {
+			return 0;
+		}
+		try {
+			delegate.delete(thread.config, expired);
+		}
+		catch (UnsupportedOperationException ex) {
+			deleteUnsupported = true;
+			log.warn("{} cannot delete checkpoints, the checkpoint retention policy is not enforced",
+					delegate.getClass().getSimpleName());
+			return 0;
+		}
+		expired.forEach(thread.savedAt::remove);
+		deletedCheckpoints.addAndGet(expired.size());
+		return expired.size();
+	}
+
+	private static String threadId(RunnableConfig config) {
+		return config.threadId().orElse(THREAD_ID_DEFAULT);
+	}
+
+	private ThreadRetention thread(RunnableConfig config) {
+		String threadId = threadId(config);
+		ThreadRetention thread = threads.get(threadId);
+		if (thread != null) {
+			return thread;
+		}
+		if (threads.size() >= MAX_TRACKED_THREADS) {
+			// evicted threads lose their save times, and are compacted again once appended to
+			Iterator<String> iterator = threads.keySet().iterator();
+			if (iterator.hasNext()) {
+				threads.remove(iterator.next());
+			}
+		}
+		RunnableConfig threadConfig = RunnableConfig.builder(config).checkPointId(null).build();
+		return threads.computeIfAbsent(threadId, key -> new ThreadRetention(threadConfig));
+	}
+
+}
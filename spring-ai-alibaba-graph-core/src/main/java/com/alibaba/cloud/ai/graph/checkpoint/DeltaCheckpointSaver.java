@@ -0,0 +1,435 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.state.AppendableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} storing checkpoints as deltas in another saver.
+ * <p>
+ * Most nodes change one or two keys of the state, so storing the full state in every
+ * checkpoint makes the storage and the write bandwidth of a thread grow quadratically
+ * with its length. This saver stores, for each checkpoint, only the keys changed since
+ * the previous checkpoint of the thread, and a full keyframe every
+ * {@code keyframeInterval} checkpoints. Lists that only grew, such as message
+ * histories, are stored as the elements appended to them. {@link #get(RunnableConfig)},
+ * {@link #list(RunnableConfig)} and {@link #release(RunnableConfig)} rebuild the full
+ * states transparently, so the delegate can be any saver able to store the state values.
+ * <p>
+ * Delta checkpoints are regular checkpoints whose state holds the changed values and the
+ * reserved keys {@value #DELTA_BASE_KEY}, {@value #DELTA_REMOVED_KEY} and
+ * {@value #DELTA_APPENDED_KEY}. The full state of the last checkpoint of each thread is
+ * kept in memory, so that appending a checkpoint does not read the delegate. This
+ * assumes a thread is written by one saver instance at a time.
+ *
+ * @see com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig#deltaCheckpoints(int)
+ */
+public final class DeltaCheckpointSaver implements BaseCheckpointSaver {
+
+	/**
+	 * State key holding the id of the checkpoint a delta applies to.
+	 */
+	public static final String DELTA_BASE_KEY = "__delta_base__";
+
+	/**
+	 * State key holding the keys removed since the base checkpoint.
+	 */
+	public static final String DELTA_REMOVED_KEY = "__delta_removed__";
+
+	/**
+	 * State key holding the elements appended to lists since the base checkpoint.
+	 */
+	public static final String DELTA_APPENDED_KEY = "__delta_appended__";
+
+	static final int MAX_CACHED_THREADS = 1024;
+
+	/**
+	 * The last checkpoint written for a thread, with its full state.
+	 */
+	private static final class ThreadHead {
+
+		private String checkpointId;
+
+		private Map<String, Object> state;
+
+		private int deltasSinceKeyframe;
+
+	}
+
+	private final BaseCheckpointSaver delegate;
+
+	private final int keyframeInterval;
+
+	private final Map<String, ThreadHead> heads = new ConcurrentHashMap<>();
+
+	private DeltaCheckpointSaver(BaseCheckpointSaver delegate, int keyframeInterval) {
+		this.delegate = requireNonNull(delegate, "delegate cannot be null!");
+		if (keyframeInterval <= 0) {
+			throw new IllegalArgumentException("keyframeInterval must be > 0!");
+		}
+		this.keyframeInterval = keyframeInterval;
+	}
+
+	/**
+	 * Wraps the given saver so that it stores delta checkpoints.
+	 * @param delegate the saver storing the checkpoints
+	 * @param keyframeInterval the number of checkpoints between two full keyframes, 1
+	 * to store every checkpoint in full
+	 * @return the delta saver, or the given saver if it already is one
+	 */
+	public static BaseCheckpointSaver wrap(BaseCheckpointSaver delegate, int keyframeInterval) {
+		if (delegate instanceof DeltaCheckpointSaver deltaSaver) {
+			return deltaSaver.keyframeInterval == keyframeInterval ? deltaSaver
+					: new DeltaCheckpointSaver(deltaSaver.delegate, keyframeInterval);
+		}
+		return new DeltaCheckpointSaver(delegate, keyframeInterval);
+	}
+
+	public BaseCheckpointSaver delegate() {
+		return delegate;
+	}
+
+	public int keyframeInterval() {
+		return keyframeInterval;
+	}
+
+	/**
+	 * Returns whether the given stored checkpoint is a delta.
+	 * @param checkpoint a checkpoint as stored by the delegate
+	 * @return true if the checkpoint is a delta, false if it is a keyframe
+	 */
+	public static boolean isDelta(Checkpoint checkpoint) {
+		return checkpoint.getState().containsKey(DELTA_BASE_KEY);
+	}
+
+	@Override
+	public Collection<Checkpoint> list(RunnableConfig config) {
+		return materialize(List.copyOf(delegate.list(config)), null);
+	}
+
+	@Override
+	public Optional<Checkpoint> get(RunnableConfig config) {
+		Optional<Checkpoint> stored = delegate.get(config);
+		if (stored.isEmpty() || !isDelta(stored.get())) {
+			return stored;
+		}
+		Checkpoint checkpoint = stored.get();
+		ThreadHead head = heads.get(threadId(config));
+		if (head != null) {
+			synchronized (head) {
+				if (checkpoint.getId().equals(head.checkpointId)) {
+					return Optional.of(withState(checkpoint, new HashMap<>(head.state)));
+				}
+			}
+		}
+		List<Checkpoint> checkpoints = materialize(List.copyOf(delegate.list(config)), checkpoint.getId());
+		return checkpoints.stream().filter(cp -> cp.getId().equals(checkpoint.getId())).findFirst();
+	}
+
+	@Override
+	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+		String threadId = threadId(config);
+		if (config.checkPointId().isPresent()) {
+			return replace(config, threadId, checkpoint);
+		}
+		ThreadHead head = head(threadId);
+		synchronized (head) {
+			if (head.checkpointId == null) {
+				loadHead(config, head);
+			}
+			Map<String, Object> state = checkpoint.getState();
+			Map<String, Object> delta = null;
+			if (head.checkpointId != null && head.deltasSinceKeyframe + 1 < keyframeInterval) {
+				delta = delta(head.checkpointId, head.state, state);
+			}
+			RunnableConfig result;
+			if (delta != null) {
+				result = delegate.put(config, withState(checkpoint, delta));
+				head.deltasSinceKeyframe++;
+			}
+			else {
+				result = delegate.put(config, checkpoint);
+				head.deltasSinceKeyframe = 0;
+			}
+			head.checkpointId = checkpoint.getId();
+			head.state = state;
+			return result;
+		}
+	}
+
+	/**
+	 * Replaces a checkpoint with a keyframe. If the next checkpoint is a delta based on
+	 * the replaced one, it is rewritten as a keyframe first, so that its state does not
+	 * change.
+	 */
+	private RunnableConfig replace(RunnableConfig config, String threadId, Checkpoint checkpoint) throws Exception {
+		String checkpointId = config.checkPointId().get();
+		ThreadHead head = head(threadId);
+		synchronized (head) {
+			List<Checkpoint> stored = List.copyOf(delegate.list(config));
+			for (int i = 1; i < stored.size(); i++) {
+				if (!stored.get(i).getId().equals(checkpointId)) {
+					continue;
+				}
+				Checkpoint next = stored.get(i - 1);
+				if (isDelta(next)) {
+					Checkpoint keyframe = materialize(stored, next.getId()).get(i - 1);
+					delegate.put(config.withCheckPointId(next.getId()), keyframe);
+				}
+				break;
+			}
+			RunnableConfig result = delegate.put(config, checkpoint);
+			// the head is reloaded by the next append
+			head.checkpointId = null;
+			head.state = null;
+			return result;
+		}
+	}
+
+	/**
+	 * Deletes checkpoints of a thread. Remaining deltas based on a deleted checkpoint are
+	 * rewritten as keyframes first, so that their state does not change.
+	 */
+	@Override
+	public void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		if (checkpointIds.isEmpty()) {
+			return;
+		}
+		Set<String> deleted = new HashSet<>(checkpointIds);
+		ThreadHead head = head(threadId(config));
+		synchronized (head) {
+			RunnableConfig latestConfig = config.withCheckPointId(null);
+			List<Checkpoint> stored = List.copyOf(delegate.list(latestConfig));
+			List<Checkpoint> materialized = null;
+			for (int i = 0; i < stored.size(); i++) {
+				Checkpoint checkpoint = stored.get(i);
+				if (deleted.contains(checkpoint.getId()) || !isDelta(checkpoint)
+						|| !deleted.contains((String) checkpoint.getState().get(DELTA_BASE_KEY))) {
+					continue;
+				}
+				if (materialized == null) {
+					materialized = materialize(stored, null);
+				}
+				delegate.put(latestConfig.withCheckPointId(checkpoint.getId()), materialized.get(i));
+			}
+			delegate.delete(latestConfig, deleted);
+			if (deleted.contains(head.checkpointId)) {
+				// the head is reloaded by the next append
+				head.checkpointId = null;
+				head.state = null;
+			}
+		}
+	}
+
+	@Override
+	public Tag release(RunnableConfig config) throws Exception {
+		String threadId = threadId(config);
+		heads.remove(threadId);
+		Tag tag = delegate.release(config);
+		return new Tag(tag.threadId(), materialize(List.copyOf(tag.checkpoints()), null));
+	}
+
+	private static String threadId(RunnableConfig config) {
+		return config.threadId().orElse(THREAD_ID_DEFAULT);
+	}
+
+	private ThreadHead head(String threadId) {
+		ThreadHead head = heads.get(threadId);
+		if (head != null) {
+			return head;
+		}
+		if (heads.size() >= MAX_CACHED_THREADS) {
+			// evicted threads are reloaded from the delegate on their next append
+			Iterator<String> iterator = heads.keySet().iterator();
+			if (iterator.hasNext()) {
+				heads.remove(iterator.next());
+			}
+		}
+		return heads.computeIfAbsent(threadId, key -> new ThreadHead());
+	}
+
+	private void loadHead(RunnableConfig config, ThreadHead head) {
+		RunnableConfig latestConfig = config.withCheckPointId(null);
+		Optional<Checkpoint> latest = delegate.get(latestConfig);
+		if (latest.isEmpty()) {
+			return;
+		}
+		Checkpoint checkpoint = latest.get();
+		List<Checkpoint> stored = List.copyOf(delegate.list(latestConfig));
+		int deltas = 0;
+		while (deltas < stored.size() && isDelta(stored.get(deltas))) {
+			deltas++;
+		}
+		if (isDelta(checkpoint)) {
+			checkpoint = materialize(stored, checkpoint.getId()).get(0);
+		}
+		head.checkpointId = checkpoint.getId();
+		head.state = checkpoint.getState();
+		head.deltasSinceKeyframe = deltas;
+	}
+
+	/**
+	 * Rebuilds the full states of stored checkpoints.
+	 * @param stored the stored checkpoints, newest first
+	 * @param until the id of the newest checkpoint to rebuild, null to rebuild all of
+	 * them
+	 * @return the checkpoints with their full state, newest first; checkpoints newer
+	 * than {@code until} are returned as stored
+	 */
+	private static List<Checkpoint> materialize(List<Checkpoint> stored, String until) {
+		Checkpoint[] result = stored.toArray(new Checkpoint[0]);
+		Map<String, Map<String, Object>> states = new HashMap<>();
+		Map<String, Object> previous = null;
+		for (int i = result.length - 1; i >= 0; i--) {
+			Checkpoint checkpoint = result[i];
+			Map<String, Object> state = checkpoint.getState();
+			if (isDelta(checkpoint)) {
+				Map<String, Object> base = states.getOrDefault((String) state.get(DELTA_BASE_KEY), previous);
+				if (base == null) {
+					throw new IllegalStateException(
+							format("Missing base checkpoint of delta checkpoint %s", checkpoint.getId()));
+				}
+				state = apply(base, state);
+				result[i] = withState(checkpoint, state);
+			}
+			if (checkpoint.getId().equals(until)) {
+				break;
+			}
+			states.put(checkpoint.getId(), state);
+			previous = state;
+		}
+		return List.of(result);
+	}
+
+	/**
+	 * Computes the changes from {@code base} to {@code state}.
+	 * @return the delta, or null if every value changed and storing the full state is
+	 * not larger
+	 */
+	static Map<String, Object> delta(String baseId, Map<String, Object> base, Map<String, Object> state) {
+		Map<String, Object> delta = new HashMap<>();
+		Map<String, List<Object>> appended = new HashMap<>();
+		for (Map.Entry<String, Object> entry : state.entrySet()) {
+			String key = entry.getKey();
+			Object value = entry.getValue();
+			if (!base.containsKey(key)) {
+				delta.put(key, value);
+				continue;
+			}
+			Object previous = base.get(key);
+			if (previous == value) {
+				continue;
+			}
+			if (previous instanceof List<?> previousList && value instanceof List<?> list
+					&& isPrefix(previousList, list)) {
+				if (list.size() > previousList.size()) {
+					appended.put(key, new ArrayList<>(list.subList(previousList.size(), list.size())));
+				}
+				continue;
+			}
+			if (!Objects.equals(previous, value)) {
+				delta.put(key, value);
+			}
+		}
+		List<String> removed = new ArrayList<>();
+		for (String key : base.keySet()) {
+			if (!state.containsKey(key)) {
+				removed.add(key);
+			}
+		}
+		if (appended.isEmpty() && delta.size() >= state.size()) {
+			// every value changed
+			return null;
+		}
+		delta.put(DELTA_BASE_KEY, baseId);
+		if (!removed.isEmpty()) {
+			delta.put(DELTA_REMOVED_KEY, removed);
+		}
+		if (!appended.isEmpty()) {
+			delta.put(DELTA_APPENDED_KEY, appended);
+		}
+		return delta;
+	}
+
+	private static boolean isPrefix(List<?> prefix, List<?> list) {
+		if (prefix.size() > list.size()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.size(); i++) {
+			Object expected = prefix.get(i);
+			Object actual = list.get(i);
+			if (expected != actual && !Objects.equals(expected, actual)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applies a delta to the full state of its base checkpoint.
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, Object> apply(Map<String, Object> base, Map<String, Object> delta) {
+		Map<String, Object> state = new HashMap<>(base);
+		Object removed = delta.get(DELTA_REMOVED_KEY);
+		if (removed instanceof Collection<?> keys) {
+			keys.forEach(state::remove);
+		}
+		Object appended = delta.get(DELTA_APPENDED_KEY);
+		if (appended instanceof Map<?, ?> lists) {
+			for (Map.Entry<?, ?> entry : lists.entrySet()) {
+				String key = (String) entry.getKey();
+				List<Object> list = (List<Object>) state.get(key);
+				Collection<Object> elements = (Collection<Object>) entry.getValue();
+				state.put(key, list != null ? AppendableList.of(list).appendedAll(elements)
+						: AppendableList.of(elements));
+			}
+		}
+		for (Map.Entry<String, Object> entry : delta.entrySet()) {
+			String key = entry.getKey();
+			if (!DELTA_BASE_KEY.equals(key) && !DELTA_REMOVED_KEY.equals(key) && !DELTA_APPENDED_KEY.equals(key)) {
+				state.put(key, entry.getValue());
+			}
+		}
+		return state;
+	}
+
+	private static Checkpoint withState(Checkpoint checkpoint, Map<String, Object> state) {
+		return Checkpoint.builder()
+			.id(checkpoint.getId())
+			.nodeId(checkpoint.getNodeId())
+			.nextNodeId(checkpoint.getNextNodeId())
+			.state(state)
+			.build();
+	}
+
+}
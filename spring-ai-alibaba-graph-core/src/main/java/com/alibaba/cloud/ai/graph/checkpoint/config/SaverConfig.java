@@ -16,23 +16,156 @@
 package com.alibaba.cloud.ai.graph.checkpoint.config;
 
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.CheckpointRetentionPolicy;
+import com.alibaba.cloud.ai.graph.checkpoint.CompactingCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.DeltaCheckpointSaver;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Objects.requireNonNull;
+
 public class SaverConfig {
 
+	/**
+	 * The savers as registered, possibly wrapped by the caller.
+	 */
+	private final List<BaseCheckpointSaver> registered = new ArrayList<>();
+
+	/**
+	 * The registered savers, wrapped according to this config.
+	 */
 	private final List<BaseCheckpointSaver> savers = new ArrayList<>();
 
+	private int keyframeInterval = 0;
+
+	private CheckpointRetentionPolicy retentionPolicy;
+
+	private Duration compactionInterval = Duration.ofMinutes(1);
+
 	public static Builder builder() {
 		return new Builder();
 	}
 
+	/**
+	 * Registers a saver, wrapped according to the delta and retention settings of this
+	 * config. A saver the caller already wrapped in a {@link DeltaCheckpointSaver} or a
+	 * {@link CompactingCheckpointSaver} is kept as is, and cannot be combined with the
+	 * corresponding settings.
+	 * @param saver the saver
+	 * @return this config
+	 * @throws IllegalArgumentException if the saver is already wrapped in a way that
+	 * conflicts with this config
+	 */
 	public SaverConfig register(BaseCheckpointSaver saver) {
-		savers.add(saver);
+		requireNonNull(saver, "saver cannot be null!");
+		checkWrappable(saver, keyframeInterval, retentionPolicy);
+		registered.add(saver);
+		savers.add(wrap(saver));
+		return this;
+	}
+
+	/**
+	 * Rejects settings that would wrap a saver the caller already wrapped a second time,
+	 * or a delta wrapper around a compacting one.
+	 */
+	private static void checkWrappable(BaseCheckpointSaver saver, int keyframeInterval,
+			CheckpointRetentionPolicy retentionPolicy) {
+		boolean compacting = saver instanceof CompactingCheckpointSaver;
+		boolean delta = saver instanceof DeltaCheckpointSaver
+				|| (saver instanceof CompactingCheckpointSaver compactingSaver
+						&& compactingSaver.delegate() instanceof DeltaCheckpointSaver);
+		if (keyframeInterval > 0 && (delta || compacting)) {
+			throw new IllegalArgumentException("deltaCheckpoints cannot be applied to a saver already wrapped "
+					+ "in a DeltaCheckpointSaver or a CompactingCheckpointSaver!");
+		}
+		if (retentionPolicy != null && compacting) {
+			throw new IllegalArgumentException("retentionPolicy cannot be applied to a saver already wrapped "
+					+ "in a CompactingCheckpointSaver!");
+		}
+	}
+
+	private void rewrap(int keyframeInterval, CheckpointRetentionPolicy retentionPolicy) {
+		for (BaseCheckpointSaver saver : registered) {
+			checkWrappable(saver, keyframeInterval, retentionPolicy);
+		}
+		this.keyframeInterval = keyframeInterval;
+		this.retentionPolicy = retentionPolicy;
+		for (int i = 0; i < registered.size(); i++) {
+			savers.set(i, wrap(registered.get(i)));
+		}
+	}
+
+	private BaseCheckpointSaver wrap(BaseCheckpointSaver saver) {
+		if (keyframeInterval > 0) {
+			saver = DeltaCheckpointSaver.wrap(saver, keyframeInterval);
+		}
+		if (retentionPolicy != null) {
+			saver = CompactingCheckpointSaver.wrap(saver, retentionPolicy, compactionInterval);
+		}
+		return saver;
+	}
+
+	/**
+	 * Stores the checkpoints of every registered saver as deltas, with a full keyframe
+	 * every {@code keyframeInterval} checkpoints of a thread.
+	 * @param keyframeInterval the number of checkpoints between two keyframes, 0 to
+	 * store every checkpoint in full
+	 * @return this config
+	 * @throws IllegalArgumentException if a registered saver is already wrapped by the
+	 * caller
+	 * @see DeltaCheckpointSaver
+	 */
+	public SaverConfig deltaCheckpoints(int keyframeInterval) {
+		if (keyframeInterval < 0) {
+			throw new IllegalArgumentException("keyframeInterval must be >= 0!");
+		}
+		rewrap(keyframeInterval, retentionPolicy);
 		return this;
 	}
 
+	public int keyframeInterval() {
+		return keyframeInterval;
+	}
+
+	/**
+	 * Deletes, in the background, the checkpoints of every registered saver expired by
+	 * the given policy.
+	 * @param retentionPolicy the retention policy, null to keep every checkpoint
+	 * @return this config
+	 * @throws IllegalArgumentException if a registered saver is already wrapped in a
+	 * {@link CompactingCheckpointSaver} by the caller
+	 * @see CompactingCheckpointSaver
+	 */
+	public SaverConfig retentionPolicy(CheckpointRetentionPolicy retentionPolicy) {
+		rewrap(keyframeInterval, retentionPolicy);
+		return this;
+	}
+
+	public CheckpointRetentionPolicy retentionPolicy() {
+		return retentionPolicy;
+	}
+
+	/**
+	 * Sets the minimum time between two compactions of a thread, one minute by default.
+	 * @param compactionInterval the compaction interval
+	 * @return this config
+	 */
+	public SaverConfig compactionInterval(Duration compactionInterval) {
+		requireNonNull(compactionInterval, "compactionInterval cannot be null!");
+		if (compactionInterval.isNegative()) {
+			throw new IllegalArgumentException("compactionInterval must not be negative!");
+		}
+		this.compactionInterval = compactionInterval;
+		rewrap(keyframeInterval, retentionPolicy);
+		return this;
+	}
+
+	public Duration compactionInterval() {
+		return compactionInterval;
+	}
+
 	public BaseCheckpointSaver get() {
 		if (savers.isEmpty()) {
 			return null;
@@ -60,6 +193,40 @@ public class SaverConfig {
 			return this;
 		}
 
+		/**
+		 * Stores the checkpoints of every registered saver as deltas.
+		 * @param keyframeInterval the number of checkpoints between two keyframes, 0 to
+		 * store every checkpoint in full
+		 * @return this builder
+		 * @see SaverConfig#deltaCheckpoints(int)
+		 */
+		public Builder deltaCheckpoints(int keyframeInterval) {
+			this.config.deltaCheckpoints(keyframeInterval);
+			return this;
+		}
+
+		/**
+		 * Enforces a retention policy on every registered saver.
+		 * @param retentionPolicy the retention policy, null to keep every checkpoint
+		 * @return this builder
+		 * @see SaverConfig#retentionPolicy(CheckpointRetentionPolicy)
+		 */
+		public Builder retentionPolicy(CheckpointRetentionPolicy retentionPolicy) {
+			this.config.retentionPolicy(retentionPolicy);
+			return this;
+		}
+
+		/**
+		 * Sets the minimum time between two compactions of a thread.
+		 * @param compactionInterval the compaction interval
+		 * @return this builder
+		 * @see SaverConfig#compactionInterval(Duration)
+		 */
+		public Builder compactionInterval(Duration compactionInterval) {
+			this.config.compactionInterval(compactionInterval);
+			return this;
+		}
+
 		public SaverConfig build() {
 			return this.config;
 		}
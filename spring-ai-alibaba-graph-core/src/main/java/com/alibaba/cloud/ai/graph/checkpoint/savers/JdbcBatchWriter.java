@@ -0,0 +1,312 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Groups the writes of many concurrent callers into JDBC batches, each committed in a
+ * single transaction.
+ * <p>
+ * {@link #write(Object)} blocks until the write is committed, so callers keep the
+ * durability of a direct write. The first caller finding no batch in progress leads the
+ * next one: it waits up to the {@code window} for other writes, or until
+ * {@code maxBatchSize} of them are queued, then executes them on one connection while new
+ * writes queue up for the following batch. With a zero window, batches are only made of
+ * the writes queued while the previous batch was executing.
+ * <p>
+ * When a batch fails, it is rolled back and its writes are retried one by one, so that a
+ * failing write does not fail the others. Batch sizes and commit latencies are counted,
+ * see {@link #batches()}, {@link #averageBatchSize()} and {@link #averageCommitLatency()}.
+ *
+ * @param <T> the type of the writes
+ */
+public final class JdbcBatchWriter<T> {
+
+	private static final Logger log = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+	/**
+	 * Executes a batch of writes on a connection. The statements it needs are prepared
+	 * once per batch and shared by all of its writes; the transaction is committed by the
+	 * writer.
+	 *
+	 * @param <T> the type of the writes
+	 */
+	@FunctionalInterface
+	public interface BatchStatement<T> {
+
+		void execute(Connection connection, List<T> writes) throws Exception;
+
+	}
+
+	private static final class Pending<T> {
+
+		final T write;
+
+		boolean done;
+
+		Exception error;
+
+		Pending(T write) {
+			this.write = write;
+		}
+
+	}
+
+	private final DataSource dataSource;
+
+	private final BatchStatement<T> statement;
+
+	private final long windowNanos;
+
+	private final int maxBatchSize;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition changed = lock.newCondition();
+
+	private final ArrayDeque<Pending<T>> queue = new ArrayDeque<>();
+
+	private boolean flushing;
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final AtomicLong writes = new AtomicLong();
+
+	private final AtomicLong failedBatches = new AtomicLong();
+
+	private final AtomicLong commitNanos = new AtomicLong();
+
+	private final AtomicLong maxCommitNanos = new AtomicLong();
+
+	public JdbcBatchWriter(DataSource dataSource, Duration window, int maxBatchSize, BatchStatement<T> statement) {
+		this.dataSource = requireNonNull(dataSource, "dataSource cannot be null!");
+		this.statement = requireNonNull(statement, "statement cannot be null!");
+		requireNonNull(window, "window cannot be null!");
+		if (window.isNegative()) {
+			throw new IllegalArgumentException("window must be >= 0!");
+		}
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be > 0!");
+		}
+		this.windowNanos = window.toNanos();
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Writes and commits the given write, possibly in the same batch as writes of other
+	 * callers.
+	 * @param write the write
+	 * @throws Exception the error raised while executing or committing the write
+	 */
+	public void write(T write) throws Exception {
+		Pending<T> pending = new Pending<>(write);
+		lock.lock();
+		try {
+			queue.add(pending);
+			if (queue.size() >= maxBatchSize) {
+				changed.signalAll();
+			}
+			while (!pending.done) {
+				if (flushing) {
+					awaitChange(pending);
+					continue;
+				}
+				flushing = true;
+				List<Pending<T>> batch;
+				try {
+					long remaining = windowNanos;
+					while (queue.size() < maxBatchSize && remaining > 0) {
+						remaining = changed.awaitNanos(remaining);
+					}
+					batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+					while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+						batch.add(queue.poll());
+					}
+				}
+				catch (InterruptedException ex) {
+					flushing = false;
+					changed.signalAll();
+					queue.remove(pending);
+					Thread.currentThread().interrupt();
+					throw ex;
+				}
+				lock.unlock();
+				try {
+					execute(batch);
+				}
+				finally {
+					lock.lock();
+					flushing = false;
+					changed.signalAll();
+				}
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+		if (pending.error != null) {
+			throw pending.error;
+		}
+	}
+
+	private void awaitChange(Pending<T> pending) throws InterruptedException {
+		try {
+			changed.await();
+		}
+		catch (InterruptedException ex) {
+			if (queue.remove(pending)) {
+				Thread.currentThread().interrupt();
+				throw ex;
+			}
+			// already taken by a batch, wait for its outcome
+			Thread.currentThread().interrupt();
+			while (!pending.done) {
+				changed.awaitUninterruptibly();
+			}
+		}
+	}
+
+	private void execute(List<Pending<T>> batch) {
+		long start = System.nanoTime();
+		Exception error = commit(batch);
+		if (error == null) {
+			long elapsed = System.nanoTime() - start;
+			batches.incrementAndGet();
+			writes.addAndGet(batch.size());
+			commitNanos.addAndGet(elapsed);
+			maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+			complete(batch, null);
+			return;
+		}
+		failedBatches.incrementAndGet();
+		if (batch.size() == 1) {
+			complete(batch, error);
+			return;
+		}
+		log.warn("Batch of {} writes failed, retrying them one by one", batch.size(), error);
+		for (Pending<T> pending : batch) {
+			execute(List.of(pending));
+		}
+	}
+
+	private Exception commit(List<Pending<T>> batch) {
+		List<T> values = new ArrayList<>(batch.size());
+		for (Pending<T> pending : batch) {
+			values.add(pending.write);
+		}
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				statement.execute(connection, values);
+				connection.commit();
+				return null;
+			}
+			catch (Exception ex) {
+				try {
+					connection.rollback();
+				}
+				catch (SQLException rollbackEx) {
+					ex.addSuppressed(rollbackEx);
+				}
+				return ex;
+			}
+		}
+		catch (SQLException ex) {
+			return ex;
+		}
+	}
+
+	private void complete(List<Pending<T>> batch, Exception error) {
+		lock.lock();
+		try {
+			for (Pending<T> pending : batch) {
+				pending.error = error;
+				pending.done = true;
+			}
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of committed batches.
+	 * @return the number of committed batches
+	 */
+	public long batches() {
+		return batches.get();
+	}
+
+	/**
+	 * Returns the number of committed writes.
+	 * @return the number of committed writes
+	 */
+	public long writes() {
+		return writes.get();
+	}
+
+	/**
+	 * Returns the number of batches rolled back, either retried one write at a time or
+	 * reported to their single caller.
+	 * @return the number of failed batches
+	 */
+	public long failedBatches() {
+		return failedBatches.get();
+	}
+
+	/**
+	 * Returns the average number of writes of the committed batches.
+	 * @return the average batch size, 0 if no batch was committed
+	 */
+	public double averageBatchSize() {
+		long count = batches.get();
+		return count == 0 ? 0 : (double) writes.get() / count;
+	}
+
+	/**
+	 * Returns the average time taken to execute and commit a batch.
+	 * @return the average commit latency, zero if no batch was committed
+	 */
+	public Duration averageCommitLatency() {
+		long count = batches.get();
+		return count == 0 ? Duration.ZERO : Duration.ofNanos(commitNanos.get() / count);
+	}
+
+	/**
+	 * Returns the longest time taken to execute and commit a batch.
+	 * @return the maximum commit latency
+	 */
+	public Duration maxCommitLatency() {
+		return Duration.ofNanos(maxCommitNanos.get());
+	}
+
+}
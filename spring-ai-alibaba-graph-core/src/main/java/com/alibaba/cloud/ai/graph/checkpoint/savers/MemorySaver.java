@@ -18,31 +18,402 @@ package com.alibaba.cloud.ai.graph.checkpoint.savers;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.DeltaCheckpointSaver;
+import com.alibaba.cloud.ai.graph.state.AppendableList;
 import com.alibaba.cloud.ai.graph.utils.TryFunction;
+import org.springframework.ai.chat.messages.Message;
 
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.IntStream;
+import java.util.function.Predicate;
 
 import static java.lang.String.format;
 
+/**
+ * A {@link BaseCheckpointSaver} keeping checkpoints in memory.
+ * <p>
+ * Each thread has its own lock, so that executions of unrelated threads never contend.
+ * By default every checkpoint is kept until its thread is released. The builder can
+ * bound the retained checkpoints:
+ * <ul>
+ * <li>{@link Builder#maxCheckpointsPerThread(int)} drops the oldest checkpoints of a
+ * thread;</li>
+ * <li>{@link Builder#maxThreads(int)} evicts the least recently used threads;</li>
+ * <li>{@link Builder#idleTtl(Duration)} evicts threads that have not been accessed for
+ * the given time;</li>
+ * <li>{@link Builder#memoryBudget(long)} evicts the least recently used threads, then
+ * the oldest checkpoints of the current thread, while the approximate size of the
+ * retained states exceeds the budget.</li>
+ * </ul>
+ * Threads in use by another caller are never evicted. Evictions are counted, see
+ * {@link #evictedCheckpoints()}, {@link #evictedThreads()} and {@link #expiredThreads()}.
+ * <p>
+ * Checkpoints are only dropped at keyframe boundaries: the delta checkpoints written by a
+ * {@link DeltaCheckpointSaver} are dropped together with the checkpoints they are based
+ * on, so a thread may keep up to its keyframe interval more checkpoints than its limit.
+ */
 public class MemorySaver implements BaseCheckpointSaver {
 
-	final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new HashMap<>();
-	private final ReentrantLock _lock = new ReentrantLock();
+	/**
+	 * The checkpoints of a thread, newest first, guarded by their own lock.
+	 */
+	static final class ThreadCheckpoints {
+
+		final String threadId;
+
+		final ReentrantLock lock = new ReentrantLock();
+
+		final CheckpointList checkpoints = new CheckpointList();
+
+		/**
+		 * The estimated footprint of each checkpoint, when a memory budget is set.
+		 */
+		final Map<String, Footprint> footprints = new HashMap<>();
+
+		/**
+		 * The chunks of the {@link AppendableList}s shared by the checkpoints, each charged
+		 * once.
+		 */
+		final Map<Object[], SharedChunk> sharedChunks = new IdentityHashMap<>();
+
+		/**
+		 * Index of the checkpoints by id. Each entry records the sequence number of the
+		 * checkpoint, from which its position in {@link #checkpoints} is derived, since
+		 * checkpoints are only pushed at the head, dropped at the tail or replaced in
+		 * place.
+		 */
+		final Map<String, Indexed> index = new HashMap<>();
+
+		/**
+		 * The {@link CheckpointList#modifications() modifications} of the checkpoints the
+		 * index reflects.
+		 */
+		int indexedModifications;
+
+		long headSequence;
+
+		long bytes;
+
+		volatile long lastAccessNanos = System.nanoTime();
+
+		boolean removed;
+
+		ThreadCheckpoints(String threadId) {
+			this.threadId = threadId;
+		}
+
+		/**
+		 * Returns the index, rebuilding it if the checkpoints were changed without going
+		 * through it, e.g. when loaded by {@link #loadedCheckpoints}.
+		 */
+		Map<String, Indexed> index() {
+			if (indexedModifications != checkpoints.modifications()) {
+				index.clear();
+				long sequence = headSequence;
+				for (Checkpoint checkpoint : checkpoints) {
+					index.put(checkpoint.getId(), new Indexed(checkpoint, sequence--));
+				}
+				indexedModifications = checkpoints.modifications();
+			}
+			return index;
+		}
+
+		Optional<Checkpoint> get(String checkpointId) {
+			return Optional.ofNullable(index().get(checkpointId)).map(Indexed::checkpoint);
+		}
+
+		int position(String checkpointId) {
+			Indexed indexed = index().get(checkpointId);
+			return indexed != null ? (int) (headSequence - indexed.sequence()) : -1;
+		}
+
+		void push(Checkpoint checkpoint) {
+			Map<String, Indexed> current = index();
+			checkpoints.push(checkpoint);
+			current.put(checkpoint.getId(), new Indexed(checkpoint, ++headSequence));
+			indexedModifications = checkpoints.modifications();
+		}
+
+		Checkpoint removeLast() {
+			Map<String, Indexed> current = index();
+			Checkpoint removed = checkpoints.removeLast();
+			current.remove(removed.getId());
+			indexedModifications = checkpoints.modifications();
+			return removed;
+		}
+
+		Checkpoint replace(String checkpointId, Checkpoint checkpoint) {
+			Map<String, Indexed> current = index();
+			Indexed replaced = current.get(checkpointId);
+			if (replaced == null) {
+				throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkpointId));
+			}
+			checkpoints.set((int) (headSequence - replaced.sequence()), checkpoint);
+			current.remove(checkpointId);
+			current.put(checkpoint.getId(), new Indexed(checkpoint, replaced.sequence()));
+			indexedModifications = checkpoints.modifications();
+			return replaced.checkpoint();
+		}
+
+		/**
+		 * Returns how many of the oldest checkpoints can be dropped while keeping at least
+		 * the given number of newest ones, without dropping the base of a remaining
+		 * delta checkpoint.
+		 */
+		int droppable(int keep) {
+			int droppable = 0;
+			int size = checkpoints.size();
+			for (int dropped = 0; dropped <= size - keep && dropped < size; dropped++) {
+				if (!DeltaCheckpointSaver.isDelta(checkpoints.get(size - 1 - dropped))) {
+					droppable = dropped;
+				}
+			}
+			return droppable;
+		}
+
+		/**
+		 * Returns the number of checkpoints preceding the second oldest keyframe, i.e. the
+		 * smallest number of oldest checkpoints that can be dropped, or 0 if the oldest
+		 * keyframe is the last one.
+		 */
+		int oldestSegment() {
+			int size = checkpoints.size();
+			for (int dropped = 1; dropped < size; dropped++) {
+				if (!DeltaCheckpointSaver.isDelta(checkpoints.get(size - 1 - dropped))) {
+					return dropped;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * Removes the given checkpoints wherever they are, renumbering the others.
+		 */
+		List<Checkpoint> remove(Set<String> checkpointIds) {
+			List<Checkpoint> removed = new ArrayList<>();
+			checkpoints.removeIf(checkpoint -> checkpointIds.contains(checkpoint.getId()) && removed.add(checkpoint));
+			return removed;
+		}
+
+	}
+
+	/**
+	 * The checkpoints of a thread, newest first, in a ring buffer, so that pushing a
+	 * checkpoint, dropping the oldest one and replacing one at a given position are O(1).
+	 * Counts every modification, including the ones that replace an element in place, so
+	 * that {@link ThreadCheckpoints#index()} notices the changes made without going
+	 * through it.
+	 */
+	static final class CheckpointList extends AbstractList<Checkpoint> implements RandomAccess {
+
+		private Checkpoint[] elements = new Checkpoint[8];
+
+		/**
+		 * The slot of the newest checkpoint.
+		 */
+		private int head;
+
+		private int size;
+
+		/**
+		 * The number of elements replaced in place, which does not change
+		 * {@link #modCount} since it is not a structural modification.
+		 */
+		private int replacements;
+
+		int modifications() {
+			return modCount + replacements;
+		}
+
+		private int slot(int index) {
+			return (head + index) & (elements.length - 1);
+		}
+
+		@Override
+		public Checkpoint get(int index) {
+			Objects.checkIndex(index, size);
+			return elements[slot(index)];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Checkpoint set(int index, Checkpoint element) {
+			Objects.checkIndex(index, size);
+			int slot = slot(index);
+			Checkpoint previous = elements[slot];
+			elements[slot] = element;
+			replacements++;
+			return previous;
+		}
+
+		void push(Checkpoint checkpoint) {
+			add(0, checkpoint);
+		}
+
+		Checkpoint removeLast() {
+			if (size == 0) {
+				throw new NoSuchElementException();
+			}
+			return remove(size - 1);
+		}
+
+		@Override
+		public void add(int index, Checkpoint element) {
+			if (index < 0 || index > size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			if (size == elements.length) {
+				grow();
+			}
+			if (index == 0) {
+				head = (head - 1) & (elements.length - 1);
+			}
+			else {
+				for (int i = size; i > index; i--) {
+					elements[slot(i)] = elements[slot(i - 1)];
+				}
+			}
+			elements[slot(index)] = element;
+			size++;
+			modCount++;
+		}
+
+		@Override
+		public Checkpoint remove(int index) {
+			Objects.checkIndex(index, size);
+			Checkpoint removed = elements[slot(index)];
+			if (index == 0) {
+				elements[head] = null;
+				head = (head + 1) & (elements.length - 1);
+			}
+			else {
+				for (int i = index; i < size - 1; i++) {
+					elements[slot(i)] = elements[slot(i + 1)];
+				}
+				elements[slot(size - 1)] = null;
+			}
+			size--;
+			modCount++;
+			return removed;
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super Checkpoint> filter) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				Checkpoint checkpoint = elements[slot(i)];
+				if (!filter.test(checkpoint)) {
+					elements[slot(kept++)] = checkpoint;
+				}
+			}
+			if (kept == size) {
+				return false;
+			}
+			for (int i = kept; i < size; i++) {
+				elements[slot(i)] = null;
+			}
+			size = kept;
+			modCount++;
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			Arrays.fill(elements, null);
+			head = 0;
+			size = 0;
+			modCount++;
+		}
+
+		private void grow() {
+			Checkpoint[] grown = new Checkpoint[elements.length << 1];
+			for (int i = 0; i < size; i++) {
+				grown[i] = elements[slot(i)];
+			}
+			elements = grown;
+			head = 0;
+		}
+
+	}
+
+	record Indexed(Checkpoint checkpoint, long sequence) {
+	}
+
+	/**
+	 * The estimated size of a checkpoint, except for the chunks of its
+	 * {@link AppendableList}s, which are charged to its thread.
+	 */
+	record Footprint(long bytes, List<AppendableList<?>> lists) {
+	}
+
+	/**
+	 * A chunk of {@link AppendableList} charged to a thread, with the number of its
+	 * elements charged so far and the number of checkpoints referencing it.
+	 */
+	static final class SharedChunk {
+
+		int elements;
+
+		long bytes;
+
+		int references;
+
+	}
+
+	final Map<String, ThreadCheckpoints> _checkpointsByThread = new ConcurrentHashMap<>();
+
+	private final int maxCheckpointsPerThread;
+
+	private final int maxThreads;
+
+	private final long idleTtlNanos;
+
+	private final long memoryBudget;
+
+	private final AtomicLong estimatedBytes = new AtomicLong();
+
+	private final AtomicLong evictedCheckpoints = new AtomicLong();
+
+	private final AtomicLong evictedThreads = new AtomicLong();
+
+	private final AtomicLong expiredThreads = new AtomicLong();
+
+	private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
 
 	/**
-	 * Protected constructor for MemorySaver.
-	 * Use {@link #builder()} to create instances.
+	 * Creates a MemorySaver keeping every checkpoint until its thread is released.
+	 * Use {@link #builder()} to configure retention limits.
 	 */
 	public MemorySaver() {
+		this(new Builder());
+	}
+
+	protected MemorySaver(Builder builder) {
+		this.maxCheckpointsPerThread = builder.maxCheckpointsPerThread;
+		this.maxThreads = builder.maxThreads;
+		this.idleTtlNanos = builder.idleTtl != null ? builder.idleTtl.toNanos() : 0;
+		this.memoryBudget = builder.memoryBudget;
 	}
 
 	/**
@@ -53,40 +424,162 @@ public class MemorySaver implements BaseCheckpointSaver {
 		return new Builder();
 	}
 
-	protected LinkedList<Checkpoint> loadedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints) throws Exception {
+	protected List<Checkpoint> loadedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints) throws Exception {
 		return checkpoints;
 	}
 
-	protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
+	protected void insertedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
 	}
 
-	protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
+	protected void updatedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
 	}
 
-	protected void releasedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Tag releaseTag) throws Exception {
+	protected void releasedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints, Tag releaseTag) throws Exception {
 	}
 
-	protected final <T> T loadOrInitCheckpoints(RunnableConfig config,
-			TryFunction<LinkedList<Checkpoint>, T, Exception> transformer) throws Exception {
-		_lock.lock();
-		try {
-			var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
-			return transformer.tryApply(loadedCheckpoints(config, _checkpointsByThread.computeIfAbsent(threadId, k -> new LinkedList<>())));
+	/**
+	 * Called after checkpoints have been deleted from memory, so that savers backed by a
+	 * store delete them there too.
+	 * @param config the config of the thread
+	 * @param checkpoints the remaining checkpoints in memory
+	 * @param checkpointIds the ids of the deleted checkpoints, including the ones that
+	 * were not in memory
+	 * @throws Exception if the checkpoints cannot be deleted
+	 */
+	protected void deletedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			Collection<String> checkpointIds) throws Exception {
+	}
 
-		}
-		finally {
-			_lock.unlock();
+	/**
+	 * Called when a thread is removed from memory, because it was released, evicted,
+	 * expired or left without checkpoints, so that savers free what they hold for it.
+	 * Called while holding the lock of the thread, before another caller can load it
+	 * again.
+	 * @param threadId the id of the thread
+	 */
+	protected void discardedThread(String threadId) {
+	}
+
+	/**
+	 * Loads the latest checkpoint of a thread that has none in memory. Savers that do not
+	 * load whole threads in {@link #loadedCheckpoints} override it; the returned
+	 * checkpoint is then kept in memory as the head of the thread.
+	 * @param config the config of the thread
+	 * @return the latest checkpoint, if any
+	 * @throws Exception if the checkpoint cannot be loaded
+	 */
+	protected Optional<Checkpoint> loadedLatestCheckpoint(RunnableConfig config) throws Exception {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the maximum number of checkpoints kept per thread, 0 if unlimited.
+	 * @return the maximum number of checkpoints per thread
+	 */
+	protected final int maxCheckpointsPerThread() {
+		return maxCheckpointsPerThread;
+	}
+
+	/**
+	 * Returns the position of a checkpoint among the checkpoints of a thread in memory,
+	 * counted from the newest, in O(1). Must be called from a hook, while the thread is
+	 * locked.
+	 * @param config the config of the thread
+	 * @param checkpointId the checkpoint id
+	 * @return the position of the checkpoint, or -1 if it is not in memory
+	 */
+	protected final int position(RunnableConfig config, String checkpointId) {
+		ThreadCheckpoints thread = _checkpointsByThread.get(config.threadId().orElse(THREAD_ID_DEFAULT));
+		return thread != null ? thread.position(checkpointId) : -1;
+	}
+
+	/**
+	 * Loads a checkpoint that is not in memory, e.g. because it has been trimmed or was
+	 * never loaded. A checkpoint found this way can also be replaced by {@link #put}.
+	 * @param config the config of the thread
+	 * @param checkpointId the checkpoint id
+	 * @return the checkpoint, if any
+	 * @throws Exception if the checkpoint cannot be loaded
+	 */
+	protected Optional<Checkpoint> loadedCheckpoint(RunnableConfig config, String checkpointId) throws Exception {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns a page of the checkpoints of a thread, newest first. By default the page is
+	 * taken from the checkpoints in memory; savers that only keep some of them in memory
+	 * override it to read from their store.
+	 * @param config the config of the thread
+	 * @param checkpoints the checkpoints in memory
+	 * @param afterCheckpointId the id of the checkpoint preceding the page, null for the
+	 * first page
+	 * @param limit the maximum number of checkpoints of the page
+	 * @return the checkpoints of the page
+	 * @throws Exception if the checkpoints cannot be loaded
+	 */
+	protected List<Checkpoint> listedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			String afterCheckpointId, int limit) throws Exception {
+		return afterCheckpointId == null && limit >= checkpoints.size() ? new ArrayList<>(checkpoints)
+				: BaseCheckpointSaver.page(checkpoints, afterCheckpointId, limit);
+	}
+
+	protected final <T> T loadOrInitCheckpoints(RunnableConfig config,
+			TryFunction<List<Checkpoint>, T, Exception> transformer) throws Exception {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		while (true) {
+			ThreadCheckpoints thread = _checkpointsByThread.computeIfAbsent(threadId, ThreadCheckpoints::new);
+			thread.lock.lock();
+			try {
+				if (thread.removed) {
+					// evicted or released while waiting for the lock
+					continue;
+				}
+				long now = System.nanoTime();
+				if (isExpired(thread, now)) {
+					discard(thread);
+					expiredThreads.incrementAndGet();
+					continue;
+				}
+				thread.lastAccessNanos = now;
+				return transformer.tryApply(loadedCheckpoints(config, thread.checkpoints));
+			}
+			finally {
+				if (!thread.removed && thread.checkpoints.isEmpty()) {
+					discard(thread);
+				}
+				thread.lock.unlock();
+			}
 		}
 	}
 
 	protected final Collection<Checkpoint> remove(String threadId) {
-		return _checkpointsByThread.remove(Objects.requireNonNull(threadId));
+		ThreadCheckpoints thread = _checkpointsByThread.get(Objects.requireNonNull(threadId));
+		if (thread == null) {
+			return null;
+		}
+		discard(thread);
+		return thread.checkpoints;
 	}
 
 	@Override
 	public final Collection<Checkpoint> list(RunnableConfig config) {
 		try {
-			return loadOrInitCheckpoints(config, Collections::unmodifiableCollection);
+			return loadOrInitCheckpoints(config, checkpoints -> Collections
+				.unmodifiableList(listedCheckpoints(config, checkpoints, null, Integer.MAX_VALUE)));
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public final List<Checkpoint> list(RunnableConfig config, String afterCheckpointId, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("limit must be > 0!");
+		}
+		try {
+			return loadOrInitCheckpoints(config, checkpoints -> Collections
+				.unmodifiableList(listedCheckpoints(config, checkpoints, afterCheckpointId, limit)));
 		}
 		catch (Exception e) {
 			throw new RuntimeException(e);
@@ -97,12 +590,21 @@ public class MemorySaver implements BaseCheckpointSaver {
 	public final Optional<Checkpoint> get(RunnableConfig config) {
 
 		try {
+			var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
 			return loadOrInitCheckpoints(config, checkpoints -> {
+				ThreadCheckpoints thread = _checkpointsByThread.get(threadId);
 				if (config.checkPointId().isPresent()) {
-					return config.checkPointId()
-							.flatMap(id -> checkpoints.stream()
-									.filter(checkpoint -> checkpoint.getId().equals(id))
-									.findFirst());
+					String checkpointId = config.checkPointId().get();
+					Optional<Checkpoint> checkpoint = thread.get(checkpointId);
+					return checkpoint.isPresent() ? checkpoint : loadedCheckpoint(config, checkpointId);
+				}
+				if (checkpoints.isEmpty()) {
+					Optional<Checkpoint> latest = loadedLatestCheckpoint(config);
+					latest.ifPresent(checkpoint -> {
+						thread.push(checkpoint);
+						track(thread, checkpoint);
+					});
+					return latest;
 				}
 				return getLast(checkpoints, config);
 
@@ -116,20 +618,32 @@ public class MemorySaver implements BaseCheckpointSaver {
 	@Override
 	public final RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
 
-		return loadOrInitCheckpoints(config, checkpoints -> {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		RunnableConfig result = loadOrInitCheckpoints(config, checkpoints -> {
+			ThreadCheckpoints thread = _checkpointsByThread.get(threadId);
 
 			if (config.checkPointId().isPresent()) { // Replace Checkpoint
-				String checkPointId = config.checkPointId().get();
-				int index = IntStream.range(0, checkpoints.size())
-						.filter(i -> checkpoints.get(i).getId().equals(checkPointId))
-						.findFirst()
-						.orElseThrow(() -> (new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId))));
-				checkpoints.set(index, checkpoint);
+				String checkpointId = config.checkPointId().get();
+				if (thread.get(checkpointId).isPresent()) {
+					Checkpoint replaced = thread.replace(checkpointId, checkpoint);
+					untrack(thread, replaced);
+					track(thread, checkpoint);
+				}
+				else if (loadedCheckpoint(config, checkpointId).isEmpty()) {
+					throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkpointId));
+				}
 				updatedCheckpoint(config, checkpoints, checkpoint);
 				return config;
 			}
 
-			checkpoints.push(checkpoint); // Add Checkpoint
+			thread.push(checkpoint); // Add Checkpoint
+			track(thread, checkpoint);
+			if (maxCheckpointsPerThread > 0 && checkpoints.size() > maxCheckpointsPerThread) {
+				for (int i = thread.droppable(maxCheckpointsPerThread); i > 0; i--) {
+					untrack(thread, thread.removeLast());
+					evictedCheckpoints.incrementAndGet();
+				}
+			}
 			insertedCheckpoint(config, checkpoints, checkpoint);
 
 			return RunnableConfig.builder(config)
@@ -137,6 +651,8 @@ public class MemorySaver implements BaseCheckpointSaver {
 					.build();
 
 		});
+		enforceLimits(threadId);
+		return result;
 	}
 
 	@Override
@@ -146,7 +662,9 @@ public class MemorySaver implements BaseCheckpointSaver {
 
 			var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
 
-			var tag = new Tag(threadId, remove(threadId));
+			var released = listedCheckpoints(config, checkpoints, null, Integer.MAX_VALUE);
+			remove(threadId);
+			var tag = new Tag(threadId, released);
 
 			releasedCheckpoints(config, checkpoints, tag);
 
@@ -154,16 +672,389 @@ public class MemorySaver implements BaseCheckpointSaver {
 		});
 	}
 
+	@Override
+	public final void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		if (checkpointIds.isEmpty()) {
+			return;
+		}
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		loadOrInitCheckpoints(config, checkpoints -> {
+			ThreadCheckpoints thread = _checkpointsByThread.get(threadId);
+			for (Checkpoint removed : thread.remove(Set.copyOf(checkpointIds))) {
+				untrack(thread, removed);
+			}
+			deletedCheckpoints(config, checkpoints, checkpointIds);
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the number of threads whose checkpoints are held in memory.
+	 * @return the number of threads
+	 */
+	public int threadCount() {
+		return _checkpointsByThread.size();
+	}
+
+	/**
+	 * Returns the approximate size of the retained states, in bytes. Only tracked when a
+	 * {@link Builder#memoryBudget(long) memory budget} is set.
+	 * @return the estimated size, or 0 if no budget is set
+	 */
+	public long estimatedMemoryBytes() {
+		return estimatedBytes.get();
+	}
+
+	/**
+	 * Returns the number of checkpoints dropped from a thread that was kept, because of
+	 * {@link Builder#maxCheckpointsPerThread(int)} or {@link Builder#memoryBudget(long)}.
+	 * @return the number of evicted checkpoints
+	 */
+	public long evictedCheckpoints() {
+		return evictedCheckpoints.get();
+	}
+
+	/**
+	 * Returns the number of threads evicted because of {@link Builder#maxThreads(int)}
+	 * or {@link Builder#memoryBudget(long)}.
+	 * @return the number of evicted threads
+	 */
+	public long evictedThreads() {
+		return evictedThreads.get();
+	}
+
+	/**
+	 * Returns the number of threads evicted because of {@link Builder#idleTtl(Duration)}.
+	 * @return the number of expired threads
+	 */
+	public long expiredThreads() {
+		return expiredThreads.get();
+	}
+
+	private boolean isExpired(ThreadCheckpoints thread, long now) {
+		return idleTtlNanos > 0 && now - thread.lastAccessNanos > idleTtlNanos;
+	}
+
+	/**
+	 * Removes a thread from the map. Must be called while holding the lock of the thread.
+	 */
+	private void discard(ThreadCheckpoints thread) {
+		thread.removed = true;
+		discardedThread(thread.threadId);
+		_checkpointsByThread.remove(thread.threadId, thread);
+		if (thread.bytes != 0) {
+			estimatedBytes.addAndGet(-thread.bytes);
+			thread.bytes = 0;
+		}
+	}
+
+	private void track(ThreadCheckpoints thread, Checkpoint checkpoint) {
+		if (memoryBudget <= 0 || thread == null) {
+			return;
+		}
+		untrack(thread, checkpoint);
+		SizeEstimate estimate = new SizeEstimate(thread.sharedChunks);
+		long size = estimate.of(checkpoint.getState(), 0);
+		thread.footprints.put(checkpoint.getId(), new Footprint(size, estimate.lists));
+		long delta = size + estimate.sharedBytes;
+		thread.bytes += delta;
+		estimatedBytes.addAndGet(delta);
+	}
+
+	private void untrack(ThreadCheckpoints thread, Checkpoint checkpoint) {
+		if (memoryBudget <= 0 || thread == null) {
+			return;
+		}
+		Footprint footprint = thread.footprints.remove(checkpoint.getId());
+		if (footprint != null) {
+			long size = footprint.bytes();
+			for (AppendableList<?> list : footprint.lists()) {
+				size += SizeEstimate.release(thread.sharedChunks, list);
+			}
+			thread.bytes -= size;
+			estimatedBytes.addAndGet(-size);
+		}
+	}
+
+	/**
+	 * Applies the thread count, idle and memory limits after a write to the given thread.
+	 */
+	private void enforceLimits(String currentThreadId) {
+		long now = System.nanoTime();
+		long nextSweep = nextSweepNanos.get();
+		if (idleTtlNanos > 0 && now - nextSweep >= 0
+				&& nextSweepNanos.compareAndSet(nextSweep, now + Math.max(idleTtlNanos / 4, 1))) {
+			for (ThreadCheckpoints thread : _checkpointsByThread.values()) {
+				if (isExpired(thread, now) && evict(thread)) {
+					expiredThreads.incrementAndGet();
+				}
+			}
+		}
+		boolean overThreads = maxThreads > 0 && _checkpointsByThread.size() > maxThreads;
+		boolean overBudget = memoryBudget > 0 && estimatedBytes.get() > memoryBudget;
+		if (!overThreads && !overBudget) {
+			return;
+		}
+		List<ThreadCheckpoints> candidates = new ArrayList<>(_checkpointsByThread.values());
+		candidates.removeIf(thread -> thread.threadId.equals(currentThreadId));
+		candidates.sort(Comparator.comparingLong(thread -> thread.lastAccessNanos));
+		for (ThreadCheckpoints thread : candidates) {
+			overThreads = maxThreads > 0 && _checkpointsByThread.size() > maxThreads;
+			overBudget = memoryBudget > 0 && estimatedBytes.get() > memoryBudget;
+			if (!overThreads && !overBudget) {
+				return;
+			}
+			if (evict(thread)) {
+				evictedThreads.incrementAndGet();
+			}
+		}
+		if (memoryBudget > 0 && estimatedBytes.get() > memoryBudget) {
+			trimCurrentThread(currentThreadId);
+		}
+	}
+
+	/**
+	 * Evicts a thread unless it is in use.
+	 * @return true if the thread was evicted
+	 */
+	private boolean evict(ThreadCheckpoints thread) {
+		if (!thread.lock.tryLock()) {
+			return false;
+		}
+		try {
+			if (thread.removed) {
+				return false;
+			}
+			discard(thread);
+			return true;
+		}
+		finally {
+			thread.lock.unlock();
+		}
+	}
+
+	/**
+	 * Drops the oldest checkpoints of the current thread, keeping at least the last one
+	 * and its keyframe, while the memory budget is exceeded.
+	 */
+	private void trimCurrentThread(String threadId) {
+		ThreadCheckpoints thread = _checkpointsByThread.get(threadId);
+		if (thread == null || !thread.lock.tryLock()) {
+			return;
+		}
+		try {
+			while (!thread.removed && estimatedBytes.get() > memoryBudget) {
+				int dropped = thread.oldestSegment();
+				if (dropped == 0) {
+					break;
+				}
+				for (; dropped > 0; dropped--) {
+					untrack(thread, thread.removeLast());
+					evictedCheckpoints.incrementAndGet();
+				}
+			}
+		}
+		finally {
+			thread.lock.unlock();
+		}
+	}
+
+	/**
+	 * Estimates the memory retained by the state of a checkpoint. The chunks of its
+	 * {@link AppendableList}s, such as the message history, are shared with the other
+	 * checkpoints of the thread, so each element is charged to the thread once, and a
+	 * checkpoint only costs the elements appended since the previous ones. Other values
+	 * shared between checkpoints are counted once per checkpoint, so the estimate is an
+	 * upper bound.
+	 */
+	static final class SizeEstimate {
+
+		private final Map<Object[], SharedChunk> sharedChunks;
+
+		/**
+		 * The lists whose chunks were charged, to release them with the checkpoint.
+		 */
+		final List<AppendableList<?>> lists = new ArrayList<>();
+
+		/**
+		 * The size of the chunk elements charged by this estimate.
+		 */
+		long sharedBytes;
+
+		SizeEstimate(Map<Object[], SharedChunk> sharedChunks) {
+			this.sharedChunks = sharedChunks;
+		}
+
+		long of(Object value, int depth) {
+			if (value == null) {
+				return 0;
+			}
+			if (value instanceof CharSequence text) {
+				return 40 + 2L * text.length();
+			}
+			if (value instanceof Number || value instanceof Boolean || value instanceof Character
+					|| value instanceof Enum<?>) {
+				return 16;
+			}
+			if (value instanceof byte[] bytes) {
+				return 16 + bytes.length;
+			}
+			if (value instanceof Message message) {
+				return 64 + of(message.getText(), depth + 1);
+			}
+			if (depth >= 8) {
+				return 64;
+			}
+			if (value instanceof Map<?, ?> map) {
+				long size = 48 + 32L * map.size();
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					size += of(entry.getKey(), depth + 1) + of(entry.getValue(), depth + 1);
+				}
+				return size;
+			}
+			if (value instanceof AppendableList<?> list) {
+				charge(list, depth);
+				return 40;
+			}
+			if (value instanceof Collection<?> collection) {
+				long size = 40 + 8L * collection.size();
+				for (Object element : collection) {
+					size += of(element, depth + 1);
+				}
+				return size;
+			}
+			if (value instanceof Object[] array) {
+				long size = 16 + 8L * array.length;
+				for (Object element : array) {
+					size += of(element, depth + 1);
+				}
+				return size;
+			}
+			return 64;
+		}
+
+		/**
+		 * Charges the elements of the chunks of a list that no checkpoint charged yet.
+		 */
+		private void charge(AppendableList<?> list, int depth) {
+			lists.add(list.snapshot());
+			list.forEachChunk((chunk, elements) -> {
+				SharedChunk shared = sharedChunks.computeIfAbsent(chunk, key -> new SharedChunk());
+				shared.references++;
+				long added = shared.elements == 0 ? 16 + 8L * chunk.length : 0;
+				for (int i = shared.elements; i < elements; i++) {
+					added += of(chunk[i], depth + 1);
+				}
+				shared.elements = Math.max(shared.elements, elements);
+				shared.bytes += added;
+				sharedBytes += added;
+			});
+		}
+
+		/**
+		 * Releases the chunks of a list charged by a removed checkpoint.
+		 * @return the size of the chunks no other checkpoint references
+		 */
+		static long release(Map<Object[], SharedChunk> sharedChunks, AppendableList<?> list) {
+			long[] released = { 0 };
+			list.forEachChunk((chunk, elements) -> {
+				SharedChunk shared = sharedChunks.get(chunk);
+				if (shared != null && --shared.references == 0) {
+					sharedChunks.remove(chunk);
+					released[0] += shared.bytes;
+				}
+			});
+			return released[0];
+		}
+
+	}
+
 	/**
 	 * Builder class for MemorySaver.
 	 */
 	public static class Builder {
+
+		private int maxCheckpointsPerThread;
+
+		private int maxThreads;
+
+		private Duration idleTtl;
+
+		private long memoryBudget;
+
+		/**
+		 * Sets the maximum number of checkpoints kept per thread; older ones are
+		 * dropped, at keyframe boundaries when the checkpoints are deltas. Defaults to
+		 * 0, no limit.
+		 * @param maxCheckpointsPerThread the limit, 0 for none
+		 * @return this builder
+		 */
+		public Builder maxCheckpointsPerThread(int maxCheckpointsPerThread) {
+			if (maxCheckpointsPerThread < 0) {
+				throw new IllegalArgumentException("maxCheckpointsPerThread must be >= 0!");
+			}
+			this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+			return this;
+		}
+
+		/**
+		 * Returns the maximum number of checkpoints kept per thread.
+		 * @return the limit, 0 for none
+		 */
+		protected int checkpointsPerThreadLimit() {
+			return maxCheckpointsPerThread;
+		}
+
+		/**
+		 * Sets the maximum number of threads kept; the least recently used ones are
+		 * evicted. Defaults to 0, no limit.
+		 * @param maxThreads the limit, 0 for none
+		 * @return this builder
+		 */
+		public Builder maxThreads(int maxThreads) {
+			if (maxThreads < 0) {
+				throw new IllegalArgumentException("maxThreads must be >= 0!");
+			}
+			this.maxThreads = maxThreads;
+			return this;
+		}
+
+		/**
+		 * Sets the time after which a thread that has not been accessed is evicted.
+		 * Defaults to none.
+		 * @param idleTtl the idle time to live, null for none
+		 * @return this builder
+		 */
+		public Builder idleTtl(Duration idleTtl) {
+			if (idleTtl != null && (idleTtl.isNegative() || idleTtl.isZero())) {
+				throw new IllegalArgumentException("idleTtl must be positive!");
+			}
+			this.idleTtl = idleTtl;
+			return this;
+		}
+
+		/**
+		 * Sets the approximate number of bytes the retained states may use. Defaults to
+		 * 0, no limit. Setting a budget makes every write estimate the size of the state,
+		 * where the message history and other {@link AppendableList}s only cost the
+		 * elements appended since the previous checkpoints of the thread.
+		 * @param memoryBudget the budget in bytes, 0 for none
+		 * @return this builder
+		 */
+		public Builder memoryBudget(long memoryBudget) {
+			if (memoryBudget < 0) {
+				throw new IllegalArgumentException("memoryBudget must be >= 0!");
+			}
+			this.memoryBudget = memoryBudget;
+			return this;
+		}
+
 		/**
 		 * Builds a new MemorySaver instance.
 		 * @return a new MemorySaver instance
 		 */
 		public MemorySaver build() {
-			return new MemorySaver();
+			return new MemorySaver(this);
 		}
 	}
 }
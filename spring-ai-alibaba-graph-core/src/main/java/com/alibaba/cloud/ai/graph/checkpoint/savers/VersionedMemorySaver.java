@@ -23,6 +23,7 @@ import com.alibaba.cloud.ai.graph.checkpoint.HasVersions;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
@@ -121,9 +122,15 @@ public class VersionedMemorySaver implements BaseCheckpointSaver, HasVersions {
 	 */
 	@Override
 	public Collection<Integer> versionsByThreadId(String threadId) {
-		return getCheckpointHistoryByThread(ofNullable(threadId).orElse(THREAD_ID_DEFAULT))
-				.map(history -> (Collection<Integer>) history.keySet())
-				.orElse(Collections.emptyList());
+		_lock.lock();
+		try {
+			return getCheckpointHistoryByThread(ofNullable(threadId).orElse(THREAD_ID_DEFAULT))
+					.map(history -> (Collection<Integer>) List.copyOf(history.keySet()))
+					.orElse(Collections.emptyList());
+		}
+		finally {
+			_lock.unlock();
+		}
 	}
 
 	/**
@@ -135,7 +142,13 @@ public class VersionedMemorySaver implements BaseCheckpointSaver, HasVersions {
 	 */
 	@Override
 	public Optional<Integer> lastVersionByThreadId(String threadId) {
-		return getCheckpointHistoryByThread(ofNullable(threadId).orElse(THREAD_ID_DEFAULT)).map(TreeMap::lastKey);
+		_lock.lock();
+		try {
+			return getCheckpointHistoryByThread(ofNullable(threadId).orElse(THREAD_ID_DEFAULT)).map(TreeMap::lastKey);
+		}
+		finally {
+			_lock.unlock();
+		}
 	}
 
 	/**
@@ -146,13 +159,7 @@ public class VersionedMemorySaver implements BaseCheckpointSaver, HasVersions {
 	 */
 	@Override
 	public Collection<Checkpoint> list(RunnableConfig config) {
-		_lock.lock();
-		try {
-			return noVersionSaver.list(config);
-		}
-		finally {
-			_lock.unlock();
-		}
+		return noVersionSaver.list(config);
 	}
 
 	/**
@@ -162,16 +169,7 @@ public class VersionedMemorySaver implements BaseCheckpointSaver, HasVersions {
 	 */
 	@Override
 	public Optional<Checkpoint> get(RunnableConfig config) {
-
-		_lock.lock();
-		try {
-
-			return noVersionSaver.get(config);
-
-		}
-		finally {
-			_lock.unlock();
-		}
+		return noVersionSaver.get(config);
 	}
 
 	/**
@@ -184,14 +182,19 @@ public class VersionedMemorySaver implements BaseCheckpointSaver, HasVersions {
 	 */
 	@Override
 	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+		return noVersionSaver.put(config, checkpoint);
+	}
 
-		_lock.lock();
-		try {
-			return noVersionSaver.put(config, checkpoint);
-		}
-		finally {
-			_lock.unlock();
-		}
+	/**
+	 * Deletes checkpoints of the current version of a thread. Released versions are
+	 * left untouched.
+	 * @param config the configuration of the thread
+	 * @param checkpointIds the ids of the checkpoints to delete
+	 * @throws Exception if an error occurs during the deletion
+	 */
+	@Override
+	public void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		noVersionSaver.delete(config, checkpointIds);
 	}
 
 	/**
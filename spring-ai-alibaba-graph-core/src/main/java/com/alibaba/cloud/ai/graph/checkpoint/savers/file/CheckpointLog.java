@@ -0,0 +1,773 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers.file;
+
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.serializer.Serializer;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log holding the checkpoints of a single thread.
+ * <p>
+ * The file starts with a magic number and a format version, followed by records laid
+ * out as {@code [int length][int crc32c][byte type][int argument][payload]}, where the
+ * checksum covers everything after it. A {@link #PUT} record pushes a checkpoint and
+ * trims the thread to {@code argument} checkpoints, an {@link #UPDATE} record replaces the
+ * checkpoint at position {@code argument}, counted from the newest. Replaying the
+ * records therefore rebuilds the checkpoints of the thread exactly, and a write appends a
+ * single record instead of rewriting the whole history.
+ * <p>
+ * The first access scans the record headers into an index of the offsets of the live
+ * records, without deserializing any checkpoint. Checkpoints are then deserialized one
+ * by one as they are read, e.g. only the newest one to resume a thread, and the index
+ * remembers their ids so that they can be found again without deserializing them. Logs
+ * too large to be mapped at once are scanned through the channel instead. Appends go
+ * through a channel kept open until the log is rewritten, moved, deleted or closed. A
+ * torn or corrupted tail, as left by a crash in the middle of an append, is detected
+ * through the length and checksum and truncated away. Once the superseded records
+ * outnumber the live ones, the log is compacted in the background into a new file that
+ * replaces the old one atomically; compactions and deletions copy the live records
+ * without deserializing them. Files written by previous versions with a single
+ * {@link java.io.ObjectOutputStream} are read once and rewritten in this format.
+ */
+final class CheckpointLog {
+
+	private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CheckpointLog.class);
+
+	static final int MAGIC = 0x53414C47;
+
+	static final byte VERSION = 1;
+
+	static final byte PUT = 1;
+
+	static final byte UPDATE = 2;
+
+	static final int FILE_HEADER_SIZE = 5;
+
+	static final int RECORD_HEADER_SIZE = 8;
+
+	private static final int RECORD_PREFIX_SIZE = 5;
+
+	/**
+	 * Files larger than this are memory mapped when scanned, smaller ones are read on
+	 * heap.
+	 */
+	static final long MMAP_THRESHOLD = 1 << 20;
+
+	/**
+	 * Files larger than this cannot be mapped into a single buffer and are scanned through
+	 * the channel.
+	 */
+	static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+
+	private final Path path;
+
+	private final Serializer<Checkpoint> serializer;
+
+	private final FileSystemSaver.FsyncPolicy fsyncPolicy;
+
+	private final int fsyncInterval;
+
+	/**
+	 * Whether {@link #offsets} and {@link #ids} reflect the file.
+	 */
+	private boolean indexed;
+
+	/**
+	 * The offsets of the records of the live checkpoints, oldest first.
+	 */
+	private final List<Long> offsets = new ArrayList<>();
+
+	/**
+	 * The ids of the live checkpoints, oldest first, null until they are read.
+	 */
+	private final List<String> ids = new ArrayList<>();
+
+	/**
+	 * The size of the file, 0 if it does not exist yet.
+	 */
+	private long end;
+
+	private long records;
+
+	private long unsyncedAppends;
+
+	private long generation;
+
+	private boolean compacting;
+
+	/**
+	 * The channel appending records to the current file, null until the next append.
+	 */
+	private FileChannel appendChannel;
+
+	CheckpointLog(Path path, Serializer<Checkpoint> serializer, FileSystemSaver.FsyncPolicy fsyncPolicy,
+			int fsyncInterval) {
+		this.path = path;
+		this.serializer = serializer;
+		this.fsyncPolicy = fsyncPolicy;
+		this.fsyncInterval = fsyncInterval;
+	}
+
+	Path path() {
+		return path;
+	}
+
+	/**
+	 * Returns the number of records in the file, live or superseded.
+	 */
+	synchronized long records() {
+		return records;
+	}
+
+	/**
+	 * Returns the number of live checkpoints.
+	 */
+	synchronized int size() throws IOException, ClassNotFoundException {
+		index();
+		return offsets.size();
+	}
+
+	/**
+	 * Reads the newest checkpoint, deserializing no other one.
+	 */
+	synchronized Optional<Checkpoint> latest() throws IOException, ClassNotFoundException {
+		List<Checkpoint> latest = read(0, 1);
+		return latest.isEmpty() ? Optional.empty() : Optional.of(latest.get(0));
+	}
+
+	/**
+	 * Reads the live checkpoints from the given position on, newest first.
+	 * @param from the position of the first checkpoint, counted from the newest
+	 * @param limit the maximum number of checkpoints
+	 */
+	synchronized List<Checkpoint> read(int from, int limit) throws IOException, ClassNotFoundException {
+		index();
+		int size = offsets.size();
+		int count = Math.max(0, Math.min(limit, size - from));
+		List<Checkpoint> checkpoints = new ArrayList<>(count);
+		if (count == 0) {
+			return checkpoints;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			for (int i = size - 1 - from; checkpoints.size() < count; i--) {
+				checkpoints.add(readCheckpoint(channel, i));
+			}
+		}
+		return checkpoints;
+	}
+
+	/**
+	 * Returns the position of a live checkpoint, counted from the newest, deserializing
+	 * the checkpoints whose id is not known yet, newest first, until it is found.
+	 * @return the position of the checkpoint, or -1 if it is not live
+	 */
+	synchronized int positionOf(String checkpointId) throws IOException, ClassNotFoundException {
+		index();
+		int size = offsets.size();
+		for (int i = size - 1; i >= 0; i--) {
+			if (checkpointId.equals(ids.get(i))) {
+				return size - 1 - i;
+			}
+		}
+		if (!ids.contains(null)) {
+			return -1;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			for (int i = size - 1; i >= 0; i--) {
+				if (ids.get(i) == null && checkpointId.equals(readCheckpoint(channel, i).getId())) {
+					return size - 1 - i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads a live checkpoint by id.
+	 */
+	synchronized Optional<Checkpoint> find(String checkpointId) throws IOException, ClassNotFoundException {
+		int position = positionOf(checkpointId);
+		return position < 0 ? Optional.empty() : Optional.of(read(position, 1).get(0));
+	}
+
+	/**
+	 * Scans the record headers into the index of the live checkpoints, recovering a torn
+	 * tail if needed, unless the index is up to date.
+	 */
+	private void index() throws IOException, ClassNotFoundException {
+		if (indexed && (end == 0 || Files.exists(path))) {
+			return;
+		}
+		invalidate();
+		records = 0;
+		end = 0;
+		if (!Files.exists(path)) {
+			indexed = true;
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0) {
+				indexed = true;
+				return;
+			}
+			LogReader reader = size > MAX_MAPPED_SIZE ? new LogReader(channel, size)
+					: new LogReader(size >= MMAP_THRESHOLD ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+							: readFully(channel, (int) size));
+			ByteBuffer header = reader.slice(0, (int) Math.min(size, FILE_HEADER_SIZE));
+			if (isLegacy(header)) {
+				rewrite(readLegacy());
+				return;
+			}
+			if (size < FILE_HEADER_SIZE || header.getInt(0) != MAGIC || header.get(4) != VERSION) {
+				throw new IOException("'%s' is not a checkpoint log".formatted(path));
+			}
+
+			// offsets of the records of the live checkpoints, oldest first, from 'first'
+			List<Long> scanned = new ArrayList<>();
+			int first = 0;
+			long count = 0;
+			long position = FILE_HEADER_SIZE;
+			while (position < size) {
+				ByteBuffer record = validRecord(reader, position);
+				if (record == null) {
+					break;
+				}
+				byte type = record.get(0);
+				int argument = record.getInt(1);
+				if (type == PUT) {
+					scanned.add(position);
+					first = Math.max(first, scanned.size() - argument);
+				}
+				else {
+					int index = scanned.size() - 1 - argument;
+					if (argument < 0 || index < first) {
+						log.warn("checkpoint log '{}' updates an unknown position {} at offset {}", path, argument,
+								position);
+						break;
+					}
+					scanned.set(index, position);
+				}
+				count++;
+				position += RECORD_HEADER_SIZE + record.limit();
+			}
+			offsets.addAll(scanned.subList(first, scanned.size()));
+			ids.addAll(Collections.nCopies(offsets.size(), null));
+			if (position < size) {
+				log.warn("truncating checkpoint log '{}' from {} to {} bytes after an incomplete or corrupted record",
+						path, size, position);
+				truncate(position);
+			}
+			records = count;
+			end = position;
+			indexed = true;
+		}
+	}
+
+	/**
+	 * Forgets the index, e.g. when the file may have changed behind it, and abandons a
+	 * running compaction.
+	 */
+	private void invalidate() {
+		indexed = false;
+		offsets.clear();
+		ids.clear();
+		generation++;
+		closeAppendChannel();
+	}
+
+	/**
+	 * Appends a record, creating the file if it is missing.
+	 * @param type {@link #PUT} or {@link #UPDATE}
+	 * @param argument the number of checkpoints kept after a put, the position of the
+	 * replaced checkpoint for an update
+	 * @param checkpoint the written checkpoint
+	 */
+	synchronized void append(byte type, int argument, Checkpoint checkpoint)
+			throws IOException, ClassNotFoundException {
+		index();
+		int index = offsets.size() - 1 - argument;
+		if (type == UPDATE && (argument < 0 || index < 0)) {
+			throw new IOException("checkpoint log '%s' has no checkpoint at position %d".formatted(path, argument));
+		}
+		ByteBuffer record = record(type, argument, serializer.objectToBytes(checkpoint));
+		if (appendChannel == null) {
+			appendChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+		long offset = end == 0 ? FILE_HEADER_SIZE : end;
+		try {
+			if (end == 0) {
+				write(appendChannel, fileHeader());
+			}
+			int length = record.remaining();
+			write(appendChannel, record);
+			end = offset + length;
+			unsyncedAppends++;
+			if (fsyncPolicy == FileSystemSaver.FsyncPolicy.ALWAYS
+					|| (fsyncPolicy == FileSystemSaver.FsyncPolicy.INTERVAL && unsyncedAppends >= fsyncInterval)) {
+				appendChannel.force(false);
+				unsyncedAppends = 0;
+			}
+		}
+		catch (IOException ex) {
+			// the next access scans the file again, truncating what was partially written
+			invalidate();
+			throw ex;
+		}
+		records++;
+		if (type == PUT) {
+			offsets.add(offset);
+			ids.add(checkpoint.getId());
+			int trimmed = Math.max(0, offsets.size() - Math.max(argument, 0));
+			offsets.subList(0, trimmed).clear();
+			ids.subList(0, trimmed).clear();
+		}
+		else {
+			offsets.set(index, offset);
+			ids.set(index, checkpoint.getId());
+		}
+	}
+
+	/**
+	 * Closes the channel appending to the log, forgets its index and abandons a running
+	 * compaction, e.g. when the thread of the log is evicted from memory. The log is
+	 * scanned again on its next access.
+	 */
+	synchronized void close() {
+		invalidate();
+	}
+
+	/**
+	 * Closes the channel appending to the current file, which must be done before the
+	 * file is replaced.
+	 */
+	private void closeAppendChannel() {
+		if (appendChannel == null) {
+			return;
+		}
+		try {
+			appendChannel.close();
+		}
+		catch (IOException ex) {
+			log.debug("cannot close checkpoint log '{}'", path, ex);
+		}
+		appendChannel = null;
+	}
+
+	/**
+	 * Replaces the log with the given checkpoints.
+	 * @param checkpoints the checkpoints, newest first
+	 */
+	private void rewrite(List<Checkpoint> checkpoints) throws IOException {
+		List<Checkpoint> oldestFirst = new ArrayList<>(checkpoints);
+		Collections.reverse(oldestFirst);
+		List<byte[]> payloads = new ArrayList<>(oldestFirst.size());
+		for (Checkpoint checkpoint : oldestFirst) {
+			payloads.add(serializer.objectToBytes(checkpoint));
+		}
+		Path temp = tempPath();
+		try {
+			List<Long> written;
+			try (FileChannel target = createSnapshot(temp)) {
+				written = new ArrayList<>(payloads.size());
+				for (byte[] payload : payloads) {
+					written.add(target.position());
+					write(target, record(PUT, written.size(), payload));
+				}
+			}
+			replaceWith(temp, written, oldestFirst.stream().map(Checkpoint::getId).toList());
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Deletes live checkpoints, copying the other ones to a new file without
+	 * deserializing them. Only the checkpoints whose id is not known yet are deserialized,
+	 * while some of the given ids are not found.
+	 * @param checkpointIds the ids of the checkpoints to delete, unknown ones are ignored
+	 */
+	synchronized void delete(Collection<String> checkpointIds) throws IOException, ClassNotFoundException {
+		index();
+		Set<String> missing = new HashSet<>(checkpointIds);
+		missing.removeAll(ids);
+		if (!missing.isEmpty() && ids.contains(null)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				for (int i = ids.size() - 1; i >= 0 && !missing.isEmpty(); i--) {
+					if (ids.get(i) == null) {
+						missing.remove(readCheckpoint(channel, i).getId());
+					}
+				}
+			}
+		}
+		List<Long> keptOffsets = new ArrayList<>();
+		List<String> keptIds = new ArrayList<>();
+		for (int i = 0; i < offsets.size(); i++) {
+			if (!checkpointIds.contains(ids.get(i))) {
+				keptOffsets.add(offsets.get(i));
+				keptIds.add(ids.get(i));
+			}
+		}
+		if (keptOffsets.size() == offsets.size()) {
+			return;
+		}
+		Path temp = tempPath();
+		try {
+			List<Long> written;
+			try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+				written = copyRecords(source, keptOffsets, temp);
+			}
+			replaceWith(temp, written, keptIds);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Replaces the file with a snapshot holding the given live checkpoints.
+	 */
+	private void replaceWith(Path temp, List<Long> snapshotOffsets, List<String> snapshotIds) throws IOException {
+		if (fsyncPolicy != FileSystemSaver.FsyncPolicy.NEVER) {
+			force(temp);
+		}
+		invalidate();
+		long size = Files.size(temp);
+		replace(temp);
+		offsets.addAll(snapshotOffsets);
+		ids.addAll(snapshotIds);
+		records = snapshotOffsets.size();
+		end = size;
+		unsyncedAppends = 0;
+		indexed = true;
+	}
+
+	/**
+	 * Starts a background compaction if the superseded records exceed both the given
+	 * threshold and the live checkpoints.
+	 * @param threshold the minimum number of superseded records
+	 * @param executor the executor running the compaction
+	 */
+	synchronized void compactIfNeeded(int threshold, Executor executor) {
+		long superseded = records - offsets.size();
+		if (compacting || !indexed || end == 0 || superseded < threshold || superseded < offsets.size()) {
+			return;
+		}
+		compacting = true;
+		List<Long> snapshot = List.copyOf(offsets);
+		long snapshotGeneration = generation;
+		long snapshotRecords = records;
+		long snapshotSize = end;
+		try {
+			executor.execute(() -> compact(snapshot, snapshotGeneration, snapshotRecords, snapshotSize));
+		}
+		catch (RuntimeException ex) {
+			compacting = false;
+			log.warn("cannot schedule the compaction of checkpoint log '{}'", path, ex);
+		}
+	}
+
+	/**
+	 * Copies the live records without holding the lock, then copies the records appended
+	 * in the meantime, swaps the files and moves the index to the new file. The compaction
+	 * is abandoned if the log was rewritten, released, deleted or closed while the snapshot
+	 * was being written.
+	 */
+	private void compact(List<Long> snapshot, long snapshotGeneration, long snapshotRecords, long snapshotSize) {
+		Path temp = tempPath();
+		try {
+			List<Long> written;
+			try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+				written = copyRecords(source, snapshot, temp);
+			}
+			synchronized (this) {
+				if (generation != snapshotGeneration || !Files.exists(path)) {
+					return;
+				}
+				long snapshotEnd;
+				try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+						FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE,
+								StandardOpenOption.APPEND)) {
+					snapshotEnd = target.size();
+					long position = snapshotSize;
+					while (position < end) {
+						position += source.transferTo(position, end - position, target);
+					}
+					if (fsyncPolicy != FileSystemSaver.FsyncPolicy.NEVER) {
+						target.force(false);
+					}
+				}
+				closeAppendChannel();
+				replace(temp);
+				// live records older than the snapshot were all part of it
+				Map<Long, Long> moved = new HashMap<>();
+				for (int i = 0; i < snapshot.size(); i++) {
+					moved.put(snapshot.get(i), written.get(i));
+				}
+				for (int i = 0; i < offsets.size(); i++) {
+					long offset = offsets.get(i);
+					offsets.set(i, offset >= snapshotSize ? offset - snapshotSize + snapshotEnd : moved.get(offset));
+				}
+				end = end - snapshotSize + snapshotEnd;
+				records = snapshot.size() + (records - snapshotRecords);
+				unsyncedAppends = 0;
+				generation++;
+				log.debug("compacted checkpoint log '{}' to {} records", path, records);
+			}
+		}
+		catch (Exception ex) {
+			log.warn("failed to compact checkpoint log '{}'", path, ex);
+		}
+		finally {
+			synchronized (this) {
+				compacting = false;
+			}
+			try {
+				Files.deleteIfExists(temp);
+			}
+			catch (IOException ex) {
+				log.debug("cannot delete '{}'", temp, ex);
+			}
+		}
+	}
+
+	/**
+	 * Moves the log to the given path, e.g. when its thread is released.
+	 */
+	synchronized void moveTo(Path target) throws IOException {
+		invalidate();
+		Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+		Files.delete(path);
+	}
+
+	/**
+	 * Deletes the log.
+	 * @return true if the file existed
+	 */
+	synchronized boolean delete() throws IOException {
+		invalidate();
+		return Files.deleteIfExists(path);
+	}
+
+	private Path tempPath() {
+		return path.resolveSibling(path.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+	}
+
+	private static ByteBuffer fileHeader() {
+		return ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).put(VERSION).flip();
+	}
+
+	private static FileChannel createSnapshot(Path target) throws IOException {
+		FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			write(channel, fileHeader());
+		}
+		catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+		return channel;
+	}
+
+	/**
+	 * Writes a snapshot of the given records, oldest first, copying their payloads.
+	 * @return the offsets of the records in the snapshot
+	 */
+	private static List<Long> copyRecords(FileChannel source, List<Long> recordOffsets, Path target)
+			throws IOException {
+		List<Long> written = new ArrayList<>(recordOffsets.size());
+		try (FileChannel channel = createSnapshot(target)) {
+			for (long offset : recordOffsets) {
+				written.add(channel.position());
+				write(channel, record(PUT, written.size(), readPayload(source, offset)));
+			}
+		}
+		return written;
+	}
+
+	private void replace(Path temp) throws IOException {
+		try {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException ex) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static ByteBuffer record(byte type, int argument, byte[] payload) {
+		int length = RECORD_PREFIX_SIZE + payload.length;
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+		record.putInt(length).putInt(0).put(type).putInt(argument).put(payload);
+		CRC32C crc = new CRC32C();
+		crc.update(record.array(), RECORD_HEADER_SIZE, length);
+		record.putInt(4, (int) crc.getValue());
+		return record.flip();
+	}
+
+	/**
+	 * Returns the checksummed part of the record at the given position, i.e. its type,
+	 * argument and payload, or null if it is incomplete or corrupted.
+	 */
+	private static ByteBuffer validRecord(LogReader reader, long position) throws IOException {
+		if (reader.size - position < RECORD_HEADER_SIZE) {
+			return null;
+		}
+		ByteBuffer header = reader.slice(position, RECORD_HEADER_SIZE);
+		int length = header.getInt(0);
+		if (length < RECORD_PREFIX_SIZE || length > reader.size - position - RECORD_HEADER_SIZE) {
+			return null;
+		}
+		ByteBuffer record = reader.slice(position + RECORD_HEADER_SIZE, length);
+		byte type = record.get(0);
+		if (type != PUT && type != UPDATE) {
+			return null;
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(record.duplicate());
+		return (int) crc.getValue() == header.getInt(4) ? record : null;
+	}
+
+	/**
+	 * Deserializes the live checkpoint at the given index of {@link #offsets}, and
+	 * remembers its id.
+	 */
+	private Checkpoint readCheckpoint(FileChannel channel, int index) throws IOException, ClassNotFoundException {
+		Checkpoint checkpoint = serializer.bytesToObject(readPayload(channel, offsets.get(index)));
+		ids.set(index, checkpoint.getId());
+		return checkpoint;
+	}
+
+	private static byte[] readPayload(FileChannel channel, long position) throws IOException {
+		ByteBuffer header = readRange(channel, position, RECORD_HEADER_SIZE);
+		int length = header.getInt(0) - RECORD_PREFIX_SIZE;
+		return readRange(channel, position + RECORD_HEADER_SIZE + RECORD_PREFIX_SIZE, length).array();
+	}
+
+	private static ByteBuffer readRange(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer range = ByteBuffer.allocate(length);
+		while (range.hasRemaining()) {
+			if (channel.read(range, position + range.position()) < 0) {
+				throw new IOException("unexpected end of file");
+			}
+		}
+		return range.flip();
+	}
+
+	/**
+	 * Reads ranges of a log, from a buffer holding the whole file or, for files too large
+	 * to be mapped at once, from its channel.
+	 */
+	private static final class LogReader {
+
+		private final ByteBuffer buffer;
+
+		private final FileChannel channel;
+
+		private final long size;
+
+		private LogReader(ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.channel = null;
+			this.size = buffer.limit();
+		}
+
+		private LogReader(FileChannel channel, long size) {
+			this.buffer = null;
+			this.channel = channel;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the given range, without copying it when the whole file is in a buffer.
+		 */
+		private ByteBuffer slice(long position, int length) throws IOException {
+			if (buffer != null) {
+				return buffer.slice((int) position, length);
+			}
+			return readRange(channel, position, length);
+		}
+
+	}
+
+	private static boolean isLegacy(ByteBuffer buffer) {
+		return buffer.limit() >= 2 && buffer.get(0) == (byte) 0xAC && buffer.get(1) == (byte) 0xED;
+	}
+
+	private List<Checkpoint> readLegacy() throws IOException, ClassNotFoundException {
+		List<Checkpoint> result = new ArrayList<>();
+		try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(path))) {
+			int size = ois.readInt();
+			for (int i = 0; i < size; i++) {
+				result.add(serializer.read(ois));
+			}
+		}
+		return result;
+	}
+
+	private void truncate(long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(size);
+			channel.force(false);
+		}
+	}
+
+	private static void force(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.force(false);
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("unexpected end of file");
+			}
+		}
+		return buffer.flip();
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -18,21 +18,31 @@ package com.alibaba.cloud.ai.graph.checkpoint.savers.file;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.DeltaCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
 import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CompressingSerializer;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.LinkedList;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +55,13 @@ import static java.lang.String.format;
  * named "thread-<i>threadId</i>.saver" if the RunnableConfig has a threadId, or
  * "thread-$default.saver" if it doesn't.
  * </p>
+ * <p>
+ * The file is an append-only log: each new or replaced checkpoint appends a single
+ * length-prefixed, checksummed record, so that a write no longer costs the size of the
+ * whole history. Logs are compacted in the background once most of their records are
+ * superseded, and a record torn by a crash is truncated away on the next read. How
+ * often appends are forced to disk is controlled by the {@link FsyncPolicy}.
+ * </p>
  */
 public class FileSystemSaver extends MemorySaver {
 
@@ -54,12 +71,87 @@ public class FileSystemSaver extends MemorySaver {
 
 	private final Serializer<Checkpoint> serializer;
 
-	@SuppressWarnings("unchecked")
+	private final CheckpointCompression compression;
+
+	private final FsyncPolicy fsyncPolicy;
+
+	private final int fsyncInterval;
+
+	private final int compactionThreshold;
+
+	private final Executor compactionExecutor;
+
+	private final Map<String, CheckpointLog> logs = new ConcurrentHashMap<>();
+
+	private static final ExecutorService COMPACTION_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger threadNum = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "graph-checkpoint-compactor-" + threadNum.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	});
+
+	/**
+	 * When appended records are forced to the storage device.
+	 */
+	public enum FsyncPolicy {
+
+		/**
+		 * Forces every append. A checkpoint is durable once it is saved.
+		 */
+		ALWAYS,
+
+		/**
+		 * Forces every {@link Builder#fsyncInterval(int) n} appends, bounding the number of
+		 * checkpoints that may be lost by a power failure.
+		 */
+		INTERVAL,
+
+		/**
+		 * Leaves flushing to the operating system. Checkpoints survive a crash of the
+		 * process but not a power failure. This is the default.
+		 */
+		NEVER
+
+	}
+
 	protected FileSystemSaver(Path targetFolder, StateSerializer stateSerializer) {
+		this(targetFolder, stateSerializer, new MemorySaver.Builder());
+	}
+
+	/**
+	 * Creates a FileSystemSaver whose in-memory cache follows the retention limits of the
+	 * given builder. Threads evicted from memory are reloaded from their file on their
+	 * next access, starting with their latest checkpoint only. Checkpoints trimmed by
+	 * {@link MemorySaver.Builder#maxCheckpointsPerThread(int)} are also dropped from the
+	 * file, while the ones trimmed or evicted to honour the memory limits stay in the file
+	 * and are read from it when they are needed.
+	 */
+	@SuppressWarnings("unchecked")
+	protected FileSystemSaver(Path targetFolder, StateSerializer stateSerializer, MemorySaver.Builder retention) {
+		this(targetFolder, stateSerializer, retention, FsyncPolicy.NEVER, Builder.DEFAULT_FSYNC_INTERVAL,
+				Builder.DEFAULT_COMPACTION_THRESHOLD, COMPACTION_EXECUTOR, CheckpointCompression.none());
+	}
+
+	private FileSystemSaver(Path targetFolder, StateSerializer stateSerializer, MemorySaver.Builder retention,
+			FsyncPolicy fsyncPolicy, int fsyncInterval, int compactionThreshold, Executor compactionExecutor,
+			CheckpointCompression compression) {
+		super(retention);
+		this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy cannot be null");
+		this.fsyncInterval = fsyncInterval;
+		this.compactionThreshold = compactionThreshold;
+		this.compactionExecutor = Objects.requireNonNull(compactionExecutor, "compactionExecutor cannot be null");
+		this.compression = Objects.requireNonNull(compression, "compression cannot be null");
 		if(stateSerializer == null) {
-			this.serializer = new CheckPointSerializer(StateGraph.DEFAULT_JACKSON_SERIALIZER);
+			this.serializer = new CompressingSerializer<>(
+					new CheckPointSerializer(StateGraph.DEFAULT_JACKSON_SERIALIZER), compression);
 		} else {
-			this.serializer = new CheckPointSerializer(stateSerializer);
+			this.serializer = new CompressingSerializer<>(new CheckPointSerializer(stateSerializer), compression);
 		}
 		this.targetFolder = Objects.requireNonNull(targetFolder, "targetFolder cannot be null");
 
@@ -75,6 +167,14 @@ public class FileSystemSaver extends MemorySaver {
 
 	}
 
+	/**
+	 * Returns the compression of the checkpoint records, and its metrics.
+	 * @return the checkpoint compression
+	 */
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
 	/**
 	 * Creates a new builder for FileSystemSaver.
 	 * @return a new Builder instance
@@ -92,57 +192,97 @@ public class FileSystemSaver extends MemorySaver {
 		return Paths.get(targetFolder.toString(), getBaseName(config).concat(EXTENSION));
 	}
 
-	private File getFile(RunnableConfig config) {
-		return getPath(config).toFile();
+	private CheckpointLog getLog(RunnableConfig config) {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		return logs.computeIfAbsent(threadId,
+				key -> new CheckpointLog(getPath(config), serializer, fsyncPolicy, fsyncInterval));
 	}
 
-	private void serialize(LinkedList<Checkpoint> checkpoints, File outFile) throws IOException {
-		Objects.requireNonNull(checkpoints, "checkpoints cannot be null");
-		Objects.requireNonNull(outFile, "outFile cannot be null");
-		try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(outFile.toPath()))) {
-
-			oos.writeInt(checkpoints.size());
-			for (Checkpoint checkpoint : checkpoints) {
-				serializer.write(checkpoint, oos);
-			}
-		}
+	@Override
+	protected Optional<Checkpoint> loadedLatestCheckpoint(RunnableConfig config) throws Exception {
+		return getLog(config).latest();
 	}
 
-	private void deserialize(File file, LinkedList<Checkpoint> result) throws IOException, ClassNotFoundException {
-		Objects.requireNonNull(file, "file cannot be null");
-		Objects.requireNonNull(result, "result cannot be null");
+	@Override
+	protected Optional<Checkpoint> loadedCheckpoint(RunnableConfig config, String checkpointId) throws Exception {
+		return getLog(config).find(checkpointId);
+	}
 
-		try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(file.toPath()))) {
-			int size = ois.readInt();
-			for (int i = 0; i < size; i++) {
-				result.add(serializer.read(ois));
+	/**
+	 * Pages through the checkpoints of a thread, taking the newest ones from memory and
+	 * reading the older ones from its log.
+	 */
+	@Override
+	protected List<Checkpoint> listedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			String afterCheckpointId, int limit) throws Exception {
+		CheckpointLog checkpointLog = getLog(config);
+		int from = 0;
+		if (afterCheckpointId != null) {
+			int position = position(config, afterCheckpointId);
+			if (position < 0) {
+				position = checkpointLog.positionOf(afterCheckpointId);
 			}
+			if (position < 0) {
+				return new ArrayList<>();
+			}
+			from = position + 1;
+		}
+		// the checkpoints in memory are always the newest ones of the log
+		List<Checkpoint> page = new ArrayList<>();
+		for (int i = from; i < checkpoints.size() && page.size() < limit; i++) {
+			page.add(checkpoints.get(i));
+		}
+		if (page.size() < limit) {
+			page.addAll(checkpointLog.read(from + page.size(), limit - page.size()));
 		}
+		return page;
 	}
 
+	/**
+	 * Appends the checkpoint to the log. Once the thread is trimmed to
+	 * {@link MemorySaver.Builder#maxCheckpointsPerThread(int)}, the log keeps the same
+	 * checkpoints as memory.
+	 */
 	@Override
-	protected LinkedList<Checkpoint> loadedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints)
+	protected void insertedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint)
 			throws Exception {
+		CheckpointLog checkpointLog = getLog(config);
+		int live = checkpointLog.size() + 1;
+		int kept = checkpoints.size();
+		boolean trimmed = maxCheckpointsPerThread() > 0 && kept >= maxCheckpointsPerThread() && kept < live
+				&& !DeltaCheckpointSaver.isDelta(checkpoints.get(kept - 1));
+		checkpointLog.append(CheckpointLog.PUT, trimmed ? kept : live, checkpoint);
+		checkpointLog.compactIfNeeded(compactionThreshold, compactionExecutor);
+	}
 
-		File targetFile = getFile(config);
-		if (targetFile.exists() && checkpoints.isEmpty()) {
-			deserialize(targetFile, checkpoints);
+	@Override
+	protected void updatedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint)
+			throws Exception {
+		CheckpointLog checkpointLog = getLog(config);
+		int position = position(config, checkpoint.getId());
+		if (position < 0) {
+			position = checkpointLog.positionOf(config.checkPointId().orElseThrow());
 		}
-		return checkpoints;
-
+		checkpointLog.append(CheckpointLog.UPDATE, position, checkpoint);
+		checkpointLog.compactIfNeeded(compactionThreshold, compactionExecutor);
 	}
 
+	/**
+	 * Closes the log of a thread evicted from memory; it is reopened and read again on
+	 * the next access to the thread.
+	 */
 	@Override
-	protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
-			throws Exception {
-		File targetFile = getFile(config);
-		serialize(checkpoints, targetFile);
+	protected void discardedThread(String threadId) {
+		CheckpointLog checkpointLog = logs.remove(threadId);
+		if (checkpointLog != null) {
+			checkpointLog.close();
+		}
 	}
 
 	@Override
-	protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
-			throws Exception {
-		insertedCheckpoint(config, checkpoints, checkpoint);
+	protected void deletedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			Collection<String> checkpointIds) throws Exception {
+		getLog(config).delete(checkpointIds);
 	}
 
 	/**
@@ -158,7 +298,7 @@ public class FileSystemSaver extends MemorySaver {
 	 * memory.
 	 */
 	@Override
-	protected void releasedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Tag releaseTag)
+	protected void releasedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints, Tag releaseTag)
 			throws Exception {
 		var currentPath = getPath(config);
 
@@ -189,9 +329,9 @@ public class FileSystemSaver extends MemorySaver {
 		var backupFilename = format("%s-v%d%s", getBaseName(config), nextVersion, EXTENSION);
 		Path backupPath = targetFolder.resolve(backupFilename);
 
-		Files.copy(currentPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
-
-		Files.delete(currentPath);
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		getLog(config).moveTo(backupPath);
+		logs.remove(threadId);
 
 	}
 
@@ -202,8 +342,9 @@ public class FileSystemSaver extends MemorySaver {
 	 */
 	public boolean deleteFile(RunnableConfig config) {
 		Path path = getPath(config);
+		CheckpointLog checkpointLog = logs.remove(config.threadId().orElse(THREAD_ID_DEFAULT));
 		try {
-			return Files.deleteIfExists(path);
+			return checkpointLog != null ? checkpointLog.delete() : Files.deleteIfExists(path);
 		}
 		catch (IOException e) {
 			log.warn("Failed to delete checkpoint file {}", path, e);
@@ -215,8 +356,15 @@ public class FileSystemSaver extends MemorySaver {
 	 * Builder class for FileSystemSaver.
 	 */
 	public static class Builder extends MemorySaver.Builder {
+		static final int DEFAULT_FSYNC_INTERVAL = 16;
+		static final int DEFAULT_COMPACTION_THRESHOLD = 64;
 		private Path targetFolder;
 		private StateSerializer stateSerializer;
+		private FsyncPolicy fsyncPolicy = FsyncPolicy.NEVER;
+		private int fsyncInterval = DEFAULT_FSYNC_INTERVAL;
+		private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+		private Executor compactionExecutor = COMPACTION_EXECUTOR;
+		private CheckpointCompression compression = CheckpointCompression.none();
 
 		public Builder targetFolder(Path targetFolder) {
 			this.targetFolder = targetFolder;
@@ -228,13 +376,101 @@ public class FileSystemSaver extends MemorySaver {
 			return this;
 		}
 
+		@Override
+		public Builder maxCheckpointsPerThread(int maxCheckpointsPerThread) {
+			super.maxCheckpointsPerThread(maxCheckpointsPerThread);
+			return this;
+		}
+
+		@Override
+		public Builder maxThreads(int maxThreads) {
+			super.maxThreads(maxThreads);
+			return this;
+		}
+
+		@Override
+		public Builder idleTtl(Duration idleTtl) {
+			super.idleTtl(idleTtl);
+			return this;
+		}
+
+		@Override
+		public Builder memoryBudget(long memoryBudget) {
+			super.memoryBudget(memoryBudget);
+			return this;
+		}
+
+		/**
+		 * Sets when appended checkpoints are forced to disk. Defaults to
+		 * {@link FsyncPolicy#NEVER}.
+		 * @param fsyncPolicy the fsync policy
+		 * @return this builder
+		 */
+		public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+			this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the number of appends between two fsyncs with {@link FsyncPolicy#INTERVAL}.
+		 * Defaults to 16.
+		 * @param fsyncInterval the number of appends, must be positive
+		 * @return this builder
+		 */
+		public Builder fsyncInterval(int fsyncInterval) {
+			if (fsyncInterval <= 0) {
+				throw new IllegalArgumentException("fsyncInterval must be > 0!");
+			}
+			this.fsyncInterval = fsyncInterval;
+			return this;
+		}
+
+		/**
+		 * Sets the minimum number of superseded records, i.e. trimmed or replaced
+		 * checkpoints, before a log is compacted. A log is only compacted once its
+		 * superseded records also outnumber its live ones. Defaults to 64.
+		 * @param compactionThreshold the number of records, must be positive
+		 * @return this builder
+		 */
+		public Builder compactionThreshold(int compactionThreshold) {
+			if (compactionThreshold <= 0) {
+				throw new IllegalArgumentException("compactionThreshold must be > 0!");
+			}
+			this.compactionThreshold = compactionThreshold;
+			return this;
+		}
+
+		/**
+		 * Sets the executor compacting the logs in the background. Defaults to a shared
+		 * pool of daemon threads; a caller-runs executor such as {@code Runnable::run}
+		 * compacts the logs synchronously, on the writing thread.
+		 * @param compactionExecutor the compaction executor
+		 * @return this builder
+		 */
+		public Builder compactionExecutor(Executor compactionExecutor) {
+			this.compactionExecutor = Objects.requireNonNull(compactionExecutor, "compactionExecutor cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the compression of the checkpoint records. Records written without
+		 * compression stay readable. Defaults to {@link CheckpointCompression#none()}.
+		 * @param compression the checkpoint compression
+		 * @return this builder
+		 */
+		public Builder compression(CheckpointCompression compression) {
+			this.compression = Objects.requireNonNull(compression, "compression cannot be null");
+			return this;
+		}
+
 		/**
 		 * Builds a new FileSystemSaver instance.
 		 * @return a new FileSystemSaver instance
 		 * @throws IllegalArgumentException if targetFolder or stateSerializer is null
 		 */
 		public FileSystemSaver build() {
-			return new FileSystemSaver(targetFolder, stateSerializer);
+			return new FileSystemSaver(targetFolder, stateSerializer, this, fsyncPolicy, fsyncInterval,
+					compactionThreshold, compactionExecutor, compression);
 		}
 	}
 
@@ -19,51 +19,84 @@ import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.DeltaCheckpointSaver;
 import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
 import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CompressingSerializer;
+import com.alibaba.cloud.ai.graph.utils.TryFunction;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.IntStream;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.ClientSessionOptions;
 import com.mongodb.TransactionOptions;
 import com.mongodb.WriteConcern;
 import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.DeleteManyModel;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
-import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static java.lang.String.format;
 
+/**
+ * A {@link BaseCheckpointSaver} storing checkpoints in MongoDB.
+ * <p>
+ * Each checkpoint is stored in its own document of the {@value #ENTRY_COLLECTION}
+ * collection, tagged with the id of its thread and a sequence number taken from the
+ * thread meta document. A compound index on {@code (thread_id, seq)} serves the latest
+ * checkpoint and the history of a thread, so reading the latest checkpoint fetches a
+ * single document and appending one inserts a single document, whatever the length of
+ * the history. With {@link Builder#maxCheckpointsPerThread(int)}, the append and the
+ * removal of the oldest checkpoints are sent as one {@code bulkWrite}. The oldest
+ * checkpoints are removed at keyframe boundaries, so that the delta checkpoints written by
+ * a {@link DeltaCheckpointSaver} keep their base; entries record whether they are deltas
+ * for that purpose.
+ * <p>
+ * Threads stored by previous versions as a single serialized list are migrated to this
+ * layout on their first access. The threads found without such a list are remembered,
+ * so that the legacy collection is only looked up once per thread.
+ */
 public class MongoSaver implements BaseCheckpointSaver {
 
 	private static final Logger logger = LoggerFactory.getLogger(MongoSaver.class);
 	private static final String DB_NAME = "check_point_db";
 	private static final String THREAD_META_COLLECTION = "thread_meta";
 	private static final String CHECKPOINT_COLLECTION = "checkpoint_collection";
+	private static final String ENTRY_COLLECTION = "checkpoint_entries";
 	private static final String THREAD_META_PREFIX = "mongo:thread:meta:";
 	private static final String CHECKPOINT_PREFIX = "mongo:checkpoint:content:";
 	private static final String DOCUMENT_CONTENT_KEY = "checkpoint_content";
@@ -71,10 +104,29 @@ public class MongoSaver implements BaseCheckpointSaver {
 	private static final String FIELD_THREAD_ID = "thread_id";
 	private static final String FIELD_IS_RELEASED = "is_released";
 	private static final String FIELD_THREAD_NAME = "thread_name";
+	private static final String FIELD_SEQUENCE = "checkpoint_seq";
+	// Checkpoint entry document field names
+	private static final String FIELD_CHECKPOINT_ID = "checkpoint_id";
+	private static final String FIELD_SEQ = "seq";
+	private static final String FIELD_CONTENT = "content";
+	private static final String FIELD_DELTA = "delta";
+
+	private static final int MAX_MIGRATED_THREADS = 10_000;
+
 	private final Serializer<Checkpoint> checkpointSerializer;
+	private final CheckpointCompression compression;
+	private final int maxCheckpointsPerThread;
 	private MongoClient client;
 	private MongoDatabase database;
 	private TransactionOptions txnOptions;
+	// ids of the threads known to have no checkpoints left in the legacy collection
+	private final Set<String> migratedThreadIds = Collections.synchronizedSet(
+			Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+					return size() > MAX_MIGRATED_THREADS;
+				}
+			}));
 
 	/**
 	 * Protected constructor for MongoSaver.
@@ -84,15 +136,59 @@ public class MongoSaver implements BaseCheckpointSaver {
 	 * @param stateSerializer the state serializer
 	 */
 	protected MongoSaver(MongoClient client, StateSerializer stateSerializer) {
+		this(client, stateSerializer, 0);
+	}
+
+	/**
+	 * Protected constructor for MongoSaver.
+	 * Use {@link #builder()} to create instances.
+	 *
+	 * @param client the client
+	 * @param stateSerializer the state serializer
+	 * @param maxCheckpointsPerThread the number of checkpoints kept per thread, 0 for no
+	 * limit
+	 */
+	protected MongoSaver(MongoClient client, StateSerializer stateSerializer, int maxCheckpointsPerThread) {
+		this(client, stateSerializer, maxCheckpointsPerThread, CheckpointCompression.none());
+	}
+
+	/**
+	 * Protected constructor for MongoSaver.
+	 * Use {@link #builder()} to create instances.
+	 *
+	 * @param client the client
+	 * @param stateSerializer the state serializer
+	 * @param maxCheckpointsPerThread the number of checkpoints kept per thread, 0 for no
+	 * limit
+	 * @param compression the compression of the stored checkpoints
+	 */
+	protected MongoSaver(MongoClient client, StateSerializer stateSerializer, int maxCheckpointsPerThread,
+			CheckpointCompression compression) {
 		Objects.requireNonNull(client, "client cannot be null");
 		Objects.requireNonNull(stateSerializer, "stateSerializer cannot be null");
+		if (maxCheckpointsPerThread < 0) {
+			throw new IllegalArgumentException("maxCheckpointsPerThread must be >= 0");
+		}
 		this.client = client;
 		this.database = client.getDatabase(DB_NAME);
 		this.txnOptions = TransactionOptions.builder().writeConcern(WriteConcern.MAJORITY).build();
-		this.checkpointSerializer = new CheckPointSerializer(stateSerializer);
+		this.compression = Objects.requireNonNull(compression, "compression cannot be null");
+		this.checkpointSerializer = new CompressingSerializer<>(new CheckPointSerializer(stateSerializer), compression);
+		this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+		MongoCollection<Document> entries = database.getCollection(ENTRY_COLLECTION);
+		entries.createIndex(Indexes.compoundIndex(Indexes.ascending(FIELD_THREAD_ID), Indexes.descending(FIELD_SEQ)));
+		entries.createIndex(Indexes.ascending(FIELD_THREAD_ID, FIELD_CHECKPOINT_ID));
 		Runtime.getRuntime().addShutdownHook(new Thread(client::close));
 	}
 
+	/**
+	 * Returns the compression of the stored checkpoints, and its metrics.
+	 * @return the checkpoint compression
+	 */
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
 	/**
 	 * Creates a new builder for MongoSaver.
 	 * @return a new Builder instance
@@ -101,19 +197,6 @@ public class MongoSaver implements BaseCheckpointSaver {
 		return new Builder();
 	}
 
-	private String serializeCheckpoints(List<Checkpoint> checkpoints) throws IOException {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			 ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-			oos.writeInt(checkpoints.size());
-			for (Checkpoint checkpoint : checkpoints) {
-				checkpointSerializer.write(checkpoint, oos);
-			}
-			oos.flush();
-			byte[] bytes = baos.toByteArray();
-			return Base64.getEncoder().encodeToString(bytes);
-		}
-	}
-
 	private LinkedList<Checkpoint> deserializeCheckpoints(String content) throws IOException, ClassNotFoundException {
 		if (content == null || content.isEmpty()) {
 			return new LinkedList<>();
@@ -130,6 +213,78 @@ public class MongoSaver implements BaseCheckpointSaver {
 		}
 	}
 
+	private Document entry(String threadId, long seq, Checkpoint checkpoint) throws IOException {
+		return new Document(FIELD_THREAD_ID, threadId)
+				.append(FIELD_SEQ, seq)
+				.append(FIELD_CHECKPOINT_ID, checkpoint.getId())
+				.append(FIELD_DELTA, DeltaCheckpointSaver.isDelta(checkpoint))
+				.append(FIELD_CONTENT, new Binary(checkpointSerializer.objectToBytes(checkpoint)));
+	}
+
+	/**
+	 * Returns the sequence number of the oldest checkpoint to keep when the given
+	 * checkpoint is appended with the given sequence number: the newest keyframe among
+	 * the checkpoints beyond {@link #maxCheckpointsPerThread}, or 0 to keep every
+	 * checkpoint.
+	 */
+	private long oldestKeptSequence(ClientSession clientSession, String threadId, long seq, Checkpoint checkpoint) {
+		long oldest = seq - maxCheckpointsPerThread + 1;
+		if (oldest <= 1) {
+			return 0;
+		}
+		if (oldest == seq && !DeltaCheckpointSaver.isDelta(checkpoint)) {
+			return seq;
+		}
+		Document keyframe = database.getCollection(ENTRY_COLLECTION)
+				.find(clientSession, Filters.and(threadFilter(threadId), Filters.lte(FIELD_SEQ, oldest),
+						Filters.ne(FIELD_DELTA, true)))
+				.sort(Sorts.descending(FIELD_SEQ))
+				.projection(Projections.include(FIELD_SEQ))
+				.first();
+		return keyframe != null ? keyframe.get(FIELD_SEQ, Number.class).longValue() : 0;
+	}
+
+	private Checkpoint checkpointOf(Document entry) throws IOException, ClassNotFoundException {
+		return checkpointSerializer.bytesToObject(entry.get(FIELD_CONTENT, Binary.class).getData());
+	}
+
+	private List<Checkpoint> checkpointsOf(FindIterable<Document> entries) throws IOException, ClassNotFoundException {
+		List<Checkpoint> checkpoints = new ArrayList<>();
+		for (Document entry : entries.projection(Projections.include(FIELD_CONTENT))) {
+			checkpoints.add(checkpointOf(entry));
+		}
+		return checkpoints;
+	}
+
+	/**
+	 * Runs an action in a transaction, committing it if the action succeeds and aborting
+	 * it otherwise.
+	 */
+	private <T> T inTransaction(TryFunction<ClientSession, T, Exception> action) {
+		ClientSession clientSession = this.client
+				.startSession(ClientSessionOptions.builder().defaultTransactionOptions(txnOptions).build());
+		try {
+			clientSession.startTransaction();
+			T result = action.tryApply(clientSession);
+			clientSession.commitTransaction();
+			return result;
+		}
+		catch (Exception e) {
+			clientSession.abortTransaction();
+			if (e instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new RuntimeException(e);
+		}
+		finally {
+			clientSession.close();
+		}
+	}
+
+	private static String requireThreadName(RunnableConfig config) {
+		return config.threadId().orElseThrow(() -> new IllegalArgumentException("threadId is not allow null"));
+	}
+
 	/**
 	 * Gets or creates a thread_id for the given thread_name.
 	 * If an active thread exists, returns its thread_id.
@@ -272,190 +427,217 @@ public class MongoSaver implements BaseCheckpointSaver {
 		return null; // No active thread exists
 	}
 
+	/**
+	 * Reserves the sequence number of the next checkpoint of a thread.
+	 *
+	 * @param threadName the thread name
+	 * @param clientSession the MongoDB client session for transaction
+	 * @return the sequence number
+	 */
+	private long nextSequence(String threadName, ClientSession clientSession) {
+		Document metaDoc = database.getCollection(THREAD_META_COLLECTION).findOneAndUpdate(
+				clientSession,
+				Filters.eq("_id", THREAD_META_PREFIX + threadName),
+				Updates.inc(FIELD_SEQUENCE, 1L),
+				new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+		);
+		return Objects.requireNonNull(metaDoc, "thread meta cannot be null").get(FIELD_SEQUENCE, Number.class).longValue();
+	}
+
+	/**
+	 * Moves the checkpoints of a thread stored by previous versions as a single
+	 * serialized list into one document each. A thread found without such a list is
+	 * not looked up again, since this version never writes one; a migrated thread is
+	 * only recorded once its transaction has committed, on its next access.
+	 *
+	 * @param threadName the thread name
+	 * @param threadId the thread id
+	 * @param clientSession the MongoDB client session for transaction
+	 */
+	private void migrateLegacyCheckpoints(String threadName, String threadId, ClientSession clientSession)
+			throws IOException, ClassNotFoundException {
+		if (migratedThreadIds.contains(threadId)) {
+			return;
+		}
+		MongoCollection<Document> legacyCollection = database.getCollection(CHECKPOINT_COLLECTION);
+		String legacyId = CHECKPOINT_PREFIX + threadId;
+		Document legacyDoc = legacyCollection.find(clientSession, new BasicDBObject("_id", legacyId)).first();
+		if (legacyDoc == null) {
+			migratedThreadIds.add(threadId);
+			return;
+		}
+		LinkedList<Checkpoint> checkpoints = deserializeCheckpoints(legacyDoc.getString(DOCUMENT_CONTENT_KEY));
+		if (!checkpoints.isEmpty()) {
+			// the list is newest first, sequence numbers grow with time
+			List<Document> entries = new ArrayList<>(checkpoints.size());
+			long seq = checkpoints.size();
+			for (Checkpoint checkpoint : checkpoints) {
+				entries.add(entry(threadId, seq--, checkpoint));
+			}
+			database.getCollection(ENTRY_COLLECTION).insertMany(clientSession, entries);
+			database.getCollection(THREAD_META_COLLECTION).updateOne(
+					clientSession,
+					Filters.eq("_id", THREAD_META_PREFIX + threadName),
+					Updates.max(FIELD_SEQUENCE, (long) checkpoints.size())
+			);
+		}
+		legacyCollection.deleteOne(clientSession, Filters.eq("_id", legacyId));
+		logger.info("Migrated {} checkpoints of thread {} to one document per checkpoint", checkpoints.size(),
+				threadName);
+	}
+
+	private Bson threadFilter(String threadId) {
+		return Filters.eq(FIELD_THREAD_ID, threadId);
+	}
+
 	@Override
 	public Collection<Checkpoint> list(RunnableConfig config) {
-		Optional<String> threadNameOpt = config.threadId();
-		if (!threadNameOpt.isPresent()) {
+		if (config.threadId().isEmpty()) {
 			throw new IllegalArgumentException("threadId is not allowed to be null");
 		}
+		return list(config, null, Integer.MAX_VALUE);
+	}
 
-		String threadName = threadNameOpt.get();
-		ClientSession clientSession = this.client
-				.startSession(ClientSessionOptions.builder().defaultTransactionOptions(txnOptions).build());
-		clientSession.startTransaction();
-		List<Checkpoint> checkpoints = null;
-		try {
+	/**
+	 * Lists a page of the checkpoints of a thread, newest first, reading only the
+	 * documents of the page.
+	 */
+	@Override
+	public List<Checkpoint> list(RunnableConfig config, String afterCheckpointId, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("limit must be > 0!");
+		}
+		String threadName = requireThreadName(config);
+		return inTransaction(clientSession -> {
 			// Get active thread_id for the thread_name
 			String threadId = getActiveThreadId(threadName, clientSession);
 			if (threadId == null) {
-				clientSession.commitTransaction();
-				return Collections.emptyList();
+				return Collections.<Checkpoint>emptyList();
 			}
-
-			// Use thread_id to query checkpoints
-			MongoCollection<Document> collection = database.getCollection(CHECKPOINT_COLLECTION);
-			String checkpointId = CHECKPOINT_PREFIX + threadId;
-			Document document = collection.find(clientSession, new BasicDBObject("_id", checkpointId)).first();
-			if (document == null) {
-				clientSession.commitTransaction();
-				return Collections.emptyList();
+			migrateLegacyCheckpoints(threadName, threadId, clientSession);
+
+			MongoCollection<Document> entries = database.getCollection(ENTRY_COLLECTION);
+			Bson filter = threadFilter(threadId);
+			if (afterCheckpointId != null) {
+				Document after = entries
+						.find(clientSession, Filters.and(filter, Filters.eq(FIELD_CHECKPOINT_ID, afterCheckpointId)))
+						.projection(Projections.include(FIELD_SEQ))
+						.first();
+				if (after == null) {
+					return Collections.<Checkpoint>emptyList();
+				}
+				filter = Filters.and(filter, Filters.lt(FIELD_SEQ, after.get(FIELD_SEQ, Number.class).longValue()));
 			}
-			String checkpointsStr = document.getString(DOCUMENT_CONTENT_KEY);
-			checkpoints = deserializeCheckpoints(checkpointsStr);
-			clientSession.commitTransaction();
-		}
-		catch (Exception e) {
-			clientSession.abortTransaction();
-			throw new RuntimeException(e);
-		}
-		finally {
-			clientSession.close();
-		}
-		return checkpoints;
+			return checkpointsOf(entries.find(clientSession, filter).sort(Sorts.descending(FIELD_SEQ)).limit(limit));
+		});
 	}
 
 	@Override
 	public Optional<Checkpoint> get(RunnableConfig config) {
-		Optional<String> threadNameOpt = config.threadId();
-		if (!threadNameOpt.isPresent()) {
-			throw new IllegalArgumentException("threadId is not allow null");
-		}
-
-		String threadName = threadNameOpt.get();
-		ClientSession clientSession = this.client
-				.startSession(ClientSessionOptions.builder().defaultTransactionOptions(txnOptions).build());
-		LinkedList<Checkpoint> checkpoints = null;
-		try {
-			clientSession.startTransaction();
-
+		String threadName = requireThreadName(config);
+		return inTransaction(clientSession -> {
 			// Get active thread_id for the thread_name
 			String threadId = getActiveThreadId(threadName, clientSession);
 			if (threadId == null) {
-				clientSession.commitTransaction();
-				return Optional.empty();
+				return Optional.<Checkpoint>empty();
 			}
+			migrateLegacyCheckpoints(threadName, threadId, clientSession);
 
-			// Use thread_id to query checkpoints
-			MongoCollection<Document> collection = database.getCollection(CHECKPOINT_COLLECTION);
-			String checkpointId = CHECKPOINT_PREFIX + threadId;
-			Document document = collection.find(clientSession, new BasicDBObject("_id", checkpointId)).first();
-			if (document == null) {
-				clientSession.commitTransaction();
-				return Optional.empty();
-			}
-			String checkpointsStr = document.getString(DOCUMENT_CONTENT_KEY);
-			checkpoints = deserializeCheckpoints(checkpointsStr);
-			clientSession.commitTransaction();
-
+			MongoCollection<Document> entries = database.getCollection(ENTRY_COLLECTION);
+			Document entry;
 			if (config.checkPointId().isPresent()) {
-				List<Checkpoint> finalCheckpoints = checkpoints;
-				return config.checkPointId()
-						.flatMap(id -> finalCheckpoints.stream()
-								.filter(checkpoint -> checkpoint.getId().equals(id))
-								.findFirst());
+				entry = entries
+						.find(clientSession,
+								Filters.and(threadFilter(threadId),
+										Filters.eq(FIELD_CHECKPOINT_ID, config.checkPointId().get())))
+						.projection(Projections.include(FIELD_CONTENT))
+						.first();
 			}
-			return getLast(checkpoints, config);
-		}
-		catch (Exception e) {
-			clientSession.abortTransaction();
-			throw new RuntimeException(e);
-		}
-		finally {
-			clientSession.close();
-		}
+			else {
+				entry = entries.find(clientSession, threadFilter(threadId))
+						.sort(Sorts.descending(FIELD_SEQ))
+						.projection(Projections.include(FIELD_CONTENT))
+						.limit(1)
+						.first();
+			}
+			return entry == null ? Optional.<Checkpoint>empty() : Optional.of(checkpointOf(entry));
+		});
 	}
 
 	@Override
 	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
-		Optional<String> threadNameOpt = config.threadId();
-		if (!threadNameOpt.isPresent()) {
-			throw new IllegalArgumentException("threadId is not allow null");
-		}
-
-		String threadName = threadNameOpt.get();
-		ClientSession clientSession = this.client
-				.startSession(ClientSessionOptions.builder().defaultTransactionOptions(txnOptions).build());
-		clientSession.startTransaction();
-		try {
+		String threadName = requireThreadName(config);
+		inTransaction(clientSession -> {
 			// Get or create thread_id
 			String threadId = getOrCreateThreadId(threadName, clientSession);
+			migrateLegacyCheckpoints(threadName, threadId, clientSession);
 
-			// Use thread_id as key for checkpoint storage
-			MongoCollection<Document> collection = database.getCollection(CHECKPOINT_COLLECTION);
-			String checkpointDocId = CHECKPOINT_PREFIX + threadId;
-			Document document = collection.find(clientSession, new BasicDBObject("_id", checkpointDocId)).first();
-			LinkedList<Checkpoint> checkpointLinkedList = null;
-
-			if (Objects.nonNull(document)) {
-				String checkpointsStr = document.getString(DOCUMENT_CONTENT_KEY);
-				checkpointLinkedList = deserializeCheckpoints(checkpointsStr);
-				LinkedList<Checkpoint> finalCheckpointLinkedList = checkpointLinkedList;
-				if (config.checkPointId().isPresent()) { // Replace Checkpoint
-					String checkPointId = config.checkPointId().get();
-					int index = IntStream.range(0, checkpointLinkedList.size())
-							.filter(i -> finalCheckpointLinkedList.get(i).getId().equals(checkPointId))
-							.findFirst()
-							.orElseThrow(() -> (new NoSuchElementException(
-									format("Checkpoint with id %s not found!", checkPointId))));
-					finalCheckpointLinkedList.set(index, checkpoint);
-					Document tempDocument = new Document().append("_id", checkpointDocId)
-							.append(DOCUMENT_CONTENT_KEY, serializeCheckpoints(finalCheckpointLinkedList));
-					collection.replaceOne(clientSession, Filters.eq("_id", checkpointDocId), tempDocument);
-					clientSession.commitTransaction();
-					return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+			MongoCollection<Document> entries = database.getCollection(ENTRY_COLLECTION);
+			if (config.checkPointId().isPresent()) { // Replace Checkpoint
+				String checkPointId = config.checkPointId().get();
+				UpdateResult result = entries.updateOne(
+						clientSession,
+						Filters.and(threadFilter(threadId), Filters.eq(FIELD_CHECKPOINT_ID, checkPointId)),
+						Updates.combine(
+								Updates.set(FIELD_CHECKPOINT_ID, checkpoint.getId()),
+								Updates.set(FIELD_DELTA, DeltaCheckpointSaver.isDelta(checkpoint)),
+								Updates.set(FIELD_CONTENT, new Binary(checkpointSerializer.objectToBytes(checkpoint)))
+						)
+				);
+				if (result.getMatchedCount() == 0) {
+					throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId));
 				}
+				return null;
 			}
 
-			if (checkpointLinkedList == null) {
-				checkpointLinkedList = new LinkedList<>();
-				checkpointLinkedList.push(checkpoint); // Add Checkpoint
-				Document tempDocument = new Document().append("_id", checkpointDocId)
-						.append(DOCUMENT_CONTENT_KEY, serializeCheckpoints(checkpointLinkedList));
-				collection.insertOne(clientSession, tempDocument);
-			}
-			else {
-				checkpointLinkedList.push(checkpoint); // Add Checkpoint
-				Document tempDocument = new Document().append("_id", checkpointDocId)
-						.append(DOCUMENT_CONTENT_KEY, serializeCheckpoints(checkpointLinkedList));
-				ReplaceOptions opts = new ReplaceOptions().upsert(true);
-				collection.replaceOne(clientSession, Filters.eq("_id", checkpointDocId), tempDocument, opts);
+			// Add Checkpoint, dropping the oldest ones beyond the limit in the same request
+			long seq = nextSequence(threadName, clientSession);
+			List<WriteModel<Document>> writes = new ArrayList<>(2);
+			writes.add(new InsertOneModel<>(entry(threadId, seq, checkpoint)));
+			long oldestKept = maxCheckpointsPerThread > 0 ? oldestKeptSequence(clientSession, threadId, seq, checkpoint)
+					: 0;
+			if (oldestKept > 1) {
+				writes.add(new DeleteManyModel<>(Filters.and(threadFilter(threadId),
+						Filters.lt(FIELD_SEQ, oldestKept))));
 			}
-			clientSession.commitTransaction();
-		}
-		catch (Exception e) {
-			clientSession.abortTransaction();
-			throw new RuntimeException(e);
-		}
-		finally {
-			clientSession.close();
-		}
+			entries.bulkWrite(clientSession, writes);
+			return null;
+		});
 		return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
 	}
 
 	@Override
-	public Tag release(RunnableConfig config) throws Exception {
-		Optional<String> threadNameOpt = config.threadId();
-		if (!threadNameOpt.isPresent()) {
-			throw new IllegalArgumentException("threadId is not allow null");
+	public void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		String threadName = requireThreadName(config);
+		if (checkpointIds.isEmpty()) {
+			return;
 		}
+		inTransaction(clientSession -> {
+			String threadId = getActiveThreadId(threadName, clientSession);
+			if (threadId == null) {
+				return null;
+			}
+			migrateLegacyCheckpoints(threadName, threadId, clientSession);
+			database.getCollection(ENTRY_COLLECTION).deleteMany(clientSession,
+					Filters.and(threadFilter(threadId), Filters.in(FIELD_CHECKPOINT_ID, checkpointIds)));
+			return null;
+		});
+	}
 
-		String threadName = threadNameOpt.get();
-		ClientSession clientSession = this.client
-				.startSession(ClientSessionOptions.builder().defaultTransactionOptions(txnOptions).build());
-		clientSession.startTransaction();
-		try {
+	@Override
+	public Tag release(RunnableConfig config) throws Exception {
+		String threadName = requireThreadName(config);
+		return inTransaction(clientSession -> {
 			MongoCollection<Document> threadMetaCollection = database.getCollection(THREAD_META_COLLECTION);
 			String metaId = THREAD_META_PREFIX + threadName;
 
 			Document metaDoc = threadMetaCollection.find(clientSession, new BasicDBObject("_id", metaId)).first();
 			if (metaDoc == null) {
-				clientSession.abortTransaction();
 				throw new IllegalStateException("Thread not found: " + threadName);
 			}
 
 			String threadId = metaDoc.getString(FIELD_THREAD_ID);
 			if (threadId == null) {
-				clientSession.abortTransaction();
 				throw new IllegalStateException("Thread not found: " + threadName);
 			}
 
@@ -473,35 +655,17 @@ public class MongoSaver implements BaseCheckpointSaver {
 
 			if (updatedDoc == null) {
 				// Thread was already released or doesn't exist
-				clientSession.abortTransaction();
 				throw new IllegalStateException("Thread is not active or already released: " + threadName);
 			}
 
 			// Get checkpoints for Tag (using thread_id)
-			MongoCollection<Document> checkpointCollection = database.getCollection(CHECKPOINT_COLLECTION);
-			String checkpointDocId = CHECKPOINT_PREFIX + threadId;
-			Document checkpointDoc = checkpointCollection.find(clientSession, new BasicDBObject("_id", checkpointDocId))
-					.first();
-
-			Collection<Checkpoint> checkpoints = Collections.emptyList();
-			if (checkpointDoc != null) {
-				String checkpointsStr = checkpointDoc.getString(DOCUMENT_CONTENT_KEY);
-				if (checkpointsStr != null) {
-					checkpoints = deserializeCheckpoints(checkpointsStr);
-				}
-			}
+			migrateLegacyCheckpoints(threadName, threadId, clientSession);
+			Collection<Checkpoint> checkpoints = checkpointsOf(database.getCollection(ENTRY_COLLECTION)
+					.find(clientSession, threadFilter(threadId))
+					.sort(Sorts.descending(FIELD_SEQ)));
 
-			clientSession.commitTransaction();
 			return new Tag(threadName, checkpoints);
-
-		}
-		catch (Exception e) {
-			clientSession.abortTransaction();
-			throw new RuntimeException(e);
-		}
-		finally {
-			clientSession.close();
-		}
+		});
 	}
 
 	/**
@@ -510,6 +674,8 @@ public class MongoSaver implements BaseCheckpointSaver {
 	public static class Builder {
 		private MongoClient client;
 		private StateSerializer stateSerializer;
+		private int maxCheckpointsPerThread;
+		private CheckpointCompression compression = CheckpointCompression.none();
 
 		public Builder client(MongoClient client) {
 			this.client = client;
@@ -521,6 +687,31 @@ public class MongoSaver implements BaseCheckpointSaver {
 			return this;
 		}
 
+		/**
+		 * Sets the number of checkpoints kept per thread; older ones are deleted when a
+		 * checkpoint is added (default 0, i.e. no limit).
+		 * @param maxCheckpointsPerThread the number of checkpoints kept per thread
+		 * @return this builder
+		 */
+		public Builder maxCheckpointsPerThread(int maxCheckpointsPerThread) {
+			if (maxCheckpointsPerThread < 0) {
+				throw new IllegalArgumentException("maxCheckpointsPerThread must be >= 0");
+			}
+			this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+			return this;
+		}
+
+		/**
+		 * Sets the compression of the stored checkpoints. Checkpoints stored without
+		 * compression stay readable.
+		 * @param compression the checkpoint compression
+		 * @return this builder
+		 */
+		public Builder compression(CheckpointCompression compression) {
+			this.compression = Objects.requireNonNull(compression, "compression cannot be null");
+			return this;
+		}
+
 		/**
 		 * Builds a new MongoSaver instance.
 		 * @return a new MongoSaver instance
@@ -533,7 +724,7 @@ public class MongoSaver implements BaseCheckpointSaver {
 			if (stateSerializer == null) {
 				this.stateSerializer = StateGraph.DEFAULT_JACKSON_SERIALIZER;
 			}
-			return new MongoSaver(client, stateSerializer);
+			return new MongoSaver(client, stateSerializer, maxCheckpointsPerThread, compression);
 		}
 	}
 
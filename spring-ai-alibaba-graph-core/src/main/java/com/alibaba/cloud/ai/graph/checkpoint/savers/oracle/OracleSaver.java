@@ -18,8 +18,10 @@ package com.alibaba.cloud.ai.graph.checkpoint.savers.oracle;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.JdbcBatchWriter;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
 
 import java.io.IOException;
 import java.sql.Connection;
@@ -28,10 +30,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -75,6 +83,7 @@ import static java.lang.String.format;
  *          state_data JSON NOT NULL,
  *          state_content_type VARCHAR(100) NOT NULL,
  *          saved_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+ *          seq NUMBER GENERATED BY DEFAULT AS IDENTITY,
  *
  *          CONSTRAINT GRAPH_FK_THREAD
  *              FOREIGN KEY(thread_id)
@@ -84,6 +93,12 @@ import static java.lang.String.format;
  * </pre>
  * </p>
  * <p>
+ * The checkpoints of a thread are ordered by {@code seq}, which increases with every
+ * insert, rather than by {@code saved_at}, which checkpoints saved at the same time
+ * share. A {@code seq} column missing from existing tables is added, numbering their
+ * checkpoints in the order of their {@code saved_at}.
+ * </p>
+ * <p>
  * A builder can be use to create an instance or OracleSaver. The builder
  * allows to configure the following options:
  * - DataSource: indicates which data source should be used to connect
@@ -93,6 +108,17 @@ import static java.lang.String.format;
  * - StateSerializer: the serializer used to serialize/deserialize state data
  * </p>
  * <p>
+ * By default every checkpoint of a thread is loaded in memory on its first access. With
+ * {@link Builder#lazyLoading(boolean) lazy loading}, the latest checkpoint is loaded by a
+ * single query, the history is listed page by page, and the checkpoints held in memory
+ * only act as a bounded near-cache.
+ * </p>
+ * <p>
+ * With a {@link Builder#batchSize(int) batch size} greater than 1, the checkpoints
+ * inserted by concurrent runs are grouped into JDBC batches committed together, see
+ * {@link JdbcBatchWriter}.
+ * </p>
+ * <p>
  * Ex:
  *
  * <pre>
@@ -130,12 +156,28 @@ public class OracleSaver extends MemorySaver {
 			   state_data JSON NOT NULL,
 			   state_content_type VARCHAR(100) NOT NULL,
 			   saved_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+			   seq NUMBER GENERATED BY DEFAULT AS IDENTITY,
 			
 			   CONSTRAINT GRAPH_FK_THREAD
 			       FOREIGN KEY(thread_id)
 			       REFERENCES GRAPH_THREAD(thread_id)
 			       ON DELETE CASCADE
 			)""";
+
+	private static final String SELECT_SEQUENCE_COLUMN = "SELECT seq FROM GRAPH_CHECKPOINT WHERE 1 = 0";
+
+	private static final String ADD_SEQUENCE_COLUMN = """
+			ALTER TABLE GRAPH_CHECKPOINT ADD (seq NUMBER GENERATED BY DEFAULT AS IDENTITY)
+			""";
+
+	private static final String NUMBER_CHECKPOINTS = """
+			MERGE INTO GRAPH_CHECKPOINT c
+			USING (
+			  SELECT checkpoint_id, ROW_NUMBER() OVER (ORDER BY saved_at, checkpoint_id) AS n
+			  FROM GRAPH_CHECKPOINT
+			) r ON (c.checkpoint_id = r.checkpoint_id)
+			WHEN MATCHED THEN UPDATE SET c.seq = r.n
+			""";
 	private static final String DROP_THREAD_INDEX = "DROP INDEX IF EXISTS IDX_GRAPH_THREAD_NAME_RELEASED";
 	private static final String DROP_THREAD_TABLE = "DROP TABLE IF EXISTS GRAPH_THREAD CASCADE CONSTRAINTS";
 	private static final String DROP_CHECKPOINT_TABLE = "DROP TABLE IF EXISTS GRAPH_CHECKPOINT CASCADE CONSTRAINTS";
@@ -177,7 +219,63 @@ public class OracleSaver extends MemorySaver {
 			FROM GRAPH_CHECKPOINT c
 			  INNER JOIN GRAPH_THREAD t ON c.thread_id = t.thread_id
 			WHERE t.thread_name = ? AND t.is_released != TRUE
-			ORDER BY c.saved_at DESC
+			ORDER BY c.seq DESC
+			""";
+
+	private static final String SELECT_LATEST_CHECKPOINT = """
+			SELECT
+			  c.checkpoint_id,
+			  c.node_id,
+			  c.next_node_id,
+			  c.state_data,
+			  c.state_content_type
+			FROM GRAPH_CHECKPOINT c
+			  INNER JOIN GRAPH_THREAD t ON c.thread_id = t.thread_id
+			WHERE t.thread_name = ? AND t.is_released != TRUE
+			ORDER BY c.seq DESC
+			FETCH FIRST 1 ROWS ONLY
+			""";
+
+	private static final String SELECT_CHECKPOINT = """
+			SELECT
+			  c.checkpoint_id,
+			  c.node_id,
+			  c.next_node_id,
+			  c.state_data,
+			  c.state_content_type
+			FROM GRAPH_CHECKPOINT c
+			  INNER JOIN GRAPH_THREAD t ON c.thread_id = t.thread_id
+			WHERE t.thread_name = ? AND t.is_released != TRUE AND c.checkpoint_id = ?
+			""";
+
+	private static final String SELECT_CHECKPOINTS_PAGE = """
+			SELECT
+			  c.checkpoint_id,
+			  c.node_id,
+			  c.next_node_id,
+			  c.state_data,
+			  c.state_content_type
+			FROM GRAPH_CHECKPOINT c
+			  INNER JOIN GRAPH_THREAD t ON c.thread_id = t.thread_id
+			WHERE t.thread_name = ? AND t.is_released != TRUE
+			ORDER BY c.seq DESC
+			FETCH FIRST ? ROWS ONLY
+			""";
+
+	private static final String SELECT_CHECKPOINTS_PAGE_AFTER = """
+			SELECT
+			  c.checkpoint_id,
+			  c.node_id,
+			  c.next_node_id,
+			  c.state_data,
+			  c.state_content_type
+			FROM GRAPH_CHECKPOINT c
+			  INNER JOIN GRAPH_THREAD t ON c.thread_id = t.thread_id
+			  INNER JOIN GRAPH_CHECKPOINT cursor_c ON cursor_c.checkpoint_id = ?
+			WHERE t.thread_name = ? AND t.is_released != TRUE
+			  AND c.seq < cursor_c.seq
+			ORDER BY c.seq DESC
+			FETCH FIRST ? ROWS ONLY
 			""";
 
 	private static final String DELETE_CHECKPOINTS = """
@@ -192,22 +290,43 @@ public class OracleSaver extends MemorySaver {
 	private final DataSource dataSource;
 	private final CreateOption createOption;
 	private final StateSerializer stateSerializer;
+	private final CheckpointCompression compression;
+	private final boolean lazyLoading;
+	private final int pageSize;
+	private final JdbcBatchWriter<CheckpointInsert> batchWriter;
+
+	private record CheckpointInsert(String threadName, Checkpoint checkpoint, String encodedState) {
+	}
 
 	/**
 	 * Private constructor used by the builder to create a new instance of
 	 * OracleSaver.
 	 *
-	 * @param dataSource      the data source
-	 * @param createOption    the create options
-	 * @param stateSerializer the state serializer
+	 * @param builder the builder
 	 */
-	private OracleSaver(DataSource dataSource, CreateOption createOption, StateSerializer stateSerializer) {
-		this.dataSource = dataSource;
-		this.createOption = createOption;
-		this.stateSerializer = Objects.requireNonNull(stateSerializer, "stateSerializer cannot be null");
+	private OracleSaver(Builder builder) {
+		super(builder);
+		this.dataSource = builder.dataSource;
+		this.createOption = builder.createOption;
+		this.stateSerializer = Objects.requireNonNull(builder.stateSerializer, "stateSerializer cannot be null");
+		this.compression = builder.compression;
+		this.lazyLoading = builder.lazyLoading;
+		this.pageSize = builder.pageSize;
+		this.batchWriter = builder.batchSize > 1
+				? new JdbcBatchWriter<>(dataSource, builder.batchWindow, builder.batchSize, this::insertCheckpoints)
+				: null;
 		initTables();
 	}
 
+	/**
+	 * Returns the compression of the stored states, and its metrics.
+	 *
+	 * @return the checkpoint compression
+	 */
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
 	/**
 	 * Creates an instance of a builder that allows to configure and create a new
 	 * instance of OracleSaver.
@@ -272,7 +391,7 @@ public class OracleSaver extends MemorySaver {
 	 * @throws IOException if serialization fails
 	 */
 	private String encodeState(Map<String, Object> data) throws IOException {
-		var binaryData = stateSerializer.dataToBytes(data);
+		var binaryData = compression.compress(stateSerializer.dataToBytes(data));
 		var base64Data = Base64.getEncoder().encodeToString(binaryData);
 		return format("""
 				{"binaryPayload": "%s"}
@@ -298,31 +417,25 @@ public class OracleSaver extends MemorySaver {
 		}
 
 		byte[] bytes = Base64.getDecoder().decode(binaryPayload);
-		return stateSerializer.dataFromBytes(bytes);
+		return stateSerializer.dataFromBytes(compression.decompress(bytes));
 	}
 
 	/**
-	 * If the list of checkpoints is empty, loads the checkpoints from the database.
+	 * Reads the checkpoints returned by a query.
 	 *
-	 * @param config      the configuration
-	 * @param checkpoints the list of checkpoints
-	 * @return a list of checkpoints
+	 * @param sql        the query
+	 * @param parameters the parameters of the query
+	 * @return the checkpoints, in the order of the query
 	 * @throws Exception if an error occurs while the checkpoints are being
 	 *                   loaded from the database.
 	 */
-	@Override
-	protected LinkedList<Checkpoint> loadedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints)
-			throws Exception {
-		if (!checkpoints.isEmpty()) {
-			return checkpoints;
-		}
-
-		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+	private List<Checkpoint> queryCheckpoints(String sql, Object... parameters) throws Exception {
+		List<Checkpoint> checkpoints = new ArrayList<>();
 		JsonFactory osonFactory = new OsonFactory();
 		ObjectMapper objectMapper = new ObjectMapper(osonFactory);
 
 		try (Connection connection = dataSource.getConnection();
-			 PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CHECKPOINTS)) {
+			 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
 			// Calls to defineColumnType reduce the number of network requests. When Oracle
 			// JDBC knows that it is
@@ -342,7 +455,9 @@ public class OracleSaver extends MemorySaver {
 			oracleStatement.defineColumnType(5, OracleTypes.VARCHAR); // state_content_type
 			oracleStatement.setLobPrefetchSize(Integer.MAX_VALUE); // Workaround for Oracle JDBC bug 37030121
 
-			preparedStatement.setString(1, threadName);
+			for (int i = 0; i < parameters.length; i++) {
+				preparedStatement.setObject(i + 1, parameters[i]);
+			}
 			try (ResultSet resultSet = preparedStatement.executeQuery()) {
 				while (resultSet.next()) {
 					byte[] osonBytes = resultSet.getObject(4, OracleJsonDatum.class).shareBytes();
@@ -373,6 +488,69 @@ public class OracleSaver extends MemorySaver {
 		return checkpoints;
 	}
 
+	/**
+	 * If the list of checkpoints is empty, loads the checkpoints from the database,
+	 * unless lazy loading is enabled.
+	 *
+	 * @param config      the configuration
+	 * @param checkpoints the list of checkpoints
+	 * @return a list of checkpoints
+	 * @throws Exception if an error occurs while the checkpoints are being
+	 *                   loaded from the database.
+	 */
+	@Override
+	protected List<Checkpoint> loadedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints)
+			throws Exception {
+		if (!checkpoints.isEmpty() || lazyLoading) {
+			return checkpoints;
+		}
+
+		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		checkpoints.addAll(queryCheckpoints(SELECT_CHECKPOINTS, threadName));
+		return checkpoints;
+	}
+
+	@Override
+	protected Optional<Checkpoint> loadedLatestCheckpoint(RunnableConfig config) throws Exception {
+		if (!lazyLoading) {
+			return Optional.empty();
+		}
+		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		return queryCheckpoints(SELECT_LATEST_CHECKPOINT, threadName).stream().findFirst();
+	}
+
+	@Override
+	protected Optional<Checkpoint> loadedCheckpoint(RunnableConfig config, String checkpointId) throws Exception {
+		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		return queryCheckpoints(SELECT_CHECKPOINT, threadName, checkpointId).stream().findFirst();
+	}
+
+	/**
+	 * With lazy loading, lists the checkpoints from the database page by page,
+	 * using the last checkpoint of a page as the cursor of the next one.
+	 */
+	@Override
+	protected List<Checkpoint> listedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			String afterCheckpointId, int limit) throws Exception {
+		if (!lazyLoading) {
+			return super.listedCheckpoints(config, checkpoints, afterCheckpointId, limit);
+		}
+		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		List<Checkpoint> result = new ArrayList<>();
+		String cursor = afterCheckpointId;
+		while (result.size() < limit) {
+			int size = Math.min(pageSize, limit - result.size());
+			List<Checkpoint> page = cursor == null ? queryCheckpoints(SELECT_CHECKPOINTS_PAGE, threadName, size)
+					: queryCheckpoints(SELECT_CHECKPOINTS_PAGE_AFTER, cursor, threadName, size);
+			result.addAll(page);
+			if (page.size() < size) {
+				break;
+			}
+			cursor = page.get(page.size() - 1).getId();
+		}
+		return result;
+	}
+
 	/**
 	 * Inserts a checkpoint to the database
 	 *
@@ -383,32 +561,28 @@ public class OracleSaver extends MemorySaver {
 	 *                   database.
 	 */
 	@Override
-	protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
+	protected void insertedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint)
 			throws Exception {
 
 		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		if (batchWriter != null) {
+			try {
+				batchWriter.write(new CheckpointInsert(threadName, checkpoint, encodeState(checkpoint.getState())));
+			}
+			catch (SQLException | IOException e) {
+				log.error("Error inserting checkpoint with id {} in thread {}", checkpoint.getId(), threadName, e);
+				throw new Exception("Unable to insert checkpoint", e);
+			}
+			log.debug("Checkpoint {} for thread {} inserted successfully.", checkpoint.getId(), threadName);
+			return;
+		}
 		Connection conn = null;
 
 		try (Connection ignored = conn = dataSource.getConnection()) {
 			conn.setAutoCommit(false); // Start transaction
 
-			try (PreparedStatement upsertStatement = conn.prepareStatement(UPSERT_THREAD);
-				 PreparedStatement insertCheckpointStatement = conn.prepareStatement(INSERT_CHECKPOINT)) {
-
-				upsertStatement.setString(1, UUID.randomUUID().toString());
-				upsertStatement.setString(2, threadName);
-				upsertStatement.execute();
-
-				String encodedState = encodeState(checkpoint.getState());
-				insertCheckpointStatement.setString(1, checkpoint.getId());
-				insertCheckpointStatement.setString(2, checkpoint.getNodeId());
-				insertCheckpointStatement.setString(3, checkpoint.getNextNodeId());
-				insertCheckpointStatement.setObject(4, encodedState, OracleType.JSON);
-				insertCheckpointStatement.setString(5, stateSerializer.contentType());
-				insertCheckpointStatement.setString(6, threadName);
-
-				insertCheckpointStatement.execute();
-			}
+			insertCheckpoints(conn,
+					List.of(new CheckpointInsert(threadName, checkpoint, encodeState(checkpoint.getState()))));
 
 			conn.commit();
 			log.debug("Checkpoint {} for thread {} inserted successfully.", checkpoint.getId(), threadName);
@@ -421,6 +595,51 @@ public class OracleSaver extends MemorySaver {
 
 	}
 
+	/**
+	 * Inserts checkpoints, upserting their threads first. Each statement is prepared
+	 * once and executed as a JDBC batch.
+	 *
+	 * @param conn    the database connection, whose transaction is committed by the caller
+	 * @param inserts the checkpoints to insert
+	 * @throws SQLException if an error occurs while inserting the checkpoints
+	 */
+	private void insertCheckpoints(Connection conn, List<CheckpointInsert> inserts) throws SQLException {
+		try (PreparedStatement upsertStatement = conn.prepareStatement(UPSERT_THREAD);
+			 PreparedStatement insertCheckpointStatement = conn.prepareStatement(INSERT_CHECKPOINT)) {
+
+			Set<String> threadNames = new HashSet<>();
+			for (CheckpointInsert insert : inserts) {
+				if (threadNames.add(insert.threadName())) {
+					upsertStatement.setString(1, UUID.randomUUID().toString());
+					upsertStatement.setString(2, insert.threadName());
+					upsertStatement.addBatch();
+				}
+			}
+			upsertStatement.executeBatch();
+
+			for (CheckpointInsert insert : inserts) {
+				insertCheckpointStatement.setString(1, insert.checkpoint().getId());
+				insertCheckpointStatement.setString(2, insert.checkpoint().getNodeId());
+				insertCheckpointStatement.setString(3, insert.checkpoint().getNextNodeId());
+				insertCheckpointStatement.setObject(4, insert.encodedState(), OracleType.JSON);
+				insertCheckpointStatement.setString(5, stateSerializer.contentType());
+				insertCheckpointStatement.setString(6, insert.threadName());
+				insertCheckpointStatement.addBatch();
+			}
+			insertCheckpointStatement.executeBatch();
+		}
+	}
+
+	/**
+	 * Returns the writer batching the checkpoint inserts, whose counters report the batch
+	 * sizes and commit latencies.
+	 *
+	 * @return the batch writer, empty if inserts are not batched
+	 */
+	public Optional<JdbcBatchWriter<?>> batchWriter() {
+		return Optional.ofNullable(batchWriter);
+	}
+
 	/**
 	 * Marks the checkpoints as released
 	 *
@@ -431,7 +650,7 @@ public class OracleSaver extends MemorySaver {
 	 *                   released
 	 */
 	@Override
-	protected void releasedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Tag releaseTag)
+	protected void releasedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints, Tag releaseTag)
 			throws Exception {
 		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
 		Connection conn = null;
@@ -460,6 +679,41 @@ public class OracleSaver extends MemorySaver {
 		}
 	}
 
+	/**
+	 * Deletes checkpoints from the database
+	 *
+	 * @param config        the configuration
+	 * @param checkpoints   the remaining checkpoints in memory
+	 * @param checkpointIds the ids of the checkpoints to delete
+	 * @throws Exception if an error occurs while deleting the checkpoints
+	 */
+	@Override
+	protected void deletedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			Collection<String> checkpointIds) throws Exception {
+		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
+		Connection conn = null;
+
+		try (Connection ignored = conn = dataSource.getConnection()) {
+			conn.setAutoCommit(false); // Start transaction
+
+			try (PreparedStatement preparedStatement = conn.prepareStatement(DELETE_CHECKPOINTS)) {
+				for (String checkpointId : checkpointIds) {
+					preparedStatement.setString(1, checkpointId);
+					preparedStatement.addBatch();
+				}
+				preparedStatement.executeBatch();
+			}
+
+			conn.commit();
+			log.debug("{} checkpoints of thread {} deleted successfully.", checkpointIds.size(), threadName);
+		}
+		catch (SQLException e) {
+			log.error("Error deleting checkpoints in thread {}", threadName, e);
+			rollback(conn, threadName);
+			throw new Exception("Unable to delete checkpoints", e);
+		}
+	}
+
 	/**
 	 * If the checkpoint exists, updates the checkpoint, otherwise it inserts it.
 	 *
@@ -470,7 +724,7 @@ public class OracleSaver extends MemorySaver {
 	 *                   checkpoint.
 	 */
 	@Override
-	protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
+	protected void updatedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint)
 			throws Exception {
 		final String threadName = config.threadId().orElse(THREAD_ID_DEFAULT);
 		Connection conn = null;
@@ -493,23 +747,8 @@ public class OracleSaver extends MemorySaver {
 			}
 			else {
 				// Insert new checkpoint (within same transaction)
-				try (PreparedStatement upsertStatement = conn.prepareStatement(UPSERT_THREAD);
-					 PreparedStatement insertCheckpointStatement = conn.prepareStatement(INSERT_CHECKPOINT)) {
-
-					upsertStatement.setString(1, UUID.randomUUID().toString());
-					upsertStatement.setString(2, threadName);
-					upsertStatement.execute();
-
-					String encodedState = encodeState(checkpoint.getState());
-					insertCheckpointStatement.setString(1, checkpoint.getId());
-					insertCheckpointStatement.setString(2, checkpoint.getNodeId());
-					insertCheckpointStatement.setString(3, checkpoint.getNextNodeId());
-					insertCheckpointStatement.setObject(4, encodedState, OracleType.JSON);
-					insertCheckpointStatement.setString(5, stateSerializer.contentType());
-					insertCheckpointStatement.setString(6, threadName);
-
-					insertCheckpointStatement.execute();
-				}
+				insertCheckpoints(conn,
+						List.of(new CheckpointInsert(threadName, checkpoint, encodeState(checkpoint.getState()))));
 			}
 
 			conn.commit();
@@ -539,6 +778,11 @@ public class OracleSaver extends MemorySaver {
 				statement.addBatch(INDEX_THREAD_TABLE);
 				statement.addBatch(CREATE_CHECKPOINT_TABLE);
 				statement.executeBatch();
+				if (!hasSequenceColumn(connection)) {
+					// numbers the checkpoints of a table created by a previous version
+					statement.execute(ADD_SEQUENCE_COLUMN);
+					statement.execute(NUMBER_CHECKPOINTS);
+				}
 			}
 		}
 		catch (SQLException sqlException) {
@@ -546,6 +790,23 @@ public class OracleSaver extends MemorySaver {
 		}
 	}
 
+	/**
+	 * Tells whether the checkpoint table has the {@code seq} column, missing from tables
+	 * created by previous versions.
+	 *
+	 * @param connection the database connection
+	 * @return true if the column exists
+	 */
+	private static boolean hasSequenceColumn(Connection connection) {
+		try (Statement statement = connection.createStatement();
+			 ResultSet ignored = statement.executeQuery(SELECT_SEQUENCE_COLUMN)) {
+			return true;
+		}
+		catch (SQLException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * A builder for OracleSaver.
 	 */
@@ -553,6 +814,11 @@ public class OracleSaver extends MemorySaver {
 		private DataSource dataSource;
 		private CreateOption createOption = CreateOption.CREATE_IF_NOT_EXISTS;
 		private StateSerializer stateSerializer;
+		private boolean lazyLoading;
+		private int pageSize = 100;
+		private int batchSize = 1;
+		private Duration batchWindow = Duration.ZERO;
+		private CheckpointCompression compression = CheckpointCompression.none();
 
 		/**
 		 * Sets the datasource
@@ -587,6 +853,75 @@ public class OracleSaver extends MemorySaver {
 			return this;
 		}
 
+		/**
+		 * Sets whether checkpoints are loaded on demand instead of loading every
+		 * checkpoint of a thread on its first access (default false). Unless
+		 * {@link #maxCheckpointsPerThread(int)} is set, the checkpoints kept in memory
+		 * are then bounded to the 16 most recent ones of each thread.
+		 *
+		 * @param lazyLoading true to load checkpoints on demand
+		 * @return this builder
+		 */
+		public Builder lazyLoading(boolean lazyLoading) {
+			this.lazyLoading = lazyLoading;
+			return this;
+		}
+
+		/**
+		 * Sets the number of checkpoints fetched per query when listing a thread with
+		 * lazy loading (default 100).
+		 *
+		 * @param pageSize the page size
+		 * @return this builder
+		 */
+		public Builder pageSize(int pageSize) {
+			if (pageSize <= 0) {
+				throw new IllegalArgumentException("pageSize must be > 0!");
+			}
+			this.pageSize = pageSize;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of checkpoint inserts grouped into one JDBC batch
+		 * (default 1, i.e. no batching).
+		 *
+		 * @param batchSize the maximum batch size
+		 * @return this builder
+		 */
+		public Builder batchSize(int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize must be > 0!");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets how long a batch waits for other inserts before being executed (default
+		 * zero: a batch only groups the inserts queued while the previous one was
+		 * executing).
+		 *
+		 * @param batchWindow the batch window
+		 * @return this builder
+		 */
+		public Builder batchWindow(Duration batchWindow) {
+			this.batchWindow = Objects.requireNonNull(batchWindow, "batchWindow cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the compression of the stored states. States stored without compression
+		 * stay readable (default {@link CheckpointCompression#none()}).
+		 *
+		 * @param compression the checkpoint compression
+		 * @return this builder
+		 */
+		public Builder compression(CheckpointCompression compression) {
+			this.compression = Objects.requireNonNull(compression, "compression cannot be null");
+			return this;
+		}
+
 		/**
 		 * Creates a new instance of OracleSaver
 		 *
@@ -597,7 +932,10 @@ public class OracleSaver extends MemorySaver {
             if (stateSerializer == null) {
                 this.stateSerializer = StateGraph.DEFAULT_JACKSON_SERIALIZER;
             }
-            return new OracleSaver(dataSource, createOption, stateSerializer);
+            if (lazyLoading && checkpointsPerThreadLimit() == 0) {
+                maxCheckpointsPerThread(16);
+            }
+            return new OracleSaver(this);
 		}
 	}
 }
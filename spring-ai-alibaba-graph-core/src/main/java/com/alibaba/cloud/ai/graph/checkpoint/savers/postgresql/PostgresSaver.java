@@ -18,8 +18,10 @@ package com.alibaba.cloud.ai.graph.checkpoint.savers.postgresql;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.JdbcBatchWriter;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
 
 import java.io.IOException;
 import java.sql.Connection;
@@ -28,9 +30,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -43,8 +50,60 @@ import org.slf4j.LoggerFactory;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * A {@link MemorySaver} storing checkpoints in PostgreSQL.
+ * <p>
+ * By default every checkpoint of a thread is loaded in memory on its first access. With
+ * {@link Builder#lazyLoading(boolean) lazy loading}, the latest checkpoint is loaded by a
+ * single query, the history is listed page by page, and the checkpoints held in memory
+ * only act as a bounded near-cache.
+ * <p>
+ * With a {@link Builder#batchSize(int) batch size} greater than 1, the checkpoints
+ * inserted by concurrent runs are grouped into JDBC batches committed together, see
+ * {@link JdbcBatchWriter}.
+ * <p>
+ * The checkpoints of a thread are ordered by {@code seq}, which increases with every
+ * insert, rather than by {@code saved_at}, which checkpoints saved in the same
+ * transaction share. When tables are created, a {@code seq} column missing from existing
+ * tables is added, numbering their checkpoints in the order of their {@code saved_at}.
+ */
 public class PostgresSaver extends MemorySaver {
 	private static final Logger log = LoggerFactory.getLogger(PostgresSaver.class);
+
+	private static final String SELECT_COLUMNS = """
+			SELECT  c.checkpoint_id,
+			        c.node_id,
+			        c.next_node_id,
+			        c.state_data->>'binaryPayload' AS base64_data,
+			        c.state_content_type
+			FROM GraphThread t
+			JOIN GraphCheckpoint c ON c.thread_id = t.thread_id
+			""";
+
+	private static final String SELECT_LATEST_CHECKPOINT = SELECT_COLUMNS + """
+			WHERE t.thread_name = ? AND t.is_released = FALSE
+			ORDER BY c.seq DESC
+			LIMIT 1
+			""";
+
+	private static final String SELECT_CHECKPOINT = SELECT_COLUMNS + """
+			WHERE t.thread_name = ? AND t.is_released = FALSE AND c.checkpoint_id = ?
+			""";
+
+	private static final String SELECT_CHECKPOINTS_PAGE = SELECT_COLUMNS + """
+			WHERE t.thread_name = ? AND t.is_released = FALSE
+			ORDER BY c.seq DESC
+			LIMIT ?
+			""";
+
+	private static final String SELECT_CHECKPOINTS_PAGE_AFTER = SELECT_COLUMNS + """
+			JOIN GraphCheckpoint cursor_c ON cursor_c.checkpoint_id = ?
+			WHERE t.thread_name = ? AND t.is_released = FALSE
+			  AND c.seq < cursor_c.seq
+			ORDER BY c.seq DESC
+			LIMIT ?
+			""";
+
 	/**
 	 * Datasource used to create the store
 	 */
@@ -52,12 +111,39 @@ public class PostgresSaver extends MemorySaver {
 
 	private final StateSerializer stateSerializer;
 
+	private final CheckpointCompression compression;
+
+	private final boolean lazyLoading;
+
+	private final int pageSize;
+
+	private final JdbcBatchWriter<CheckpointInsert> batchWriter;
+
+	private record CheckpointInsert(String threadId, Checkpoint checkpoint, String encodedState) {
+	}
+
 	protected PostgresSaver(Builder builder) throws SQLException {
+		super(builder);
+		this.lazyLoading = builder.lazyLoading;
+		this.pageSize = builder.pageSize;
 		this.datasource = builder.datasource;
 		this.stateSerializer = builder.stateSerializer;
+		this.compression = builder.compression;
+		this.batchWriter = builder.batchSize > 1
+				? new JdbcBatchWriter<>(datasource, builder.batchWindow, builder.batchSize, this::insertCheckpoints)
+				: null;
 		initTable(builder.dropTablesFirst, builder.createTables);
 	}
 
+	/**
+	 * Returns the compression of the stored states, and its metrics.
+	 *
+	 * @return the checkpoint compression
+	 */
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -80,7 +166,7 @@ public class PostgresSaver extends MemorySaver {
 	}
 
 	private String encodeState(Map<String, Object> data) throws IOException {
-		var binaryData = stateSerializer.dataToBytes(data);
+		var binaryData = compression.compress(stateSerializer.dataToBytes(data));
 		var base64Data = Base64.getEncoder().encodeToString(binaryData);
 		return format("""
 				{"binaryPayload": "%s"}
@@ -96,7 +182,7 @@ public class PostgresSaver extends MemorySaver {
 		}
 
 		byte[] bytes = Base64.getDecoder().decode(binaryPayload);
-		return stateSerializer.dataFromBytes(bytes);
+		return stateSerializer.dataFromBytes(compression.decompress(bytes));
 	}
 
 	protected void initTable(boolean dropTablesFirst, boolean createTables) throws SQLException {
@@ -121,16 +207,31 @@ public class PostgresSaver extends MemorySaver {
 				     state_data JSONB NOT NULL,
 				     state_content_type VARCHAR(100) NOT NULL, -- New field for content type
 				     saved_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+				     seq BIGSERIAL,
 				
 				     CONSTRAINT fk_thread
 				         FOREIGN KEY(thread_id)
 				         REFERENCES GraphThread(thread_id)
 				         ON DELETE CASCADE
 				 );
+				""";
+
+		var sqlAddSequence = """
+				ALTER TABLE GraphCheckpoint ADD COLUMN seq BIGSERIAL;
 				
-				 CREATE INDEX idx_lg4jcheckpoint_thread_id ON GraphCheckpoint(thread_id);
-				 CREATE INDEX idx_lg4jcheckpoint_thread_id_saved_at_desc ON GraphCheckpoint(thread_id, saved_at DESC);
-				 CREATE UNIQUE INDEX idx_unique_lg4jthread_thread_name_unreleased  ON GraphThread(thread_name) WHERE is_released = FALSE;
+				UPDATE GraphCheckpoint c
+				SET seq = r.n
+				FROM (
+				    SELECT checkpoint_id, ROW_NUMBER() OVER (ORDER BY saved_at, checkpoint_id) AS n
+				    FROM GraphCheckpoint
+				) r
+				WHERE c.checkpoint_id = r.checkpoint_id;
+				""";
+
+		var sqlCreateIndexes = """
+				CREATE INDEX IF NOT EXISTS idx_lg4jcheckpoint_thread_id ON GraphCheckpoint(thread_id);
+				CREATE INDEX IF NOT EXISTS idx_lg4jcheckpoint_thread_id_seq_desc ON GraphCheckpoint(thread_id, seq DESC);
+				CREATE UNIQUE INDEX IF NOT EXISTS idx_unique_lg4jthread_thread_name_unreleased  ON GraphThread(thread_name) WHERE is_released = FALSE;
 				""";
 
 
@@ -145,6 +246,14 @@ public class PostgresSaver extends MemorySaver {
 				log.trace("Executing create tables:\n---\n{}---", sqlCreateTables);
 				sqlCommand = sqlCreateTables;
 				statement.executeUpdate(sqlCommand);
+				if (!hasSequenceColumn(connection)) {
+					log.trace("Executing add sequence:\n---\n{}---", sqlAddSequence);
+					sqlCommand = sqlAddSequence;
+					statement.executeUpdate(sqlCommand);
+				}
+				log.trace("Executing create indexes:\n---\n{}---", sqlCreateIndexes);
+				sqlCommand = sqlCreateIndexes;
+				statement.executeUpdate(sqlCommand);
 			}
 		}
 		catch (SQLException ex) {
@@ -153,10 +262,110 @@ public class PostgresSaver extends MemorySaver {
 		}
 	}
 
+	/**
+	 * Tells whether the checkpoint table has the {@code seq} column, missing from tables
+	 * created by previous versions.
+	 */
+	private static boolean hasSequenceColumn(Connection connection) {
+		try (Statement statement = connection.createStatement();
+			 ResultSet ignored = statement.executeQuery("SELECT seq FROM GraphCheckpoint WHERE 1 = 0")) {
+			return true;
+		}
+		catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private Checkpoint readCheckpoint(ResultSet rs) throws SQLException, IOException, ClassNotFoundException {
+		return Checkpoint.builder()
+				.id(rs.getString(1))
+				.nodeId(rs.getString(2))
+				.nextNodeId(rs.getString(3))
+				.state(decodeState(rs.getBytes(4), rs.getString(5)))
+				.build();
+	}
+
+	private List<Checkpoint> queryCheckpoints(String sql, Object... parameters) throws Exception {
+		List<Checkpoint> checkpoints = new ArrayList<>();
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			for (int i = 0; i < parameters.length; i++) {
+				ps.setObject(i + 1, parameters[i]);
+			}
+			log.trace("Executing select checkpoints:\n---\n{}---", sql);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					checkpoints.add(readCheckpoint(rs));
+				}
+			}
+		}
+		return checkpoints;
+	}
+
+	private static Optional<UUID> parseCheckpointId(String checkpointId) {
+		try {
+			return Optional.of(UUID.fromString(checkpointId));
+		}
+		catch (IllegalArgumentException ex) {
+			return Optional.empty();
+		}
+	}
+
 	@Override
-	protected LinkedList<Checkpoint> loadedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints) throws Exception {
+	protected Optional<Checkpoint> loadedLatestCheckpoint(RunnableConfig config) throws Exception {
+		if (!lazyLoading) {
+			return Optional.empty();
+		}
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		return queryCheckpoints(SELECT_LATEST_CHECKPOINT, threadId).stream().findFirst();
+	}
 
-		if (!checkpoints.isEmpty()) return checkpoints;
+	@Override
+	protected Optional<Checkpoint> loadedCheckpoint(RunnableConfig config, String checkpointId) throws Exception {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		var checkpointUUID = parseCheckpointId(checkpointId);
+		if (checkpointUUID.isEmpty()) {
+			return Optional.empty();
+		}
+		return queryCheckpoints(SELECT_CHECKPOINT, threadId, checkpointUUID.get()).stream().findFirst();
+	}
+
+	/**
+	 * With lazy loading, lists the checkpoints from the database page by page, using
+	 * the last checkpoint of a page as the cursor of the next one.
+	 */
+	@Override
+	protected List<Checkpoint> listedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			String afterCheckpointId, int limit) throws Exception {
+		if (!lazyLoading) {
+			return super.listedCheckpoints(config, checkpoints, afterCheckpointId, limit);
+		}
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		List<Checkpoint> result = new ArrayList<>();
+		UUID cursor = null;
+		if (afterCheckpointId != null) {
+			var afterUUID = parseCheckpointId(afterCheckpointId);
+			if (afterUUID.isEmpty()) {
+				return result;
+			}
+			cursor = afterUUID.get();
+		}
+		while (result.size() < limit) {
+			int size = Math.min(pageSize, limit - result.size());
+			List<Checkpoint> page = cursor == null ? queryCheckpoints(SELECT_CHECKPOINTS_PAGE, threadId, size)
+					: queryCheckpoints(SELECT_CHECKPOINTS_PAGE_AFTER, cursor, threadId, size);
+			result.addAll(page);
+			if (page.size() < size) {
+				break;
+			}
+			cursor = UUID.fromString(page.get(page.size() - 1).getId());
+		}
+		return result;
+	}
+
+	@Override
+	protected List<Checkpoint> loadedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints) throws Exception {
+
+		if (!checkpoints.isEmpty() || lazyLoading) return checkpoints;
 
 		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
 
@@ -179,7 +388,7 @@ public class PostgresSaver extends MemorySaver {
 				        c.parent_checkpoint_id
 				FROM matched_thread t
 				JOIN GraphCheckpoint c ON c.thread_id = t.thread_id
-				ORDER BY c.saved_at DESC
+				ORDER BY c.seq DESC
 				""";
 		try (Connection conn = getConnection()) {
 
@@ -217,8 +426,14 @@ public class PostgresSaver extends MemorySaver {
 		return checkpoints;
 	}
 
-	private void insertCheckpoint(Connection conn, RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
-		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+	/**
+	 * Inserts checkpoints, upserting their threads first. The insert statement is
+	 * prepared once and executed as a JDBC batch.
+	 * @param conn the database connection, whose transaction is committed by the caller
+	 * @param inserts the checkpoints to insert
+	 * @throws SQLException if an error occurs while inserting the checkpoints
+	 */
+	private void insertCheckpoints(Connection conn, List<CheckpointInsert> inserts) throws SQLException {
 
 		var upsertThreadSql = """
 				WITH inserted AS (
@@ -247,20 +462,25 @@ public class PostgresSaver extends MemorySaver {
 				state_content_type)
 				VALUES (?, ?, ?, ?, ?, ?::jsonb, ?)
 				""";
-		UUID threadUUID = null;
+		Map<String, UUID> threadUUIDs = new HashMap<>();
 
 		// 1. Upsert thread information
 		try (PreparedStatement ps = conn.prepareStatement(upsertThreadSql)) {
-			var field = 0;
-			ps.setObject(++field, UUID.randomUUID(), Types.OTHER);
-			ps.setString(++field, threadId);
-			ps.setString(++field, threadId);
+			for (CheckpointInsert insert : inserts) {
+				if (threadUUIDs.containsKey(insert.threadId())) {
+					continue;
+				}
+				var field = 0;
+				ps.setObject(++field, UUID.randomUUID(), Types.OTHER);
+				ps.setString(++field, insert.threadId());
+				ps.setString(++field, insert.threadId());
 
-			log.trace("Executing upsert thread:\n---\n{}---", upsertThreadSql);
+				log.trace("Executing upsert thread:\n---\n{}---", upsertThreadSql);
 
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					threadUUID = rs.getObject("thread_id", UUID.class);
+				try (ResultSet rs = ps.executeQuery()) {
+					if (rs.next()) {
+						threadUUIDs.put(insert.threadId(), rs.getObject("thread_id", UUID.class));
+					}
 				}
 			}
 		}
@@ -268,46 +488,67 @@ public class PostgresSaver extends MemorySaver {
 
 		// 2. Insert checkpoint data
 		try (PreparedStatement ps = conn.prepareStatement(insertCheckpointSql)) {
-			var field = 0;
-			// checkpoint_id
-			ps.setObject(++field,
-					UUID.fromString(checkpoint.getId()),
-					Types.OTHER);
-			// parent_checkpoint_id
-			ps.setNull(++field, Types.OTHER);
-			// thread_id
-			ps.setObject(++field,
-					requireNonNull(threadUUID, "threadUUID cannot be null"),
-					Types.OTHER);
-			// node_id
-			ps.setString(++field, checkpoint.getNodeId());
-			// next_node_id
-			ps.setString(++field, checkpoint.getNextNodeId());
-			// state_data
-			ps.setString(++field, encodeState(checkpoint.getState()));
-			// state_content_type
-			ps.setString(++field, stateSerializer.contentType());
+			for (CheckpointInsert insert : inserts) {
+				var checkpoint = insert.checkpoint();
+				var field = 0;
+				// checkpoint_id
+				ps.setObject(++field,
+						UUID.fromString(checkpoint.getId()),
+						Types.OTHER);
+				// parent_checkpoint_id
+				ps.setNull(++field, Types.OTHER);
+				// thread_id
+				ps.setObject(++field,
+						requireNonNull(threadUUIDs.get(insert.threadId()), "threadUUID cannot be null"),
+						Types.OTHER);
+				// node_id
+				ps.setString(++field, checkpoint.getNodeId());
+				// next_node_id
+				ps.setString(++field, checkpoint.getNextNodeId());
+				// state_data
+				ps.setString(++field, insert.encodedState());
+				// state_content_type
+				ps.setString(++field, stateSerializer.contentType());
+				ps.addBatch();
+			}
 
 			// DB schema has DEFAULT CURRENT_TIMESTAMP for saved_at.
-			// If checkpoint provides a specific time, use it. Otherwise, use current time from Java.
-			// To use DB default, one would typically omit the column or pass NULL if the column definition allows it to trigger default.
-			// OffsetDateTime savedAt = checkpoint.getSavedAt().orElse(OffsetDateTime.now());
-			// psCheckpoint.setObject(8, savedAt);
-			log.trace("Executing insert checkpoint:\n---\n{}---", insertCheckpointSql);
-			ps.executeUpdate();
+			log.trace("Executing insert checkpoints:\n---\n{}---", insertCheckpointSql);
+			ps.executeBatch();
 		}
 
 	}
 
+	/**
+	 * Returns the writer batching the checkpoint inserts, whose counters report the batch
+	 * sizes and commit latencies.
+	 * @return the batch writer, empty if inserts are not batched
+	 */
+	public Optional<JdbcBatchWriter<?>> batchWriter() {
+		return Optional.ofNullable(batchWriter);
+	}
+
 	@Override
-	protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
+	protected void insertedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
 		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
 
+		if (batchWriter != null) {
+			try {
+				batchWriter.write(new CheckpointInsert(threadId, checkpoint, encodeState(checkpoint.getState())));
+			}
+			catch (SQLException | IOException e) {
+				log.error("Error inserting checkpoint with id {} in thread {}", checkpoint.getId(), threadId, e);
+				throw e;
+			}
+			log.debug("Checkpoint {} for thread {} inserted successfully.", checkpoint.getId(), threadId);
+			return;
+		}
+
 		Connection conn = null;
 		try (Connection ignored = conn = getConnection()) {
 			conn.setAutoCommit(false); // Start transaction
 
-			insertCheckpoint(conn, config, checkpoints, checkpoint);
+			insertCheckpoints(conn, List.of(new CheckpointInsert(threadId, checkpoint, encodeState(checkpoint.getState()))));
 
 			conn.commit();
 			log.debug("Checkpoint {} for thread {} inserted successfully.", checkpoint.getId(), threadId);
@@ -323,7 +564,7 @@ public class PostgresSaver extends MemorySaver {
 
 	@Override
 	protected void updatedCheckpoint(RunnableConfig config,
-			LinkedList<Checkpoint> checkpoints,
+			List<Checkpoint> checkpoints,
 			Checkpoint checkpoint) throws Exception {
 
 		final var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
@@ -353,7 +594,7 @@ public class PostgresSaver extends MemorySaver {
 				}
 			}
 
-			insertCheckpoint(conn, config, checkpoints, checkpoint);
+			insertCheckpoints(conn, List.of(new CheckpointInsert(threadId, checkpoint, encodeState(checkpoint.getState()))));
 
 			conn.commit();
 
@@ -373,7 +614,30 @@ public class PostgresSaver extends MemorySaver {
 	}
 
 	@Override
-	protected void releasedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Tag releaseTag) throws Exception {
+	protected void deletedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+			Collection<String> checkpointIds) throws Exception {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+
+		var deleteCheckpointSql = """
+				DELETE FROM GraphCheckpoint
+				WHERE checkpoint_id = ?;
+				""";
+
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(deleteCheckpointSql)) {
+			for (String checkpointId : checkpointIds) {
+				var checkpointUUID = parseCheckpointId(checkpointId);
+				if (checkpointUUID.isPresent()) {
+					ps.setObject(1, checkpointUUID.get(), Types.OTHER);
+					ps.addBatch();
+				}
+			}
+			log.trace("Executing delete checkpoints of thread {}:\n---\n{}---", threadId, deleteCheckpointSql);
+			ps.executeBatch();
+		}
+	}
+
+	@Override
+	protected void releasedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints, Tag releaseTag) throws Exception {
 		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
 
 		var selectThreadSql = """
@@ -443,12 +707,70 @@ public class PostgresSaver extends MemorySaver {
 		private boolean createTables;
 		private boolean dropTablesFirst;
 		private DataSource datasource;
+		private boolean lazyLoading;
+		private int pageSize = 100;
+		private int batchSize = 1;
+		private Duration batchWindow = Duration.ZERO;
+		private CheckpointCompression compression = CheckpointCompression.none();
 
 		public Builder stateSerializer(StateSerializer stateSerializer) {
 			this.stateSerializer = stateSerializer;
 			return this;
 		}
 
+		/**
+		 * Sets whether checkpoints are loaded on demand instead of loading every
+		 * checkpoint of a thread on its first access (default false). Unless
+		 * {@link #maxCheckpointsPerThread(int)} is set, the checkpoints kept in memory are
+		 * then bounded to the 16 most recent ones of each thread.
+		 * @param lazyLoading true to load checkpoints on demand
+		 * @return this builder
+		 */
+		public Builder lazyLoading(boolean lazyLoading) {
+			this.lazyLoading = lazyLoading;
+			return this;
+		}
+
+		/**
+		 * Sets the number of checkpoints fetched per query when listing a thread with lazy
+		 * loading (default 100).
+		 * @param pageSize the page size
+		 * @return this builder
+		 */
+		public Builder pageSize(int pageSize) {
+			if (pageSize <= 0) {
+				throw new IllegalArgumentException("pageSize must be > 0!");
+			}
+			this.pageSize = pageSize;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of checkpoint inserts grouped into one JDBC batch
+		 * (default 1, i.e. no batching).
+		 * @param batchSize the maximum batch size
+		 * @return this builder
+		 */
+		public Builder batchSize(int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize must be > 0!");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets how long a batch waits for other inserts before being executed (default
+		 * zero: a batch only groups the inserts queued while the previous one was
+		 * executing).
+		 * @param batchWindow the batch window
+		 * @return this builder
+		 */
+		public Builder batchWindow(Duration batchWindow) {
+			this.batchWindow = requireNonNull(batchWindow, "batchWindow cannot be null");
+			return this;
+		}
+
 		public Builder host(String host) {
 			this.host = host;
 			return this;
@@ -491,6 +813,18 @@ public class PostgresSaver extends MemorySaver {
 			return value;
 		}
 
+		/**
+		 * Sets the compression of the stored states. States stored without compression
+		 * stay readable (default {@link CheckpointCompression#none()}).
+		 *
+		 * @param compression the checkpoint compression
+		 * @return this builder
+		 */
+		public Builder compression(CheckpointCompression compression) {
+			this.compression = requireNonNull(compression, "compression cannot be null");
+			return this;
+		}
+
 		public PostgresSaver build() {
 			if (stateSerializer == null) {
 				log.info("No StateSerializer for saver provided, using default SpringAiJacksonStateSerializer, please make sure saver uses the same serializer of the graph.");
@@ -509,6 +843,9 @@ public class PostgresSaver extends MemorySaver {
 
 			datasource = ds;
 			createTables = createTables || dropTablesFirst;
+			if (lazyLoading && checkpointsPerThreadLimit() == 0) {
+				maxCheckpointsPerThread(16);
+			}
 
 			try {
 				return new PostgresSaver(this);
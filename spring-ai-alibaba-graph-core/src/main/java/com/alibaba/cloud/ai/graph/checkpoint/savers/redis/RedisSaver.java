@@ -22,32 +22,59 @@ import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
 import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CompressingSerializer;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 
 import org.redisson.api.RBucket;
+import org.redisson.api.RList;
 import org.redisson.api.RLock;
 import org.redisson.api.RMap;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 /**
  * The type Redis saver.
+ * <p>
+ * Every checkpoint is stored under its own key, and each thread keeps a list of its
+ * checkpoint ids, newest first. Appending or replacing a checkpoint is a single Lua
+ * script that writes one key and updates the index, so writes neither take a lock nor
+ * read the history, and concurrent writers of the same thread are serialized by Redis
+ * itself. Reading one checkpoint by id, or the latest one, is a single script as well,
+ * while listing them reads the index first and then fetches the checkpoints in a script
+ * that retries if the index changed in between. All the keys of a thread name, including
+ * its meta hash, share the {@code {threadName}} hash tag, so that the scripts also run on
+ * Redis Cluster. Scripts access the keys they declare, except the script reading the
+ * latest checkpoint, which derives the key of the checkpoint from the id at the head of
+ * the index to save a round trip. The derived key shares the hash tag of the declared
+ * ones, so it lives on the same slot and the script works on Cluster, but proxies that
+ * reject undeclared keys are not supported. Replacing a checkpoint relies on
+ * {@code LPOS}, available since Redis 6.0.6.
+ * <p>
+ * The mapping from thread names to thread ids is cached locally. Every script checks
+ * that the meta hash of the thread name still maps to the thread id and has not been
+ * released, so that a stale mapping is detected and refreshed. Threads saved by
+ * previous versions, with an untagged meta hash and a single serialized list of
+ * checkpoints, are migrated to this layout the first time they are accessed.
  *
  * @author disaster
  * @since 1.0.0-M2
@@ -56,6 +83,7 @@ public class RedisSaver implements BaseCheckpointSaver {
 
 	// Redis key prefixes
 	private static final String CHECKPOINT_PREFIX = "graph:checkpoint:content:";
+	private static final String INDEX_PREFIX = "graph:checkpoint:index:";
 	private static final String THREAD_META_PREFIX = "graph:thread:meta:";
 	private static final String THREAD_REVERSE_PREFIX = "graph:thread:reverse:";
 	private static final String LOCK_PREFIX = "graph:checkpoint:lock:";
@@ -63,8 +91,128 @@ public class RedisSaver implements BaseCheckpointSaver {
 	private static final String FIELD_THREAD_ID = "thread_id";
 	private static final String FIELD_IS_RELEASED = "is_released";
 	private static final String FIELD_THREAD_NAME = "thread_name";
+
+	private static final Set<String> META_FIELDS = Set.of(FIELD_THREAD_ID, FIELD_IS_RELEASED);
+
+	private static final int MAX_CACHED_THREADS = 10_000;
+
+	// KEYS: meta; ARGV: candidate thread id
+	private static final String RESOLVE_THREAD_SCRIPT = """
+			local id = redis.call('HGET', KEYS[1], 'thread_id')
+			if id and redis.call('HGET', KEYS[1], 'is_released') ~= 'true' then
+				return id
+			end
+			redis.call('HSET', KEYS[1], 'thread_id', ARGV[1], 'is_released', 'false')
+			return ARGV[1]
+			""";
+
+	// KEYS: meta
+	private static final String RELEASE_THREAD_SCRIPT = """
+			local id = redis.call('HGET', KEYS[1], 'thread_id')
+			if id then
+				redis.call('HSET', KEYS[1], 'is_released', 'true')
+			end
+			return id
+			""";
+
+	// KEYS[1]: meta; ARGV[1]: thread id
+	private static final String ACTIVE_FUNCTION = """
+			local function active()
+				local meta = redis.call('HMGET', KEYS[1], 'thread_id', 'is_released')
+				return meta[1] == ARGV[1] and meta[2] ~= 'true'
+			end
+			""";
+
+	// KEYS: meta, index, content; ARGV: thread id, checkpoint id, payload
+	private static final String APPEND_SCRIPT = ACTIVE_FUNCTION + """
+			if not active() then
+				return 0
+			end
+			redis.call('SET', KEYS[3], ARGV[3])
+			redis.call('LPUSH', KEYS[2], ARGV[2])
+			return 1
+			""";
+
+	// KEYS: meta, index, new content, replaced content; ARGV: thread id, replaced id, new id, payload
+	private static final String REPLACE_SCRIPT = ACTIVE_FUNCTION + """
+			if not active() then
+				return 0
+			end
+			local position = redis.call('LPOS', KEYS[2], ARGV[2])
+			if not position then
+				return -1
+			end
+			redis.call('LSET', KEYS[2], position, ARGV[3])
+			if ARGV[2] ~= ARGV[3] then
+				redis.call('DEL', KEYS[4])
+			end
+			redis.call('SET', KEYS[3], ARGV[4])
+			return 1
+			""";
+
+	// KEYS: meta, content; ARGV: thread id
+	private static final String GET_SCRIPT = ACTIVE_FUNCTION + """
+			if not active() then
+				return {0}
+			end
+			return {1, redis.call('GET', KEYS[2])}
+			""";
+
+	// KEYS: meta, index; ARGV: thread id, prefix of the content keys of the thread
+	private static final String LATEST_SCRIPT = ACTIVE_FUNCTION + """
+			if not active() then
+				return {0}
+			end
+			local id = redis.call('LINDEX', KEYS[2], 0)
+			if not id then
+				return {1}
+			end
+			return {1, redis.call('GET', ARGV[2] .. id)}
+			""";
+
+	// KEYS: meta, index, content of each id; ARGV: thread id, '1' to include released
+	// threads, last index read, ids read from the index
+	private static final String SNAPSHOT_SCRIPT = ACTIVE_FUNCTION + """
+			if ARGV[2] ~= '1' and not active() then
+				return {0}
+			end
+			local ids = redis.call('LRANGE', KEYS[2], 0, ARGV[3])
+			if #ids ~= #ARGV - 3 then
+				return {2}
+			end
+			local result = {1}
+			for i, id in ipairs(ids) do
+				if id ~= ARGV[i + 3] then
+					return {2}
+				end
+				result[i + 1] = redis.call('GET', KEYS[i + 2])
+			end
+			return result
+			""";
+
+	// KEYS: meta, index, content of each id; ARGV: thread id, checkpoint ids
+	private static final String DELETE_SCRIPT = ACTIVE_FUNCTION + """
+			if not active() then
+				return 0
+			end
+			for i = 2, #ARGV do
+				if redis.call('LREM', KEYS[2], 1, ARGV[i]) > 0 then
+					redis.call('DEL', KEYS[i + 1])
+				end
+			end
+			return 1
+			""";
+
 	private final Serializer<Checkpoint> checkpointSerializer;
+	private final CheckpointCompression compression;
 	private RedissonClient redisson;
+	private final RScript script;
+	private final Map<String, String> threadIds = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > MAX_CACHED_THREADS;
+		}
+	};
 
 	/**
 	 * Protected constructor for RedisSaver.
@@ -74,10 +222,24 @@ public class RedisSaver implements BaseCheckpointSaver {
 	 * @param stateSerializer the state serializer
 	 */
 	protected RedisSaver(RedissonClient redisson, StateSerializer stateSerializer) {
+		this(redisson, stateSerializer, CheckpointCompression.none());
+	}
+
+	/**
+	 * Protected constructor for RedisSaver.
+	 * Use {@link #builder()} to create instances.
+	 *
+	 * @param redisson the redisson
+	 * @param stateSerializer the state serializer
+	 * @param compression the compression of the stored checkpoints
+	 */
+	protected RedisSaver(RedissonClient redisson, StateSerializer stateSerializer, CheckpointCompression compression) {
 		requireNonNull(redisson, "redisson cannot be null");
 		requireNonNull(stateSerializer, "stateSerializer cannot be null");
 		this.redisson = redisson;
-		this.checkpointSerializer = new CheckPointSerializer(stateSerializer);
+		this.compression = requireNonNull(compression, "compression cannot be null");
+		this.checkpointSerializer = new CompressingSerializer<>(new CheckPointSerializer(stateSerializer), compression);
+		this.script = redisson.getScript(StringCodec.INSTANCE);
 	}
 
 	/**
@@ -88,20 +250,40 @@ public class RedisSaver implements BaseCheckpointSaver {
 		return new Builder();
 	}
 
-	private String serializeCheckpoints(List<Checkpoint> checkpoints) throws IOException {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			 ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-			oos.writeInt(checkpoints.size());
-			for (Checkpoint checkpoint : checkpoints) {
-				checkpointSerializer.write(checkpoint, oos);
-			}
-			oos.flush();
-			byte[] bytes = baos.toByteArray();
-			return Base64.getEncoder().encodeToString(bytes);
-		}
+	/**
+	 * Returns the compression of the stored checkpoints, and its metrics.
+	 * @return the checkpoint compression
+	 */
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
+	private static String hashTag(String threadName) {
+		return "{" + threadName + "}";
 	}
 
-	private LinkedList<Checkpoint> deserializeCheckpoints(String content) throws IOException, ClassNotFoundException {
+	private static String metaKey(String threadName) {
+		return THREAD_META_PREFIX + hashTag(threadName);
+	}
+
+	private static String indexKey(String threadName, String threadId) {
+		return INDEX_PREFIX + hashTag(threadName) + ":" + threadId;
+	}
+
+	private static String contentKey(String threadName, String threadId, String checkpointId) {
+		return CHECKPOINT_PREFIX + hashTag(threadName) + ":" + threadId + ":" + checkpointId;
+	}
+
+	private String serializeCheckpoint(Checkpoint checkpoint) throws IOException {
+		return Base64.getEncoder().encodeToString(checkpointSerializer.objectToBytes(checkpoint));
+	}
+
+	private Checkpoint deserializeCheckpoint(String content) throws IOException, ClassNotFoundException {
+		return checkpointSerializer.bytesToObject(Base64.getDecoder().decode(content));
+	}
+
+	private LinkedList<Checkpoint> deserializeLegacyCheckpoints(String content)
+			throws IOException, ClassNotFoundException {
 		if (content == null || content.isEmpty()) {
 			return new LinkedList<>();
 		}
@@ -117,6 +299,23 @@ public class RedisSaver implements BaseCheckpointSaver {
 		}
 	}
 
+	private String cachedThreadId(String threadName) {
+		synchronized (threadIds) {
+			return threadIds.get(threadName);
+		}
+	}
+
+	private void cacheThreadId(String threadName, String threadId) {
+		synchronized (threadIds) {
+			if (threadId != null) {
+				threadIds.put(threadName, threadId);
+			}
+			else {
+				threadIds.remove(threadName);
+			}
+		}
+	}
+
 	/**
 	 * Gets or creates a thread_id for the given thread_name.
 	 * If an active thread exists, returns its thread_id.
@@ -125,31 +324,25 @@ public class RedisSaver implements BaseCheckpointSaver {
 	 * @param threadName the thread name
 	 * @return the thread_id (UUID string)
 	 */
-	private String getOrCreateThreadId(String threadName) {
-		String metaKey = THREAD_META_PREFIX + threadName;
-		RMap<String, String> meta = redisson.getMap(metaKey);
-
-		// Check if an active thread exists
-		String threadId = meta.get(FIELD_THREAD_ID);
-		String isReleased = meta.get(FIELD_IS_RELEASED);
-
-		if (threadId != null && !"true".equals(isReleased)) {
-			// Active thread exists, return its thread_id
-			return threadId;
+	private String getOrCreateThreadId(String threadName) throws IOException, ClassNotFoundException {
+		String active = getActiveThreadId(threadName);
+		if (active != null) {
+			return active;
 		}
 
-		// No active thread exists or thread is released, create a new thread_id
-		String newThreadId = UUID.randomUUID().toString();
-		meta.put(FIELD_THREAD_ID, newThreadId);
-		meta.put(FIELD_IS_RELEASED, "false");
+		String candidate = UUID.randomUUID().toString();
+		String threadId = script.eval(RScript.Mode.READ_WRITE, RESOLVE_THREAD_SCRIPT, RScript.ReturnType.VALUE,
+				List.of(metaKey(threadName)), candidate);
 
-		// Set reverse mapping
-		String reverseKey = THREAD_REVERSE_PREFIX + newThreadId;
-		RMap<String, String> reverse = redisson.getMap(reverseKey);
-		reverse.put(FIELD_THREAD_NAME, threadName);
-		reverse.put(FIELD_IS_RELEASED, "false");
-
-		return newThreadId;
+		if (candidate.equals(threadId)) {
+			// Set reverse mapping
+			String reverseKey = THREAD_REVERSE_PREFIX + threadId;
+			RMap<String, String> reverse = redisson.getMap(reverseKey);
+			reverse.put(FIELD_THREAD_NAME, threadName);
+			reverse.put(FIELD_IS_RELEASED, "false");
+		}
+		cacheThreadId(threadName, threadId);
+		return threadId;
 	}
 
 	/**
@@ -159,60 +352,162 @@ public class RedisSaver implements BaseCheckpointSaver {
 	 * @param threadName the thread name
 	 * @return the active thread_id, or null if not found
 	 */
-	private String getActiveThreadId(String threadName) {
-		String metaKey = THREAD_META_PREFIX + threadName;
-		RMap<String, String> meta = redisson.getMap(metaKey);
+	private String getActiveThreadId(String threadName) throws IOException, ClassNotFoundException {
+		String cached = cachedThreadId(threadName);
+		if (cached != null) {
+			return cached;
+		}
 
-		String threadId = meta.get(FIELD_THREAD_ID);
-		String isReleased = meta.get(FIELD_IS_RELEASED);
+		RMap<String, String> meta = redisson.getMap(metaKey(threadName), StringCodec.INSTANCE);
+		Map<String, String> fields = meta.getAll(META_FIELDS);
 
-		if (threadId != null && !"true".equals(isReleased)) {
-			return threadId;
+		String threadId = fields.get(FIELD_THREAD_ID);
+		if (threadId == null) {
+			threadId = adoptLegacyThread(threadName);
+		}
+		else if ("true".equals(fields.get(FIELD_IS_RELEASED))) {
+			threadId = null;
 		}
 
-		return null; // No active thread exists
+		if (threadId != null) {
+			migrateLegacyCheckpoints(threadName, threadId);
+			cacheThreadId(threadName, threadId);
+		}
+		return threadId;
 	}
 
-	@Override
-	public Collection<Checkpoint> list(RunnableConfig config) {
-		Optional<String> threadNameOpt = config.threadId();
-		if (!threadNameOpt.isPresent()) {
-			throw new IllegalArgumentException("threadId is not allow null");
+	/**
+	 * Moves the active thread of a thread name from the untagged meta hash written by a
+	 * previous version to the tagged one.
+	 * @return the thread_id of the thread name, or null if it has no active thread
+	 */
+	private String adoptLegacyThread(String threadName) {
+		RMap<String, String> legacy = redisson.getMap(THREAD_META_PREFIX + threadName);
+		String threadId = legacy.get(FIELD_THREAD_ID);
+		if (threadId == null || "true".equals(legacy.get(FIELD_IS_RELEASED))) {
+			return null;
 		}
+		String adopted = script.eval(RScript.Mode.READ_WRITE, RESOLVE_THREAD_SCRIPT, RScript.ReturnType.VALUE,
+				List.of(metaKey(threadName)), threadId);
+		legacy.delete();
+		return adopted;
+	}
 
-		String threadName = threadNameOpt.get();
+	/**
+	 * Moves the checkpoints of a thread saved by a previous version as a single
+	 * serialized list to one key per checkpoint.
+	 */
+	private void migrateLegacyCheckpoints(String threadName, String threadId)
+			throws IOException, ClassNotFoundException {
+		RBucket<String> legacy = redisson.getBucket(CHECKPOINT_PREFIX + threadId);
+		if (!legacy.isExists()) {
+			return;
+		}
 		RLock lock = redisson.getLock(LOCK_PREFIX + threadName);
-		boolean tryLock = false;
+		lock.lock(30, TimeUnit.SECONDS);
 		try {
-			// 500ms timeout for read operations (list)
-			tryLock = lock.tryLock(500, TimeUnit.MILLISECONDS);
-			if (!tryLock) {
-				return List.of();
+			LinkedList<Checkpoint> checkpoints = deserializeLegacyCheckpoints(legacy.get());
+			var oldestFirst = checkpoints.descendingIterator();
+			while (oldestFirst.hasNext()) {
+				append(threadName, threadId, oldestFirst.next());
 			}
+			legacy.delete();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
 
-			// Get active thread_id for the thread_name
-			String threadId = getActiveThreadId(threadName);
-			if (threadId == null) {
-				return List.of();
+	/**
+	 * Appends a checkpoint to a thread.
+	 * @return false if the thread has been released
+	 */
+	private boolean append(String threadName, String threadId, Checkpoint checkpoint) throws IOException {
+		Long result = script.eval(RScript.Mode.READ_WRITE, APPEND_SCRIPT, RScript.ReturnType.INTEGER,
+				List.of(metaKey(threadName), indexKey(threadName, threadId),
+						contentKey(threadName, threadId, checkpoint.getId())),
+				threadId, checkpoint.getId(), serializeCheckpoint(checkpoint));
+		return result == 1;
+	}
+
+	/**
+	 * Deserializes the result of a read script, made of the released status followed by
+	 * serialized checkpoints.
+	 * @return the checkpoints, or null if the thread has been released
+	 */
+	private List<Checkpoint> checkpoints(List<Object> result) throws IOException, ClassNotFoundException {
+		if (((Long) result.get(0)) == 0) {
+			return null;
+		}
+		List<Checkpoint> checkpoints = new ArrayList<>(result.size() - 1);
+		for (Object content : result.subList(1, result.size())) {
+			if (content != null) {
+				checkpoints.add(deserializeCheckpoint((String) content));
 			}
+		}
+		return checkpoints;
+	}
 
-			// Use thread_id to query checkpoints
-			RBucket<String> bucket = redisson.getBucket(CHECKPOINT_PREFIX + threadId);
-			String content = bucket.get();
-			return deserializeCheckpoints(content);
+	/**
+	 * Reads the checkpoints of a thread, newest first, up to the given index of its
+	 * list. The ids are read from the index and then fetched, along with a check that
+	 * the index did not change meanwhile, so that every key the script accesses is
+	 * declared.
+	 * @param last the index of the last checkpoint to read, -1 for all of them
+	 * @return the checkpoints, or null if the thread has been released
+	 */
+	private List<Checkpoint> readCheckpoints(String threadName, String threadId, int last, boolean includeReleased)
+			throws IOException, ClassNotFoundException {
+		RList<String> index = redisson.getList(indexKey(threadName, threadId), StringCodec.INSTANCE);
+		while (true) {
+			List<String> ids = index.range(0, last);
+			List<Object> keys = new ArrayList<>(ids.size() + 2);
+			keys.add(metaKey(threadName));
+			keys.add(indexKey(threadName, threadId));
+			List<Object> values = new ArrayList<>(ids.size() + 3);
+			values.add(threadId);
+			values.add(includeReleased ? "1" : "0");
+			values.add(String.valueOf(last));
+			for (String id : ids) {
+				keys.add(contentKey(threadName, threadId, id));
+				values.add(id);
+			}
+			List<Object> result = script.eval(RScript.Mode.READ_ONLY, SNAPSHOT_SCRIPT, RScript.ReturnType.MULTI, keys,
+					values.toArray());
+			if (((Long) result.get(0)) != 2) {
+				return checkpoints(result);
+			}
+			// the index changed since it was read
+		}
+	}
 
+	@Override
+	public Collection<Checkpoint> list(RunnableConfig config) {
+		Optional<String> threadNameOpt = config.threadId();
+		if (!threadNameOpt.isPresent()) {
+			throw new IllegalArgumentException("threadId is not allow null");
 		}
-		catch (InterruptedException e) {
-			throw new RuntimeException(e);
+
+		String threadName = threadNameOpt.get();
+		try {
+			while (true) {
+				// Get active thread_id for the thread_name
+				String threadId = getActiveThreadId(threadName);
+				if (threadId == null) {
+					return List.of();
+				}
+
+				List<Checkpoint> checkpoints = readCheckpoints(threadName, threadId, -1, false);
+				if (checkpoints != null) {
+					return new LinkedList<>(checkpoints);
+				}
+				// released since it was cached
+				cacheThreadId(threadName, null);
+			}
 		}
 		catch (IOException | ClassNotFoundException e) {
 			throw new RuntimeException("Failed to deserialize checkpoints", e);
 		}
-		finally {
-			if (tryLock) {
-				lock.unlock();
-			}
-		}
 	}
 
 	@Override
@@ -223,46 +518,37 @@ public class RedisSaver implements BaseCheckpointSaver {
 		}
 
 		String threadName = threadNameOpt.get();
-		RLock lock = redisson.getLock(LOCK_PREFIX + threadName);
-		boolean tryLock = false;
 		try {
-			// 500ms timeout for read operations (get)
-			tryLock = lock.tryLock(500, TimeUnit.MILLISECONDS);
-			if (!tryLock) {
-				return Optional.empty();
-			}
-
-			// Get active thread_id for the thread_name
-			String threadId = getActiveThreadId(threadName);
-			if (threadId == null) {
-				return Optional.empty();
-			}
-
-			// Use thread_id to query checkpoints
-			RBucket<String> bucket = redisson.getBucket(CHECKPOINT_PREFIX + threadId);
-			String content = bucket.get();
-			LinkedList<Checkpoint> checkpoints = deserializeCheckpoints(content);
-
-			if (config.checkPointId().isPresent()) {
-				return config.checkPointId()
-						.flatMap(id -> checkpoints.stream()
-								.filter(checkpoint -> checkpoint.getId().equals(id))
-								.findFirst());
+			while (true) {
+				// Get active thread_id for the thread_name
+				String threadId = getActiveThreadId(threadName);
+				if (threadId == null) {
+					return Optional.empty();
+				}
+
+				List<Checkpoint> checkpoints;
+				if (config.checkPointId().isPresent()) {
+					checkpoints = checkpoints(script.eval(RScript.Mode.READ_ONLY, GET_SCRIPT,
+							RScript.ReturnType.MULTI,
+							List.of(metaKey(threadName),
+									contentKey(threadName, threadId, config.checkPointId().get())),
+							threadId));
+				}
+				else {
+					checkpoints = checkpoints(script.eval(RScript.Mode.READ_ONLY, LATEST_SCRIPT,
+							RScript.ReturnType.MULTI, List.of(metaKey(threadName), indexKey(threadName, threadId)),
+							threadId, contentKey(threadName, threadId, "")));
+				}
+				if (checkpoints != null) {
+					return checkpoints.stream().findFirst();
+				}
+				// released since it was cached
+				cacheThreadId(threadName, null);
 			}
-			return getLast(checkpoints, config);
-
-		}
-		catch (InterruptedException e) {
-			throw new RuntimeException(e);
 		}
 		catch (IOException | ClassNotFoundException e) {
 			throw new RuntimeException("Failed to deserialize checkpoints", e);
 		}
-		finally {
-			if (tryLock) {
-				lock.unlock();
-			}
-		}
 	}
 
 	@Override
@@ -273,52 +559,71 @@ public class RedisSaver implements BaseCheckpointSaver {
 		}
 
 		String threadName = threadNameOpt.get();
-		RLock lock = redisson.getLock(LOCK_PREFIX + threadName);
-		boolean tryLock = false;
 		try {
-			// 3 seconds timeout for write operations (put) - longer timeout for concurrent scenarios
-			tryLock = lock.tryLock(3, TimeUnit.SECONDS);
-			if (!tryLock) {
-				throw new RuntimeException("Failed to acquire lock for thread: " + threadName);
-			}
-
-			// Get or create thread_id
-			String threadId = getOrCreateThreadId(threadName);
-
-			// Use thread_id as key for checkpoint storage
-			RBucket<String> bucket = redisson.getBucket(CHECKPOINT_PREFIX + threadId);
-			String content = bucket.get();
-			LinkedList<Checkpoint> checkpoints = deserializeCheckpoints(content);
-
-			if (config.checkPointId().isPresent()) {
-				// Replace Checkpoint
-				String checkPointId = config.checkPointId().get();
-				int index = IntStream.range(0, checkpoints.size())
-						.filter(i -> checkpoints.get(i).getId().equals(checkPointId))
-						.findFirst()
-						.orElseThrow(() -> new NoSuchElementException(
-								format("Checkpoint with id %s not found!", checkPointId)));
-				checkpoints.set(index, checkpoint);
+			while (true) {
+				// Get or create thread_id
+				String threadId = getOrCreateThreadId(threadName);
+
+				if (config.checkPointId().isPresent()) {
+					// Replace Checkpoint
+					String checkPointId = config.checkPointId().get();
+					Long result = script.eval(RScript.Mode.READ_WRITE, REPLACE_SCRIPT, RScript.ReturnType.INTEGER,
+							List.of(metaKey(threadName), indexKey(threadName, threadId),
+									contentKey(threadName, threadId, checkpoint.getId()),
+									contentKey(threadName, threadId, checkPointId)),
+							threadId, checkPointId, checkpoint.getId(), serializeCheckpoint(checkpoint));
+					if (result == -1) {
+						throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId));
+					}
+					if (result == 1) {
+						return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+					}
+				}
+				else if (append(threadName, threadId, checkpoint)) {
+					// Add Checkpoint
+					return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+				}
+				// released since it was cached
+				cacheThreadId(threadName, null);
 			}
-			else {
-				// Add Checkpoint
-				checkpoints.push(checkpoint);
-			}
-
-			bucket.set(serializeCheckpoints(checkpoints));
-			return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
-
-		}
-		catch (InterruptedException e) {
-			throw new RuntimeException(e);
 		}
 		catch (IOException | ClassNotFoundException e) {
 			throw new RuntimeException("Failed to serialize/deserialize checkpoints", e);
 		}
-		finally {
-			if (tryLock) {
-				lock.unlock();
+	}
+
+	@Override
+	public void delete(RunnableConfig config, Collection<String> checkpointIds) throws Exception {
+		Optional<String> threadNameOpt = config.threadId();
+		if (!threadNameOpt.isPresent()) {
+			throw new IllegalArgumentException("threadId isn't allow null");
+		}
+		if (checkpointIds.isEmpty()) {
+			return;
+		}
+
+		String threadName = threadNameOpt.get();
+		while (true) {
+			String threadId = getActiveThreadId(threadName);
+			if (threadId == null) {
+				return;
+			}
+			List<Object> keys = new ArrayList<>(checkpointIds.size() + 2);
+			keys.add(metaKey(threadName));
+			keys.add(indexKey(threadName, threadId));
+			List<Object> values = new ArrayList<>(checkpointIds.size() + 1);
+			values.add(threadId);
+			for (String checkpointId : checkpointIds) {
+				keys.add(contentKey(threadName, threadId, checkpointId));
+				values.add(checkpointId);
 			}
+			Long result = script.eval(RScript.Mode.READ_WRITE, DELETE_SCRIPT, RScript.ReturnType.INTEGER, keys,
+					values.toArray());
+			if (result == 1) {
+				return;
+			}
+			// released since it was cached
+			cacheThreadId(threadName, null);
 		}
 	}
 
@@ -330,25 +635,18 @@ public class RedisSaver implements BaseCheckpointSaver {
 		}
 
 		String threadName = threadNameOpt.get();
-		RLock lock = redisson.getLock(LOCK_PREFIX + threadName);
-		boolean tryLock = false;
 		try {
-			// 3 seconds timeout for write operations (release) - longer timeout for concurrent scenarios
-			tryLock = lock.tryLock(3, TimeUnit.SECONDS);
-			if (!tryLock) {
-				throw new RuntimeException("Failed to acquire lock for thread: " + threadName);
-			}
+			// Migrates a thread saved by a previous version while it can still be written
+			getActiveThreadId(threadName);
 
-			String metaKey = THREAD_META_PREFIX + threadName;
-			RMap<String, String> meta = redisson.getMap(metaKey);
-
-			String threadId = meta.get(FIELD_THREAD_ID);
+			// Mark thread as released, which every script checks, so that writers holding
+			// a cached thread_id resolve it again
+			String threadId = script.eval(RScript.Mode.READ_WRITE, RELEASE_THREAD_SCRIPT, RScript.ReturnType.VALUE,
+					List.of(metaKey(threadName)));
 			if (threadId == null) {
 				throw new IllegalStateException("Thread not found: " + threadName);
 			}
-
-			// Mark thread as released
-			meta.put(FIELD_IS_RELEASED, "true");
+			cacheThreadId(threadName, null);
 
 			// Update reverse mapping
 			String reverseKey = THREAD_REVERSE_PREFIX + threadId;
@@ -358,25 +656,12 @@ public class RedisSaver implements BaseCheckpointSaver {
 			}
 
 			// Get checkpoints for Tag (using thread_id)
-			String contentKey = CHECKPOINT_PREFIX + threadId;
-			RBucket<String> bucket = redisson.getBucket(contentKey);
-			String content = bucket.get();
-			Collection<Checkpoint> checkpoints = deserializeCheckpoints(content);
+			return new Tag(threadName, readCheckpoints(threadName, threadId, -1, true));
 
-			return new Tag(threadName, checkpoints);
-
-		}
-		catch (InterruptedException e) {
-			throw new RuntimeException(e);
 		}
 		catch (IOException | ClassNotFoundException e) {
 			throw new RuntimeException("Failed to deserialize checkpoints", e);
 		}
-		finally {
-			if (tryLock) {
-				lock.unlock();
-			}
-		}
 	}
 
 	/**
@@ -385,6 +670,7 @@ public class RedisSaver implements BaseCheckpointSaver {
 	public static class Builder {
 		private RedissonClient redisson;
 		private StateSerializer stateSerializer;
+		private CheckpointCompression compression = CheckpointCompression.none();
 
 		/**
 		 * Sets the Redisson client.
@@ -408,6 +694,18 @@ public class RedisSaver implements BaseCheckpointSaver {
 			return this;
 		}
 
+		/**
+		 * Sets the compression of the stored checkpoints. Checkpoints stored without
+		 * compression stay readable.
+		 *
+		 * @param compression the checkpoint compression
+		 * @return this builder
+		 */
+		public Builder compression(CheckpointCompression compression) {
+			this.compression = requireNonNull(compression, "compression cannot be null");
+			return this;
+		}
+
 		/**
 		 * Builds a new RedisSaver instance.
 		 * @return a new RedisSaver instance
@@ -420,7 +718,7 @@ public class RedisSaver implements BaseCheckpointSaver {
 			if (stateSerializer == null) {
 				this.stateSerializer = StateGraph.DEFAULT_JACKSON_SERIALIZER;
 			}
-			return new RedisSaver(redisson, stateSerializer);
+			return new RedisSaver(redisson, stateSerializer, compression);
 		}
 	}
 
@@ -53,6 +53,7 @@ public abstract class BaseGraphExecutor {
 			AtomicReference<Object> resultValue) {
 		return Flux.defer(() -> {
 			try {
+				context.flushCheckpoints();
 				if (context.getCompiledGraph().compileConfig.releaseThread()
 						&& context.getCompiledGraph().compileConfig.checkpointSaver().isPresent()) {
 					BaseCheckpointSaver.Tag tag = context
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits the number of tasks running at the same time across every executor it wraps.
+ * <p>
+ * Tasks submitted while the limit is reached are queued and dispatched, in submission
+ * order, to the executor they were submitted to as soon as a running task completes. The
+ * submitting thread is never blocked, so a bulkhead can safely sit in front of the
+ * threads driving a graph. A task holds its slot only while it runs: a task that waits
+ * for work submitted to the same bulkhead must return and be notified of its completion
+ * rather than block, or the bulkhead can deadlock once every slot is held by a waiting
+ * task.
+ * <p>
+ * A task rejected by its executor when submitted is rejected to the caller, as required
+ * by {@link Executor#execute(Runnable)}. A queued task rejected when dispatched has no
+ * caller left to notify, so it is handed the rejection if it is a
+ * {@link RejectableTask}, and logged otherwise.
+ */
+public final class Bulkhead {
+
+	private static final Logger log = LoggerFactory.getLogger(Bulkhead.class);
+
+	/**
+	 * A task that is notified when its executor rejects it after it was queued by a
+	 * bulkhead, so that whoever waits for its completion is not left waiting forever.
+	 */
+	public interface RejectableTask extends Runnable {
+
+		/**
+		 * Called instead of {@link #run()} when the executor rejects the task.
+		 * @param ex the rejection
+		 */
+		void rejected(RejectedExecutionException ex);
+
+	}
+
+	private record PendingTask(Runnable task, Executor executor) {
+	}
+
+	private final int maxConcurrent;
+
+	private final Queue<PendingTask> pending = new ArrayDeque<>();
+
+	private int running;
+
+	/**
+	 * Creates a bulkhead.
+	 * @param maxConcurrent the maximum number of tasks running at the same time
+	 */
+	public Bulkhead(int maxConcurrent) {
+		if (maxConcurrent <= 0) {
+			throw new IllegalArgumentException("maxConcurrent must be > 0!");
+		}
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	/**
+	 * Returns an executor that runs tasks on the given executor within the limits of
+	 * this bulkhead.
+	 * @param executor the executor running the tasks
+	 * @return the bounded executor
+	 */
+	public Executor wrap(Executor executor) {
+		requireNonNull(executor, "executor cannot be null!");
+		return task -> execute(task, executor);
+	}
+
+	private void execute(Runnable task, Executor executor) {
+		requireNonNull(task, "task cannot be null!");
+		synchronized (this) {
+			if (running >= maxConcurrent) {
+				pending.add(new PendingTask(task, executor));
+				return;
+			}
+			running++;
+		}
+		PendingTask next;
+		try {
+			next = submit(task, executor);
+		}
+		catch (RejectedExecutionException ex) {
+			dispatch(release());
+			throw ex;
+		}
+		dispatch(next);
+	}
+
+	/**
+	 * Dispatches queued tasks, one after another, as long as the previous one completed
+	 * on this thread before its executor returned, e.g. under a
+	 * {@link java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy}, so that the stack
+	 * does not grow with the length of the queue.
+	 */
+	private void dispatch(PendingTask next) {
+		while (next != null) {
+			PendingTask task = next;
+			try {
+				next = submit(task.task(), task.executor());
+			}
+			catch (RejectedExecutionException ex) {
+				next = release();
+				reject(task.task(), ex);
+			}
+		}
+	}
+
+	/**
+	 * Submits a task holding a slot.
+	 * @return the next task to dispatch if the task already completed, in which case its
+	 * slot was released by this call, null otherwise
+	 */
+	private PendingTask submit(Runnable task, Executor executor) {
+		Slot slot = new Slot(task);
+		executor.execute(slot);
+		return slot.submitted();
+	}
+
+	private static void reject(Runnable task, RejectedExecutionException ex) {
+		if (task instanceof RejectableTask rejectable) {
+			try {
+				rejectable.rejected(ex);
+			}
+			catch (RuntimeException e) {
+				log.error("Failed to notify a rejected task", e);
+			}
+		}
+		else {
+			log.error("Queued task {} was rejected by its executor", task, ex);
+		}
+	}
+
+	/**
+	 * Releases a slot, handing it over to the next queued task if there is one.
+	 * @return the next task to dispatch, null if the queue is empty
+	 */
+	private synchronized PendingTask release() {
+		PendingTask next = pending.poll();
+		if (next == null) {
+			running--;
+		}
+		return next;
+	}
+
+	public int maxConcurrent() {
+		return maxConcurrent;
+	}
+
+	/**
+	 * Returns the number of tasks currently running.
+	 * @return the number of running tasks
+	 */
+	public synchronized int running() {
+		return running;
+	}
+
+	/**
+	 * Returns the number of tasks waiting for a running task to complete.
+	 * @return the number of queued tasks
+	 */
+	public synchronized int queued() {
+		return pending.size();
+	}
+
+	/**
+	 * Runs a task and releases its slot. A task completing before {@link #submitted()}
+	 * leaves the release to the dispatching thread.
+	 */
+	private final class Slot implements Runnable {
+
+		private final Runnable task;
+
+		private boolean submitted;
+
+		private boolean completed;
+
+		private Slot(Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.run();
+			}
+			finally {
+				boolean deferred;
+				synchronized (this) {
+					completed = true;
+					deferred = !submitted;
+				}
+				if (!deferred) {
+					dispatch(release());
+				}
+			}
+		}
+
+		private PendingTask submitted() {
+			synchronized (this) {
+				submitted = true;
+				if (!completed) {
+					return null;
+				}
+			}
+			return release();
+		}
+
+		@Override
+		public String toString() {
+			return task.toString();
+		}
+
+	}
+
+}
@@ -49,12 +49,42 @@ public class MainGraphExecutor extends BaseGraphExecutor {
 	/**
 	 * Implementation of the execute method. This demonstrates polymorphism as it provides
 	 * a specific implementation for main execution flow.
+	 * <p>
+	 * The graph is driven by a single flat loop: each subscription of the deferred step
+	 * runs one hop, and the step is repeated as long as the hop requested a next step
+	 * through {@link GraphRunnerContext#requestNextStep()}. Operators are therefore not
+	 * nested per hop, keeping the per-hop cost and the stack depth constant regardless of
+	 * the number of iterations.
 	 * @param context the graph runner context
 	 * @param resultValue the atomic reference to store the result value
 	 * @return Flux of GraphResponse with execution result
 	 */
 	@Override
 	public Flux<GraphResponse<NodeOutput>> execute(GraphRunnerContext context, AtomicReference<Object> resultValue) {
+		return Flux.defer(() -> executeStep(context, resultValue)).repeat(context::pollNextStepRequested);
+	}
+
+	/**
+	 * Returns a Flux that schedules the next step of the execution loop once the current
+	 * step completes.
+	 * @param context the graph runner context
+	 * @return an empty Flux requesting the next step on completion
+	 */
+	Flux<GraphResponse<NodeOutput>> nextStep(GraphRunnerContext context) {
+		return Flux.defer(() -> {
+			context.requestNextStep();
+			return Flux.empty();
+		});
+	}
+
+	/**
+	 * Executes a single step of the graph.
+	 * @param context the graph runner context
+	 * @param resultValue the atomic reference to store the result value
+	 * @return Flux of GraphResponse with the step result
+	 */
+	private Flux<GraphResponse<NodeOutput>> executeStep(GraphRunnerContext context,
+			AtomicReference<Object> resultValue) {
 		try {
 			if (context.shouldStop() || context.isMaxIterationsReached()) {
 				return handleCompletion(context, resultValue);
@@ -130,9 +160,7 @@ public class MainGraphExecutor extends BaseGraphExecutor {
 			NodeOutput output = context.buildOutput(START, cp);
 
 			context.setCurrentNodeId(context.getNextNodeId());
-			// Recursively call the main execution handler
-			return Flux.just(GraphResponse.of(output))
-				.concatWith(Flux.defer(() -> execute(context, new AtomicReference<>())));
+			return Flux.just(GraphResponse.of(output)).concatWith(nextStep(context));
 		}
 		catch (Exception e) {
 			return Flux.just(GraphResponse.error(e));
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves the executors running parallel branches and offloaded node actions.
+ * <p>
+ * The executor is looked up, in order, among the node specific executors and the
+ * default parallel executor of the {@link RunnableConfig}, then derived from the
+ * {@link CompileConfig.ExecutorMode} of the {@link RunnableConfig} or, if it has none,
+ * of the compiled graph. If the graph has a
+ * {@link Bulkhead}, the resolved executor is wrapped by it.
+ */
+public final class NodeActionExecutors {
+
+	private static final Logger log = LoggerFactory.getLogger(NodeActionExecutors.class);
+
+	private static final AtomicBoolean VIRTUAL_THREADS_WARNED = new AtomicBoolean();
+
+	private NodeActionExecutors() {
+	}
+
+	/**
+	 * Virtual threads are only available from Java 21, while this module targets Java
+	 * 17, so the executor is created reflectively once on first use.
+	 */
+	private static final class VirtualThreads {
+
+		private static final ExecutorService EXECUTOR = create();
+
+		private static ExecutorService create() {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch (ReflectiveOperationException | RuntimeException ex) {
+				return null;
+			}
+		}
+
+	}
+
+	/**
+	 * Returns whether the running JVM supports virtual threads.
+	 * @return true if virtual threads are available, false otherwise
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VirtualThreads.EXECUTOR != null;
+	}
+
+	/**
+	 * Returns the shared executor starting a virtual thread per task.
+	 * @return the virtual thread executor
+	 * @throws UnsupportedOperationException if the running JVM does not support virtual
+	 * threads
+	 */
+	public static Executor virtualThreadExecutor() {
+		if (VirtualThreads.EXECUTOR == null) {
+			throw new UnsupportedOperationException("virtual threads require Java 21 or later!");
+		}
+		return VirtualThreads.EXECUTOR;
+	}
+
+	/**
+	 * Returns the shared executor of the given mode. Falls back to the platform thread
+	 * pool, logging a warning once, if virtual threads are requested on a JVM that does
+	 * not support them.
+	 * @param mode the executor mode
+	 * @return the executor
+	 */
+	public static Executor of(CompileConfig.ExecutorMode mode) {
+		if (mode == CompileConfig.ExecutorMode.VIRTUAL_THREADS) {
+			if (isVirtualThreadSupported()) {
+				return VirtualThreads.EXECUTOR;
+			}
+			if (VIRTUAL_THREADS_WARNED.compareAndSet(false, true)) {
+				log.warn("Virtual threads are not supported by Java {}, falling back to platform threads",
+						Runtime.version().feature());
+			}
+		}
+		return ParallelNode.defaultExecutor();
+	}
+
+	/**
+	 * Resolves the executor for the given node.
+	 * @param config the runnable config of the current execution
+	 * @param nodeId the formatted id of the node, or null to skip node specific executors
+	 * @param compileConfig the compile config of the graph
+	 * @param bulkhead the bulkhead of the graph, or null if unbounded
+	 * @return the executor
+	 */
+	public static Executor resolve(RunnableConfig config, String nodeId, CompileConfig compileConfig,
+			Bulkhead bulkhead) {
+		Executor executor = null;
+		if (nodeId != null) {
+			executor = metadataExecutor(config, nodeId);
+		}
+		if (executor == null) {
+			executor = metadataExecutor(config, RunnableConfig.DEFAULT_PARALLEL_EXECUTOR_KEY);
+		}
+		if (executor == null) {
+			executor = of(config.metadata(RunnableConfig.EXECUTOR_MODE_KEY)
+				.filter(CompileConfig.ExecutorMode.class::isInstance)
+				.map(CompileConfig.ExecutorMode.class::cast)
+				.orElse(compileConfig.executorMode()));
+		}
+		return bulkhead != null ? bulkhead.wrap(executor) : executor;
+	}
+
+	private static Executor metadataExecutor(RunnableConfig config, String key) {
+		return config.metadata(key).filter(Executor.class::isInstance).map(Executor.class::cast).orElse(null);
+	}
+
+}
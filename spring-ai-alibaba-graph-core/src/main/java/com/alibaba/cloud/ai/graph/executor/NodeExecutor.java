@@ -20,9 +20,9 @@ import com.alibaba.cloud.ai.graph.GraphRunnerContext;
 import com.alibaba.cloud.ai.graph.NodeOutput;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
-import com.alibaba.cloud.ai.graph.action.Command;
 import com.alibaba.cloud.ai.graph.action.InterruptableAction;
 import com.alibaba.cloud.ai.graph.action.InterruptionMetadata;
+import com.alibaba.cloud.ai.graph.action.SyncNodeActionAdapter;
 import com.alibaba.cloud.ai.graph.exception.RunnableErrors;
 import com.alibaba.cloud.ai.graph.streaming.GraphFlux;
 import com.alibaba.cloud.ai.graph.streaming.ParallelGraphFlux;
@@ -89,7 +89,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 		try {
 			context.setCurrentNodeId(context.getNextNodeId());
 			String currentNodeId = context.getCurrentNodeId();
-			AsyncNodeActionWithConfig action = context.getNodeAction(currentNodeId);
+			AsyncNodeActionWithConfig action = context.getCurrentNodeAction();
 
 			if (action == null) {
 				return Flux.just(GraphResponse.error(RunnableErrors.missingNode.exception(currentNodeId)));
@@ -113,11 +113,18 @@ public class NodeExecutor extends BaseGraphExecutor {
 
 			context.doListeners(NODE_BEFORE, null);
 
-			CompletableFuture<Map<String, Object>> future = action.apply(context.getOverallState(),
-					context.getConfig());
+			CompletableFuture<Map<String, Object>> future = action instanceof SyncNodeActionAdapter syncAction
+					&& context.getCompiledGraph().compileConfig.offloadBlockingNodeActions()
+							? syncAction.applyAsync(context.getOverallState(), context.getConfig(),
+									context.getNodeActionExecutor())
+							: action.apply(context.getOverallState(), context.getConfig());
 
-			return Mono.fromFuture(future)
-					.flatMapMany(updateState -> handleActionResult(context, updateState, resultValue))
+			// skip the Mono round trip for actions that completed synchronously
+			Flux<GraphResponse<NodeOutput>> result = future.isDone() && !future.isCompletedExceptionally()
+					? Flux.defer(() -> handleActionResult(context, future.join(), resultValue))
+					: Mono.fromFuture(future).flatMapMany(updateState -> handleActionResult(context, updateState, resultValue));
+
+			return result
 					.onErrorResume(error -> {
 						context.doListeners(ERROR, new Exception(error));
 						return Flux.just(GraphResponse.error(error));
@@ -139,22 +146,24 @@ public class NodeExecutor extends BaseGraphExecutor {
 	private Flux<GraphResponse<NodeOutput>> handleActionResult(GraphRunnerContext context,
 			Map<String, Object> updateState, AtomicReference<Object> resultValue) {
 		try {
-           // Priority 1: Check for GraphFlux (highest priority)
-			Optional<GraphFlux<?>> embedGraphFlux = getEmbedGraphFlux(updateState,context);
-			if (embedGraphFlux.isPresent()) {
-				return handleGraphFlux(context, embedGraphFlux.get(), updateState, resultValue);
-			}
+			if (hasStreamingValue(updateState)) {
+				// Priority 1: Check for GraphFlux (highest priority)
+				Optional<GraphFlux<?>> embedGraphFlux = getEmbedGraphFlux(updateState, context);
+				if (embedGraphFlux.isPresent()) {
+					return handleGraphFlux(context, embedGraphFlux.get(), updateState, resultValue);
+				}
 
-			// Priority 2: Check for ParallelGraphFlux
-			Optional<ParallelGraphFlux> embedParallelGraphFlux = getEmbedParallelGraphFlux(updateState);
-			if (embedParallelGraphFlux.isPresent()) {
-				return handleParallelGraphFlux(context, embedParallelGraphFlux.get(), updateState, resultValue);
-			}
+				// Priority 2: Check for ParallelGraphFlux
+				Optional<ParallelGraphFlux> embedParallelGraphFlux = getEmbedParallelGraphFlux(updateState);
+				if (embedParallelGraphFlux.isPresent()) {
+					return handleParallelGraphFlux(context, embedParallelGraphFlux.get(), updateState, resultValue);
+				}
 
-			// Priority 3: Check for traditional Flux (backward compatibility)
-			Optional<Flux<GraphResponse<NodeOutput>>> embedFlux = getEmbedFlux(context, updateState);
-			if (embedFlux.isPresent()) {
-				return handleEmbeddedFlux(context, embedFlux.get(), updateState, resultValue);
+				// Priority 3: Check for traditional Flux (backward compatibility)
+				Optional<Flux<GraphResponse<NodeOutput>>> embedFlux = getEmbedFlux(context, updateState);
+				if (embedFlux.isPresent()) {
+					return handleEmbeddedFlux(context, embedFlux.get(), updateState, resultValue);
+				}
 			}
 
 			context.mergeIntoCurrentState(updateState);
@@ -165,21 +174,32 @@ public class NodeExecutor extends BaseGraphExecutor {
 				context.setNextNodeId(INTERRUPT_AFTER);
 			}
 			else {
-				Command nextCommand = context.nextNodeId(context.getCurrentNodeId(), context.getCurrentStateData());
-				context.setNextNodeId(nextCommand.gotoNode());
+				context.moveToNextNode();
 			}
 			NodeOutput output = context.buildNodeOutputAndAddCheckpoint(updateState);
 
 			context.doListeners(NODE_AFTER, null);
-			// Recursively call the main execution handler
-			return Flux.just(GraphResponse.of(output))
-				.concatWith(Flux.defer(() -> mainGraphExecutor.execute(context, resultValue)));
+			return Flux.just(GraphResponse.of(output)).concatWith(mainGraphExecutor.nextStep(context));
 		}
 		catch (Exception e) {
 			return Flux.just(GraphResponse.error(e));
 		}
 	}
 
+	/**
+	 * Checks in a single pass whether the partial state holds any streaming value.
+	 * @param partialState the partial state returned by a node action
+	 * @return true if a GraphFlux, ParallelGraphFlux or Flux is present
+	 */
+	private static boolean hasStreamingValue(Map<String, Object> partialState) {
+		for (Object value : partialState.values()) {
+			if (value instanceof GraphFlux<?> || value instanceof ParallelGraphFlux || value instanceof Flux<?>) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Gets embed flux from partial state.
 	 * @param context the graph runner context
@@ -423,8 +443,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 
 			try {
-				Command nextCommand = context.nextNodeId(context.getCurrentNodeId(), context.getCurrentStateData());
-				context.setNextNodeId(nextCommand.gotoNode());
+				context.moveToNextNode();
 
 				context.buildNodeOutputAndAddCheckpoint(updateState);
 
@@ -435,8 +454,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 		});
 
-		return processedFlux
-			.concatWith(updateContextMono.thenMany(Flux.defer(() -> mainGraphExecutor.execute(context, resultValue))));
+		return processedFlux.concatWith(updateContextMono.thenMany(mainGraphExecutor.nextStep(context)));
 	}
 
 	/**
@@ -536,8 +554,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 
 			try {
-				Command nextCommand = context.nextNodeId(context.getCurrentNodeId(), context.getCurrentStateData());
-				context.setNextNodeId(nextCommand.gotoNode());
+				context.moveToNextNode();
 
 				context.buildNodeOutputAndAddCheckpoint(partialStateWithoutGraphFlux);
 
@@ -547,8 +564,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 		});
 
-		return processedFlux
-				.concatWith(updateContextMono.thenMany(Flux.defer(() -> mainGraphExecutor.execute(context, resultValue))));
+		return processedFlux.concatWith(updateContextMono.thenMany(mainGraphExecutor.nextStep(context)));
 	}
 
 	/**
@@ -627,8 +643,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 
 			try {
-				Command nextCommand = context.nextNodeId(context.getCurrentNodeId(), context.getCurrentStateData());
-				context.setNextNodeId(nextCommand.gotoNode());
+				context.moveToNextNode();
 
 				context.buildNodeOutputAndAddCheckpoint(partialStateWithoutParallelGraphFlux);
 
@@ -638,8 +653,7 @@ public class NodeExecutor extends BaseGraphExecutor {
 			}
 		});
 
-		return mergedFlux
-				.concatWith(updateContextMono.thenMany(Flux.defer(() -> mainGraphExecutor.execute(context, resultValue))));
+		return mergedFlux.concatWith(updateContextMono.thenMany(mainGraphExecutor.nextStep(context)));
 	}
 
 	/**
@@ -657,13 +671,10 @@ public class NodeExecutor extends BaseGraphExecutor {
 			context.setNextNodeId(INTERRUPT_AFTER);
 		}
 		else {
-			Command nextCommand = context.nextNodeId(context.getCurrentNodeId(), context.getCurrentStateData());
-			context.setNextNodeId(nextCommand.gotoNode());
+			context.moveToNextNode();
 		}
 
 		NodeOutput output = context.buildNodeOutputAndAddCheckpoint(partialState);
-		// Recursively call the main execution handler
-		return Flux.just(GraphResponse.of(output))
-				.concatWith(Flux.defer(() -> mainGraphExecutor.execute(context, resultValue)));
+		return Flux.just(GraphResponse.of(output)).concatWith(mainGraphExecutor.nextStep(context));
 	}
 }
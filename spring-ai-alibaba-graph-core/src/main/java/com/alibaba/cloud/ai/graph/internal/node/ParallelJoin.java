@@ -0,0 +1,302 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.internal.node;
+
+import com.alibaba.cloud.ai.graph.JoinPolicy;
+import com.alibaba.cloud.ai.graph.executor.Bulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates the branches of a parallel node according to a {@link JoinPolicy}.
+ * <p>
+ * Branch results are handed to the {@link Merger} in branch order as soon as every
+ * earlier branch has either completed or been dropped, so that merging progresses while
+ * slow branches are still running. Once the policy is satisfied, fails or its deadline
+ * expires, the remaining branches are cancelled and their late results ignored.
+ */
+final class ParallelJoin {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelJoin.class);
+
+	private static final Object DROPPED = new Object();
+
+	private static final ScheduledThreadPoolExecutor DEADLINE_SCHEDULER = createDeadlineScheduler();
+
+	/**
+	 * Receives the results of the branches, in branch order and one at a time.
+	 */
+	@FunctionalInterface
+	interface Merger {
+
+		void merge(int index, Map<String, Object> result);
+
+	}
+
+	private final String nodeId;
+
+	private final int required;
+
+	private final Merger merger;
+
+	private final Branch[] branches;
+
+	/**
+	 * The result of each branch, {@link #DROPPED} for failed or cancelled branches, null
+	 * while the branch is pending.
+	 */
+	private final Object[] results;
+
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+	/**
+	 * The expiry of the deadline of the join policy, cancelled once the join completes.
+	 */
+	private final ScheduledFuture<?> deadline;
+
+	private int nextToMerge;
+
+	private int succeeded;
+
+	private int failed;
+
+	ParallelJoin(String nodeId, int branchCount, JoinPolicy joinPolicy, Merger merger) {
+		this.nodeId = nodeId;
+		this.required = joinPolicy.requiredBranches(branchCount);
+		this.merger = merger;
+		this.branches = new Branch[branchCount];
+		this.results = new Object[branchCount];
+		this.deadline = joinPolicy.deadline()
+			.map(deadline -> DEADLINE_SCHEDULER.schedule(this::expire, deadline.toNanos(), TimeUnit.NANOSECONDS))
+			.orElse(null);
+	}
+
+	/**
+	 * Returns a future completed once the join policy is satisfied, or completed
+	 * exceptionally with the failure of a branch once it no longer can be.
+	 * @return the completion of the join
+	 */
+	CompletableFuture<Void> completion() {
+		return completion;
+	}
+
+	private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "graph-parallel-deadline");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// joins usually complete before their deadline, do not keep their cancelled timers
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+	/**
+	 * Starts a branch on the given executor.
+	 * @param index the index of the branch
+	 * @param executor the executor running the branch
+	 * @param action the action of the branch, invoked on the executor
+	 */
+	void start(int index, Executor executor, Supplier<CompletableFuture<Map<String, Object>>> action) {
+		Branch branch = new Branch(index, action);
+		synchronized (this) {
+			if (completion.isDone()) {
+				return;
+			}
+			branches[index] = branch;
+		}
+		try {
+			executor.execute(branch);
+		}
+		catch (RuntimeException ex) {
+			complete(index, null, ex);
+		}
+	}
+
+	private synchronized void complete(int index, Map<String, Object> result, Throwable error) {
+		if (completion.isDone() || results[index] != null) {
+			return;
+		}
+		if (error == null) {
+			results[index] = result != null ? result : Map.of();
+			succeeded++;
+		}
+		else {
+			results[index] = DROPPED;
+			failed++;
+		}
+		try {
+			drain();
+			if (succeeded >= required) {
+				finish();
+			}
+			else if (error != null && failed > branches.length - required) {
+				fail(error);
+			}
+		}
+		catch (RuntimeException ex) {
+			fail(ex);
+		}
+	}
+
+	private synchronized void expire() {
+		if (completion.isDone()) {
+			return;
+		}
+		logger.warn("Deadline of parallel node {} expired with {} of {} required branches completed", nodeId,
+				succeeded, required);
+		try {
+			finish();
+		}
+		catch (RuntimeException ex) {
+			fail(ex);
+		}
+	}
+
+	private void finish() {
+		cancelPending();
+		drain();
+		cancelDeadline();
+		completion.complete(null);
+	}
+
+	private void fail(Throwable error) {
+		cancelPending();
+		cancelDeadline();
+		completion.completeExceptionally(error);
+	}
+
+	private void cancelDeadline() {
+		if (deadline != null) {
+			deadline.cancel(false);
+		}
+	}
+
+	/**
+	 * Drops every pending branch and cancels it.
+	 */
+	private void cancelPending() {
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] == null) {
+				results[i] = DROPPED;
+				if (branches[i] != null) {
+					branches[i].cancel();
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void drain() {
+		while (nextToMerge < results.length && results[nextToMerge] != null) {
+			Object result = results[nextToMerge];
+			if (result != DROPPED) {
+				merger.merge(nextToMerge, (Map<String, Object>) result);
+			}
+			nextToMerge++;
+		}
+	}
+
+	/**
+	 * A branch running on an executor. Cancelling it before it starts prevents it from
+	 * running; cancelling it while it runs cancels the future of its action and
+	 * interrupts its thread. The branch only holds its thread, and its bulkhead slot if
+	 * any, while its action runs: it does not block until the future returned by the
+	 * action completes, which may depend on work queued on the same bulkhead.
+	 */
+	private final class Branch implements Bulkhead.RejectableTask {
+
+		private final int index;
+
+		private final Supplier<CompletableFuture<Map<String, Object>>> action;
+
+		private Thread runner;
+
+		private CompletableFuture<Map<String, Object>> future;
+
+		private boolean cancelled;
+
+		private boolean interrupted;
+
+		private Branch(int index, Supplier<CompletableFuture<Map<String, Object>>> action) {
+			this.index = index;
+			this.action = action;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (cancelled) {
+					return;
+				}
+				runner = Thread.currentThread();
+			}
+			try {
+				CompletableFuture<Map<String, Object>> result = action.get();
+				synchronized (this) {
+					future = result;
+					if (cancelled) {
+						result.cancel(true);
+					}
+				}
+				result.whenComplete((value, error) -> complete(index, value,
+						error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+			}
+			catch (Throwable ex) {
+				complete(index, null, ex);
+			}
+			finally {
+				boolean clearInterrupt;
+				synchronized (this) {
+					runner = null;
+					clearInterrupt = interrupted;
+				}
+				if (clearInterrupt) {
+					// do not leak the interrupt delivered by cancel() to the next task
+					Thread.interrupted();
+				}
+			}
+		}
+
+		@Override
+		public void rejected(RejectedExecutionException ex) {
+			complete(index, null, ex);
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			if (future != null) {
+				future.cancel(true);
+			}
+			if (runner != null) {
+				runner.interrupt();
+				interrupted = true;
+			}
+		}
+
+	}
+
+}
@@ -16,10 +16,13 @@
 package com.alibaba.cloud.ai.graph.internal.node;
 
 import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.JoinPolicy;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.executor.Bulkhead;
+import com.alibaba.cloud.ai.graph.executor.NodeActionExecutors;
 import com.alibaba.cloud.ai.graph.streaming.GraphFlux;
 import com.alibaba.cloud.ai.graph.streaming.ParallelGraphFlux;
 import com.alibaba.cloud.ai.graph.utils.LifeListenerUtil;
@@ -33,7 +36,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.NODE_AFTER;
 import static com.alibaba.cloud.ai.graph.StateGraph.NODE_BEFORE;
@@ -171,6 +173,16 @@ public class ParallelNode extends Node {
 		return queueCapacity;
 	}
 
+	/**
+	 * Returns the shared pool of platform threads used when neither the
+	 * {@link RunnableConfig} nor the {@link CompileConfig.ExecutorMode} select another
+	 * executor.
+	 * @return the default executor
+	 */
+	public static Executor defaultExecutor() {
+		return DEFAULT_EXECUTOR;
+	}
+
 	public static void shutdownDefaultExecutor() {
 		if (!DEFAULT_EXECUTOR.isShutdown()) {
 			logger.info("Shutting down ParallelNode default executor");
@@ -196,25 +208,32 @@ public class ParallelNode extends Node {
 	}
 
 	public record AsyncParallelNodeAction(String nodeId, List<AsyncNodeActionWithConfig> actions,
-			List<String> actionNodeIds, Map<String, KeyStrategy> channels, CompileConfig compileConfig)
-			implements AsyncNodeActionWithConfig {
+			List<String> actionNodeIds, Map<String, KeyStrategy> channels, CompileConfig compileConfig,
+			Bulkhead bulkhead, JoinPolicy joinPolicy) implements AsyncNodeActionWithConfig {
+
+		public AsyncParallelNodeAction {
+			joinPolicy = joinPolicy != null ? joinPolicy : JoinPolicy.all();
+		}
+
+		public AsyncParallelNodeAction(String nodeId, List<AsyncNodeActionWithConfig> actions,
+				List<String> actionNodeIds, Map<String, KeyStrategy> channels, CompileConfig compileConfig) {
+			this(nodeId, actions, actionNodeIds, channels, compileConfig, null, JoinPolicy.all());
+		}
 
 		private CompletableFuture<Map<String, Object>> evalNodeActionSync(AsyncNodeActionWithConfig action,
 				String actualNodeId, OverAllState state, RunnableConfig config) {
-			LifeListenerUtil.processListenersLIFO(actualNodeId,
-					new LinkedBlockingDeque<>(compileConfig.lifecycleListeners()), state.data(), config, NODE_BEFORE,
-					null);
+			if (compileConfig.lifecycleListeners().isEmpty()) {
+				return action.apply(state, config);
+			}
+			LifeListenerUtil.notifyListeners(LifeListenerUtil.iterator(compileConfig.lifecycleListeners(), true),
+					compileConfig.lifecycleEventBus(), NODE_BEFORE, actualNodeId, state.data(), config, null);
 			return action.apply(state, config)
-					.whenComplete((stringObjectMap, throwable) -> LifeListenerUtil.processListenersLIFO(actualNodeId,
-							new LinkedBlockingDeque<>(compileConfig.lifecycleListeners()), state.data(), config,
-							NODE_AFTER,
-							throwable));
+				.whenComplete((result, throwable) -> LifeListenerUtil.notifyListeners(
+						LifeListenerUtil.iterator(compileConfig.lifecycleListeners(), true),
+						compileConfig.lifecycleEventBus(), NODE_AFTER, actualNodeId, state.data(), config, throwable));
 		}
 
-		private CompletableFuture<Map<String, Object>> evalNodeActionAsync(AsyncNodeActionWithConfig action,
-				String actualNodeId, OverAllState state, RunnableConfig config, Executor executor) {
-			
-			// Log thread pool metrics if it's a ThreadPoolExecutor
+		private void logExecutorMetrics(Executor executor) {
 			if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
 				logger.debug("Thread pool metrics - Active threads: {}, Pool size: {}, Queue size: {}, Completed tasks: {}", 
 						threadPoolExecutor.getActiveCount(), 
@@ -222,122 +241,103 @@ public class ParallelNode extends Node {
 						threadPoolExecutor.getQueue().size(), 
 						threadPoolExecutor.getCompletedTaskCount());
 			}
-			
-			logger.debug("Submitting task for node {} to executor", actualNodeId);
-			return CompletableFuture.supplyAsync(() -> {
-				try {
-					logger.debug("Executing task for node {} in thread {}", actualNodeId, Thread.currentThread().getName());
-					return evalNodeActionSync(action, actualNodeId, state, config).join();
-				} catch (Exception e) {
-					logger.error("Error executing task for node {}", actualNodeId, e);
-					throw new RuntimeException(e);
-				}
-			}, executor);
 		}
 
 		@Override
 		public CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config) {
-			List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+			// Results are merged progressively, in branch order, while the other branches are still running
+			Map<String, Object> mergedState = new HashMap<>();
+			List<GraphFlux<?>> graphFluxList = new ArrayList<>();
+			ParallelJoin join = new ParallelJoin(nodeId, actions.size(), joinPolicy,
+					(index, result) -> collectResult(index, result, mergedState, graphFluxList));
+
+			// node-specific executor, then default executor, then the executor mode of the graph
+			Executor executor = NodeActionExecutors.resolve(config, nodeId, compileConfig, bulkhead);
+			logExecutorMetrics(executor);
+
+			// Give each parallel action a read-through view of a snapshot of the state with a
+			// private delta, so that neither in-place modifications by the branches nor updates
+			// of the state while stragglers still run after the join completed race
+			List<OverAllState> branchStates = state.branches(actions.size());
+
 			for (int i = 0; i < actions.size(); i++) {
 				AsyncNodeActionWithConfig action = actions.get(i);
 				String actualNodeId = actionNodeIds.get(i);
+				OverAllState branchState = branchStates.get(i);
 
-				// Create a defensive copy of the state for each parallel action
-				// This prevents race conditions if actions modify the state in-place
-				OverAllState stateSnapshot = state.snapShot().orElse(new OverAllState());
-
-				// First try to get node-specific executor, then default executor, finally use DEFAULT_EXECUTOR
-				Executor executor = config.metadata(nodeId)
-						.filter(value -> value instanceof Executor)
-						.map(Executor.class::cast)
-						.orElseGet(() -> config.metadata(RunnableConfig.DEFAULT_PARALLEL_EXECUTOR_KEY)
-								.filter(value -> value instanceof Executor)
-								.map(Executor.class::cast)
-								.orElse(DEFAULT_EXECUTOR));
-				
-				CompletableFuture<Map<String, Object>> future = evalNodeActionAsync(action, actualNodeId, stateSnapshot, config, executor);
-
-				futures.add(future);
+				logger.debug("Submitting task for node {} to executor", actualNodeId);
+				join.start(i, executor, () -> {
+					logger.debug("Executing task for node {} in thread {}", actualNodeId, Thread.currentThread().getName());
+					return evalNodeActionSync(action, actualNodeId, branchState, config);
+				});
 			}
 
-			// Wait for all tasks to complete
-			return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
-				// Collect all results
-				List<Map<String, Object>> results = futures.stream()
-						.map(CompletableFuture::join)
-						.collect(Collectors.toList());
-
-				return processParallelResults(results, state, actions);
+			return join.completion().thenApply(v -> {
+				if (!graphFluxList.isEmpty()) {
+					// We have GraphFlux instances - create ParallelGraphFlux with node identity
+					// preservation
+					mergedState.put("__parallel_graph_flux__", ParallelGraphFlux.of(graphFluxList));
+				}
+				return mergedState;
 			});
 		}
 
 		/**
-		 * Process parallel execution results, handling GraphFlux, traditional Flux, and
-		 * regular objects.
-		 * Priority: GraphFlux > traditional Flux > regular objects
+		 * Collects the result of a branch, handling GraphFlux, traditional Flux, and
+		 * regular objects. Streaming values are gathered for a {@link ParallelGraphFlux},
+		 * regular objects are merged into the merged state.
 		 */
-		private Map<String, Object> processParallelResults(List<Map<String, Object>> results,
-				OverAllState state, List<AsyncNodeActionWithConfig> actionList) {
-
-			// Check if any result contains GraphFlux or traditional Flux
-			List<GraphFlux<?>> graphFluxList = new ArrayList<>();
-			List<String> graphFluxNodeIds = new ArrayList<>();
-
-			// Collect non-streaming state
-			Map<String, Object> mergedState = new HashMap<>();
-			// First pass: collect GraphFlux and traditional Flux instances
-			for (int i = 0; i < results.size(); i++) {
-				Map<String, Object> result = results.get(i);
-				AsyncNodeActionWithConfig action = actionList.get(i);
-				String effectiveNodeId = generateEffectiveNodeId(action, i);
-
-				for (Map.Entry<String, Object> entry : result.entrySet()) {
-					Object value = entry.getValue();
-
-					if (value instanceof GraphFlux) {
-						GraphFlux<?> graphFlux = (GraphFlux<?>) value;
-						// Use GraphFlux's own nodeId, or generate one if not set properly
-						String graphFluxNodeId = graphFlux.getNodeId() != null ? graphFlux.getNodeId()
-								: effectiveNodeId;
-
-						// Create new GraphFlux with correct nodeId if needed
-						if (!graphFluxNodeId.equals(graphFlux.getNodeId())) {
-							@SuppressWarnings("unchecked")
-							GraphFlux<Object> castedFlux = (GraphFlux<Object>) graphFlux;
-							@SuppressWarnings("unchecked")
-							GraphFlux<Object> newGraphFlux = GraphFlux.of(graphFluxNodeId, entry.getKey(),
-									castedFlux.getFlux(), castedFlux.getMapResult(), castedFlux.getChunkResult());
-							graphFlux = newGraphFlux;
+		private void collectResult(int index, Map<String, Object> result, Map<String, Object> mergedState,
+				List<GraphFlux<?>> graphFluxList) {
+			String effectiveNodeId = null;
+			for (Map.Entry<String, Object> entry : result.entrySet()) {
+				Object value = entry.getValue();
+
+				if (value instanceof GraphFlux<?> graphFlux) {
+					// Use GraphFlux's own nodeId, or generate one if not set properly
+					if (graphFlux.getNodeId() == null) {
+						if (effectiveNodeId == null) {
+							effectiveNodeId = generateEffectiveNodeId(actions.get(index), index);
 						}
-
-						graphFluxList.add(graphFlux);
-						graphFluxNodeIds.add(graphFluxNodeId);
-					} else if (value instanceof Flux flux) {
-						// Traditional Flux - wrap it in GraphFlux for unified processing
-						GraphFlux<Object> graphFlux = GraphFlux.of(effectiveNodeId, entry.getKey(), flux, null, null);
-						graphFluxList.add(graphFlux);
-					} else {
-						// Regular object - add to merged state
-						Map<String, Object> singleEntryMap = Map.of(entry.getKey(), value);
-						mergedState = OverAllState.updateState(mergedState, singleEntryMap, channels);
+						@SuppressWarnings("unchecked")
+						GraphFlux<Object> castedFlux = (GraphFlux<Object>) graphFlux;
+						graphFlux = GraphFlux.of(effectiveNodeId, entry.getKey(), castedFlux.getFlux(),
+								castedFlux.getMapResult(), castedFlux.getChunkResult());
+					}
+					graphFluxList.add(graphFlux);
+				} else if (value instanceof Flux<?> flux) {
+					// Traditional Flux - wrap it in GraphFlux for unified processing
+					if (effectiveNodeId == null) {
+						effectiveNodeId = generateEffectiveNodeId(actions.get(index), index);
 					}
+					@SuppressWarnings("unchecked")
+					Flux<Object> castedFlux = (Flux<Object>) flux;
+					graphFluxList.add(GraphFlux.of(effectiveNodeId, entry.getKey(), castedFlux, null, null));
+				} else {
+					// Regular object - add to merged state
+					merge(mergedState, entry.getKey(), value);
 				}
 			}
+		}
 
-			// Handle the results based on what we found
-			if (!graphFluxList.isEmpty()) {
-				// We have GraphFlux instances - create ParallelGraphFlux with node identity
-				// preservation
-				ParallelGraphFlux parallelGraphFlux = ParallelGraphFlux.of(graphFluxList);
-
-				mergedState.put("__parallel_graph_flux__", parallelGraphFlux);
-				return mergedState;
-			} else {
-				Map<String, Object> initialState = new HashMap<>();
-				// No streaming output, directly merge all results
-				return results.stream()
-						.reduce(initialState,
-								(result, actionResult) -> OverAllState.updateState(result, actionResult, channels));
+		/**
+		 * Merges a branch output into the merged state in place, using the key strategy
+		 * of the channel. Removals and null values drop the key from the merged state.
+		 */
+		private void merge(Map<String, Object> mergedState, String key, Object value) {
+			Object newValue = null;
+			if (value != OverAllState.MARK_FOR_REMOVAL) {
+				KeyStrategy strategy = channels != null ? channels.get(key) : null;
+				if (strategy == null) {
+					strategy = KeyStrategy.REPLACE;
+				}
+				newValue = strategy.apply(mergedState.get(key), value);
+			}
+			if (newValue == null) {
+				mergedState.remove(key);
+			}
+			else {
+				mergedState.put(key, newValue);
 			}
 		}
 
@@ -354,9 +354,27 @@ public class ParallelNode extends Node {
 
 	public ParallelNode(String id, List<AsyncNodeActionWithConfig> actions, List<String> actionNodeIds,
 			Map<String, KeyStrategy> channels, CompileConfig compileConfig) {
+		this(id, actions, actionNodeIds, channels, compileConfig, null, JoinPolicy.all());
+	}
+
+	/**
+	 * Creates a parallel node whose branches run within the given bulkhead and are
+	 * joined according to the given policy.
+	 * @param id the id of the node the branches fan out from
+	 * @param actions the actions of the branches
+	 * @param actionNodeIds the node ids of the branches
+	 * @param channels the key strategies used to merge the branch results
+	 * @param compileConfig the compile config of the graph
+	 * @param bulkhead the bulkhead shared by the graph, or null if unbounded
+	 * @param joinPolicy when to stop waiting for the branches, {@link JoinPolicy#all()}
+	 * if null
+	 */
+	public ParallelNode(String id, List<AsyncNodeActionWithConfig> actions, List<String> actionNodeIds,
+			Map<String, KeyStrategy> channels, CompileConfig compileConfig, Bulkhead bulkhead,
+			JoinPolicy joinPolicy) {
 		super(formatNodeId(id),
 				(config) -> new AsyncParallelNodeAction(formatNodeId(id), actions, actionNodeIds, channels,
-						compileConfig));
+						compileConfig, bulkhead, joinPolicy));
 	}
 
 	@Override
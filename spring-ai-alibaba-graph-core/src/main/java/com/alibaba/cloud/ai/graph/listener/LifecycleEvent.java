@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.listener;
+
+import com.alibaba.cloud.ai.graph.GraphLifecycleListener;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.ERROR;
+import static com.alibaba.cloud.ai.graph.StateGraph.NODE_AFTER;
+import static com.alibaba.cloud.ai.graph.StateGraph.NODE_BEFORE;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+
+/**
+ * A graph lifecycle event, as delivered to a {@link GraphLifecycleListener}.
+ * <p>
+ * Events delivered to asynchronous listeners carry a snapshot of the state taken when the
+ * event was published, while synchronous listeners see the live state.
+ *
+ * @param scene the event type, one of {@code START}, {@code END}, {@code ERROR},
+ * {@code NODE_BEFORE} and {@code NODE_AFTER} of {@link com.alibaba.cloud.ai.graph.StateGraph}
+ * @param nodeId the id of the node the event refers to
+ * @param state the state of the graph
+ * @param config the configuration of the execution
+ * @param error the error, only set for {@code ERROR} events
+ * @param timestamp the time the event was published, in milliseconds
+ */
+public record LifecycleEvent(String scene, String nodeId, Map<String, Object> state, RunnableConfig config,
+		Throwable error, long timestamp) {
+
+	/**
+	 * Returns whether this event is raised around the execution of a single node, as
+	 * opposed to the start, completion or failure of the graph.
+	 * @return true for {@code NODE_BEFORE} and {@code NODE_AFTER} events
+	 */
+	public boolean isNodeEvent() {
+		return NODE_BEFORE.equals(scene) || NODE_AFTER.equals(scene);
+	}
+
+	/**
+	 * Invokes the callback of the given listener matching the type of this event.
+	 * @param listener the listener to notify
+	 */
+	public void dispatchTo(GraphLifecycleListener listener) {
+		switch (scene) {
+			case START -> listener.onStart(nodeId, state, config);
+			case END -> listener.onComplete(nodeId, state, config);
+			case ERROR -> listener.onError(nodeId, state, error, config);
+			case NODE_BEFORE -> listener.before(nodeId, state, config, timestamp);
+			case NODE_AFTER -> listener.after(nodeId, state, config, timestamp);
+			default -> {
+			}
+		}
+	}
+
+}
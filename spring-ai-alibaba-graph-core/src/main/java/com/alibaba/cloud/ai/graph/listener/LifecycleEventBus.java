@@ -0,0 +1,407 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.listener;
+
+import com.alibaba.cloud.ai.graph.GraphLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Delivers lifecycle events to asynchronous {@link GraphLifecycleListener}s, so that slow
+ * listeners such as exporters or audit sinks do not add to node latency.
+ * <p>
+ * Published events are stored in a bounded ring buffer and drained in batches on the
+ * configured executor. Each listener receives its events in publication order through
+ * {@link GraphLifecycleListener#onEvents(List)}, at most {@link Builder#batchSize(int)}
+ * at a time. Only one batch is delivered at a time, and no thread is held while the
+ * buffer is empty. When the buffer is full, the {@link OverflowPolicy} decides whether
+ * events are dropped, sampled or whether publishers wait.
+ * <p>
+ * Graphs compiled without an explicit bus share the one returned by {@link #shared()}.
+ */
+public final class LifecycleEventBus {
+
+	private static final Logger log = LoggerFactory.getLogger(LifecycleEventBus.class);
+
+	private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger threadNum = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "graph-lifecycle-listener-" + threadNum.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	});
+
+	private static final class SharedHolder {
+
+		private static final LifecycleEventBus INSTANCE = builder().build();
+
+	}
+
+	/**
+	 * Defines what happens to events published while the buffer is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drops the event.
+		 */
+		DROP,
+
+		/**
+		 * Drops the event and, once the buffer is half full, keeps only one out of
+		 * {@link Builder#sampleRate(int)} node events, so that the start, completion and
+		 * failure of graphs are more likely to get through.
+		 */
+		SAMPLE,
+
+		/**
+		 * Blocks the publishing thread until there is room in the buffer.
+		 */
+		BLOCK
+
+	}
+
+	private record Delivery(GraphLifecycleListener listener, LifecycleEvent event) {
+	}
+
+	private final BlockingQueue<Delivery> buffer;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final int sampleRate;
+
+	private final Executor executor;
+
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	private final AtomicLong sampleCounter = new AtomicLong();
+
+	private final AtomicLong published = new AtomicLong();
+
+	private final AtomicLong delivered = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private LifecycleEventBus(Builder builder) {
+		this.capacity = builder.capacity;
+		this.buffer = new ArrayBlockingQueue<>(builder.capacity);
+		this.batchSize = builder.batchSize;
+		this.overflowPolicy = builder.overflowPolicy;
+		this.sampleRate = builder.sampleRate;
+		this.executor = builder.executor != null ? builder.executor : DEFAULT_EXECUTOR;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the bus used by graphs compiled without an explicit one: a buffer of 8192
+	 * events, batches of 64 and the {@link OverflowPolicy#DROP} policy.
+	 * @return the shared bus
+	 */
+	public static LifecycleEventBus shared() {
+		return SharedHolder.INSTANCE;
+	}
+
+	/**
+	 * Publishes an event for the given listener.
+	 * @param listener the asynchronous listener to notify
+	 * @param event the event, whose state must no longer be modified
+	 * @return true if the event was accepted, false if it was dropped
+	 */
+	public boolean publish(GraphLifecycleListener listener, LifecycleEvent event) {
+		Delivery delivery = new Delivery(listener, event);
+		boolean accepted = switch (overflowPolicy) {
+			case DROP -> buffer.offer(delivery);
+			case SAMPLE -> sampled(event) && buffer.offer(delivery);
+			case BLOCK -> offerOrWait(delivery);
+		};
+		if (accepted) {
+			published.incrementAndGet();
+			scheduleDrain();
+		}
+		else {
+			dropped.incrementAndGet();
+		}
+		return accepted;
+	}
+
+	private boolean sampled(LifecycleEvent event) {
+		if (!event.isNodeEvent() || buffer.size() < capacity / 2) {
+			return true;
+		}
+		return sampleCounter.getAndIncrement() % sampleRate == 0;
+	}
+
+	private boolean offerOrWait(Delivery delivery) {
+		if (buffer.offer(delivery)) {
+			return true;
+		}
+		// make sure the buffer is being drained before waiting for room
+		scheduleDrain();
+		try {
+			buffer.put(delivery);
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void scheduleDrain() {
+		if (draining.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::drain);
+			}
+			catch (RejectedExecutionException ex) {
+				draining.set(false);
+				log.warn("Lifecycle event bus executor rejected the delivery of {} events", buffer.size(), ex);
+			}
+		}
+	}
+
+	private void drain() {
+		List<Delivery> batch = new ArrayList<>(batchSize);
+		try {
+			while (buffer.drainTo(batch, batchSize) > 0) {
+				deliver(batch);
+				batch.clear();
+			}
+		}
+		finally {
+			draining.set(false);
+			synchronized (this) {
+				notifyAll();
+			}
+			// events published after the last drain would otherwise wait for the next publish
+			if (!buffer.isEmpty()) {
+				scheduleDrain();
+			}
+		}
+	}
+
+	private void deliver(List<Delivery> batch) {
+		Map<GraphLifecycleListener, List<LifecycleEvent>> eventsByListener = new LinkedHashMap<>();
+		for (Delivery delivery : batch) {
+			eventsByListener.computeIfAbsent(delivery.listener(), listener -> new ArrayList<>())
+				.add(delivery.event());
+		}
+		for (Map.Entry<GraphLifecycleListener, List<LifecycleEvent>> entry : eventsByListener.entrySet()) {
+			try {
+				entry.getKey().onEvents(entry.getValue());
+			}
+			catch (Exception ex) {
+				failures.incrementAndGet();
+				log.error("Error in asynchronous listener", ex);
+			}
+		}
+		delivered.addAndGet(batch.size());
+		batches.incrementAndGet();
+	}
+
+	/**
+	 * Waits until every accepted event has been delivered.
+	 * @param timeout the maximum time to wait
+	 * @return true if every event was delivered, false if the timeout expired first
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public boolean flush(Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		synchronized (this) {
+			while (delivered.get() < published.get()) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				scheduleDrain();
+				wait(Math.max(1, remaining / 1_000_000), 0);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of events waiting to be delivered.
+	 * @return the queue depth
+	 */
+	public int queueDepth() {
+		return buffer.size();
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of events accepted since the bus was created.
+	 * @return the number of published events
+	 */
+	public long publishedEvents() {
+		return published.get();
+	}
+
+	/**
+	 * Returns the number of events handed to listeners since the bus was created.
+	 * @return the number of delivered events
+	 */
+	public long deliveredEvents() {
+		return delivered.get();
+	}
+
+	/**
+	 * Returns the number of events dropped or sampled out because the buffer was full.
+	 * @return the number of dropped events
+	 */
+	public long droppedEvents() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the number of batches delivered since the bus was created.
+	 * @return the number of batches
+	 */
+	public long deliveredBatches() {
+		return batches.get();
+	}
+
+	/**
+	 * Returns the number of batches a listener failed to process.
+	 * @return the number of listener failures
+	 */
+	public long listenerFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Builder for {@link LifecycleEventBus}.
+	 */
+	public static final class Builder {
+
+		private int capacity = 8192;
+
+		private int batchSize = 64;
+
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+		private int sampleRate = 10;
+
+		private Executor executor;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of events the buffer holds. Defaults to 8192.
+		 * @param capacity the capacity of the buffer
+		 * @return this builder
+		 */
+		public Builder capacity(int capacity) {
+			if (capacity <= 0) {
+				throw new IllegalArgumentException("capacity must be > 0!");
+			}
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of events delivered in one batch. Defaults to 64.
+		 * @param batchSize the batch size
+		 * @return this builder
+		 */
+		public Builder batchSize(int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize must be > 0!");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets what happens to events published while the buffer is full. Defaults to
+		 * {@link OverflowPolicy#DROP}.
+		 * @param overflowPolicy the overflow policy
+		 * @return this builder
+		 */
+		public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = requireNonNull(overflowPolicy, "overflowPolicy cannot be null!");
+			return this;
+		}
+
+		/**
+		 * Sets the sampling rate of {@link OverflowPolicy#SAMPLE}: one node event out
+		 * of {@code sampleRate} is kept once the buffer is half full. Defaults to 10.
+		 * @param sampleRate the sampling rate
+		 * @return this builder
+		 */
+		public Builder sampleRate(int sampleRate) {
+			if (sampleRate <= 0) {
+				throw new IllegalArgumentException("sampleRate must be > 0!");
+			}
+			this.sampleRate = sampleRate;
+			return this;
+		}
+
+		/**
+		 * Sets the executor delivering the batches. Defaults to a shared pool of daemon
+		 * threads.
+		 * @param executor the executor
+		 * @return this builder
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = requireNonNull(executor, "executor cannot be null!");
+			return this;
+		}
+
+		public LifecycleEventBus build() {
+			return new LifecycleEventBus(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,729 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.AgentInstructionMessage;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
+
+import org.springframework.ai.chat.messages.AbstractMessage;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.document.Document;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact binary {@link StateSerializer}, built for states made of Spring AI messages,
+ * documents, primitives and collections.
+ * <p>
+ * Every value is written as a one-byte type tag followed by its payload. Integers and
+ * lengths are written as variable-length integers, so small values take a single byte.
+ * Short strings, such as state keys, metadata keys, roles, tool names and class names,
+ * are written once per stream and then referenced by their index in a dictionary built
+ * by both the writer and the reader, so that a history of a thousand messages does not
+ * repeat them a thousand times. Long strings, such as message texts, are written inline.
+ * <p>
+ * The supported types are encoded without reflection. Other types can be supported by
+ * {@link #register(Class, Codec) registering} a {@link Codec}; as a last resort,
+ * {@link Serializable} values are written with Java serialization.
+ */
+public class BinaryStateSerializer extends StateSerializer {
+
+	/**
+	 * Version of the encoding, written at the start of every state.
+	 */
+	static final int FORMAT_VERSION = 1;
+
+	/**
+	 * Strings up to this length are added to the dictionary of the stream.
+	 */
+	static final int MAX_INTERNED_LENGTH = 64;
+
+	static final int NULL = 0;
+
+	static final int TRUE = 1;
+
+	static final int FALSE = 2;
+
+	static final int INT = 3;
+
+	static final int LONG = 4;
+
+	static final int DOUBLE = 5;
+
+	static final int FLOAT = 6;
+
+	static final int SHORT = 7;
+
+	static final int BYTE = 8;
+
+	static final int CHAR = 9;
+
+	static final int STRING = 10;
+
+	static final int BYTES = 11;
+
+	static final int LIST = 12;
+
+	static final int SET = 13;
+
+	static final int MAP = 14;
+
+	static final int ENUM = 15;
+
+	static final int USER_MESSAGE = 16;
+
+	static final int ASSISTANT_MESSAGE = 17;
+
+	static final int SYSTEM_MESSAGE = 18;
+
+	static final int TOOL_RESPONSE_MESSAGE = 19;
+
+	static final int AGENT_INSTRUCTION_MESSAGE = 20;
+
+	static final int TOOL_CALL = 21;
+
+	static final int TOOL_RESPONSE = 22;
+
+	static final int DOCUMENT = 23;
+
+	static final int MEDIA = 24;
+
+	static final int CUSTOM = 25;
+
+	static final int JAVA = 26;
+
+	/**
+	 * Writes and reads values of a type not supported natively.
+	 *
+	 * @param <T> the type of the values
+	 */
+	public interface Codec<T> {
+
+		void write(T value, Encoder out) throws IOException;
+
+		T read(Decoder in) throws IOException, ClassNotFoundException;
+
+	}
+
+	private final Map<Class<?>, Codec<?>> codecsByClass = new ConcurrentHashMap<>();
+
+	private final Map<String, Codec<?>> codecsByName = new ConcurrentHashMap<>();
+
+	private final Map<String, Class<?>> enumClasses = new ConcurrentHashMap<>();
+
+	public BinaryStateSerializer() {
+		this(OverAllState::new);
+	}
+
+	public BinaryStateSerializer(AgentStateFactory<OverAllState> stateFactory) {
+		super(stateFactory);
+	}
+
+	@Override
+	public String contentType() {
+		return "application/x-graph-state-binary";
+	}
+
+	/**
+	 * Registers the codec of a type. The codec is used for the values of exactly this
+	 * class, and identified in the stream by the class name.
+	 * @param type the class of the values
+	 * @param codec the codec
+	 * @param <T> the type of the values
+	 * @return this serializer
+	 */
+	public <T> BinaryStateSerializer register(Class<T> type, Codec<? super T> codec) {
+		Objects.requireNonNull(type, "type cannot be null");
+		Objects.requireNonNull(codec, "codec cannot be null");
+		codecsByClass.put(type, codec);
+		codecsByName.put(type.getName(), codec);
+		return this;
+	}
+
+	@Override
+	public void writeData(Map<String, Object> data, ObjectOutput out) throws IOException {
+		Encoder encoder = new Encoder(out);
+		encoder.writeVarInt(FORMAT_VERSION);
+		encoder.writeVarInt(data.size());
+		for (Map.Entry<String, Object> entry : data.entrySet()) {
+			encoder.writeString(entry.getKey());
+			encoder.writeValue(entry.getValue());
+		}
+	}
+
+	@Override
+	public Map<String, Object> readData(ObjectInput in) throws IOException, ClassNotFoundException {
+		Decoder decoder = new Decoder(in);
+		int version = decoder.readVarInt();
+		if (version != FORMAT_VERSION) {
+			throw new StreamCorruptedException("Unsupported binary state version " + version);
+		}
+		int size = decoder.readVarInt();
+		Map<String, Object> data = new HashMap<>(capacity(size));
+		for (int i = 0; i < size; i++) {
+			String key = decoder.readString();
+			data.put(key, decoder.readValue());
+		}
+		return data;
+	}
+
+	private static int capacity(int size) {
+		return (int) (size / 0.75f) + 1;
+	}
+
+	/**
+	 * Writes the values of one state, with the dictionary of its stream.
+	 */
+	public final class Encoder {
+
+		private final ObjectOutput out;
+
+		private final Map<String, Integer> dictionary = new HashMap<>();
+
+		Encoder(ObjectOutput out) {
+			this.out = out;
+		}
+
+		public void writeVarInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+
+		public void writeVarLong(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				out.write((int) (value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write((int) value);
+		}
+
+		/**
+		 * Writes a nullable string: 0 for null, 1 followed by the UTF-8 bytes for a new
+		 * string, or the index of the string in the dictionary plus 2.
+		 */
+		public void writeString(String value) throws IOException {
+			if (value == null) {
+				writeVarInt(0);
+				return;
+			}
+			if (value.length() <= MAX_INTERNED_LENGTH) {
+				Integer index = dictionary.get(value);
+				if (index != null) {
+					writeVarInt(index + 2);
+					return;
+				}
+				dictionary.put(value, dictionary.size());
+			}
+			writeVarInt(1);
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length);
+			out.write(bytes);
+		}
+
+		public void writeValue(Object value) throws IOException {
+			if (value == null) {
+				out.write(NULL);
+				return;
+			}
+			Class<?> type = value.getClass();
+			if (type == String.class) {
+				out.write(STRING);
+				writeString((String) value);
+			}
+			else if (type == Integer.class) {
+				out.write(INT);
+				int i = (Integer) value;
+				writeVarInt((i << 1) ^ (i >> 31));
+			}
+			else if (type == Long.class) {
+				out.write(LONG);
+				long l = (Long) value;
+				writeVarLong((l << 1) ^ (l >> 63));
+			}
+			else if (type == Boolean.class) {
+				out.write((Boolean) value ? TRUE : FALSE);
+			}
+			else if (type == Double.class) {
+				out.write(DOUBLE);
+				out.writeDouble((Double) value);
+			}
+			else if (type == Float.class) {
+				out.write(FLOAT);
+				out.writeFloat((Float) value);
+			}
+			else if (type == Short.class) {
+				out.write(SHORT);
+				out.writeShort((Short) value);
+			}
+			else if (type == Byte.class) {
+				out.write(BYTE);
+				out.writeByte((Byte) value);
+			}
+			else if (type == Character.class) {
+				out.write(CHAR);
+				out.writeChar((Character) value);
+			}
+			else if (type == byte[].class) {
+				byte[] bytes = (byte[]) value;
+				out.write(BYTES);
+				writeVarInt(bytes.length);
+				out.write(bytes);
+			}
+			else if (type == UserMessage.class) {
+				UserMessage message = (UserMessage) value;
+				out.write(USER_MESSAGE);
+				writeString(message.getText());
+				writeMetadata(message);
+				writeMedia(message.getMedia());
+			}
+			else if (type == AssistantMessage.class) {
+				AssistantMessage message = (AssistantMessage) value;
+				out.write(ASSISTANT_MESSAGE);
+				writeString(message.getText());
+				writeMetadata(message);
+				List<AssistantMessage.ToolCall> toolCalls = message.getToolCalls();
+				writeVarInt(toolCalls.size());
+				for (AssistantMessage.ToolCall toolCall : toolCalls) {
+					writeToolCall(toolCall);
+				}
+				writeMedia(message.getMedia());
+			}
+			else if (type == SystemMessage.class) {
+				SystemMessage message = (SystemMessage) value;
+				out.write(SYSTEM_MESSAGE);
+				writeString(message.getText());
+				writeMetadata(message);
+			}
+			else if (type == ToolResponseMessage.class) {
+				ToolResponseMessage message = (ToolResponseMessage) value;
+				out.write(TOOL_RESPONSE_MESSAGE);
+				writeMetadata(message);
+				List<ToolResponseMessage.ToolResponse> responses = message.getResponses();
+				writeVarInt(responses.size());
+				for (ToolResponseMessage.ToolResponse response : responses) {
+					writeToolResponse(response);
+				}
+			}
+			else if (type == AgentInstructionMessage.class) {
+				AgentInstructionMessage message = (AgentInstructionMessage) value;
+				out.write(AGENT_INSTRUCTION_MESSAGE);
+				writeString(message.getText());
+				writeMetadata(message);
+			}
+			else if (type == AssistantMessage.ToolCall.class) {
+				out.write(TOOL_CALL);
+				writeToolCall((AssistantMessage.ToolCall) value);
+			}
+			else if (type == ToolResponseMessage.ToolResponse.class) {
+				out.write(TOOL_RESPONSE);
+				writeToolResponse((ToolResponseMessage.ToolResponse) value);
+			}
+			else if (type == Document.class) {
+				Document document = (Document) value;
+				out.write(DOCUMENT);
+				writeString(document.getId());
+				writeString(document.getText());
+				writeNullableMedia(document.getMedia());
+				writeValue(document.getScore());
+				writeMap(document.getMetadata());
+			}
+			else if (type == Media.class) {
+				out.write(MEDIA);
+				writeNullableMedia((Media) value);
+			}
+			else if (codecsByClass.containsKey(type)) {
+				out.write(CUSTOM);
+				writeString(type.getName());
+				writeCustom(codecsByClass.get(type), value);
+			}
+			else if (value instanceof Set<?> set) {
+				out.write(SET);
+				writeCollection(set);
+			}
+			else if (value instanceof Collection<?> collection) {
+				out.write(LIST);
+				writeCollection(collection);
+			}
+			else if (value instanceof Map<?, ?> map) {
+				out.write(MAP);
+				writeMap(map);
+			}
+			else if (value instanceof Enum<?> constant) {
+				out.write(ENUM);
+				writeString(constant.getDeclaringClass().getName());
+				writeString(constant.name());
+			}
+			else if (value instanceof Serializable) {
+				out.write(JAVA);
+				out.writeObject(value);
+			}
+			else {
+				throw new NotSerializableException(type.getName());
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> void writeCustom(Codec<T> codec, Object value) throws IOException {
+			codec.write((T) value, this);
+		}
+
+		private void writeCollection(Collection<?> collection) throws IOException {
+			writeVarInt(collection.size());
+			for (Object element : collection) {
+				writeValue(element);
+			}
+		}
+
+		private void writeMap(Map<?, ?> map) throws IOException {
+			writeVarInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+
+		/**
+		 * Writes the metadata of a message, without the message type its constructor
+		 * adds back.
+		 */
+		private void writeMetadata(Message message) throws IOException {
+			Map<String, Object> metadata = message.getMetadata();
+			boolean hasType = metadata.containsKey(AbstractMessage.MESSAGE_TYPE);
+			writeVarInt(hasType ? metadata.size() - 1 : metadata.size());
+			for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+				if (!AbstractMessage.MESSAGE_TYPE.equals(entry.getKey())) {
+					writeString(entry.getKey());
+					writeValue(entry.getValue());
+				}
+			}
+		}
+
+		private void writeToolCall(AssistantMessage.ToolCall toolCall) throws IOException {
+			writeString(toolCall.id());
+			writeString(toolCall.type());
+			writeString(toolCall.name());
+			writeString(toolCall.arguments());
+		}
+
+		private void writeToolResponse(ToolResponseMessage.ToolResponse response) throws IOException {
+			writeString(response.id());
+			writeString(response.name());
+			writeString(response.responseData());
+		}
+
+		private void writeMedia(List<Media> media) throws IOException {
+			writeVarInt(media.size());
+			for (Media item : media) {
+				writeNullableMedia(item);
+			}
+		}
+
+		private void writeNullableMedia(Media media) throws IOException {
+			if (media == null) {
+				writeString(null);
+				return;
+			}
+			writeString(media.getMimeType().toString());
+			writeString(media.getId());
+			writeString(media.getName());
+			writeValue(media.getData());
+		}
+
+	}
+
+	/**
+	 * Reads the values of one state, with the dictionary of its stream.
+	 */
+	public final class Decoder {
+
+		private final ObjectInput in;
+
+		private final List<String> dictionary = new ArrayList<>();
+
+		Decoder(ObjectInput in) {
+			this.in = in;
+		}
+
+		public int readVarInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new StreamCorruptedException("Malformed variable-length int");
+		}
+
+		public long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new StreamCorruptedException("Malformed variable-length long");
+		}
+
+		public String readString() throws IOException {
+			int code = readVarInt();
+			if (code == 0) {
+				return null;
+			}
+			if (code > 1) {
+				int index = code - 2;
+				if (index >= dictionary.size()) {
+					throw new StreamCorruptedException("Unknown string reference " + index);
+				}
+				return dictionary.get(index);
+			}
+			byte[] bytes = new byte[readVarInt()];
+			in.readFully(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			if (value.length() <= MAX_INTERNED_LENGTH) {
+				dictionary.add(value);
+			}
+			return value;
+		}
+
+		public Object readValue() throws IOException, ClassNotFoundException {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+				case NULL:
+					return null;
+				case TRUE:
+					return Boolean.TRUE;
+				case FALSE:
+					return Boolean.FALSE;
+				case INT: {
+					int i = readVarInt();
+					return (i >>> 1) ^ -(i & 1);
+				}
+				case LONG: {
+					long l = readVarLong();
+					return (l >>> 1) ^ -(l & 1);
+				}
+				case DOUBLE:
+					return in.readDouble();
+				case FLOAT:
+					return in.readFloat();
+				case SHORT:
+					return in.readShort();
+				case BYTE:
+					return in.readByte();
+				case CHAR:
+					return in.readChar();
+				case STRING:
+					return readString();
+				case BYTES: {
+					byte[] bytes = new byte[readVarInt()];
+					in.readFully(bytes);
+					return bytes;
+				}
+				case LIST: {
+					int size = readVarInt();
+					List<Object> list = new ArrayList<>(size);
+					for (int i = 0; i < size; i++) {
+						list.add(readValue());
+					}
+					return list;
+				}
+				case SET: {
+					int size = readVarInt();
+					Set<Object> set = new LinkedHashSet<>(capacity(size));
+					for (int i = 0; i < size; i++) {
+						set.add(readValue());
+					}
+					return set;
+				}
+				case MAP:
+					return readMap();
+				case ENUM:
+					return readEnum();
+				case USER_MESSAGE: {
+					String text = readString();
+					Map<String, Object> metadata = readMetadata();
+					return UserMessage.builder().text(text).metadata(metadata).media(readMedia()).build();
+				}
+				case ASSISTANT_MESSAGE: {
+					String text = readString();
+					Map<String, Object> metadata = readMetadata();
+					int size = readVarInt();
+					List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>(size);
+					for (int i = 0; i < size; i++) {
+						toolCalls.add(readToolCall());
+					}
+					return AssistantMessage.builder()
+						.content(text)
+						.properties(metadata)
+						.toolCalls(toolCalls)
+						.media(readMedia())
+						.build();
+				}
+				case SYSTEM_MESSAGE: {
+					String text = readString();
+					return SystemMessage.builder().text(text).metadata(readMetadata()).build();
+				}
+				case TOOL_RESPONSE_MESSAGE: {
+					Map<String, Object> metadata = readMetadata();
+					int size = readVarInt();
+					List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(size);
+					for (int i = 0; i < size; i++) {
+						responses.add(readToolResponse());
+					}
+					return ToolResponseMessage.builder().responses(responses).metadata(metadata).build();
+				}
+				case AGENT_INSTRUCTION_MESSAGE: {
+					String text = readString();
+					return AgentInstructionMessage.builder().text(text).metadata(readMetadata()).build();
+				}
+				case TOOL_CALL:
+					return readToolCall();
+				case TOOL_RESPONSE:
+					return readToolResponse();
+				case DOCUMENT: {
+					String id = readString();
+					String text = readString();
+					Media media = readNullableMedia();
+					Double score = (Double) readValue();
+					@SuppressWarnings("unchecked")
+					Map<String, Object> metadata = (Map<String, Object>) (Map<?, ?>) readMap();
+					return Document.builder().id(id).text(text).media(media).metadata(metadata).score(score).build();
+				}
+				case MEDIA:
+					return readNullableMedia();
+				case CUSTOM: {
+					String typeName = readString();
+					Codec<?> codec = codecsByName.get(typeName);
+					if (codec == null) {
+						throw new InvalidClassException(typeName, "No codec registered");
+					}
+					return codec.read(this);
+				}
+				case JAVA:
+					return in.readObject();
+				default:
+					throw new StreamCorruptedException("Unknown type tag " + tag);
+			}
+		}
+
+		private Map<Object, Object> readMap() throws IOException, ClassNotFoundException {
+			int size = readVarInt();
+			Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+			for (int i = 0; i < size; i++) {
+				Object key = readValue();
+				map.put(key, readValue());
+			}
+			return map;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private Object readEnum() throws IOException, ClassNotFoundException {
+			String typeName = readString();
+			String name = readString();
+			Class<?> type = enumClasses.get(typeName);
+			if (type == null) {
+				type = Class.forName(typeName, false, Thread.currentThread().getContextClassLoader());
+				if (!type.isEnum()) {
+					throw new InvalidClassException(typeName, "Not an enum");
+				}
+				enumClasses.put(typeName, type);
+			}
+			return Enum.valueOf((Class) type, name);
+		}
+
+		private Map<String, Object> readMetadata() throws IOException, ClassNotFoundException {
+			int size = readVarInt();
+			Map<String, Object> metadata = new HashMap<>(capacity(size + 1));
+			for (int i = 0; i < size; i++) {
+				String key = readString();
+				metadata.put(key, readValue());
+			}
+			return metadata;
+		}
+
+		private AssistantMessage.ToolCall readToolCall() throws IOException {
+			String id = readString();
+			String type = readString();
+			String name = readString();
+			String arguments = readString();
+			return new AssistantMessage.ToolCall(id, type, name, arguments);
+		}
+
+		private ToolResponseMessage.ToolResponse readToolResponse() throws IOException {
+			String id = readString();
+			String name = readString();
+			String responseData = readString();
+			return new ToolResponseMessage.ToolResponse(id, name, responseData);
+		}
+
+		private List<Media> readMedia() throws IOException, ClassNotFoundException {
+			int size = readVarInt();
+			if (size == 0) {
+				return List.of();
+			}
+			List<Media> media = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				media.add(readNullableMedia());
+			}
+			return media;
+		}
+
+		private Media readNullableMedia() throws IOException, ClassNotFoundException {
+			String mimeType = readString();
+			if (mimeType == null) {
+				return null;
+			}
+			String id = readString();
+			String name = readString();
+			Object data = readValue();
+			return Media.builder().mimeType(MimeType.valueOf(mimeType)).id(id).name(name).data(data).build();
+		}
+
+	}
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.check_point;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compresses the serialized checkpoints of a saver with the JDK {@link Deflater}.
+ * <p>
+ * A compressed payload starts with a header, made of two magic bytes, the compression
+ * method and the length of the uncompressed payload, followed by the zlib stream. The
+ * payloads of the savers are Java object streams, which start with {@code 0xACED}, so a
+ * payload without the header is read as is: checkpoints stored before compression was
+ * enabled, or below the {@link Builder#threshold(int) threshold}, are still readable, and
+ * compression can be disabled again without rewriting them.
+ * <p>
+ * Deflate can be primed with a preset {@link Builder#dictionary(byte[]) dictionary} of
+ * the words and phrases the checkpoints are expected to contain, which helps small
+ * payloads most. The zlib stream records the checksum of the dictionary, so a payload is
+ * never inflated with another one.
+ */
+public final class CheckpointCompression {
+
+	/**
+	 * Payloads smaller than this are stored uncompressed by default.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+
+	/**
+	 * Deflate looks back at most 32 KiB, so a longer dictionary is truncated to its end.
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	static final byte MAGIC_0 = (byte) 0xC7;
+
+	static final byte MAGIC_1 = (byte) 0x5A;
+
+	static final byte METHOD_DEFLATE = 1;
+
+	static final int HEADER_SIZE = 7;
+
+	private static final CheckpointCompression NONE = new CheckpointCompression(Integer.MAX_VALUE,
+			Deflater.DEFAULT_COMPRESSION, null);
+
+	private final int threshold;
+
+	private final int level;
+
+	private final byte[] dictionary;
+
+	private final long dictionaryId;
+
+	private final AtomicLong compressed = new AtomicLong();
+
+	private final AtomicLong stored = new AtomicLong();
+
+	private final AtomicLong decompressed = new AtomicLong();
+
+	private final AtomicLong uncompressedBytes = new AtomicLong();
+
+	private final AtomicLong compressedBytes = new AtomicLong();
+
+	private final AtomicLong compressionNanos = new AtomicLong();
+
+	private final AtomicLong decompressionNanos = new AtomicLong();
+
+	private CheckpointCompression(int threshold, int level, byte[] dictionary) {
+		this.threshold = threshold;
+		this.level = level;
+		this.dictionary = dictionary;
+		if (dictionary != null) {
+			Adler32 adler = new Adler32();
+			adler.update(dictionary);
+			this.dictionaryId = adler.getValue();
+		}
+		else {
+			this.dictionaryId = -1;
+		}
+	}
+
+	/**
+	 * Returns a compression that stores every payload uncompressed, but still reads
+	 * compressed ones.
+	 * @return the disabled compression
+	 */
+	public static CheckpointCompression none() {
+		return NONE;
+	}
+
+	/**
+	 * Returns a compression with the default threshold and level, and no dictionary.
+	 * @return a new compression
+	 */
+	public static CheckpointCompression deflate() {
+		return builder().build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builds a preset dictionary from sample texts, such as typical prompts, tool
+	 * descriptions and answers. Deflate finds the closest matches cheapest, so the most
+	 * common samples should come last; samples that do not fit in
+	 * {@link #MAX_DICTIONARY_SIZE} bytes are dropped from the start.
+	 * @param samples the sample texts
+	 * @return the dictionary
+	 */
+	public static byte[] dictionaryOf(List<String> samples) {
+		requireNonNull(samples, "samples cannot be null");
+		ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+		for (String sample : samples) {
+			dictionary.writeBytes(sample.getBytes(StandardCharsets.UTF_8));
+		}
+		byte[] bytes = dictionary.toByteArray();
+		return bytes.length <= MAX_DICTIONARY_SIZE ? bytes
+				: Arrays.copyOfRange(bytes, bytes.length - MAX_DICTIONARY_SIZE, bytes.length);
+	}
+
+	public boolean isEnabled() {
+		return threshold != Integer.MAX_VALUE;
+	}
+
+	public int threshold() {
+		return threshold;
+	}
+
+	/**
+	 * Returns whether a payload starts with the header of a compressed payload.
+	 * @param payload the payload
+	 * @return true if the payload is compressed
+	 */
+	public static boolean isCompressed(byte[] payload) {
+		return payload.length >= HEADER_SIZE && payload[0] == MAGIC_0 && payload[1] == MAGIC_1;
+	}
+
+	/**
+	 * Compresses a payload at least as long as the threshold. Payloads below the
+	 * threshold, or which deflate would not make smaller, are returned as is.
+	 * @param payload the serialized checkpoint
+	 * @return the payload to store
+	 */
+	public byte[] compress(byte[] payload) {
+		requireNonNull(payload, "payload cannot be null");
+		if (payload.length < threshold || payload.length <= HEADER_SIZE) {
+			stored.incrementAndGet();
+			return payload;
+		}
+		long start = System.nanoTime();
+		Deflater deflater = new Deflater(level);
+		try {
+			if (dictionary != null) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(payload);
+			deflater.finish();
+			// Give up as soon as the output is not smaller than the payload
+			byte[] output = new byte[payload.length];
+			output[0] = MAGIC_0;
+			output[1] = MAGIC_1;
+			output[2] = METHOD_DEFLATE;
+			writeInt(output, 3, payload.length);
+			int length = HEADER_SIZE;
+			while (!deflater.finished() && length < output.length) {
+				length += deflater.deflate(output, length, output.length - length);
+			}
+			if (!deflater.finished()) {
+				stored.incrementAndGet();
+				return payload;
+			}
+			compressed.incrementAndGet();
+			uncompressedBytes.addAndGet(payload.length);
+			compressedBytes.addAndGet(length);
+			return Arrays.copyOf(output, length);
+		}
+		finally {
+			deflater.end();
+			compressionNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Decompresses a payload written by {@link #compress(byte[])}. Payloads without the
+	 * header are returned as is.
+	 * @param payload the stored payload
+	 * @return the serialized checkpoint
+	 * @throws IOException if the payload is corrupted, or was compressed with a
+	 * dictionary other than the one of this compression
+	 */
+	public byte[] decompress(byte[] payload) throws IOException {
+		requireNonNull(payload, "payload cannot be null");
+		if (!isCompressed(payload)) {
+			return payload;
+		}
+		if (payload[2] != METHOD_DEFLATE) {
+			throw new StreamCorruptedException("Unknown checkpoint compression method " + payload[2]);
+		}
+		long start = System.nanoTime();
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(payload, HEADER_SIZE, payload.length - HEADER_SIZE);
+			int size = readInt(payload, 3);
+			if (size < 0) {
+				throw new StreamCorruptedException("Invalid compressed checkpoint length " + size);
+			}
+			byte[] output = new byte[size];
+			int length = 0;
+			while (!inflater.finished()) {
+				int inflated = inflater.inflate(output, length, output.length - length);
+				length += inflated;
+				if (inflated == 0) {
+					if (!inflater.needsDictionary()) {
+						break;
+					}
+					long id = inflater.getAdler() & 0xFFFFFFFFL;
+					if (dictionary == null || id != dictionaryId) {
+						throw new StreamCorruptedException("Checkpoint was compressed with an unknown dictionary " + id);
+					}
+					inflater.setDictionary(dictionary);
+				}
+			}
+			if (!inflater.finished() || length != output.length) {
+				throw new StreamCorruptedException("Truncated compressed checkpoint");
+			}
+			decompressed.incrementAndGet();
+			return output;
+		}
+		catch (DataFormatException e) {
+			throw new StreamCorruptedException("Corrupted compressed checkpoint: " + e.getMessage());
+		}
+		finally {
+			inflater.end();
+			decompressionNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	private static void writeInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+				| ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+	}
+
+	/**
+	 * Returns the number of payloads compressed.
+	 * @return the number of compressed payloads
+	 */
+	public long compressedPayloads() {
+		return compressed.get();
+	}
+
+	/**
+	 * Returns the number of payloads stored uncompressed, because they were below the
+	 * threshold or deflate did not make them smaller.
+	 * @return the number of uncompressed payloads
+	 */
+	public long storedPayloads() {
+		return stored.get();
+	}
+
+	/**
+	 * Returns the number of payloads decompressed.
+	 * @return the number of decompressed payloads
+	 */
+	public long decompressedPayloads() {
+		return decompressed.get();
+	}
+
+	/**
+	 * Returns the ratio between the uncompressed and compressed sizes of the compressed
+	 * payloads, 1 if none was compressed.
+	 * @return the compression ratio
+	 */
+	public double compressionRatio() {
+		long out = compressedBytes.get();
+		return out == 0 ? 1.0 : (double) uncompressedBytes.get() / out;
+	}
+
+	/**
+	 * Returns the number of bytes saved by compression.
+	 * @return the saved bytes
+	 */
+	public long savedBytes() {
+		return uncompressedBytes.get() - compressedBytes.get();
+	}
+
+	/**
+	 * Returns the time spent compressing, including the payloads deflate did not make
+	 * smaller.
+	 * @return the compression time, in nanoseconds
+	 */
+	public long compressionNanos() {
+		return compressionNanos.get();
+	}
+
+	/**
+	 * Returns the time spent decompressing.
+	 * @return the decompression time, in nanoseconds
+	 */
+	public long decompressionNanos() {
+		return decompressionNanos.get();
+	}
+
+	public static final class Builder {
+
+		private int threshold = DEFAULT_THRESHOLD;
+
+		private int level = Deflater.DEFAULT_COMPRESSION;
+
+		private byte[] dictionary;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the size from which payloads are compressed. Defaults to
+		 * {@link #DEFAULT_THRESHOLD}.
+		 * @param threshold the minimum size of a compressed payload, in bytes
+		 * @return this builder
+		 */
+		public Builder threshold(int threshold) {
+			if (threshold < 0) {
+				throw new IllegalArgumentException("threshold must be >= 0!");
+			}
+			this.threshold = threshold;
+			return this;
+		}
+
+		/**
+		 * Sets the deflate level, from {@link Deflater#BEST_SPEED} to
+		 * {@link Deflater#BEST_COMPRESSION}. Defaults to
+		 * {@link Deflater#DEFAULT_COMPRESSION}.
+		 * @param level the compression level
+		 * @return this builder
+		 */
+		public Builder level(int level) {
+			if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+					&& level != Deflater.DEFAULT_COMPRESSION) {
+				throw new IllegalArgumentException("level must be between 1 and 9!");
+			}
+			this.level = level;
+			return this;
+		}
+
+		/**
+		 * Sets the preset dictionary. Payloads compressed with a dictionary can only be
+		 * read with the same dictionary.
+		 * @param dictionary the dictionary, null for none
+		 * @return this builder
+		 * @see CheckpointCompression#dictionaryOf(List)
+		 */
+		public Builder dictionary(byte[] dictionary) {
+			if (dictionary != null && dictionary.length > MAX_DICTIONARY_SIZE) {
+				dictionary = Arrays.copyOfRange(dictionary, dictionary.length - MAX_DICTIONARY_SIZE,
+						dictionary.length);
+			}
+			this.dictionary = dictionary != null && dictionary.length > 0 ? dictionary.clone() : null;
+			return this;
+		}
+
+		public CheckpointCompression build() {
+			return new CheckpointCompression(threshold, level, dictionary);
+		}
+
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.check_point;
+
+import com.alibaba.cloud.ai.graph.serializer.Serializer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Serializer} that compresses the bytes of another one with a
+ * {@link CheckpointCompression}.
+ * <p>
+ * Only {@link #objectToBytes(Object)} and {@link #bytesToObject(byte[])}, which the
+ * savers use to store one checkpoint per entry, are compressed; {@link #write} and
+ * {@link #read} are delegated unchanged, since they write inside a stream of several
+ * objects.
+ *
+ * @param <T> the type of the serialized objects
+ */
+public class CompressingSerializer<T> implements Serializer<T> {
+
+	private final Serializer<T> delegate;
+
+	private final CheckpointCompression compression;
+
+	public CompressingSerializer(Serializer<T> delegate, CheckpointCompression compression) {
+		this.delegate = requireNonNull(delegate, "delegate cannot be null");
+		this.compression = requireNonNull(compression, "compression cannot be null");
+	}
+
+	public Serializer<T> delegate() {
+		return delegate;
+	}
+
+	public CheckpointCompression compression() {
+		return compression;
+	}
+
+	@Override
+	public void write(T object, ObjectOutput out) throws IOException {
+		delegate.write(object, out);
+	}
+
+	@Override
+	public T read(ObjectInput in) throws IOException, ClassNotFoundException {
+		return delegate.read(in);
+	}
+
+	@Override
+	public String contentType() {
+		return delegate.contentType();
+	}
+
+	@Override
+	public byte[] objectToBytes(T object) throws IOException {
+		return compression.compress(delegate.objectToBytes(object));
+	}
+
+	@Override
+	public T bytesToObject(byte[] bytes) throws IOException, ClassNotFoundException {
+		requireNonNull(bytes, "bytes cannot be null");
+		return delegate.bytesToObject(compression.decompress(bytes));
+	}
+
+}
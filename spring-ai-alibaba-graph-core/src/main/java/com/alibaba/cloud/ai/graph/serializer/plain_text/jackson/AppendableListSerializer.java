@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.plain_text.jackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.alibaba.cloud.ai.graph.state.AppendableList;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializes an {@link AppendableList} exactly like an {@link ArrayList}, including the
+ * type id written when default typing is enabled, so that the JSON stays readable by
+ * {@link JacksonDeserializer} and by older versions.
+ */
+class AppendableListSerializer extends StdSerializer<AppendableList<?>> {
+
+	private static final long serialVersionUID = 1L;
+
+	public AppendableListSerializer() {
+		super(AppendableList.class, false);
+	}
+
+	@Override
+	public void serialize(AppendableList<?> value, JsonGenerator gen, SerializerProvider provider)
+			throws IOException {
+		provider.findValueSerializer(ArrayList.class).serialize(new ArrayList<Object>(value), gen, provider);
+	}
+
+	@Override
+	public void serializeWithType(AppendableList<?> value, JsonGenerator gen, SerializerProvider provider,
+			TypeSerializer typeSer) throws IOException {
+		provider.findValueSerializer(ArrayList.class)
+			.serializeWithType(new ArrayList<Object>(value), gen, provider, typeSer);
+	}
+
+}
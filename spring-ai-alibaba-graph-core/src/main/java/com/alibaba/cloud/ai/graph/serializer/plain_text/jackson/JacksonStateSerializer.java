@@ -17,23 +17,34 @@ package com.alibaba.cloud.ai.graph.serializer.plain_text.jackson;
 
 import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
-import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.plain_text.PlainTextStateSerializer;
 import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
 import org.springframework.ai.chat.model.ChatResponse;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -44,8 +55,26 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  */
 public abstract class JacksonStateSerializer extends PlainTextStateSerializer {
 
+	private static final TypeReference<Map<String, Object>> STATE_TYPE = new TypeReference<>() {
+	};
+
+	/**
+	 * Written in place of the length of the json when the json follows in chunks. The
+	 * length of a json written whole is never negative.
+	 */
+	private static final int CHUNKED = -1;
+
+	private static final int CHUNK_SIZE = 8192;
+
+	/**
+	 * Chunk buffers kept for the next writes, shared by all threads.
+	 */
+	private static final BlockingQueue<byte[]> CHUNK_BUFFERS = new ArrayBlockingQueue<>(64);
+
 	protected final ObjectMapper objectMapper;
 
+	private volatile StateCodec stateCodec;
+
 	protected TypeMapper typeMapper = new TypeMapper();
 
 	protected JacksonStateSerializer(AgentStateFactory<OverAllState> stateFactory) {
@@ -73,6 +102,7 @@ public abstract class JacksonStateSerializer extends PlainTextStateSerializer {
 		var module = new SimpleModule();
 		module.addDeserializer(Map.class, new GenericMapDeserializer(typeMapper));
 		module.addDeserializer(List.class, new GenericListDeserializer(typeMapper));
+		module.addSerializer(new AppendableListSerializer());
 
 		this.objectMapper.registerModule(module);
 
@@ -96,33 +126,270 @@ public abstract class JacksonStateSerializer extends PlainTextStateSerializer {
 		// Normalize state before serialization to convert non-serializable objects
 		// (GraphResponse, CompletableFuture) into serializable structures
 		Map<String, Object> normalized = normalizeForSerialization(data);
-		String json = objectMapper.writeValueAsString(normalized);
-		Serializer.writeUTF(json, out);
+		out.writeInt(CHUNKED);
+		JsonChunks chunks = new JsonChunks(out);
+		try {
+			stateCodec().writer().writeValue(chunks, normalized);
+			chunks.finish();
+		}
+		finally {
+			chunks.release();
+		}
 	}
 
 	@Override
 	public final Map<String, Object> readData(ObjectInput in) throws IOException, ClassNotFoundException {
-		String json = Serializer.readUTF(in);
-		return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {
-		});
+		int length = in.readInt();
+		// States written before the json was chunked hold its length, as Serializer.writeUTF wrote it
+		try (JsonInput input = length == CHUNKED ? new JsonInput(in, 0, true) : new JsonInput(in, length, false)) {
+			return stateCodec().reader().readValue(input);
+		}
+	}
+
+	/**
+	 * Returns the writer and reader of states, created again whenever the object mapper
+	 * has been reconfigured since they were last created.
+	 */
+	private StateCodec stateCodec() {
+		StateCodec codec = this.stateCodec;
+		if (codec == null || !codec.isCurrent(objectMapper)) {
+			codec = StateCodec.of(objectMapper);
+			this.stateCodec = codec;
+		}
+		return codec;
+	}
+
+	private record StateCodec(SerializationConfig serializationConfig, SerializerFactory serializerFactory,
+			DeserializationConfig deserializationConfig, DeserializationContext deserializationContext,
+			ObjectWriter writer, ObjectReader reader) {
+
+		static StateCodec of(ObjectMapper objectMapper) {
+			return new StateCodec(objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory(),
+					objectMapper.getDeserializationConfig(), objectMapper.getDeserializationContext(),
+					objectMapper.writer(), objectMapper.readerFor(STATE_TYPE));
+		}
+
+		boolean isCurrent(ObjectMapper objectMapper) {
+			return serializationConfig == objectMapper.getSerializationConfig()
+					&& serializerFactory == objectMapper.getSerializerFactory()
+					&& deserializationConfig == objectMapper.getDeserializationConfig()
+					&& deserializationContext == objectMapper.getDeserializationContext();
+		}
+
+	}
+
+	/**
+	 * Writes the json of a state to the object output in chunks, each preceded by its
+	 * length, and ends it with an empty chunk. Its length does not have to be known before
+	 * the json is written out, and at most one chunk of it is buffered.
+	 */
+	private static final class JsonChunks extends OutputStream {
+
+		private final ObjectOutput out;
+
+		private byte[] buffer;
+
+		private int count;
+
+		JsonChunks(ObjectOutput out) {
+			this.out = out;
+			byte[] pooled = CHUNK_BUFFERS.poll();
+			this.buffer = pooled != null ? pooled : new byte[CHUNK_SIZE];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (count == buffer.length) {
+				writeChunk();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, b.length);
+			while (len > 0) {
+				if (count == buffer.length) {
+					writeChunk();
+				}
+				int n = Math.min(len, buffer.length - count);
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		/**
+		 * Writes out the last chunk and the empty chunk that ends the json.
+		 */
+		void finish() throws IOException {
+			if (count > 0) {
+				writeChunk();
+			}
+			out.writeInt(0);
+		}
+
+		/**
+		 * Returns the buffer to the pool, unless the pool is full.
+		 */
+		void release() {
+			if (buffer != null) {
+				CHUNK_BUFFERS.offer(buffer);
+				buffer = null;
+			}
+		}
+
+		private void writeChunk() throws IOException {
+			out.writeInt(count);
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+
+	}
+
+	/**
+	 * The json of a state, read straight from the object input, whole or in chunks.
+	 * Closing it skips what the parser left unread, so that the input ends up right after
+	 * the json.
+	 */
+	private static final class JsonInput extends InputStream {
+
+		private final ObjectInput in;
+
+		private boolean chunked;
+
+		private int remaining;
+
+		JsonInput(ObjectInput in, int length, boolean chunked) {
+			this.in = in;
+			this.remaining = length;
+			this.chunked = chunked;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!hasRemaining()) {
+				return -1;
+			}
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			remaining--;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!hasRemaining()) {
+				return -1;
+			}
+			int read = in.read(b, off, Math.min(len, remaining));
+			if (read < 0) {
+				throw new EOFException();
+			}
+			remaining -= read;
+			return read;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return Math.min(in.available(), remaining);
+		}
+
+		@Override
+		public void close() throws IOException {
+			do {
+				while (remaining > 0) {
+					int skipped = (int) in.skip(remaining);
+					if (skipped <= 0) {
+						if (in.read() < 0) {
+							throw new EOFException();
+						}
+						skipped = 1;
+					}
+					remaining -= skipped;
+				}
+			}
+			while (hasRemaining());
+		}
+
+		/**
+		 * Tells whether some json is left, reading the length of the next chunk when the
+		 * current one has been read.
+		 */
+		private boolean hasRemaining() throws IOException {
+			while (remaining == 0 && chunked) {
+				remaining = in.readInt();
+				if (remaining < 0) {
+					throw new StreamCorruptedException("Invalid json chunk length " + remaining);
+				}
+				chunked = remaining > 0;
+			}
+			return remaining > 0;
+		}
+
 	}
 
 	/**
 	 * Normalize state map before serialization.
 	 * Converts non-serializable objects (GraphResponse, CompletableFuture) to Maps.
+	 * The state is copied only if one of its values is converted.
 	 */
+	@SuppressWarnings("unchecked")
 	private Map<String, Object> normalizeForSerialization(Map<String, Object> state) {
 		if (state == null || state.isEmpty()) {
 			return state;
 		}
-		Map<String, Object> result = new LinkedHashMap<>(state.size());
-		state.forEach((key, value) -> {
+		return (Map<String, Object>) normalizeMap(state);
+	}
+
+	/**
+	 * Normalize the values of a map, and drop its null keys (Jackson cannot serialize
+	 * them). The map is copied only from its first changed entry on.
+	 */
+	private Map<?, ?> normalizeMap(Map<?, ?> map) {
+		Map<Object, Object> result = null;
+		int index = 0;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
 			// 过滤null key，避免Jackson序列化报错
-			if (key != null) {
-				result.put(key, normalizeValue(value));
+			if (entry.getKey() == null) {
+				if (result == null) {
+					result = copyOf(map, index);
+				}
+				index++;
+				continue;
 			}
-		});
-		return result;
+			Object item = entry.getValue();
+			Object normalized = normalizeValue(item);
+			if (result == null && normalized != item) {
+				result = copyOf(map, index);
+			}
+			if (result != null) {
+				result.put(entry.getKey(), normalized);
+			}
+			index++;
+		}
+		return result != null ? result : map;
+	}
+
+	/**
+	 * Copies the first {@code count} entries of a map, none of which has a null key.
+	 */
+	private static Map<Object, Object> copyOf(Map<?, ?> map, int count) {
+		Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+		Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+		for (int i = 0; i < count; i++) {
+			Map.Entry<?, ?> entry = entries.next();
+			if (entry.getKey() != null) {
+				copy.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return copy;
 	}
 
 	/**
@@ -151,37 +418,29 @@ public abstract class JacksonStateSerializer extends PlainTextStateSerializer {
 
 		// 4. Map → shallow scan for GraphResponse/ChatResponse/CompletableFuture
 		if (value instanceof Map) {
-			Map<?, ?> map = (Map<?, ?>) value;
-			Map<Object, Object> result = new LinkedHashMap<>(map.size());
-			boolean changed = false;
-			for (Map.Entry<?, ?> entry : map.entrySet()) {
-				// 过滤null key，避免Jackson序列化报错
-				if (entry.getKey() == null) {
-					changed = true;
-					continue;
-				}
-				Object normalized = normalizeValue(entry.getValue());
-				result.put(entry.getKey(), normalized);
-				if (normalized != entry.getValue()) {
-					changed = true;
-				}
-			}
-			return changed ? result : value;
+			return normalizeMap((Map<?, ?>) value);
 		}
 
 		// 5. Collection → shallow scan for GraphResponse/ChatResponse/CompletableFuture
 		if (value instanceof Collection) {
 			Collection<?> collection = (Collection<?>) value;
-			List<Object> result = new ArrayList<>(collection.size());
-			boolean changed = false;
+			List<Object> result = null;
+			int index = 0;
 			for (Object item : collection) {
 				Object normalized = normalizeValue(item);
-				result.add(normalized);
-				if (normalized != item) {
-					changed = true;
+				if (result == null && normalized != item) {
+					result = new ArrayList<>(collection.size());
+					Iterator<?> items = collection.iterator();
+					for (int i = 0; i < index; i++) {
+						result.add(items.next());
+					}
+				}
+				if (result != null) {
+					result.add(normalized);
 				}
+				index++;
 			}
-			return changed ? result : value;
+			return result != null ? result : value;
 		}
 
 	// 6. Array → shallow scan for GraphResponse/ChatResponse/CompletableFuture
@@ -196,17 +455,18 @@ public abstract class JacksonStateSerializer extends PlainTextStateSerializer {
 		
 		// Object array - check for GraphResponse/ChatResponse/CompletableFuture
 		Object[] array = (Object[]) value;
-		Object[] result = new Object[array.length];
-		boolean changed = false;
+		Object[] result = null;
 		for (int i = 0; i < array.length; i++) {
 			Object normalized = normalizeValue(array[i]);
-			result[i] = normalized;
-			if (normalized != array[i]) {
-				changed = true;
+			if (result == null && normalized != array[i]) {
+				result = Arrays.copyOf(array, array.length, Object[].class);
+			}
+			if (result != null) {
+				result[i] = normalized;
 			}
 		}
 		// If nothing changed, return original array to preserve type
-		return changed ? result : value;
+		return result != null ? result : value;
 	}
 
 	// 7. Optional → unwrap and check
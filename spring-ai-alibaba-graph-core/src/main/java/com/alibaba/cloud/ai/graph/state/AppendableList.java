@@ -0,0 +1,359 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A list optimised for the append-heavy access pattern of state channels such as the
+ * message history of an agent.
+ * <p>
+ * Elements are stored in fixed-size chunks. Lists derived from each other through
+ * {@link #appended(Object)} and {@link #appendedAll(Collection)} share their chunks, so
+ * appending to a list of {@code N} elements is O(1) amortised and leaves the original
+ * list unchanged. Only the first list that appends after a given length writes into the
+ * shared tail chunk; any other list appending from the same length forks, which copies the
+ * chunk directory and the partially filled tail chunk, i.e. O(N / {@value #CHUNK_SIZE}).
+ * <p>
+ * The list also supports the mutating {@link List} operations. {@link #add(Object)} uses
+ * the same append path, while positional writes and removals rebuild the list in O(N),
+ * leaving every list it shares chunks with untouched.
+ * <p>
+ * This class is not thread-safe for concurrent mutation of the same instance, but
+ * distinct instances that share chunks may be appended to from different threads.
+ * Instances are serialized as a plain {@link ArrayList}.
+ *
+ * @param <E> the type of elements in this list
+ */
+public final class AppendableList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	static final int CHUNK_SHIFT = 5;
+
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final Object[][] EMPTY_DIRECTORY = new Object[0][];
+
+	/**
+	 * Tracks how many elements have been written into the chunks shared by a family of
+	 * lists. Only a list whose size equals {@code committed} may write into the shared
+	 * tail chunk.
+	 */
+	private static final class Owner {
+
+		private int committed;
+
+		private Owner(int committed) {
+			this.committed = committed;
+		}
+
+	}
+
+	private transient Object[][] chunks;
+
+	private transient int size;
+
+	private transient Owner owner;
+
+	private AppendableList(Object[][] chunks, int size, Owner owner) {
+		this.chunks = chunks;
+		this.size = size;
+		this.owner = owner;
+	}
+
+	/**
+	 * Creates an empty list.
+	 * @param <E> the type of elements in the list
+	 * @return a new empty list
+	 */
+	public static <E> AppendableList<E> empty() {
+		return new AppendableList<>(EMPTY_DIRECTORY, 0, new Owner(0));
+	}
+
+	/**
+	 * Returns the given list if it already is an {@code AppendableList}, otherwise a new
+	 * {@code AppendableList} containing the same elements.
+	 * @param <E> the type of elements in the list
+	 * @param elements the elements of the list
+	 * @return an {@code AppendableList} with the given elements
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> AppendableList<E> of(Collection<? extends E> elements) {
+		Objects.requireNonNull(elements, "elements cannot be null");
+		if (elements instanceof AppendableList<?> list) {
+			return (AppendableList<E>) list;
+		}
+		return build(elements.toArray());
+	}
+
+	private static <E> AppendableList<E> build(Object[] elements) {
+		int length = elements.length;
+		Object[][] chunks = new Object[directoryCapacity(chunkCount(length))][];
+		for (int i = 0, chunk = 0; i < length; i += CHUNK_SIZE, chunk++) {
+			Object[] values = new Object[CHUNK_SIZE];
+			System.arraycopy(elements, i, values, 0, Math.min(CHUNK_SIZE, length - i));
+			chunks[chunk] = values;
+		}
+		return new AppendableList<>(chunks, length, new Owner(length));
+	}
+
+	private static int chunkCount(int size) {
+		return (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+	}
+
+	private static int directoryCapacity(int minChunks) {
+		return Math.max(4, Integer.highestOneBit(Math.max(minChunks, 1) - 1) << 1);
+	}
+
+	/**
+	 * Returns a list with the given element appended, leaving this list unchanged.
+	 * @param element the element to append
+	 * @return a list containing the elements of this list followed by {@code element}
+	 */
+	public AppendableList<E> appended(E element) {
+		synchronized (owner) {
+			if (size == owner.committed) {
+				Object[][] target = ensureCapacity(chunks, size + 1);
+				write(target, size, element);
+				owner.committed = size + 1;
+				return new AppendableList<>(target, size + 1, owner);
+			}
+		}
+		AppendableList<E> fork = fork(size + 1);
+		write(fork.chunks, size, element);
+		fork.owner.committed = size + 1;
+		fork.size = size + 1;
+		return fork;
+	}
+
+	/**
+	 * Returns a list with the given elements appended, leaving this list unchanged.
+	 * @param elements the elements to append
+	 * @return a list containing the elements of this list followed by {@code elements}
+	 */
+	public AppendableList<E> appendedAll(Collection<? extends E> elements) {
+		Objects.requireNonNull(elements, "elements cannot be null");
+		if (elements.isEmpty()) {
+			return this;
+		}
+		Object[] values = elements.toArray();
+		int newSize = size + values.length;
+		synchronized (owner) {
+			if (size == owner.committed) {
+				Object[][] target = ensureCapacity(chunks, newSize);
+				writeAll(target, size, values);
+				owner.committed = newSize;
+				return new AppendableList<>(target, newSize, owner);
+			}
+		}
+		AppendableList<E> fork = fork(newSize);
+		writeAll(fork.chunks, size, values);
+		fork.owner.committed = newSize;
+		fork.size = newSize;
+		return fork;
+	}
+
+	/**
+	 * Returns a list with the same elements as this one in O(1). Later appends, writes or
+	 * removals on this list are not visible in the returned list and vice versa.
+	 * @return a snapshot of this list
+	 */
+	public AppendableList<E> snapshot() {
+		return new AppendableList<>(chunks, size, owner);
+	}
+
+	/**
+	 * Returns a list without the first element matched by the given identifier, leaving
+	 * this list unchanged. If no element matches, this list is returned.
+	 * @param removeIdentifier the identifier used to find the element to remove
+	 * @return a list without the matched element
+	 */
+	public AppendableList<E> removedFirst(AppenderChannel.RemoveIdentifier<E> removeIdentifier) {
+		Objects.requireNonNull(removeIdentifier, "removeIdentifier cannot be null");
+		for (int i = 0; i < size; i++) {
+			if (removeIdentifier.compareTo(get(i), i) == 0) {
+				return removedAt(i);
+			}
+		}
+		return this;
+	}
+
+	private AppendableList<E> removedAt(int index) {
+		if (index == size - 1) {
+			// the chunks below the new size are left untouched, so they can be shared
+			return new AppendableList<>(chunks, index, owner);
+		}
+		Object[] elements = toArray();
+		Object[] result = new Object[size - 1];
+		System.arraycopy(elements, 0, result, 0, index);
+		System.arraycopy(elements, index + 1, result, index, size - index - 1);
+		return build(result);
+	}
+
+	/**
+	 * Creates a list with the same elements as this one that does not share its tail
+	 * chunk, with room for at least {@code capacity} elements.
+	 */
+	private AppendableList<E> fork(int capacity) {
+		Object[][] target = new Object[directoryCapacity(chunkCount(capacity))][];
+		int fullChunks = size >>> CHUNK_SHIFT;
+		System.arraycopy(chunks, 0, target, 0, fullChunks);
+		int tail = size & CHUNK_MASK;
+		if (tail > 0) {
+			Object[] values = new Object[CHUNK_SIZE];
+			System.arraycopy(chunks[fullChunks], 0, values, 0, tail);
+			target[fullChunks] = values;
+		}
+		return new AppendableList<>(target, size, new Owner(size));
+	}
+
+	private static Object[][] ensureCapacity(Object[][] chunks, int capacity) {
+		int required = chunkCount(capacity);
+		if (required <= chunks.length) {
+			return chunks;
+		}
+		Object[][] target = new Object[directoryCapacity(required)][];
+		System.arraycopy(chunks, 0, target, 0, chunks.length);
+		return target;
+	}
+
+	private static void write(Object[][] chunks, int index, Object element) {
+		int chunk = index >>> CHUNK_SHIFT;
+		if (chunks[chunk] == null) {
+			chunks[chunk] = new Object[CHUNK_SIZE];
+		}
+		chunks[chunk][index & CHUNK_MASK] = element;
+	}
+
+	private static void writeAll(Object[][] chunks, int index, Object[] elements) {
+		for (Object element : elements) {
+			write(chunks, index++, element);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		Objects.checkIndex(index, size);
+		return (E) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] result = new Object[size];
+		for (int i = 0, chunk = 0; i < size; i += CHUNK_SIZE, chunk++) {
+			System.arraycopy(chunks[chunk], 0, result, i, Math.min(CHUNK_SIZE, size - i));
+		}
+		return result;
+	}
+
+	/**
+	 * Passes each chunk holding the elements of this list to the given action, with the
+	 * number of elements of this list it holds. Lists sharing a chunk pass the same
+	 * instance, so that callers can account for the memory of shared chunks once. The
+	 * chunks must not be modified.
+	 * @param action the action called for each chunk, oldest elements first
+	 */
+	public void forEachChunk(ObjIntConsumer<Object[]> action) {
+		Objects.requireNonNull(action, "action cannot be null");
+		for (int i = 0, chunk = 0; i < size; i += CHUNK_SIZE, chunk++) {
+			action.accept(chunks[chunk], Math.min(CHUNK_SIZE, size - i));
+		}
+	}
+
+	@Override
+	public boolean add(E element) {
+		adopt(appended(element));
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends E> elements) {
+		if (elements.isEmpty()) {
+			return false;
+		}
+		adopt(appendedAll(elements));
+		return true;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		if (index == size) {
+			add(element);
+			return;
+		}
+		Objects.checkIndex(index, size);
+		Object[] values = toArray();
+		Object[] result = new Object[size + 1];
+		System.arraycopy(values, 0, result, 0, index);
+		result[index] = element;
+		System.arraycopy(values, index, result, index + 1, size - index);
+		adopt(build(result));
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E previous = get(index);
+		Object[] values = toArray();
+		values[index] = element;
+		adopt(build(values));
+		return previous;
+	}
+
+	@Override
+	public E remove(int index) {
+		E previous = get(index);
+		adopt(removedAt(index));
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) {
+			adopt(empty());
+		}
+	}
+
+	private void adopt(AppendableList<E> other) {
+		this.chunks = other.chunks;
+		this.size = other.size;
+		this.owner = other.owner;
+		this.modCount++;
+	}
+
+	@Serial
+	private Object writeReplace() {
+		return new ArrayList<>(this);
+	}
+
+}
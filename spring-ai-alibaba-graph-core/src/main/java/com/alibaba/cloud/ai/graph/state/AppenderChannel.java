@@ -24,7 +24,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
-import static java.util.Collections.unmodifiableList;
 import static java.util.Optional.ofNullable;
 
 public class AppenderChannel<T> implements Channel<List<T>> {
@@ -98,8 +97,9 @@ public class AppenderChannel<T> implements Channel<List<T>> {
 		this.reducer = new Reducer<>() {
 			/**
 			 * Combines two lists into one. If the first list is null, the second list is
-			 * returned. Otherwise, the second list is added to the end of the first list
-			 * and the resulting list is returned.
+			 * returned. Otherwise, an {@link AppendableList} that shares the elements of
+			 * the first list, followed by the elements of the second list, is returned.
+			 * Neither input list is modified.
 			 * @param left the first list; may be null
 			 * @param right the second list
 			 * @return a new list containing all elements from both input lists
@@ -109,8 +109,7 @@ public class AppenderChannel<T> implements Channel<List<T>> {
 				if (left == null) {
 					return right;
 				}
-				left.addAll(right);
-				return left;
+				return AppendableList.of(left).appendedAll(right);
 			}
 		};
 		this.defaultProvider = defaultProvider;
@@ -118,36 +117,16 @@ public class AppenderChannel<T> implements Channel<List<T>> {
 
 	/**
 	 * This method removes elements from a given list based on the specified
-	 * {@link RemoveIdentifier}. It creates a copy of the original list, performs the
-	 * removal operation, and returns an immutable view of the result.
+	 * {@link RemoveIdentifier}. The original list is left untouched; the first element
+	 * for which {@link RemoveIdentifier#compareTo} returns zero is left out of the
+	 * returned list.
 	 * @param list The list from which elements will be removed.
 	 * @param removeIdentifier An instance of {@link RemoveIdentifier} that defines how to
 	 * identify elements for removal.
-	 * @return An unmodifiable view of the modified list with specified elements removed.
+	 * @return a list with specified elements removed.
 	 */
 	private List<T> remove(List<T> list, RemoveIdentifier<T> removeIdentifier) {
-		var result = new ArrayList<>(list);
-		removeFromList(result, removeIdentifier);
-		return unmodifiableList(result);
-	}
-
-	/**
-	 * Removes an element from the list that matches the specified identifier.
-	 *
-	 * <p>
-	 * This method iterates over the provided list and removes the first element for which
-	 * the {@link RemoveIdentifier#compareTo} method returns zero.
-	 * </p>
-	 * @param result the list to be modified
-	 * @param removeIdentifier the identifier used to find the element to remove
-	 */
-	private void removeFromList(List<T> result, RemoveIdentifier<T> removeIdentifier) {
-		for (int i = 0; i < result.size(); i++) {
-			if (removeIdentifier.compareTo(result.get(i), i) == 0) {
-				result.remove(i);
-				break;
-			}
-		}
+		return AppendableList.of(list).removedFirst(removeIdentifier);
 	}
 
 	/**
@@ -165,26 +144,39 @@ public class AppenderChannel<T> implements Channel<List<T>> {
 	};
 
 	/**
-	 * Evaluates the removal of identifiers from the new values list and updates the
-	 * RemoveData object accordingly.
+	 * The old values after applying the removals, and the new values without the
+	 * {@link RemoveIdentifier}s. Unlike {@link RemoveData}, the lists are not copied.
+	 */
+	private record Removal<T>(AppendableList<T> oldValues, List<T> newValues) {
+	}
+
+	/**
+	 * Evaluates the removal of identifiers from the new values list and applies them to
+	 * the old values.
+	 * <p>
+	 * The old values are kept in an {@link AppendableList}, so that when there is
+	 * nothing to remove they are shared instead of copied.
 	 * @param oldValues a {@code List} of old values
 	 * @param newValues a {@code List} of new values containing {@code RemoveIdentifier}s
 	 * to be evaluated for removal
-	 * @return a {@literal RemoveData<T>} object with updated old and new values after
+	 * @return a {@literal Removal<T>} object with updated old and new values after
 	 * removing identifiers
 	 */
 	@SuppressWarnings("unchecked")
-	private RemoveData<T> evaluateRemoval(List<T> oldValues, List<?> newValues) {
+	private Removal<T> evaluateRemoval(List<T> oldValues, List<?> newValues) {
 
-		final var result = new RemoveData<>(oldValues, newValues);
+		AppendableList<T> remaining = AppendableList.of(oldValues);
+		List<T> values = new ArrayList<>(newValues.size());
 
-		newValues.stream().filter(value -> value instanceof RemoveIdentifier<?>).forEach(value -> {
-			result.newValues().remove(value);
-			var removeIdentifier = (RemoveIdentifier<T>) value;
-			removeFromList(result.oldValues(), removeIdentifier);
-
-		});
-		return result;
+		for (Object value : newValues) {
+			if (value instanceof RemoveIdentifier<?>) {
+				remaining = remaining.removedFirst((RemoveIdentifier<T>) value);
+			}
+			else {
+				values.add((T) value);
+			}
+		}
+		return new Removal<>(remaining, values);
 
 	}
 
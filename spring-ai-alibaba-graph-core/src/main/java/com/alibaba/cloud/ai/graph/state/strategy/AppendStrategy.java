@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.graph.state.strategy;
 
 import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.AppendableList;
 import com.alibaba.cloud.ai.graph.state.AppenderChannel;
 import com.alibaba.cloud.ai.graph.state.ReplaceAllWith;
 
@@ -40,13 +41,14 @@ public class AppendStrategy implements KeyStrategy {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public Object apply(Object oldValue, Object newValue) {
 		if (newValue == null) {
 			return oldValue;
 		}
 
 		if( newValue instanceof ReplaceAllWith<?> replaceAll ) {
-			return new ArrayList<>(replaceAll.newValues());
+			return AppendableList.of(replaceAll.newValues());
 		}
 
 		if (oldValue instanceof Optional<?> oldValueOptional) {
@@ -56,14 +58,13 @@ public class AppendStrategy implements KeyStrategy {
 		boolean oldValueIsList = oldValue instanceof List<?>;
 
 		if (oldValueIsList && newValue instanceof AppenderChannel.RemoveIdentifier<?>) {
-			var result = new ArrayList<>((List<Object>) oldValue);
-			removeFromList(result, (AppenderChannel.RemoveIdentifier) newValue);
-			return new ArrayList<>(result);
+			return AppendableList.of((List<Object>) oldValue)
+					.removedFirst((AppenderChannel.RemoveIdentifier<Object>) newValue);
 		}
 
 		List<Object> list = null;
 		if (newValue instanceof List) {
-			list = new ArrayList<>((List<?>) newValue);
+			list = (List<Object>) newValue;
 		}
 		else if (newValue.getClass().isArray()) {
 			list = Arrays.asList((Object[]) newValue);
@@ -73,64 +74,49 @@ public class AppendStrategy implements KeyStrategy {
 		}
 
 		if (oldValueIsList) {
-			List<Object> oldList = (List<Object>) oldValue;
+			AppendableList<Object> oldList = AppendableList.of((List<Object>) oldValue);
 			if (list != null) {
 				if (list.isEmpty()) {
 					return oldValue;
 				}
-				if (oldValueIsList) {
-					var result = evaluateRemoval((List<Object>) oldValue, list);
-					if (allowDuplicate) {
-						return Stream.concat(result.oldValues().stream(), result.newValues()
-										.stream())
-								.collect(Collectors.toList());
-					} else {
-						return Stream.concat(result.oldValues().stream(), result.newValues()
-										.stream())
-								.distinct()
-								.collect(Collectors.toList());
-					}
+				var result = evaluateRemoval(oldList, list);
+				if (allowDuplicate) {
+					return result.oldValues().appendedAll(result.newValues());
 				}
-				oldList.addAll(list);
+				return AppendableList.of(Stream.concat(result.oldValues().stream(), result.newValues().stream())
+						.distinct()
+						.collect(Collectors.toList()));
 			}
-			else {
-				oldList.add(newValue);
-			}
-			return oldList;
+			return oldList.appended(newValue);
 		}
 		else {
-			ArrayList<Object> arrayResult = new ArrayList<>();
 			if (list != null) {
-				arrayResult.addAll(list);
-			}
-			else {
-				arrayResult.add(newValue);
+				return AppendableList.of(list);
 			}
-			return arrayResult;
+			return AppendableList.empty().appended(newValue);
 		}
 	}
 
-	private static void removeFromList(List<Object> result, AppenderChannel.RemoveIdentifier<Object> removeIdentifier) {
-		for (int i = 0; i < result.size(); i++) {
-			if (removeIdentifier.compareTo(result.get(i), i) == 0) {
-				result.remove(i);
-				break;
-			}
-		}
+	/**
+	 * The old values after applying the removals, and the new values without the
+	 * {@link AppenderChannel.RemoveIdentifier}s.
+	 */
+	private record Removal(AppendableList<Object> oldValues, List<Object> newValues) {
 	}
 
-	private static AppenderChannel.RemoveData<Object> evaluateRemoval(List<Object> oldValues, List<?> newValues) {
-
-		final var result = new AppenderChannel.RemoveData<>(oldValues, newValues);
-
-		newValues.stream().filter(value -> value instanceof AppenderChannel.RemoveIdentifier<?>).forEach(value -> {
-			result.newValues().remove(value);
-			var removeIdentifier = (AppenderChannel.RemoveIdentifier<Object>) value;
-			removeFromList(result.oldValues(), removeIdentifier);
-
-		});
-		return result;
-
+	@SuppressWarnings("unchecked")
+	private static Removal evaluateRemoval(AppendableList<Object> oldValues, List<?> newValues) {
+		AppendableList<Object> result = oldValues;
+		List<Object> values = new ArrayList<>(newValues.size());
+		for (Object value : newValues) {
+			if (value instanceof AppenderChannel.RemoveIdentifier<?>) {
+				result = result.removedFirst((AppenderChannel.RemoveIdentifier<Object>) value);
+			}
+			else {
+				values.add(value);
+			}
+		}
+		return new Removal(result, values);
 	}
 
 }
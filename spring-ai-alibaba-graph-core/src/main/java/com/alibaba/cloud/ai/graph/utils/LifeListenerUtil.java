@@ -17,10 +17,15 @@ package com.alibaba.cloud.ai.graph.utils;
 
 import com.alibaba.cloud.ai.graph.GraphLifecycleListener;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEvent;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.*;
@@ -36,6 +41,68 @@ public class LifeListenerUtil {
 
 	private static final Logger log = LoggerFactory.getLogger(LifeListenerUtil.class);
 
+	/**
+	 * Notifies the given listeners of a lifecycle event.
+	 * <p>
+	 * Listeners using {@link GraphLifecycleListener.Delivery#SYNC} delivery are invoked
+	 * in place with the live state. Listeners using
+	 * {@link GraphLifecycleListener.Delivery#ASYNC} delivery get an event carrying a
+	 * snapshot of the state, published to the given bus; the snapshot is taken once and
+	 * shared by all of them. Exceptions thrown by a listener are logged and do not
+	 * prevent the remaining listeners from being notified.
+	 * @param listeners the listeners to notify, in notification order
+	 * @param eventBus the bus delivering events to asynchronous listeners
+	 * @param scene the event type (START, END, ERROR, NODE_BEFORE, NODE_AFTER)
+	 * @param nodeId the id of the node the event refers to
+	 * @param state the current state of the graph
+	 * @param runnableConfig the configuration for the runnable task
+	 * @param e the error, if any
+	 */
+	public static void notifyListeners(Iterator<GraphLifecycleListener> listeners, LifecycleEventBus eventBus,
+			String scene, String nodeId, Map<String, Object> state, RunnableConfig runnableConfig, Throwable e) {
+		LifecycleEvent syncEvent = null;
+		LifecycleEvent asyncEvent = null;
+		while (listeners.hasNext()) {
+			GraphLifecycleListener listener = listeners.next();
+			try {
+				if (listener.delivery() == GraphLifecycleListener.Delivery.ASYNC) {
+					if (asyncEvent == null) {
+						asyncEvent = new LifecycleEvent(scene, nodeId, SerializationUtils.snapshotMap(state),
+								runnableConfig, e, SystemClock.now());
+					}
+					eventBus.publish(listener, asyncEvent);
+				}
+				else {
+					if (syncEvent == null) {
+						syncEvent = new LifecycleEvent(scene, nodeId, state, runnableConfig, e, SystemClock.now());
+					}
+					syncEvent.dispatchTo(listener);
+				}
+			}
+			catch (Exception ex) {
+				log.error("Error in listener", ex);
+			}
+		}
+	}
+
+	/**
+	 * Returns an iterator over the given listeners, in registration order or in reverse
+	 * registration order, without copying them.
+	 * @param listeners the registered listeners
+	 * @param lifo whether the last registered listener comes first
+	 * @return the iterator
+	 */
+	public static Iterator<GraphLifecycleListener> iterator(Collection<GraphLifecycleListener> listeners,
+			boolean lifo) {
+		if (lifo && listeners instanceof Deque<GraphLifecycleListener> deque) {
+			return deque.descendingIterator();
+		}
+		if (lifo) {
+			return new ArrayDeque<>(listeners).descendingIterator();
+		}
+		return listeners.iterator();
+	}
+
 	/**
 	 * Process graph lifecycle listeners in LIFO (Last In, First Out) order. This method
 	 * recursively processes all listeners in the deque, invoking the appropriate callback
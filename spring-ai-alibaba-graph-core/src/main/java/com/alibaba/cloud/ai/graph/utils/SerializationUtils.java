@@ -15,11 +15,13 @@
  */
 package com.alibaba.cloud.ai.graph.utils;
 
+import com.alibaba.cloud.ai.graph.state.AppendableList;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -138,4 +140,43 @@ public class SerializationUtils {
 			return value;
 		}
 	}
+
+	/**
+	 * Creates a copy-on-write snapshot of a state map.
+	 * <p>
+	 * Unlike {@link #deepCopyMap(Map)}, only the state map itself is copied, since it is
+	 * the only container the graph writes to in place. Its values are shared: key
+	 * strategies never mutate the current value of a key but return a new one, copying
+	 * only what they change, and {@link AppendableList}s, whose {@link List} methods do
+	 * mutate them, are shared in O(1) through {@link AppendableList#snapshot()}. Updates
+	 * applied to the original state are therefore never visible in the snapshot, while
+	 * in-place changes made by a node to the values themselves are.
+	 *
+	 * @param original the original Map object
+	 * @return the snapshot, returns null if the original object is null
+	 */
+	public static Map<String, Object> snapshotMap(Map<String, Object> original) {
+		if (original == null) {
+			return null;
+		}
+		Map<String, Object> copy = new HashMap<>(Math.max(16, (int) (original.size() / 0.75f) + 1));
+		for (Map.Entry<String, Object> entry : original.entrySet()) {
+			copy.put(entry.getKey(), snapshotValue(entry.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * Creates a copy-on-write snapshot of a state value, see {@link #snapshotMap(Map)}.
+	 *
+	 * @param value the value to snapshot
+	 * @return the snapshot of an {@link AppendableList}, or the value itself
+	 */
+	public static Object snapshotValue(Object value) {
+		if (value instanceof AppendableList<?> list) {
+			return list.snapshot();
+		}
+		return value;
+	}
+
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.file.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.serializer.AgentInstructionMessage;
+import com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.plain_text.jackson.SpringAIJacksonStateSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.document.Document;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.NotSerializableException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryStateSerializerTest {
+
+	private final BinaryStateSerializer serializer = new BinaryStateSerializer();
+
+	private static List<Message> history(int size) {
+		List<Message> messages = new ArrayList<>();
+		messages.add(new SystemMessage("You are a helpful assistant."));
+		for (int i = 0; i < size; i++) {
+			messages.add(UserMessage.builder().text("question " + i).metadata(Map.of("turn", i)).build());
+			if (i % 3 == 0) {
+				var toolCall = new AssistantMessage.ToolCall("call-" + i, "function", "search", "{\"q\":\"" + i + "\"}");
+				messages.add(AssistantMessage.builder().content("").toolCalls(List.of(toolCall)).build());
+				messages.add(ToolResponseMessage.builder()
+					.responses(List.of(new ToolResponseMessage.ToolResponse("call-" + i, "search", "result " + i)))
+					.build());
+			}
+			messages.add(new AssistantMessage("answer " + i, Map.of("model", "qwen-max", "finishReason", "STOP")));
+		}
+		return messages;
+	}
+
+	@Test
+	public void testPrimitivesAndCollections() throws Exception {
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("list", List.of(1, 2L, 3.5, 4.5f, (short) 5, (byte) 6, 'c'));
+		nested.put("set", new LinkedHashSet<>(List.of("a", "b")));
+		nested.put("null", null);
+		nested.put(null, "null key");
+
+		Map<String, Object> data = new HashMap<>();
+		data.put("int", Integer.MIN_VALUE);
+		data.put("long", Long.MAX_VALUE);
+		data.put("negative", -1);
+		data.put("boolean", true);
+		data.put("string", "x".repeat(100_000));
+		data.put("unicode", "你好, 世界 😀");
+		data.put("empty", "");
+		data.put("nested", nested);
+		data.put("enum", MessageType.TOOL);
+		data.put("serializable", new BigDecimal("1.25"));
+		data.put("duration", Duration.ofSeconds(3));
+
+		Map<String, Object> restored = serializer.dataFromBytes(serializer.dataToBytes(data));
+		assertEquals(data, restored);
+		assertArrayEquals(new byte[] { 1, 2, 3 },
+				(byte[]) serializer.dataFromBytes(serializer.dataToBytes(Map.of("bytes", new byte[] { 1, 2, 3 })))
+					.get("bytes"));
+	}
+
+	@Test
+	public void testMessagesAndDocuments() throws Exception {
+		List<Message> messages = new ArrayList<>(history(4));
+		messages.add(new AgentInstructionMessage("instruction", Map.of("agent", "writer")));
+		messages.add(UserMessage.builder()
+			.text("describe this image")
+			.media(Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data("https://example.com/a.png").build())
+			.build());
+		Document document = Document.builder()
+			.id("doc-1")
+			.text("retrieved text")
+			.metadata(Map.of("source", "kb"))
+			.score(0.75)
+			.build();
+
+		Map<String, Object> restored = serializer
+			.dataFromBytes(serializer.dataToBytes(Map.of("messages", messages, "document", document)));
+
+		assertEquals(messages, restored.get("messages"));
+		Document restoredDocument = assertInstanceOf(Document.class, restored.get("document"));
+		assertEquals(document.getId(), restoredDocument.getId());
+		assertEquals(document.getText(), restoredDocument.getText());
+		assertEquals(document.getScore(), restoredDocument.getScore());
+		assertEquals(document.getMetadata(), restoredDocument.getMetadata());
+	}
+
+	@Test
+	public void testCustomCodec() throws Exception {
+		record Point(int x, int y) {
+		}
+		serializer.register(Point.class, new BinaryStateSerializer.Codec<>() {
+
+			@Override
+			public void write(Point value, BinaryStateSerializer.Encoder out) throws java.io.IOException {
+				out.writeVarInt(value.x());
+				out.writeVarInt(value.y());
+			}
+
+			@Override
+			public Point read(BinaryStateSerializer.Decoder in) throws java.io.IOException {
+				return new Point(in.readVarInt(), in.readVarInt());
+			}
+
+		});
+		Map<String, Object> data = Map.of("points", List.of(new Point(1, 2), new Point(3, 4)));
+		assertEquals(data, serializer.dataFromBytes(serializer.dataToBytes(data)));
+	}
+
+	@Test
+	public void testUnsupportedType() {
+		Map<String, Object> data = Map.of("thread", new Object());
+		assertThrows(NotSerializableException.class, () -> serializer.dataToBytes(data));
+	}
+
+	@Test
+	public void testSmallerThanJackson() throws Exception {
+		Map<String, Object> data = Map.of("messages", history(200));
+		int binarySize = serializer.dataToBytes(data).length;
+		int jacksonSize = new SpringAIJacksonStateSerializer(OverAllState::new).dataToBytes(data).length;
+		assertTrue(binarySize * 2 < jacksonSize,
+				() -> "binary state is " + binarySize + " bytes, json state is " + jacksonSize + " bytes");
+	}
+
+	@Test
+	public void testFileSystemSaver(@TempDir Path folder) throws Exception {
+		FileSystemSaver saver = FileSystemSaver.builder().targetFolder(folder).stateSerializer(serializer).build();
+		RunnableConfig config = RunnableConfig.builder().threadId("binary").build();
+		Map<String, Object> state = Map.of("messages", history(10), "step", 3, "tags", Set.of("a"));
+		Checkpoint checkpoint = Checkpoint.builder().nodeId("agent").nextNodeId(END).state(state).build();
+		saver.put(config, checkpoint);
+
+		FileSystemSaver reloaded = FileSystemSaver.builder().targetFolder(folder).stateSerializer(serializer).build();
+		assertEquals(state, reloaded.get(config).orElseThrow().getState());
+	}
+
+}
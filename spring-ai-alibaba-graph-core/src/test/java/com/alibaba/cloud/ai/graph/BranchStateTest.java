@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the state given to the branches of a parallel node.
+ */
+public class BranchStateTest {
+
+	@Test
+	void testBranchReadsThroughAndKeepsWritesPrivate() {
+		Map<String, Object> data = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			data.put("key" + i, i);
+		}
+		OverAllState parent = new OverAllState(data);
+		parent.registerKeyAndStrategy("key0", new ReplaceStrategy());
+
+		OverAllState branch = parent.branch();
+		OverAllState sibling = parent.branch();
+		branch.updateState(Map.of("key0", -1, "added", "value", "key1", OverAllState.MARK_FOR_REMOVAL));
+		branch.registerKeyAndStrategy("added", new AppendStrategy());
+
+		assertEquals(-1, branch.value("key0", 0));
+		assertEquals("value", branch.value("added", ""));
+		assertFalse(branch.data().containsKey("key1"));
+		assertEquals(100, branch.data().size());
+
+		assertEquals(0, parent.value("key0", -100));
+		assertEquals(1, parent.value("key1", -100));
+		assertNull(parent.data().get("added"));
+		assertFalse(parent.containStrategy("added"));
+		assertEquals(data, sibling.data());
+	}
+
+	@Test
+	void testBranchesReadTheStateAsItWasWhenForked() {
+		OverAllState parent = new OverAllState(new HashMap<>(Map.of("key", "forked")));
+		parent.registerKeyAndStrategy("key", new ReplaceStrategy());
+		parent.registerKeyAndStrategy("messages", new AppendStrategy());
+		parent.updateState(Map.of("messages", List.of("first")));
+
+		List<OverAllState> branches = parent.branches(2);
+		// the graph moves on while a straggler branch is still running
+		parent.updateState(Map.of("key", "updated", "messages", "second", "added", "value"));
+		parent.registerKeyAndStrategy("added", new ReplaceStrategy());
+
+		for (OverAllState branch : branches) {
+			assertEquals("forked", branch.value("key", ""));
+			assertEquals(List.of("first"), branch.value("messages", List.of()));
+			assertFalse(branch.data().containsKey("added"));
+			assertFalse(branch.containStrategy("added"));
+		}
+		assertEquals("updated", parent.value("key", ""));
+		assertEquals(List.of("first", "second"), parent.value("messages", List.of()));
+	}
+
+	@Test
+	void testBranchMapOnlyStoresWrites() {
+		Map<String, Object> parent = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			parent.put("key" + i, i);
+		}
+		BranchMap<Object> branch = new BranchMap<>(parent);
+
+		branch.put("key0", -1);
+		branch.remove("key1");
+		branch.entrySet().removeIf(entry -> entry.getKey().equals("key2"));
+
+		assertEquals(3, branch.deltaSize());
+		assertEquals(998, branch.size());
+		assertEquals(1000, parent.size());
+	}
+
+	@Test
+	void testBranchClear() {
+		OverAllState branch = new OverAllState(Map.of("a", 1, "b", 2)).branch();
+
+		branch.clear();
+		branch.updateState(Map.of("c", 3));
+
+		assertEquals(Map.of("c", 3), branch.data());
+		assertTrue(branch.value("a").isEmpty());
+	}
+
+	@Test
+	void testParallelResultsAreMergedWithKeyStrategies() throws Exception {
+		var workflow = new StateGraph(() -> Map.of("messages", new AppendStrategy(), "last", new ReplaceStrategy()));
+		for (String branch : List.of("a", "b", "c")) {
+			workflow.addNode(branch, node_async(state -> Map.of("messages", branch, "last", branch)));
+			workflow.addEdge(START, branch);
+			workflow.addEdge(branch, END);
+		}
+		CompiledGraph graph = workflow.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+
+		OverAllState state = graph.invoke(Map.of("messages", "start")).orElseThrow();
+
+		assertEquals(List.of("start", "a", "b", "c"), state.value("messages", List.of()));
+		assertEquals("c", state.value("last", ""));
+	}
+
+}
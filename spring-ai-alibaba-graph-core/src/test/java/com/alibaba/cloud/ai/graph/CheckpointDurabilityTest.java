@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the checkpoint durability modes of {@link CompileConfig}.
+ */
+public class CheckpointDurabilityTest {
+
+	/**
+	 * A saver taking some time to write checkpoints and recording the threads writing
+	 * them.
+	 */
+	static class SlowSaver implements BaseCheckpointSaver {
+
+		final MemorySaver delegate = MemorySaver.builder().build();
+
+		final List<String> writerThreads = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Collection<Checkpoint> list(RunnableConfig config) {
+			return delegate.list(config);
+		}
+
+		@Override
+		public Optional<Checkpoint> get(RunnableConfig config) {
+			return delegate.get(config);
+		}
+
+		@Override
+		public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+			writerThreads.add(Thread.currentThread().getName());
+			Thread.sleep(20);
+			return delegate.put(config, checkpoint);
+		}
+
+		@Override
+		public Tag release(RunnableConfig config) throws Exception {
+			return delegate.release(config);
+		}
+
+	}
+
+	private static CompiledGraph chain(BaseCheckpointSaver saver, CompileConfig.CheckpointDurability durability,
+			String... interruptsBefore) throws Exception {
+		var workflow = new StateGraph(() -> Map.of("steps", new AppendStrategy()));
+		String previous = START;
+		for (String nodeId : List.of("a", "b", "c")) {
+			workflow.addNode(nodeId, node_async(state -> Map.of("steps", nodeId)));
+			workflow.addEdge(previous, nodeId);
+			previous = nodeId;
+		}
+		workflow.addEdge(previous, END);
+		return workflow.compile(CompileConfig.builder()
+			.saverConfig(SaverConfig.builder().register(saver).build())
+			.checkpointDurability(durability)
+			.interruptBefore(interruptsBefore)
+			.build());
+	}
+
+	@Test
+	void testAsyncWritesEveryCheckpointInBackground() throws Exception {
+		SlowSaver syncSaver = new SlowSaver();
+		SlowSaver asyncSaver = new SlowSaver();
+		RunnableConfig config = RunnableConfig.builder().threadId("async").build();
+
+		chain(syncSaver, CompileConfig.CheckpointDurability.SYNC).invoke(Map.of(), config);
+		OverAllState state = chain(asyncSaver, CompileConfig.CheckpointDurability.ASYNC)
+			.invoke(Map.of(), config)
+			.orElseThrow();
+
+		assertEquals(List.of("a", "b", "c"), state.value("steps", List.of()));
+		// every checkpoint has been written by the time the execution completes
+		List<Checkpoint> expected = List.copyOf(syncSaver.list(config));
+		List<Checkpoint> written = List.copyOf(asyncSaver.list(config));
+		assertEquals(expected.size(), written.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getNodeId(), written.get(i).getNodeId());
+			assertEquals(expected.get(i).getNextNodeId(), written.get(i).getNextNodeId());
+		}
+		assertTrue(asyncSaver.writerThreads.stream().allMatch(name -> name.startsWith("graph-checkpoint-writer-")));
+		assertFalse(syncSaver.writerThreads.stream().anyMatch(name -> name.startsWith("graph-checkpoint-writer-")));
+	}
+
+	@Test
+	void testExitWritesLastCheckpointOnly() throws Exception {
+		SlowSaver saver = new SlowSaver();
+		RunnableConfig config = RunnableConfig.builder().threadId("exit").build();
+
+		chain(saver, CompileConfig.CheckpointDurability.EXIT).invoke(Map.of(), config);
+
+		Collection<Checkpoint> checkpoints = saver.list(config);
+		assertEquals(1, checkpoints.size());
+		assertEquals("c", checkpoints.iterator().next().getNodeId());
+	}
+
+	@Test
+	void testExitWritesCheckpointOnInterrupt() throws Exception {
+		SlowSaver saver = new SlowSaver();
+		CompiledGraph graph = chain(saver, CompileConfig.CheckpointDurability.EXIT, "c");
+		RunnableConfig config = RunnableConfig.builder().threadId("interrupted").build();
+
+		graph.invoke(Map.of(), config);
+
+		assertEquals(1, saver.list(config).size());
+		assertEquals("c", saver.get(config).orElseThrow().getNextNodeId());
+
+		RunnableConfig resumeConfig = RunnableConfig.builder(config)
+			.addMetadata(RunnableConfig.HUMAN_FEEDBACK_METADATA_KEY, "placeholder")
+			.build();
+		OverAllState state = graph.invoke(Map.of(), resumeConfig).orElseThrow();
+		assertEquals(List.of("a", "b", "c"), state.value("steps", List.of()));
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link CompiledGraph#batch(List, BatchOptions)} and
+ * {@link CompiledGraph#batchAsFlux(List, BatchOptions)}.
+ */
+public class CompiledGraphBatchTest {
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	private CompiledGraph squareGraph() throws Exception {
+		var workflow = new StateGraph(() -> Map.of("n", new ReplaceStrategy(), "result", new ReplaceStrategy()))
+			.addNode("square", node_async(state -> {
+				int n = state.value("n", 0);
+				if (n < 0) {
+					throw new IllegalArgumentException("negative input " + n);
+				}
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(n == 0 ? 200 : 20);
+				}
+				finally {
+					running.decrementAndGet();
+				}
+				return Map.of("result", n * n);
+			}))
+			.addEdge(START, "square")
+			.addEdge("square", END);
+		return workflow.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+	}
+
+	private static List<Map<String, Object>> inputs(int... values) {
+		return IntStream.of(values).<Map<String, Object>>mapToObj(n -> Map.of("n", n)).toList();
+	}
+
+	@Test
+	void testBatchLimitsConcurrencyAndKeepsInputOrder() throws Exception {
+		List<BatchResult> results = squareGraph().batch(inputs(0, 1, 2, 3, 4, 5, 6, 7),
+				BatchOptions.builder().maxConcurrency(3).build());
+
+		assertEquals(8, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			BatchResult result = results.get(i);
+			assertEquals(i, result.index());
+			assertTrue(result.isSuccess());
+			assertEquals(i * i, result.state().orElseThrow().value("result", -1));
+		}
+		assertTrue(maxRunning.get() > 1);
+		assertTrue(maxRunning.get() <= 3);
+		assertEquals(8, results.stream().map(result -> result.config().threadId().orElseThrow()).distinct().count());
+	}
+
+	@Test
+	void testBatchAsFluxEmitsAsCompleted() throws Exception {
+		List<Integer> indexes = squareGraph().batchAsFlux(inputs(0, 1, 2),
+				BatchOptions.builder().maxConcurrency(3).ordered(false).build())
+			.map(BatchResult::index)
+			.collectList()
+			.block();
+
+		assertEquals(3, indexes.size());
+		// the first item sleeps the longest
+		assertEquals(0, indexes.get(2));
+	}
+
+	@Test
+	void testFailuresAreIsolatedPerItem() throws Exception {
+		CompiledGraph graph = squareGraph();
+
+		List<BatchResult> results = graph.batch(inputs(1, -1, 3), BatchOptions.builder()
+			.config(RunnableConfig.builder().threadId("job").build())
+			.build());
+
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertTrue(results.get(1).state().isEmpty());
+		assertEquals(9, results.get(2).state().orElseThrow().value("result", -1));
+		assertEquals("job-1", results.get(1).config().threadId().orElseThrow());
+
+		assertThrows(Exception.class,
+				() -> graph.batch(inputs(1, -1, 3), BatchOptions.builder().failFast(true).build()));
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ExecutionPlan}.
+ */
+public class ExecutionPlanTest {
+
+	@Test
+	void testPlanResolvesNodesEdgesAndInterrupts() throws Exception {
+		var workflow = new StateGraph()
+			.addNode("agent", AsyncNodeActionWithConfig.node_async((state, config) -> Map.of()))
+			.addNode("tools", AsyncNodeActionWithConfig.node_async((state, config) -> Map.of()))
+			.addEdge(START, "agent")
+			.addConditionalEdges("agent", edge_async(state -> "continue"), Map.of("continue", "tools", "end", END))
+			.addEdge("tools", "agent");
+		var graph = workflow.compile(CompileConfig.builder().interruptBefore("tools").interruptAfter("agent").build());
+		ExecutionPlan plan = graph.executionPlan;
+
+		int agent = plan.indexOf("agent");
+		int tools = plan.indexOf("tools");
+		assertEquals(ExecutionPlan.START_INDEX, plan.indexOf(START));
+		assertEquals(ExecutionPlan.END_INDEX, plan.indexOf(END));
+		assertEquals(ExecutionPlan.UNKNOWN, plan.indexOf("missing"));
+		assertEquals(ExecutionPlan.UNKNOWN, plan.indexOf(null));
+		assertEquals(4, plan.size());
+
+		assertEquals(new ExecutionPlan.Target("agent", agent), plan.edgeTarget(ExecutionPlan.START_INDEX));
+		assertEquals(new ExecutionPlan.Target("agent", agent), plan.edgeTarget(tools));
+		assertNull(plan.edgeTarget(agent));
+		assertEquals(new ExecutionPlan.Target("tools", tools), plan.routeTarget(agent, "continue"));
+		assertEquals(new ExecutionPlan.Target(END, ExecutionPlan.END_INDEX), plan.routeTarget(agent, "end"));
+		assertNull(plan.routeTarget(agent, "other"));
+		assertNotNull(plan.actionFactory(agent));
+		assertNull(plan.actionFactory(ExecutionPlan.END_INDEX));
+
+		assertTrue(plan.interruptBefore(tools));
+		assertFalse(plan.interruptBefore(agent));
+		assertTrue(plan.interruptAfter(agent));
+		assertFalse(plan.interruptAfter(ExecutionPlan.UNKNOWN));
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that the graph execution loop does not grow with the number of iterations.
+ */
+public class GraphExecutionLoopTest {
+
+	private static final int HOPS = 5_000;
+
+	private CompiledGraph loopGraph(boolean async, int recursionLimit) throws Exception {
+		AsyncNodeActionWithConfig increment = (state, config) -> {
+			int count = state.value("count", 0);
+			if (async) {
+				return CompletableFuture.supplyAsync(() -> Map.of("count", count + 1));
+			}
+			return CompletableFuture.completedFuture(Map.of("count", count + 1));
+		};
+		var workflow = new StateGraph(() -> Map.of("count", new ReplaceStrategy()))
+			.addNode("increment", increment)
+			.addEdge(START, "increment")
+			.addConditionalEdges("increment",
+					edge_async(state -> state.value("count", 0) < HOPS ? "loop" : "exit"),
+					Map.of("loop", "increment", "exit", END));
+		return workflow.compile(CompileConfig.builder()
+			.saverConfig(SaverConfig.builder().build())
+			.recursionLimit(recursionLimit)
+			.build());
+	}
+
+	private List<NodeOutput> runOnSmallStack(CompiledGraph graph) throws Exception {
+		AtomicReference<List<NodeOutput>> outputs = new AtomicReference<>();
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread thread = new Thread(null, () -> {
+			try {
+				outputs.set(graph.stream(Map.of()).collectList().block());
+			}
+			catch (Throwable e) {
+				error.set(e);
+			}
+		}, "small-stack", 256 * 1024);
+		thread.start();
+		thread.join();
+		assertNull(error.get());
+		return outputs.get();
+	}
+
+	@Test
+	void testThousandsOfSynchronousHops() throws Exception {
+		List<NodeOutput> outputs = runOnSmallStack(loopGraph(false, HOPS * 2));
+
+		// START, every hop and END
+		assertEquals(HOPS + 2, outputs.size());
+		assertEquals(HOPS, outputs.get(outputs.size() - 1).state().value("count", 0));
+	}
+
+	@Test
+	void testThousandsOfAsynchronousHops() throws Exception {
+		List<NodeOutput> outputs = runOnSmallStack(loopGraph(true, HOPS * 2));
+
+		assertEquals(HOPS + 2, outputs.size());
+		assertEquals(HOPS, outputs.get(outputs.size() - 1).state().value("count", 0));
+	}
+
+	@Test
+	void testRecursionLimitStopsLoop() throws Exception {
+		List<NodeOutput> outputs = loopGraph(false, 100).stream(Map.of()).collectList().block();
+
+		// the START step counts as one iteration
+		assertEquals(99, outputs.get(outputs.size() - 1).state().value("count", 0));
+	}
+
+}
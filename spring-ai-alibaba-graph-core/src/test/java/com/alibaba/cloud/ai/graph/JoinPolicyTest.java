@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the join policies of parallel edges.
+ */
+public class JoinPolicyTest {
+
+	private static final long SLOW = 10_000;
+
+	private final CountDownLatch interrupted = new CountDownLatch(1);
+
+	/**
+	 * Builds a fan-out whose branches sleep for the given durations, or fail when the
+	 * duration is negative.
+	 */
+	private CompiledGraph fanOut(JoinPolicy joinPolicy, long... sleeps) throws Exception {
+		Map<String, KeyStrategy> keyStrategies = new HashMap<>();
+		keyStrategies.put("done", new AppendStrategy());
+		var workflow = new StateGraph(() -> keyStrategies);
+		List<String> branches = new ArrayList<>();
+		for (int i = 0; i < sleeps.length; i++) {
+			String nodeId = "branch" + i;
+			long sleep = sleeps[i];
+			keyStrategies.put(nodeId, new ReplaceStrategy());
+			workflow.addNode(nodeId, node_async(state -> {
+				if (sleep < 0) {
+					throw new IllegalStateException(nodeId + " failed");
+				}
+				try {
+					Thread.sleep(sleep);
+				}
+				catch (InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return Map.of(nodeId, true, "done", nodeId);
+			}));
+			workflow.addEdge(nodeId, END);
+			branches.add(nodeId);
+		}
+		workflow.addParallelEdges(START, branches, joinPolicy);
+		return workflow.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+	}
+
+	@Test
+	void testAllMergesInBranchOrder() throws Exception {
+		OverAllState state = fanOut(JoinPolicy.all(), 150, 100, 50, 0).invoke(Map.of()).orElseThrow();
+
+		assertEquals(List.of("branch0", "branch1", "branch2", "branch3"), state.value("done", List.of()));
+	}
+
+	@Test
+	void testAnyCancelsSlowBranches() throws Exception {
+		long start = System.nanoTime();
+		OverAllState state = fanOut(JoinPolicy.any(), SLOW, 10, SLOW).invoke(Map.of()).orElseThrow();
+
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW / 2));
+		assertEquals(List.of("branch1"), state.value("done", List.of()));
+		assertFalse(state.value("branch0").isPresent());
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testQuorumToleratesFailures() throws Exception {
+		OverAllState state = fanOut(JoinPolicy.quorum(), -1, 10, 20, 30, SLOW).invoke(Map.of()).orElseThrow();
+
+		assertEquals(List.of("branch1", "branch2", "branch3"), state.value("done", List.of()));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testDeadlineReturnsPartialResults() throws Exception {
+		OverAllState state = fanOut(JoinPolicy.deadline(Duration.ofMillis(300)), 10, SLOW, 20)
+			.invoke(Map.of())
+			.orElseThrow();
+
+		assertEquals(List.of("branch0", "branch2"), state.value("done", List.of()));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testAllFailsFast() throws Exception {
+		CompiledGraph graph = fanOut(JoinPolicy.all(), SLOW, -1);
+
+		long start = System.nanoTime();
+		Exception error = assertThrows(Exception.class, () -> graph.invoke(Map.of()));
+
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW / 2));
+		assertTrue(String.valueOf(error.getMessage()).contains("branch1 failed")
+				|| String.valueOf(error.getCause()).contains("branch1 failed"), String.valueOf(error));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testRequiredBranches() {
+		assertEquals(5, JoinPolicy.all().requiredBranches(5));
+		assertEquals(1, JoinPolicy.any().requiredBranches(5));
+		assertEquals(3, JoinPolicy.quorum().requiredBranches(5));
+		assertEquals(2, JoinPolicy.firstN(3).requiredBranches(2));
+		assertEquals(Duration.ofSeconds(1), JoinPolicy.firstN(2).withDeadline(Duration.ofSeconds(1)).deadline().orElseThrow());
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEvent;
+import com.alibaba.cloud.ai.graph.listener.LifecycleEventBus;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.NODE_AFTER;
+import static com.alibaba.cloud.ai.graph.StateGraph.NODE_BEFORE;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the delivery of lifecycle events through the {@link LifecycleEventBus}.
+ */
+public class LifecycleEventBusTest {
+
+	private static final GraphLifecycleListener NOOP_ASYNC = new GraphLifecycleListener() {
+		@Override
+		public Delivery delivery() {
+			return Delivery.ASYNC;
+		}
+	};
+
+	private static LifecycleEvent event(String scene) {
+		return new LifecycleEvent(scene, "node", Map.of(), RunnableConfig.builder().build(), null,
+				System.currentTimeMillis());
+	}
+
+	@Test
+	void testAsyncListenerReceivesBatchesWithStateSnapshots() throws Exception {
+		List<List<LifecycleEvent>> batches = new CopyOnWriteArrayList<>();
+		List<Thread> asyncThreads = new CopyOnWriteArrayList<>();
+		List<String> syncScenes = new CopyOnWriteArrayList<>();
+		LifecycleEventBus bus = LifecycleEventBus.builder().batchSize(64).build();
+
+		var workflow = new StateGraph(() -> Map.of("a", new ReplaceStrategy(), "b", new ReplaceStrategy()))
+			.addNode("a", node_async(state -> Map.of("a", 1)))
+			.addNode("b", node_async(state -> Map.of("b", 2)))
+			.addEdge(START, "a")
+			.addEdge("a", "b")
+			.addEdge("b", END);
+		CompiledGraph graph = workflow.compile(CompileConfig.builder()
+			.saverConfig(SaverConfig.builder().build())
+			.lifecycleEventBus(bus)
+			.withLifecycleListener(new GraphLifecycleListener() {
+				@Override
+				public Delivery delivery() {
+					return Delivery.ASYNC;
+				}
+
+				@Override
+				public void onEvents(List<LifecycleEvent> events) {
+					asyncThreads.add(Thread.currentThread());
+					batches.add(events);
+				}
+			})
+			.withLifecycleListener(new GraphLifecycleListener() {
+				@Override
+				public void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+					syncScenes.add(NODE_BEFORE + ":" + nodeId);
+				}
+			})
+			.build());
+
+		Thread caller = Thread.currentThread();
+		graph.invoke(Map.of()).orElseThrow();
+		// synchronous listeners have been notified by the time the graph completes
+		assertEquals(List.of(NODE_BEFORE + ":a", NODE_BEFORE + ":b"), syncScenes);
+
+		assertTrue(bus.flush(Duration.ofSeconds(5)));
+		List<LifecycleEvent> events = new ArrayList<>();
+		batches.forEach(events::addAll);
+		assertEquals(List.of(START, NODE_BEFORE, NODE_AFTER, NODE_BEFORE, NODE_AFTER, END),
+				events.stream().map(LifecycleEvent::scene).toList());
+		for (Thread thread : asyncThreads) {
+			assertNotSame(caller, thread);
+		}
+
+		LifecycleEvent beforeB = events.get(3);
+		assertEquals("b", beforeB.nodeId());
+		assertEquals(1, beforeB.state().get("a"));
+		assertFalse(beforeB.state().containsKey("b"));
+		assertEquals(events.size(), bus.deliveredEvents());
+		assertEquals(0, bus.droppedEvents());
+		assertEquals(0, bus.queueDepth());
+	}
+
+	@Test
+	void testDropPolicyCountsDroppedEvents() {
+		List<Runnable> pending = new ArrayList<>();
+		LifecycleEventBus bus = LifecycleEventBus.builder()
+			.capacity(2)
+			.batchSize(1)
+			.overflowPolicy(LifecycleEventBus.OverflowPolicy.DROP)
+			.executor(pending::add)
+			.build();
+
+		for (int i = 0; i < 5; i++) {
+			bus.publish(NOOP_ASYNC, event(NODE_BEFORE));
+		}
+		assertEquals(2, bus.queueDepth());
+		assertEquals(2, bus.publishedEvents());
+		assertEquals(3, bus.droppedEvents());
+
+		pending.remove(0).run();
+		assertEquals(0, bus.queueDepth());
+		assertEquals(2, bus.deliveredEvents());
+		assertEquals(2, bus.deliveredBatches());
+	}
+
+	@Test
+	void testSamplePolicyFavoursGraphEvents() {
+		List<Runnable> pending = new ArrayList<>();
+		LifecycleEventBus bus = LifecycleEventBus.builder()
+			.capacity(4)
+			.overflowPolicy(LifecycleEventBus.OverflowPolicy.SAMPLE)
+			.sampleRate(2)
+			.executor(pending::add)
+			.build();
+
+		assertTrue(bus.publish(NOOP_ASYNC, event(NODE_BEFORE)));
+		assertTrue(bus.publish(NOOP_ASYNC, event(NODE_AFTER)));
+		// the buffer is half full: one node event out of two is kept
+		assertTrue(bus.publish(NOOP_ASYNC, event(NODE_BEFORE)));
+		assertFalse(bus.publish(NOOP_ASYNC, event(NODE_AFTER)));
+		assertTrue(bus.publish(NOOP_ASYNC, event(END)));
+		// the buffer is full
+		assertFalse(bus.publish(NOOP_ASYNC, event(END)));
+
+		assertEquals(4, bus.queueDepth());
+		assertEquals(2, bus.droppedEvents());
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.executor.Bulkhead;
+import com.alibaba.cloud.ai.graph.executor.NodeActionExecutors;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the executors running parallel branches and offloaded node actions.
+ */
+public class NodeActionExecutorTest {
+
+	private static final int BRANCHES = 6;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	private final Map<String, Thread> threads = new ConcurrentHashMap<>();
+
+	private CompiledGraph fanOutGraph(CompileConfig.Builder builder) throws Exception {
+		Map<String, KeyStrategy> keyStrategies = new HashMap<>();
+		var workflow = new StateGraph(() -> keyStrategies);
+		for (int i = 0; i < BRANCHES; i++) {
+			String nodeId = "branch" + i;
+			keyStrategies.put(nodeId, new ReplaceStrategy());
+			workflow.addNode(nodeId, node_async(state -> {
+				threads.put(nodeId, Thread.currentThread());
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(50);
+				}
+				finally {
+					running.decrementAndGet();
+				}
+				return Map.of(nodeId, true);
+			}));
+			workflow.addEdge(START, nodeId);
+			workflow.addEdge(nodeId, END);
+		}
+		return workflow.compile(builder.saverConfig(SaverConfig.builder().build()).build());
+	}
+
+	private static boolean isVirtual(Thread thread) throws Exception {
+		return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+	}
+
+	@Test
+	void testBulkheadLimitsConcurrentBranches() throws Exception {
+		CompiledGraph graph = fanOutGraph(CompileConfig.builder().maxConcurrentNodeActions(2));
+
+		OverAllState state = graph.invoke(Map.of()).orElseThrow();
+
+		for (int i = 0; i < BRANCHES; i++) {
+			assertEquals(true, state.value("branch" + i, false));
+		}
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	void testVirtualThreadExecutorMode() throws Exception {
+		CompiledGraph graph = fanOutGraph(
+				CompileConfig.builder().executorMode(CompileConfig.ExecutorMode.VIRTUAL_THREADS));
+
+		graph.invoke(Map.of()).orElseThrow();
+
+		assertEquals(BRANCHES, threads.size());
+		if (NodeActionExecutors.isVirtualThreadSupported()) {
+			for (Thread thread : threads.values()) {
+				assertTrue(isVirtual(thread));
+			}
+		}
+	}
+
+	@Test
+	void testOffloadBlockingNodeActions() throws Exception {
+		var workflow = new StateGraph(() -> Map.of("thread", new ReplaceStrategy()))
+			.addNode("blocking", node_async(state -> Map.of("thread", Thread.currentThread().getName())))
+			.addEdge(START, "blocking")
+			.addEdge("blocking", END);
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "offload-thread"));
+		try {
+			RunnableConfig config = RunnableConfig.builder().defaultParallelExecutor(executor).build();
+
+			CompiledGraph offloading = workflow.compile(CompileConfig.builder()
+				.saverConfig(SaverConfig.builder().build())
+				.offloadBlockingNodeActions(true)
+				.build());
+			CompiledGraph inline = workflow.compile(CompileConfig.builder()
+				.saverConfig(SaverConfig.builder().build())
+				.build());
+
+			assertEquals("offload-thread", offloading.invoke(Map.of(), config).orElseThrow().value("thread", ""));
+			assertNotEquals("offload-thread", inline.invoke(Map.of(), config).orElseThrow().value("thread", ""));
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void testBulkheadDispatchesQueuedTasksWithoutRecursion() {
+		Bulkhead bulkhead = new Bulkhead(1);
+		// runs every task on the submitting thread, like CallerRunsPolicy
+		Executor callerRuns = bulkhead.wrap(Runnable::run);
+		AtomicInteger completed = new AtomicInteger();
+		AtomicInteger maxDepth = new AtomicInteger();
+		int tasks = 10_000;
+
+		callerRuns.execute(() -> {
+			for (int i = 0; i < tasks; i++) {
+				callerRuns.execute(() -> {
+					maxDepth.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+					completed.incrementAndGet();
+				});
+			}
+			assertEquals(tasks, bulkhead.queued());
+		});
+
+		assertEquals(tasks, completed.get());
+		assertTrue(maxDepth.get() < 100, "stack depth grew to " + maxDepth.get());
+		assertEquals(0, bulkhead.running());
+		assertEquals(0, bulkhead.queued());
+	}
+
+	@Test
+	void testBulkheadNotifiesRejectedQueuedTasks() {
+		Bulkhead bulkhead = new Bulkhead(1);
+		AtomicInteger submissions = new AtomicInteger();
+		Executor rejectingAfterFirst = bulkhead.wrap(task -> {
+			if (submissions.incrementAndGet() > 1) {
+				throw new RejectedExecutionException("rejected");
+			}
+			task.run();
+		});
+		CompletableFuture<Void> queued = new CompletableFuture<>();
+
+		rejectingAfterFirst.execute(() -> rejectingAfterFirst.execute(new Bulkhead.RejectableTask() {
+
+			@Override
+			public void run() {
+				queued.complete(null);
+			}
+
+			@Override
+			public void rejected(RejectedExecutionException ex) {
+				queued.completeExceptionally(ex);
+			}
+
+		}));
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+		assertEquals(0, bulkhead.running());
+	}
+
+	@Test
+	void testBranchesDoNotHoldTheBulkheadWhileWaiting() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Executor bounded = bulkhead.wrap(executor);
+			// each branch completes with work queued on the bulkhead its branch runs in
+			AsyncNodeActionWithConfig action = (state, config) -> CompletableFuture.supplyAsync(() -> Map.of(),
+					bounded);
+			ParallelNode node = new ParallelNode("fork", List.of(action, action), List.of("a", "b"), Map.of(),
+					CompileConfig.builder().build(), bulkhead, JoinPolicy.all());
+			RunnableConfig config = RunnableConfig.builder().defaultParallelExecutor(executor).build();
+
+			Map<String, Object> result = node.actionFactory()
+				.apply(CompileConfig.builder().build())
+				.apply(new OverAllState(Map.of()), config)
+				.get(5, TimeUnit.SECONDS);
+
+			assertEquals(Map.of(), result);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testExecutorModeKeepsTheDefaultParallelExecutor() {
+		Executor executor = Runnable::run;
+		RunnableConfig config = RunnableConfig.builder()
+			.defaultParallelExecutor(executor)
+			.executorMode(CompileConfig.ExecutorMode.VIRTUAL_THREADS)
+			.build();
+
+		assertSame(executor, NodeActionExecutors.resolve(config, null, CompileConfig.builder().build(), null));
+		assertSame(NodeActionExecutors.of(CompileConfig.ExecutorMode.VIRTUAL_THREADS),
+				NodeActionExecutors.resolve(
+						RunnableConfig.builder().executorMode(CompileConfig.ExecutorMode.VIRTUAL_THREADS).build(),
+						null, CompileConfig.builder().build(), null));
+	}
+
+}
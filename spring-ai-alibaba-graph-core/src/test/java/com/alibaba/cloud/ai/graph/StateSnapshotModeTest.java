@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.state.AppendableList;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.MergeStrategy;
+import com.alibaba.cloud.ai.graph.utils.SerializationUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link CompileConfig.SnapshotMode}.
+ */
+public class StateSnapshotModeTest {
+
+	private StateGraph workflow() throws Exception {
+		KeyStrategyFactory keyStrategyFactory = () -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put("messages", new AppendStrategy());
+			return keyStrategyMap;
+		};
+		return new StateGraph(keyStrategyFactory)
+			.addNode("A", AsyncNodeActionWithConfig.node_async((state, config) -> Map.of("messages", "A")))
+			.addNode("B", AsyncNodeActionWithConfig.node_async((state, config) -> Map.of("messages", "B")))
+			.addNode("C", AsyncNodeActionWithConfig.node_async((state, config) -> Map.of("messages", "C")))
+			.addEdge(START, "A")
+			.addEdge("A", "B")
+			.addEdge("B", "C")
+			.addEdge("C", END);
+	}
+
+	private List<List<?>> streamedMessages(CompileConfig.SnapshotMode snapshotMode) throws Exception {
+		var app = workflow().compile(CompileConfig.builder().snapshotMode(snapshotMode).build());
+		return app.stream(Map.of("messages", "start"))
+			.<List<?>>map(output -> (List<?>) output.state().value("messages").orElse(List.of()))
+			.collectList()
+			.block();
+	}
+
+	@Test
+	void testCopyOnWriteIsDefault() {
+		assertEquals(CompileConfig.SnapshotMode.COPY_ON_WRITE, CompileConfig.builder().build().snapshotMode());
+		assertEquals(CompileConfig.SnapshotMode.SERIALIZER_CLONE,
+				CompileConfig.builder(CompileConfig.builder().snapshotMode(CompileConfig.SnapshotMode.SERIALIZER_CLONE).build())
+					.build()
+					.snapshotMode());
+	}
+
+	@Test
+	void testEmittedSnapshotsAreIsolatedFromLaterUpdates() throws Exception {
+		for (CompileConfig.SnapshotMode snapshotMode : CompileConfig.SnapshotMode.values()) {
+			List<List<?>> messages = streamedMessages(snapshotMode);
+
+			assertEquals(List.of("start"), messages.get(0), snapshotMode.name());
+			assertEquals(List.of("start", "A"), messages.get(1), snapshotMode.name());
+			assertEquals(List.of("start", "A", "B"), messages.get(2), snapshotMode.name());
+			assertEquals(List.of("start", "A", "B", "C"), messages.get(messages.size() - 1), snapshotMode.name());
+		}
+	}
+
+	@Test
+	void testSnapshotMapCopiesTheStateAndSharesValues() {
+		Object value = new Object();
+		Map<String, Object> nested = new TreeMap<>(Map.of("list", List.of("a")));
+		AppendableList<Object> history = AppendableList.of(List.of("x", "y"));
+		Map<String, Object> state = new HashMap<>(Map.of("value", value, "nested", nested, "history", history));
+
+		Map<String, Object> snapshot = SerializationUtils.snapshotMap(state);
+		state.put("value", "replaced");
+		state.remove("nested");
+		history.add("z");
+
+		assertSame(value, snapshot.get("value"));
+		assertSame(nested, snapshot.get("nested"));
+		assertInstanceOf(AppendableList.class, snapshot.get("history"));
+		assertEquals(List.of("x", "y"), snapshot.get("history"));
+		assertEquals(List.of("x", "y", "z"), history);
+	}
+
+	@Test
+	void testKeyStrategiesDoNotLeakIntoSnapshots() {
+		OverAllState state = new OverAllState(Map.of("messages", List.of("a"), "merged", Map.of("k", "v")),
+				new HashMap<>(Map.of("messages", new AppendStrategy(), "merged", new MergeStrategy())));
+
+		Map<String, Object> snapshot = SerializationUtils.snapshotMap(state.data());
+		state.updateState(Map.of("messages", "b", "merged", Map.of("k2", "v2")));
+
+		assertEquals(List.of("a"), snapshot.get("messages"));
+		assertEquals(Map.of("k", "v"), snapshot.get("merged"));
+		assertEquals(List.of("a", "b"), state.value("messages").orElseThrow());
+	}
+
+}
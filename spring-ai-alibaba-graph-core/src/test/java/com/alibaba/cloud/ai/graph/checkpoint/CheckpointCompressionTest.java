@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.file.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckpointCompression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckpointCompressionTest {
+
+	private static byte[] text(int sentences) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < sentences; i++) {
+			text.append("The assistant called the search tool and summarized result ")
+				.append(i)
+				.append(" for the user. ");
+		}
+		return text.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> messages(int size) {
+		List<String> messages = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			messages.add("Could you summarize what changed in the quarterly report number " + i + "?");
+		}
+		return messages;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		CheckpointCompression compression = CheckpointCompression.deflate();
+		byte[] payload = text(200);
+
+		byte[] compressed = compression.compress(payload);
+
+		assertTrue(CheckpointCompression.isCompressed(compressed));
+		assertTrue(compressed.length * 4 < payload.length);
+		assertArrayEquals(payload, compression.decompress(compressed));
+		assertEquals(1, compression.compressedPayloads());
+		assertEquals(1, compression.decompressedPayloads());
+		assertTrue(compression.compressionRatio() > 4);
+		assertEquals(payload.length - compressed.length, compression.savedBytes());
+		assertTrue(compression.compressionNanos() > 0);
+	}
+
+	@Test
+	public void testPayloadsStoredAsIs() throws IOException {
+		CheckpointCompression compression = CheckpointCompression.builder().threshold(4096).build();
+		byte[] small = text(10);
+		byte[] random = new byte[8192];
+		new Random(42).nextBytes(random);
+
+		assertSame(small, compression.compress(small));
+		assertSame(random, compression.compress(random));
+		assertSame(random, compression.decompress(random));
+		assertEquals(2, compression.storedPayloads());
+		assertEquals(0, compression.compressedPayloads());
+		assertEquals(1.0, compression.compressionRatio());
+	}
+
+	@Test
+	public void testDictionary() throws IOException {
+		byte[] dictionary = CheckpointCompression.dictionaryOf(messages(20));
+		CheckpointCompression withDictionary = CheckpointCompression.builder()
+			.threshold(0)
+			.dictionary(dictionary)
+			.build();
+		byte[] payload = String.join("\n", messages(3)).getBytes(StandardCharsets.UTF_8);
+
+		byte[] compressed = withDictionary.compress(payload);
+		byte[] compressedWithout = CheckpointCompression.builder().threshold(0).build().compress(payload);
+
+		assertTrue(compressed.length < compressedWithout.length);
+		assertArrayEquals(payload, withDictionary.decompress(compressed));
+		assertThrows(IOException.class, () -> CheckpointCompression.none().decompress(compressed));
+		assertArrayEquals(payload, CheckpointCompression.none().decompress(compressedWithout));
+	}
+
+	@Test
+	public void testCorruptedPayload() throws IOException {
+		byte[] compressed = CheckpointCompression.deflate().compress(text(200));
+		byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+		assertThrows(IOException.class, () -> CheckpointCompression.deflate().decompress(truncated));
+	}
+
+	@Test
+	public void testFileSystemSaver(@TempDir Path folder) throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("compressed").build();
+		Map<String, Object> state = Map.of("messages", messages(200));
+
+		FileSystemSaver plain = FileSystemSaver.builder().targetFolder(folder).build();
+		plain.put(config, Checkpoint.builder().nodeId("agent").nextNodeId(END).state(state).build());
+		Path file = folder.resolve("thread-compressed" + FileSystemSaver.EXTENSION);
+		long plainSize = Files.size(file);
+
+		// Checkpoints written before compression was enabled are still read
+		CheckpointCompression compression = CheckpointCompression.deflate();
+		FileSystemSaver compressing = FileSystemSaver.builder().targetFolder(folder).compression(compression).build();
+		assertEquals(state, compressing.get(config).orElseThrow().getState());
+
+		compressing.put(config, Checkpoint.builder().nodeId("tool").nextNodeId(END).state(state).build());
+		assertTrue(Files.size(file) - plainSize < plainSize / 4);
+		assertEquals(1, compression.compressedPayloads());
+
+		// And compressed ones are read once compression is disabled again
+		FileSystemSaver reloaded = FileSystemSaver.builder().targetFolder(folder).build();
+		assertEquals("tool", reloaded.get(config).orElseThrow().getNodeId());
+		assertFalse(CheckpointCompression.none().isEnabled());
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the asynchronous writes of {@link CheckpointWriter}.
+ */
+public class CheckpointWriterTest {
+
+	/**
+	 * A saver failing the writes of the given checkpoints and, when gated, waiting for a
+	 * permit before each write.
+	 */
+	static class GatedSaver implements BaseCheckpointSaver {
+
+		final MemorySaver delegate = MemorySaver.builder().build();
+
+		final Semaphore permits = new Semaphore(Integer.MAX_VALUE);
+
+		final AtomicInteger puts = new AtomicInteger();
+
+		final int[] failing;
+
+		GatedSaver(int... failing) {
+			this.failing = failing;
+		}
+
+		@Override
+		public Collection<Checkpoint> list(RunnableConfig config) {
+			return delegate.list(config);
+		}
+
+		@Override
+		public Optional<Checkpoint> get(RunnableConfig config) {
+			return delegate.get(config);
+		}
+
+		@Override
+		public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+			permits.acquire();
+			int put = puts.getAndIncrement();
+			for (int index : failing) {
+				if (index == put) {
+					throw new IllegalStateException("write " + put + " failed");
+				}
+			}
+			return delegate.put(config, checkpoint);
+		}
+
+		@Override
+		public Tag release(RunnableConfig config) throws Exception {
+			return delegate.release(config);
+		}
+
+	}
+
+	private static Checkpoint checkpoint(int step) {
+		return Checkpoint.builder().state(Map.of("step", step)).nodeId("node" + step).nextNodeId(END).build();
+	}
+
+	@Test
+	void testWritesAfterAFailureAreNotSkipped() throws Exception {
+		GatedSaver saver = new GatedSaver(1, 2);
+		CheckpointWriter writer = new CheckpointWriter(saver, CompileConfig.CheckpointDurability.ASYNC);
+		RunnableConfig config = RunnableConfig.builder().threadId("failure").build();
+
+		for (int step = 0; step < 5; step++) {
+			writer.write(config, checkpoint(step));
+		}
+
+		Exception error = assertThrows(IllegalStateException.class, writer::flush);
+		assertEquals("write 1 failed", error.getMessage());
+		assertEquals(1, error.getSuppressed().length);
+		assertEquals(3, saver.list(config).size());
+		assertEquals("node4", saver.get(config).orElseThrow().getNodeId());
+
+		// the failure is reported once
+		writer.write(config, checkpoint(5));
+		writer.flush();
+		assertEquals("node5", saver.get(config).orElseThrow().getNodeId());
+	}
+
+	@Test
+	void testBackpressureWaitsForTheOldestWriteOnly() throws Exception {
+		GatedSaver saver = new GatedSaver();
+		saver.permits.drainPermits();
+		CheckpointWriter writer = new CheckpointWriter(saver, CompileConfig.CheckpointDurability.ASYNC);
+		RunnableConfig config = RunnableConfig.builder().threadId("backpressure").build();
+		for (int step = 0; step < CheckpointWriter.MAX_PENDING_WRITES; step++) {
+			writer.write(config, checkpoint(step));
+		}
+
+		CompletableFuture<Void> blocked = CompletableFuture
+			.runAsync(() -> writer.write(config, checkpoint(CheckpointWriter.MAX_PENDING_WRITES)));
+		Thread.sleep(100);
+		assertFalse(blocked.isDone(), "the write should wait while the queue is full");
+
+		saver.permits.release();
+		blocked.get(5, TimeUnit.SECONDS);
+		assertTrue(writer.pendingWrites() >= CheckpointWriter.MAX_PENDING_WRITES - 1);
+
+		saver.permits.release(Integer.MAX_VALUE / 2);
+		writer.flush();
+		assertEquals(CheckpointWriter.MAX_PENDING_WRITES + 1, saver.list(config).size());
+	}
+
+}
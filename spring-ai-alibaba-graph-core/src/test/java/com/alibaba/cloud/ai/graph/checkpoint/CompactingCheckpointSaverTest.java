@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactingCheckpointSaverTest {
+
+	private final RunnableConfig config = RunnableConfig.builder().threadId("thread").build();
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2025-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+	private static Checkpoint checkpoint(String nodeId, String nextNodeId) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId(nextNodeId).state(Map.of("node", nodeId)).build();
+	}
+
+	private static List<CheckpointRetentionPolicy.Entry> entries(Instant now, Duration... ages) {
+		List<CheckpointRetentionPolicy.Entry> entries = new ArrayList<>();
+		for (int i = 0; i < ages.length; i++) {
+			entries.add(new CheckpointRetentionPolicy.Entry(checkpoint("node" + i, "node" + (i + 1)),
+					now.minus(ages[i])));
+		}
+		return entries;
+	}
+
+	private static List<String> ids(Collection<Checkpoint> checkpoints) {
+		return checkpoints.stream().map(Checkpoint::getId).toList();
+	}
+
+	@Test
+	public void testKeepLast() {
+		Instant now = Instant.now();
+		List<CheckpointRetentionPolicy.Entry> entries = entries(now, Duration.ZERO, Duration.ofSeconds(1),
+				Duration.ofSeconds(2), Duration.ofSeconds(3));
+		Set<String> expired = CheckpointRetentionPolicy.keepLast(2).expired(entries, now);
+		assertEquals(Set.of(entries.get(2).checkpoint().getId(), entries.get(3).checkpoint().getId()), expired);
+	}
+
+	@Test
+	public void testInterruptsOnly() {
+		Instant now = Instant.now();
+		List<CheckpointRetentionPolicy.Entry> entries = entries(now, Duration.ZERO, Duration.ofSeconds(1),
+				Duration.ofSeconds(2), Duration.ofSeconds(3));
+		// entry i is node{i} -> node{i + 1}
+		Set<String> expired = CheckpointRetentionPolicy.interruptsOnly(Set.of("node2"), Set.of("node3"))
+			.expired(entries, now);
+		assertEquals(Set.of(entries.get(2).checkpoint().getId()), expired);
+	}
+
+	@Test
+	public void testMaxAge() {
+		Instant now = Instant.now();
+		List<CheckpointRetentionPolicy.Entry> entries = entries(now, Duration.ofHours(2), Duration.ofHours(3),
+				Duration.ofMinutes(200));
+		Set<String> expired = CheckpointRetentionPolicy.maxAge(Duration.ofHours(1)).expired(entries, now);
+		// the newest checkpoint is kept, however old
+		assertEquals(Set.of(entries.get(1).checkpoint().getId(), entries.get(2).checkpoint().getId()), expired);
+	}
+
+	@Test
+	public void testExponentialThinning() {
+		Instant now = Instant.now();
+		Duration[] ages = new Duration[20];
+		for (int i = 0; i < ages.length; i++) {
+			ages[i] = Duration.ofMinutes(i);
+		}
+		List<CheckpointRetentionPolicy.Entry> entries = entries(now, ages);
+		Set<String> expired = CheckpointRetentionPolicy.exponentialThinning(Duration.ofMinutes(1), 2)
+			.expired(entries, now);
+		// buckets [0, 1), [1, 3), [3, 7), [7, 15), [15, 31) minutes, newest of each kept
+		List<Integer> kept = new ArrayList<>();
+		for (int i = 0; i < entries.size(); i++) {
+			if (!expired.contains(entries.get(i).checkpoint().getId())) {
+				kept.add(i);
+			}
+		}
+		assertEquals(List.of(0, 1, 3, 7, 15), kept);
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+		MutableClock clock = new MutableClock();
+		MemorySaver memorySaver = new MemorySaver();
+		CompactingCheckpointSaver saver = new CompactingCheckpointSaver(memorySaver,
+				CheckpointRetentionPolicy.keepLast(3), Duration.ofMinutes(1), Runnable::run, clock);
+
+		List<String> written = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Checkpoint checkpoint = checkpoint("node" + i, "node" + (i + 1));
+			saver.put(config, checkpoint);
+			written.add(0, checkpoint.getId());
+		}
+		// the first append compacted the thread, the following ones are within the interval
+		assertEquals(10, memorySaver.list(config).size());
+		assertEquals(1, saver.compactions());
+
+		clock.advance(Duration.ofMinutes(1));
+		Checkpoint last = checkpoint("node10", END);
+		saver.put(config, last);
+		written.add(0, last.getId());
+		assertEquals(written.subList(0, 3), ids(memorySaver.list(config)));
+		assertEquals(8, saver.deletedCheckpoints());
+		assertEquals(last.getId(), saver.get(config).orElseThrow().getId());
+	}
+
+	@Test
+	public void testMaxAgeCompaction() throws Exception {
+		MutableClock clock = new MutableClock();
+		MemorySaver memorySaver = new MemorySaver();
+		CompactingCheckpointSaver saver = new CompactingCheckpointSaver(memorySaver,
+				CheckpointRetentionPolicy.maxAge(Duration.ofMinutes(10)), Duration.ofHours(1), Runnable::run, clock);
+
+		for (int i = 0; i < 5; i++) {
+			saver.put(config, checkpoint("node" + i, END));
+			clock.advance(Duration.ofMinutes(5));
+		}
+		// saved 25, 20, 15, 10 and 5 minutes ago
+		assertEquals(3, saver.compact());
+		assertEquals(2, memorySaver.list(config).size());
+	}
+
+	@Test
+	public void testCompactionWithoutDeleteSupport() throws Exception {
+		BaseCheckpointSaver readOnlySaver = new BaseCheckpointSaver() {
+
+			private final MemorySaver delegate = new MemorySaver();
+
+			@Override
+			public Collection<Checkpoint> list(RunnableConfig config) {
+				return delegate.list(config);
+			}
+
+			@Override
+			public java.util.Optional<Checkpoint> get(RunnableConfig config) {
+				return delegate.get(config);
+			}
+
+			@Override
+			public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+				return delegate.put(config, checkpoint);
+			}
+
+			@Override
+			public Tag release(RunnableConfig config) throws Exception {
+				return delegate.release(config);
+			}
+
+		};
+		CompactingCheckpointSaver saver = new CompactingCheckpointSaver(readOnlySaver,
+				CheckpointRetentionPolicy.keepLast(1), Duration.ZERO, Runnable::run, new MutableClock());
+		for (int i = 0; i < 3; i++) {
+			saver.put(config, checkpoint("node" + i, END));
+		}
+		assertEquals(0, saver.compact());
+		assertEquals(3, saver.list(config).size());
+	}
+
+	@Test
+	public void testCompactionOfDeltaCheckpoints() throws Exception {
+		MemorySaver memorySaver = new MemorySaver();
+		SaverConfig saverConfig = SaverConfig.builder()
+			.register(memorySaver)
+			.deltaCheckpoints(4)
+			.retentionPolicy(CheckpointRetentionPolicy.keepLast(2))
+			.compactionInterval(Duration.ofHours(1))
+			.build();
+		CompactingCheckpointSaver saver = assertInstanceOf(CompactingCheckpointSaver.class, saverConfig.get());
+		assertInstanceOf(DeltaCheckpointSaver.class, saver.delegate());
+
+		List<Checkpoint> written = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			Map<String, Object> state = Map.of("step", i, "topic", "retention");
+			Checkpoint checkpoint = Checkpoint.builder().nodeId("node" + i).nextNodeId(END).state(state).build();
+			saver.put(config, checkpoint);
+			written.add(0, checkpoint);
+		}
+		assertTrue(DeltaCheckpointSaver.isDelta(memorySaver.get(config).orElseThrow()));
+
+		assertEquals(4, saver.compact());
+		List<Checkpoint> remaining = List.copyOf(saver.list(config));
+		assertEquals(ids(written.subList(0, 2)), ids(remaining));
+		for (int i = 0; i < remaining.size(); i++) {
+			assertEquals(written.get(i).getState(), remaining.get(i).getState());
+		}
+
+		// switching the policy off keeps the delta wrapper
+		saverConfig.retentionPolicy(null);
+		assertSame(DeltaCheckpointSaver.class, saverConfig.get().getClass());
+	}
+
+}
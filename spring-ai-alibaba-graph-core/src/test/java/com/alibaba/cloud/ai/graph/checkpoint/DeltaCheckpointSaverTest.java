@@ -0,0 +1,227 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.state.StateSnapshot;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeltaCheckpointSaverTest {
+
+	private final RunnableConfig config = RunnableConfig.builder().threadId("thread").build();
+
+	private static Checkpoint checkpoint(int step) {
+		List<String> messages = new ArrayList<>();
+		for (int i = 0; i <= step; i++) {
+			messages.add("message" + i);
+		}
+		Map<String, Object> state = new HashMap<>();
+		state.put("messages", messages);
+		state.put("step", step);
+		state.put("topic", "delta");
+		if (step % 2 == 0) {
+			state.put("even", true);
+		}
+		return Checkpoint.builder().nodeId("node" + step).nextNodeId("node" + (step + 1)).state(state).build();
+	}
+
+	private static List<Checkpoint> putAll(BaseCheckpointSaver saver, RunnableConfig config, int from, int to)
+			throws Exception {
+		List<Checkpoint> written = new ArrayList<>();
+		for (int step = from; step < to; step++) {
+			Checkpoint checkpoint = checkpoint(step);
+			saver.put(config, checkpoint);
+			written.add(0, checkpoint);
+		}
+		return written;
+	}
+
+	private static void assertSameCheckpoints(List<Checkpoint> expected, List<Checkpoint> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+			assertEquals(expected.get(i).getNodeId(), actual.get(i).getNodeId());
+			assertEquals(expected.get(i).getState(), actual.get(i).getState());
+		}
+	}
+
+	@Test
+	public void testStoresDeltasAndKeyframes() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().build();
+		BaseCheckpointSaver saver = DeltaCheckpointSaver.wrap(memorySaver, 10);
+
+		List<Checkpoint> written = putAll(saver, config, 0, 25);
+
+		List<Checkpoint> stored = List.copyOf(memorySaver.list(config));
+		for (int i = 0; i < stored.size(); i++) {
+			int step = stored.size() - 1 - i;
+			assertEquals(step % 10 != 0, DeltaCheckpointSaver.isDelta(stored.get(i)), "checkpoint of step " + step);
+		}
+		// a delta only holds the changed values and the appended message
+		Map<String, Object> delta = stored.get(0).getState();
+		assertEquals(24, delta.get("step"));
+		assertFalse(delta.containsKey("topic"));
+		assertEquals(Map.of("messages", List.of("message24")), delta.get(DeltaCheckpointSaver.DELTA_APPENDED_KEY));
+		assertEquals(List.of("even"), stored.get(1).getState().get(DeltaCheckpointSaver.DELTA_REMOVED_KEY));
+
+		assertSameCheckpoints(written, List.copyOf(saver.list(config)));
+		assertEquals(written.get(0).getState(), saver.get(config).orElseThrow().getState());
+		Checkpoint middle = written.get(7);
+		assertEquals(middle.getState(),
+				saver.get(config.withCheckPointId(middle.getId())).orElseThrow().getState());
+	}
+
+	@Test
+	public void testAppendsAfterRestart() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().build();
+		List<Checkpoint> written = putAll(DeltaCheckpointSaver.wrap(memorySaver, 4), config, 0, 6);
+
+		BaseCheckpointSaver restarted = DeltaCheckpointSaver.wrap(memorySaver, 4);
+		written.addAll(0, putAll(restarted, config, 6, 9));
+
+		List<Checkpoint> stored = List.copyOf(memorySaver.list(config));
+		assertFalse(DeltaCheckpointSaver.isDelta(stored.get(0)));
+		assertTrue(DeltaCheckpointSaver.isDelta(stored.get(1)));
+		assertSameCheckpoints(written, List.copyOf(restarted.list(config)));
+	}
+
+	@Test
+	public void testRetentionKeepsTheBaseOfDeltas() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().maxCheckpointsPerThread(3).build();
+		BaseCheckpointSaver saver = DeltaCheckpointSaver.wrap(memorySaver, 10);
+
+		List<Checkpoint> written = putAll(saver, config, 0, 5);
+
+		// the keyframe of step 0 is kept as long as deltas are based on it
+		assertSameCheckpoints(written, List.copyOf(saver.list(config)));
+
+		written = putAll(saver, config, 5, 23);
+
+		// trimmed at the keyframe of step 20, the first one leaving at least 3 checkpoints
+		List<Checkpoint> listed = List.copyOf(saver.list(config));
+		assertSameCheckpoints(written.subList(0, 3), listed);
+		assertFalse(DeltaCheckpointSaver.isDelta(List.copyOf(memorySaver.list(config)).get(2)));
+		assertTrue(memorySaver.evictedCheckpoints() > 0);
+	}
+
+	@Test
+	public void testMemoryBudgetKeepsTheBaseOfDeltas() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().memoryBudget(1).build();
+		BaseCheckpointSaver saver = DeltaCheckpointSaver.wrap(memorySaver, 4);
+
+		List<Checkpoint> written = putAll(saver, config, 0, 10);
+
+		// only the segment starting at the keyframe of step 8 fits, however small the budget
+		assertSameCheckpoints(written.subList(0, 2), List.copyOf(saver.list(config)));
+	}
+
+	@Test
+	public void testReplacingCheckpointKeepsLaterStates() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().build();
+		BaseCheckpointSaver saver = DeltaCheckpointSaver.wrap(memorySaver, 10);
+		List<Checkpoint> written = putAll(saver, config, 0, 5);
+
+		Checkpoint replaced = written.get(2);
+		Map<String, Object> updated = new HashMap<>(replaced.getState());
+		updated.put("topic", "updated");
+		Checkpoint replacement = Checkpoint.builder()
+			.nodeId(replaced.getNodeId())
+			.nextNodeId(replaced.getNextNodeId())
+			.state(updated)
+			.build();
+		saver.put(config.withCheckPointId(replaced.getId()), replacement);
+
+		List<Checkpoint> checkpoints = List.copyOf(saver.list(config));
+		assertEquals("updated", checkpoints.get(2).getState().get("topic"));
+		assertEquals(written.get(1).getState(), checkpoints.get(1).getState());
+		assertEquals(written.get(0).getState(), checkpoints.get(0).getState());
+
+		saver.put(config, checkpoint(5));
+		assertEquals(checkpoint(5).getState(), saver.get(config).orElseThrow().getState());
+	}
+
+	@Test
+	public void testGraphWithDeltaCheckpoints() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().build();
+		var workflow = new StateGraph(() -> Map.of("messages", new AppendStrategy(), "last", new ReplaceStrategy()));
+		String previous = START;
+		for (int i = 0; i < 6; i++) {
+			String nodeId = "node" + i;
+			workflow.addNode(nodeId, node_async(state -> Map.of("messages", nodeId, "last", nodeId)));
+			workflow.addEdge(previous, nodeId);
+			previous = nodeId;
+		}
+		workflow.addEdge(previous, END);
+		CompiledGraph graph = workflow.compile(CompileConfig.builder()
+			.saverConfig(SaverConfig.builder().register(memorySaver).deltaCheckpoints(3).build())
+			.build());
+
+		graph.invoke(Map.of(), config);
+
+		assertTrue(memorySaver.list(config).stream().anyMatch(DeltaCheckpointSaver::isDelta));
+		List<StateSnapshot> history = List.copyOf(graph.getStateHistory(config));
+		assertEquals(7, history.size());
+		assertEquals(List.of("node0", "node1", "node2", "node3", "node4", "node5"),
+				history.get(0).state().value("messages", List.of()));
+		assertEquals("node2", history.get(3).state().value("last", ""));
+		assertEquals(List.of("node0", "node1", "node2"), history.get(3).state().value("messages", List.of()));
+	}
+
+	@Test
+	public void testRegisterKeepsPreWrappedSaver() throws Exception {
+		MemorySaver memorySaver = MemorySaver.builder().build();
+		BaseCheckpointSaver deltaSaver = DeltaCheckpointSaver.wrap(memorySaver, 10);
+		SaverConfig saverConfig = SaverConfig.builder().register(deltaSaver).build();
+		assertSame(deltaSaver, saverConfig.get());
+
+		// settings of the config wrap it again without losing the caller's wrapper
+		saverConfig.retentionPolicy(CheckpointRetentionPolicy.keepLast(2));
+		CompactingCheckpointSaver compactingSaver = assertInstanceOf(CompactingCheckpointSaver.class,
+				saverConfig.get());
+		assertSame(deltaSaver, compactingSaver.delegate());
+		saverConfig.retentionPolicy(null);
+		assertSame(deltaSaver, saverConfig.get());
+
+		// a second delta wrapper would corrupt the checkpoints
+		assertThrows(IllegalArgumentException.class, () -> saverConfig.deltaCheckpoints(3));
+		assertEquals(0, saverConfig.keyframeInterval());
+		assertThrows(IllegalArgumentException.class,
+				() -> SaverConfig.builder().deltaCheckpoints(3).register(deltaSaver));
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.file.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
+import com.alibaba.cloud.ai.graph.serializer.std.ObjectStreamStateSerializer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the append-only log written by {@link FileSystemSaver}.
+ */
+public class FileSystemSaverLogTest {
+
+	private final StateSerializer stateSerializer = new ObjectStreamStateSerializer(OverAllState::new);
+
+	private final RunnableConfig config = RunnableConfig.builder().threadId("t1").build();
+
+	private FileSystemSaver.Builder saver(Path root) {
+		return FileSystemSaver.builder().targetFolder(root).stateSerializer(stateSerializer);
+	}
+
+	private static Checkpoint checkpoint(String nodeId) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId("next").state(Map.of("node", nodeId)).build();
+	}
+
+	private static List<String> nodes(FileSystemSaver saver, RunnableConfig config) {
+		return saver.list(config).stream().map(Checkpoint::getNodeId).toList();
+	}
+
+	@Test
+	public void writesAppendRecordsAndReplayOnReload() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		Path file = root.resolve("thread-t1.saver");
+		FileSystemSaver saver = saver(root).maxCheckpointsPerThread(4).compactionThreshold(1000).build();
+
+		RunnableConfig second = null;
+		long previousSize = 0;
+		for (int i = 0; i < 10; i++) {
+			RunnableConfig saved = saver.put(config, checkpoint("node" + i));
+			if (i == 8) {
+				second = saved;
+			}
+			long size = Files.size(file);
+			assertTrue(size > previousSize, "every write appends to the log");
+			previousSize = size;
+		}
+		saver.put(second, checkpoint("replaced"));
+
+		FileSystemSaver reloaded = saver(root).build();
+		assertEquals(List.of("node9", "replaced", "node7", "node6"), nodes(reloaded, config));
+		assertEquals(nodes(saver, config), nodes(reloaded, config));
+	}
+
+	@Test
+	public void truncatesTornTailOnRead() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		Path file = root.resolve("thread-t1.saver");
+		FileSystemSaver saver = saver(root).fsyncPolicy(FileSystemSaver.FsyncPolicy.ALWAYS).build();
+		saver.put(config, checkpoint("a"));
+		saver.put(config, checkpoint("b"));
+		long validSize = Files.size(file);
+		saver.put(config, checkpoint("c"));
+
+		// simulate a crash in the middle of the last append
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(file) - 3);
+		}
+
+		FileSystemSaver reloaded = saver(root).build();
+		assertEquals(List.of("b", "a"), nodes(reloaded, config));
+		assertEquals(validSize, Files.size(file));
+
+		reloaded.put(config, checkpoint("d"));
+		assertEquals(List.of("d", "b", "a"), nodes(saver(root).build(), config));
+	}
+
+	@Test
+	public void compactsSupersededRecords() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		Path uncompactedRoot = Files.createTempDirectory("checkpoint");
+		// compacts on the writing thread
+		FileSystemSaver saver = saver(root).maxCheckpointsPerThread(3)
+			.compactionThreshold(10)
+			.compactionExecutor(Runnable::run)
+			.build();
+		FileSystemSaver uncompacted = saver(uncompactedRoot).maxCheckpointsPerThread(3)
+			.compactionThreshold(1000)
+			.build();
+
+		long peakSize = 0;
+		for (int i = 0; i < 100; i++) {
+			saver.put(config, checkpoint("node" + i));
+			uncompacted.put(config, checkpoint("node" + i));
+			peakSize = Math.max(peakSize, Files.size(root.resolve("thread-t1.saver")));
+		}
+
+		// the log never holds more than the threshold and the live records, plus the last append
+		long uncompactedSize = Files.size(uncompactedRoot.resolve("thread-t1.saver"));
+		assertTrue(peakSize < uncompactedSize * 14 / 100, "log should have been compacted");
+		assertEquals(List.of("node99", "node98", "node97"), nodes(saver(root).build(), config));
+	}
+
+	@Test
+	public void closesTheLogOfEvictedThreads() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		FileSystemSaver saver = saver(root).maxThreads(1).build();
+		RunnableConfig other = RunnableConfig.builder().threadId("t2").build();
+
+		saver.put(config, checkpoint("a"));
+		saver.put(other, checkpoint("b"));
+		assertEquals(1, saver.threadCount());
+
+		saver.put(config, checkpoint("c"));
+		assertEquals(List.of("c", "a"), nodes(saver, config));
+		assertEquals(List.of("b"), nodes(saver, other));
+		assertEquals(List.of("c", "a"), nodes(saver(root).build(), config));
+	}
+
+	@Test
+	public void migratesLegacyFiles() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		Path file = root.resolve("thread-t1.saver");
+		CheckPointSerializer serializer = new CheckPointSerializer(stateSerializer);
+		try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(file))) {
+			oos.writeInt(2);
+			serializer.write(checkpoint("new"), oos);
+			serializer.write(checkpoint("old"), oos);
+		}
+
+		FileSystemSaver saver = saver(root).build();
+		assertEquals(List.of("new", "old"), nodes(saver, config));
+		assertNotEquals((byte) 0xAC, Files.readAllBytes(file)[0]);
+
+		saver.put(config, checkpoint("newest"));
+		assertEquals(List.of("newest", "new", "old"), nodes(saver(root).build(), config));
+	}
+
+	@Test
+	public void loadsTheLatestCheckpointWithoutReadingTheHistory() throws Exception {
+		Path root = Files.createTempDirectory("checkpoint");
+		FileSystemSaver saver = saver(root).build();
+		for (int i = 0; i < 100; i++) {
+			saver.put(config, checkpoint("node" + i));
+		}
+
+		CountingStateSerializer counting = new CountingStateSerializer(stateSerializer);
+		FileSystemSaver reloaded = FileSystemSaver.builder().targetFolder(root).stateSerializer(counting).build();
+		Checkpoint latest = reloaded.get(config).orElseThrow();
+		assertEquals("node99", latest.getNodeId());
+		assertEquals(1, counting.reads.get());
+
+		// older checkpoints are read page by page
+		List<Checkpoint> page = reloaded.list(config, latest.getId(), 10);
+		assertEquals("node98", page.get(0).getNodeId());
+		assertEquals("node89", page.get(9).getNodeId());
+		assertEquals(11, counting.reads.get());
+
+		RunnableConfig old = RunnableConfig.builder(config).checkPointId(page.get(9).getId()).build();
+		assertEquals("node89", reloaded.get(old).orElseThrow().getNodeId());
+		assertEquals(12, counting.reads.get());
+	}
+
+	/**
+	 * Counts the states read by a delegate serializer.
+	 */
+	private static final class CountingStateSerializer extends StateSerializer {
+
+		private final StateSerializer delegate;
+
+		private final AtomicInteger reads = new AtomicInteger();
+
+		private CountingStateSerializer(StateSerializer delegate) {
+			super(OverAllState::new);
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void writeData(Map<String, Object> data, ObjectOutput out) throws IOException {
+			delegate.writeData(data, out);
+		}
+
+		@Override
+		public Map<String, Object> readData(ObjectInput in) throws IOException, ClassNotFoundException {
+			reads.incrementAndGet();
+			return delegate.readData(in);
+		}
+
+	}
+
+}
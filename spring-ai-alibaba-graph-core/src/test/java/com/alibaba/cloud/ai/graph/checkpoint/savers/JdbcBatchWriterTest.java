@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JdbcBatchWriterTest {
+
+	record Row(String id, String threadName) {
+	}
+
+	private HikariDataSource dataSource;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:batch" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		config.setUsername("sa");
+		config.setPassword("");
+		config.setMaximumPoolSize(4);
+		dataSource = new HikariDataSource(config);
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE CHECKPOINT (id VARCHAR(36) PRIMARY KEY, thread_name VARCHAR(255))");
+		}
+		executor = Executors.newFixedThreadPool(16);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+		dataSource.close();
+	}
+
+	private static void insert(Connection connection, List<Row> rows) throws SQLException {
+		try (PreparedStatement statement = connection
+			.prepareStatement("INSERT INTO CHECKPOINT(id, thread_name) VALUES (?, ?)")) {
+			for (Row row : rows) {
+				statement.setString(1, row.id());
+				statement.setString(2, row.threadName());
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	private int count() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM CHECKPOINT")) {
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+
+	private List<CompletableFuture<Void>> writeConcurrently(JdbcBatchWriter<Row> writer, List<Row> rows) {
+		CountDownLatch start = new CountDownLatch(1);
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (Row row : rows) {
+			futures.add(CompletableFuture.runAsync(() -> {
+				try {
+					start.await();
+					writer.write(row);
+				}
+				catch (Exception ex) {
+					throw new CompletionException(ex);
+				}
+			}, executor));
+		}
+		start.countDown();
+		return futures;
+	}
+
+	@Test
+	public void testConcurrentWritesAreBatched() throws Exception {
+		JdbcBatchWriter<Row> writer = new JdbcBatchWriter<>(dataSource, Duration.ofMillis(5), 32,
+				JdbcBatchWriterTest::insert);
+
+		List<Row> rows = new ArrayList<>();
+		for (int i = 0; i < 800; i++) {
+			rows.add(new Row("cp-" + i, "thread-" + (i % 16)));
+		}
+		CompletableFuture.allOf(writeConcurrently(writer, rows).toArray(CompletableFuture[]::new)).join();
+
+		assertEquals(800, count());
+		assertEquals(800, writer.writes());
+		assertTrue(writer.batches() < 800, "writes should be grouped, batches: " + writer.batches());
+		assertTrue(writer.averageBatchSize() > 1);
+		assertTrue(writer.maxCommitLatency().compareTo(writer.averageCommitLatency()) >= 0);
+		assertEquals(0, writer.failedBatches());
+	}
+
+	@Test
+	public void testFailingWriteDoesNotFailItsBatch() throws Exception {
+		try (Connection connection = dataSource.getConnection()) {
+			insert(connection, List.of(new Row("duplicate", "thread")));
+		}
+		JdbcBatchWriter<Row> writer = new JdbcBatchWriter<>(dataSource, Duration.ofSeconds(5), 3,
+				JdbcBatchWriterTest::insert);
+
+		List<CompletableFuture<Void>> futures = writeConcurrently(writer,
+				List.of(new Row("first", "thread"), new Row("duplicate", "thread"), new Row("second", "thread")));
+
+		int failures = 0;
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			}
+			catch (CompletionException ex) {
+				assertInstanceOf(SQLException.class, ex.getCause());
+				failures++;
+			}
+		}
+		assertEquals(1, failures);
+		assertEquals(3, count());
+		assertTrue(writer.failedBatches() >= 1);
+		assertEquals(2, writer.writes());
+	}
+
+	@Test
+	public void testInvalidOptions() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new JdbcBatchWriter<Row>(dataSource, Duration.ZERO, 0, JdbcBatchWriterTest::insert));
+		assertThrows(IllegalArgumentException.class,
+				() -> new JdbcBatchWriter<Row>(dataSource, Duration.ofMillis(-1), 8, JdbcBatchWriterTest::insert));
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemorySaverIndexTest {
+
+	private static RunnableConfig thread(String threadId) {
+		return RunnableConfig.builder().threadId(threadId).build();
+	}
+
+	private static Checkpoint checkpoint(String nodeId) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId("next").state(Map.of("node", nodeId)).build();
+	}
+
+	private static List<String> put(MemorySaver saver, int count) throws Exception {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			RunnableConfig config = saver.put(thread("t"), checkpoint("node" + i));
+			ids.add(config.checkPointId().orElseThrow());
+		}
+		return ids;
+	}
+
+	@Test
+	public void testGetAndReplaceById() throws Exception {
+		MemorySaver saver = new MemorySaver();
+		List<String> ids = put(saver, 5000);
+
+		Checkpoint found = saver.get(thread("t").withCheckPointId(ids.get(1234))).orElseThrow();
+		assertEquals("node1234", found.getNodeId());
+
+		saver.put(thread("t").withCheckPointId(ids.get(2500)), checkpoint("replaced"));
+
+		List<Checkpoint> checkpoints = new ArrayList<>(saver.list(thread("t")));
+		assertEquals(5000, checkpoints.size());
+		assertEquals("replaced", checkpoints.get(4999 - 2500).getNodeId());
+		assertEquals("node2501", checkpoints.get(4999 - 2501).getNodeId());
+		assertEquals("node4999", saver.get(thread("t")).orElseThrow().getNodeId());
+	}
+
+	@Test
+	public void testReplaceUnknownCheckpoint() throws Exception {
+		MemorySaver saver = new MemorySaver();
+		put(saver, 3);
+
+		assertThrows(NoSuchElementException.class,
+				() -> saver.put(thread("t").withCheckPointId("unknown"), checkpoint("replaced")));
+		assertTrue(saver.get(thread("t").withCheckPointId("unknown")).isEmpty());
+	}
+
+	@Test
+	public void testTrimmedCheckpointsLeaveTheIndex() throws Exception {
+		MemorySaver saver = MemorySaver.builder().maxCheckpointsPerThread(10).build();
+		List<String> ids = put(saver, 100);
+
+		assertTrue(saver.get(thread("t").withCheckPointId(ids.get(89))).isEmpty());
+		assertEquals("node90", saver.get(thread("t").withCheckPointId(ids.get(90))).orElseThrow().getNodeId());
+
+		saver.put(thread("t").withCheckPointId(ids.get(95)), checkpoint("replaced"));
+		List<String> nodes = saver.list(thread("t")).stream().map(Checkpoint::getNodeId).toList();
+		assertEquals(10, nodes.size());
+		assertEquals("replaced", nodes.get(4));
+	}
+
+	@Test
+	public void testCheckpointListMatchesAnArrayList() {
+		MemorySaver.CheckpointList checkpoints = new MemorySaver.CheckpointList();
+		List<Checkpoint> expected = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			Checkpoint checkpoint = checkpoint("node" + i);
+			int operation = random.nextInt(10);
+			if (operation < 4 || expected.isEmpty()) {
+				checkpoints.push(checkpoint);
+				expected.add(0, checkpoint);
+			}
+			else if (operation < 6) {
+				assertEquals(expected.remove(expected.size() - 1), checkpoints.removeLast());
+			}
+			else if (operation < 7) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.set(index, checkpoint), checkpoints.set(index, checkpoint));
+			}
+			else if (operation < 8) {
+				int index = random.nextInt(expected.size() + 1);
+				expected.add(index, checkpoint);
+				checkpoints.add(index, checkpoint);
+			}
+			else if (operation < 9) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.remove(index), checkpoints.remove(index));
+			}
+			else {
+				String suffix = String.valueOf(random.nextInt(10));
+				expected.removeIf(c -> c.getNodeId().endsWith(suffix));
+				checkpoints.removeIf(c -> c.getNodeId().endsWith(suffix));
+			}
+			assertEquals(expected, checkpoints);
+		}
+	}
+
+	@Test
+	public void testOutOfBandChangesKeepingTheSizeReachTheIndex() throws Exception {
+		List<Checkpoint> replacements = new ArrayList<>();
+		MemorySaver saver = new MemorySaver() {
+
+			@Override
+			protected List<Checkpoint> loadedCheckpoints(RunnableConfig config,
+					List<Checkpoint> checkpoints) {
+				if (!replacements.isEmpty()) {
+					Checkpoint replacement = replacements.remove(0);
+					if (replacement.getNodeId().equals("set")) {
+						checkpoints.set(1, replacement);
+					}
+					else {
+						checkpoints.remove(checkpoints.size() - 1);
+						checkpoints.add(0, replacement);
+					}
+				}
+				return checkpoints;
+			}
+
+		};
+		List<String> ids = put(saver, 3);
+		assertEquals("node1", saver.get(thread("t").withCheckPointId(ids.get(1))).orElseThrow().getNodeId());
+
+		Checkpoint set = checkpoint("set");
+		replacements.add(set);
+		assertEquals("set", saver.get(thread("t").withCheckPointId(set.getId())).orElseThrow().getNodeId());
+		assertTrue(saver.get(thread("t").withCheckPointId(ids.get(1))).isEmpty());
+
+		Checkpoint pushed = checkpoint("pushed");
+		replacements.add(pushed);
+		assertEquals("pushed", saver.get(thread("t").withCheckPointId(pushed.getId())).orElseThrow().getNodeId());
+		assertTrue(saver.get(thread("t").withCheckPointId(ids.get(0))).isEmpty());
+		assertEquals("node2", saver.get(thread("t").withCheckPointId(ids.get(2))).orElseThrow().getNodeId());
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemorySaverLazyLoadingTest {
+
+	/**
+	 * A saver serving the checkpoints of a store on demand, as the JDBC savers do with
+	 * lazy loading.
+	 */
+	static class StoreSaver extends MemorySaver {
+
+		final LinkedList<Checkpoint> store = new LinkedList<>();
+
+		final List<Checkpoint> updated = new ArrayList<>();
+
+		int queries;
+
+		StoreSaver(int maxCheckpointsPerThread) {
+			super(MemorySaver.builder().maxCheckpointsPerThread(maxCheckpointsPerThread));
+		}
+
+		@Override
+		protected Optional<Checkpoint> loadedLatestCheckpoint(RunnableConfig config) {
+			queries++;
+			return store.stream().findFirst();
+		}
+
+		@Override
+		protected Optional<Checkpoint> loadedCheckpoint(RunnableConfig config, String checkpointId) {
+			queries++;
+			return store.stream().filter(checkpoint -> checkpoint.getId().equals(checkpointId)).findFirst();
+		}
+
+		@Override
+		protected List<Checkpoint> listedCheckpoints(RunnableConfig config, List<Checkpoint> checkpoints,
+				String afterCheckpointId, int limit) {
+			queries++;
+			return BaseCheckpointSaver.page(store, afterCheckpointId, limit);
+		}
+
+		@Override
+		protected void insertedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints,
+				Checkpoint checkpoint) {
+			store.push(checkpoint);
+		}
+
+		@Override
+		protected void updatedCheckpoint(RunnableConfig config, List<Checkpoint> checkpoints,
+				Checkpoint checkpoint) {
+			updated.add(checkpoint);
+		}
+
+	}
+
+	private static RunnableConfig thread(String threadId) {
+		return RunnableConfig.builder().threadId(threadId).build();
+	}
+
+	private static Checkpoint checkpoint(String nodeId) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId("next").state(Map.of("node", nodeId)).build();
+	}
+
+	private static StoreSaver storeSaver(int count) {
+		StoreSaver saver = new StoreSaver(4);
+		for (int i = 0; i < count; i++) {
+			saver.store.push(checkpoint("node" + i));
+		}
+		return saver;
+	}
+
+	@Test
+	public void testGetLatestSeedsTheCache() {
+		StoreSaver saver = storeSaver(10);
+
+		assertEquals("node9", saver.get(thread("t")).orElseThrow().getNodeId());
+		assertEquals(1, saver.queries);
+
+		assertEquals("node9", saver.get(thread("t")).orElseThrow().getNodeId());
+		assertEquals(1, saver.queries);
+	}
+
+	@Test
+	public void testGetUncachedCheckpointFromTheStore() {
+		StoreSaver saver = storeSaver(10);
+		String id = saver.store.get(7).getId();
+
+		assertEquals("node2", saver.get(thread("t").withCheckPointId(id)).orElseThrow().getNodeId());
+		assertTrue(saver.get(thread("t").withCheckPointId("unknown")).isEmpty());
+	}
+
+	@Test
+	public void testReplaceUncachedCheckpoint() throws Exception {
+		StoreSaver saver = storeSaver(10);
+		String id = saver.store.get(7).getId();
+
+		saver.put(thread("t").withCheckPointId(id), checkpoint("replaced"));
+		assertEquals(1, saver.updated.size());
+		assertEquals("replaced", saver.updated.get(0).getNodeId());
+
+		assertThrows(NoSuchElementException.class,
+				() -> saver.put(thread("t").withCheckPointId("unknown"), checkpoint("replaced")));
+	}
+
+	@Test
+	public void testListPages() throws Exception {
+		StoreSaver saver = storeSaver(0);
+		for (int i = 0; i < 10; i++) {
+			saver.put(thread("t"), checkpoint("node" + i));
+		}
+
+		List<Checkpoint> first = saver.list(thread("t"), null, 3);
+		assertEquals(List.of("node9", "node8", "node7"), first.stream().map(Checkpoint::getNodeId).toList());
+
+		List<Checkpoint> next = saver.list(thread("t"), first.get(2).getId(), 5);
+		assertEquals(List.of("node6", "node5", "node4", "node3", "node2"),
+				next.stream().map(Checkpoint::getNodeId).toList());
+
+		assertEquals(10, saver.list(thread("t")).size());
+		assertThrows(IllegalArgumentException.class, () -> saver.list(thread("t"), null, 0));
+	}
+
+}
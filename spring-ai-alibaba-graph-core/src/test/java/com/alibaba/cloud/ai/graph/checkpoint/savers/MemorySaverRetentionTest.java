@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.state.AppendableList;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemorySaverRetentionTest {
+
+	private static RunnableConfig thread(String threadId) {
+		return RunnableConfig.builder().threadId(threadId).build();
+	}
+
+	private static Checkpoint checkpoint(String nodeId, Object value) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId("next").state(Map.of("value", value)).build();
+	}
+
+	@Test
+	public void testMaxCheckpointsPerThread() throws Exception {
+		MemorySaver saver = MemorySaver.builder().maxCheckpointsPerThread(3).build();
+
+		for (int i = 0; i < 5; i++) {
+			saver.put(thread("t"), checkpoint("node" + i, i));
+		}
+
+		List<String> nodes = saver.list(thread("t")).stream().map(Checkpoint::getNodeId).toList();
+		assertEquals(List.of("node4", "node3", "node2"), nodes);
+		assertEquals(2, saver.evictedCheckpoints());
+	}
+
+	@Test
+	public void testMaxThreadsEvictsLeastRecentlyUsed() throws Exception {
+		MemorySaver saver = MemorySaver.builder().maxThreads(2).build();
+
+		saver.put(thread("t1"), checkpoint("a", 1));
+		saver.put(thread("t2"), checkpoint("a", 2));
+		saver.get(thread("t1"));
+		saver.put(thread("t3"), checkpoint("a", 3));
+
+		assertEquals(2, saver.threadCount());
+		assertTrue(saver.get(thread("t1")).isPresent());
+		assertTrue(saver.get(thread("t2")).isEmpty());
+		assertTrue(saver.get(thread("t3")).isPresent());
+		assertEquals(1, saver.evictedThreads());
+	}
+
+	@Test
+	public void testIdleThreadsExpire() throws Exception {
+		MemorySaver saver = MemorySaver.builder().idleTtl(Duration.ofMillis(50)).build();
+
+		saver.put(thread("idle"), checkpoint("a", 1));
+		Thread.sleep(100);
+		saver.put(thread("active"), checkpoint("a", 2));
+
+		assertEquals(1, saver.threadCount());
+		assertTrue(saver.get(thread("idle")).isEmpty());
+		assertEquals(1, saver.expiredThreads());
+	}
+
+	@Test
+	public void testMemoryBudget() throws Exception {
+		String large = "x".repeat(10_000);
+		MemorySaver saver = MemorySaver.builder().memoryBudget(50_000).build();
+
+		saver.put(thread("t1"), checkpoint("a", large));
+		saver.put(thread("t2"), checkpoint("a", large));
+		assertEquals(2, saver.threadCount());
+
+		for (int i = 0; i < 3; i++) {
+			saver.put(thread("t3"), checkpoint("node" + i, large));
+		}
+
+		// the least recently used threads go first, then the oldest checkpoints of t3
+		assertTrue(saver.estimatedMemoryBytes() <= 50_000);
+		assertTrue(saver.get(thread("t1")).isEmpty());
+		assertEquals("node2", saver.get(thread("t3")).orElseThrow().getNodeId());
+		assertTrue(saver.evictedThreads() >= 1);
+
+		for (String threadId : List.of("t1", "t2", "t3")) {
+			saver.release(thread(threadId));
+		}
+		assertEquals(0, saver.threadCount());
+		assertEquals(0, saver.estimatedMemoryBytes());
+	}
+
+	@Test
+	public void testSharedMessageHistoryIsChargedOnce() throws Exception {
+		String text = "lorem ipsum ".repeat(40);
+		List<Checkpoint> run = new ArrayList<>();
+		AppendableList<Message> messages = AppendableList.empty();
+		for (int turn = 0; turn < 1000; turn++) {
+			messages = messages.appended(new UserMessage("question " + turn + ": " + text))
+				.appended(AssistantMessage.builder().content("answer " + turn + ": " + text).build());
+			run.add(Checkpoint.builder()
+				.nodeId("node" + turn)
+				.nextNodeId("next")
+				.state(Map.of("messages", messages, "turn", turn))
+				.build());
+		}
+		// the thread holds a single copy of the history, i.e. about its last state
+		MemorySaver probe = MemorySaver.builder().memoryBudget(Long.MAX_VALUE).build();
+		probe.put(thread("t"), run.get(run.size() - 1));
+		long footprint = probe.estimatedMemoryBytes();
+
+		MemorySaver saver = MemorySaver.builder().memoryBudget(2 * footprint).build();
+		for (Checkpoint checkpoint : run) {
+			saver.put(thread("t"), checkpoint);
+		}
+
+		assertEquals(0, saver.evictedCheckpoints());
+		assertEquals(1000, saver.list(thread("t")).size());
+		assertTrue(saver.estimatedMemoryBytes() > footprint);
+		assertTrue(saver.estimatedMemoryBytes() <= 2 * footprint);
+
+		saver.release(thread("t"));
+		assertEquals(0, saver.estimatedMemoryBytes());
+	}
+
+	@Test
+	public void testConcurrentThreads() throws Exception {
+		MemorySaver saver = MemorySaver.builder().build();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				String threadId = "thread" + t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 200; i++) {
+						saver.put(thread(threadId), checkpoint("node" + i, i));
+						saver.get(thread(threadId)).orElseThrow();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		for (int t = 0; t < 8; t++) {
+			assertEquals(200, saver.list(thread("thread" + t)).size());
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.mongo.MongoSaver;
+import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the lookups of the legacy collection made by {@link MongoSaver} against mocked
+ * collections.
+ */
+public class MongoSaverMigrationTest {
+
+	private final ClientSession session = mock(ClientSession.class);
+
+	private final MongoCollection<Document> meta = collection();
+
+	private final MongoCollection<Document> entries = collection();
+
+	private final MongoCollection<Document> legacy = collection();
+
+	private MongoSaver saver;
+
+	@SuppressWarnings("unchecked")
+	private static MongoCollection<Document> collection() {
+		return mock(MongoCollection.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static FindIterable<Document> found(Document first, Document... next) {
+		FindIterable<Document> iterable = mock(FindIterable.class);
+		when(iterable.sort(any())).thenReturn(iterable);
+		when(iterable.projection(any())).thenReturn(iterable);
+		when(iterable.limit(any(Integer.class))).thenReturn(iterable);
+		when(iterable.first()).thenReturn(first, next);
+		when(iterable.iterator()).thenAnswer(invocation -> mock(MongoCursor.class));
+		return iterable;
+	}
+
+	private static RunnableConfig thread(String threadId) {
+		return RunnableConfig.builder().threadId(threadId).build();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		MongoClient client = mock(MongoClient.class);
+		MongoDatabase database = mock(MongoDatabase.class);
+		when(client.getDatabase("check_point_db")).thenReturn(database);
+		when(client.startSession(any(ClientSessionOptions.class))).thenReturn(session);
+		when(database.getCollection("thread_meta")).thenReturn(meta);
+		when(database.getCollection("checkpoint_entries")).thenReturn(entries);
+		when(database.getCollection("checkpoint_collection")).thenReturn(legacy);
+
+		FindIterable<Document> activeThread = found(new Document("thread_id", "id-1").append("is_released", false));
+		when(meta.find(any(ClientSession.class), any(Bson.class))).thenReturn(activeThread);
+		FindIterable<Document> noEntry = found(null);
+		when(entries.find(any(ClientSession.class), any(Bson.class))).thenReturn(noEntry);
+
+		saver = MongoSaver.builder().client(client).build();
+	}
+
+	@Test
+	public void testLegacyCollectionIsLookedUpOncePerThread() {
+		FindIterable<Document> noLegacy = found(null);
+		when(legacy.find(any(ClientSession.class), any(Bson.class))).thenReturn(noLegacy);
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(saver.get(thread("t")).isEmpty());
+			assertTrue(saver.list(thread("t")).isEmpty());
+		}
+
+		verify(legacy, times(1)).find(any(ClientSession.class), any(Bson.class));
+		verify(entries, never()).insertMany(any(ClientSession.class), anyList());
+	}
+
+	@Test
+	public void testMigratedThreadIsCheckedOnceMore() throws IOException {
+		CheckPointSerializer serializer = new CheckPointSerializer(StateGraph.DEFAULT_JACKSON_SERIALIZER);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeInt(2);
+			serializer.write(Checkpoint.builder().nodeId("b").nextNodeId("c").state(Map.of("n", 2)).build(), out);
+			serializer.write(Checkpoint.builder().nodeId("a").nextNodeId("b").state(Map.of("n", 1)).build(), out);
+		}
+		Document legacyDoc = new Document("_id", "mongo:checkpoint:content:id-1").append("checkpoint_content",
+				Base64.getEncoder().encodeToString(bytes.toByteArray()));
+		FindIterable<Document> legacyThenNone = found(legacyDoc, (Document) null);
+		when(legacy.find(any(ClientSession.class), any(Bson.class))).thenReturn(legacyThenNone);
+
+		for (int i = 0; i < 3; i++) {
+			saver.get(thread("t"));
+		}
+
+		verify(entries, times(1)).insertMany(eq(session), argThat((List<? extends Document> list) -> list.size() == 2));
+		verify(legacy, times(1)).deleteOne(eq(session), any(Bson.class));
+		// the second access records that the migration committed, the third one skips it
+		verify(legacy, times(2)).find(any(ClientSession.class), any(Bson.class));
+	}
+
+}
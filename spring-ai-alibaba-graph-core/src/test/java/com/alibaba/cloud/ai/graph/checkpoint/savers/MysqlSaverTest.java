@@ -23,12 +23,17 @@ import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.mysql.CreateOption;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.mysql.MysqlSaver;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
 import org.junit.jupiter.api.AfterAll;
@@ -233,4 +238,44 @@ public class MysqlSaverTest {
 
     }
 
+    @Test
+    public void testBatchedInserts() throws Exception {
+        var saver = MysqlSaver.builder()
+                .createOption(CreateOption.CREATE_OR_REPLACE)
+                .dataSource(DATA_SOURCE)
+                .batchSize(32)
+                .batchWindow(Duration.ofMillis(5))
+                .build();
+
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        for (int t = 0; t < 8; t++) {
+            var config = RunnableConfig.builder().threadId("batched-" + t).build();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 20; i++) {
+                        saver.put(config, Checkpoint.builder()
+                                .nodeId("node" + i)
+                                .nextNodeId("next")
+                                .state(Map.of("step", i))
+                                .build());
+                    }
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        var reloaded = MysqlSaver.builder()
+                .dataSource(DATA_SOURCE)
+                .build();
+        for (int t = 0; t < 8; t++) {
+            var config = RunnableConfig.builder().threadId("batched-" + t).build();
+            assertEquals(20, reloaded.list(config).size());
+        }
+
+        var batchWriter = saver.batchWriter().orElseThrow();
+        assertEquals(160, batchWriter.writes());
+        assertTrue(batchWriter.batches() <= 160);
+    }
 }
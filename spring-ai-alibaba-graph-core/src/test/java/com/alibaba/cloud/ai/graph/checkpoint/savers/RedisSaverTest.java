@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -822,6 +823,49 @@ class RedisSaverTest {
 		assertTrue(allCheckpoints.stream().anyMatch(cp -> "cp2".equals(cp.getId())));
 	}
 
+	/**
+	 * Test that a saver holding a cached thread_id notices a release made by another
+	 * saver instance.
+	 */
+	@Test
+	void testReleaseByAnotherInstance() throws Exception {
+		String threadName = "test-stale-thread-" + UUID.randomUUID();
+		RunnableConfig config = RunnableConfig.builder().threadId(threadName).build();
+		RedisSaver other = RedisSaver.builder().redisson(redisson).stateSerializer(serializer).build();
+
+		redisSaver.put(config, Checkpoint.builder().id("cp1").state(Map.of("data", "v1")).nodeId("node1").build());
+		assertTrue(other.get(config).isPresent());
+
+		redisSaver.release(config);
+		assertTrue(other.get(config).isEmpty(), "released thread must not be read through a cached thread_id");
+
+		other.put(config, Checkpoint.builder().id("cp2").state(Map.of("data", "v2")).nodeId("node1").build());
+		List<Checkpoint> checkpoints = (List<Checkpoint>) redisSaver.list(config);
+		assertEquals(1, checkpoints.size());
+		assertEquals("cp2", checkpoints.get(0).getId());
+	}
+
+	/**
+	 * Test that replacing a checkpoint with a new id keeps its position in the thread.
+	 */
+	@Test
+	void testReplaceWithNewIdKeepsOrder() throws Exception {
+		String threadName = "test-replace-order-" + UUID.randomUUID();
+		RunnableConfig config = RunnableConfig.builder().threadId(threadName).build();
+		for (String id : List.of("cp1", "cp2", "cp3")) {
+			redisSaver.put(config, Checkpoint.builder().id(id).state(Map.of("data", id)).nodeId("node1").build());
+		}
+
+		RunnableConfig replace = RunnableConfig.builder(config).checkPointId("cp2").build();
+		redisSaver.put(replace, Checkpoint.builder().id("cp2-new").state(Map.of("data", "new")).nodeId("node1").build());
+
+		List<String> ids = redisSaver.list(config).stream().map(Checkpoint::getId).toList();
+		assertEquals(List.of("cp3", "cp2-new", "cp1"), ids);
+		assertTrue(redisSaver.get(replace).isEmpty());
+		assertThrows(NoSuchElementException.class, () -> redisSaver.put(replace,
+				Checkpoint.builder().id("cp4").state(Map.of("data", "x")).nodeId("node1").build()));
+	}
+
 	/**
 	 * Test concurrent access to the same thread_name with locks.
 	 */
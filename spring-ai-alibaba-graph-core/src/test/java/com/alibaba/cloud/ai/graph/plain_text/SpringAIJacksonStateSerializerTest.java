@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.graph.plain_text;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.plain_text.jackson.SpringAIJacksonStateSerializer;
 import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
 
@@ -34,6 +35,7 @@ import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -296,6 +298,83 @@ class SpringAIJacksonStateSerializerTest {
 		assertEquals("nested_value", deserializedNestedMap.get("nested_key"));
 	}
 
+	@Test
+	void testReadsStatesWrittenAsUtfString() throws Exception {
+		// 旧格式: 先生成json字符串, 再用Serializer.writeUTF写入
+		Map<String, Object> data = new HashMap<>();
+		data.put("input", "hello");
+		data.put("tags", List.of("a", "b"));
+		data.put("step", 2);
+		String json = serializer.objectMapper().writeValueAsString(data);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		Serializer.writeUTF(json, oos);
+		oos.flush();
+
+		Map<String, Object> deserializedData = serializer.dataFromBytes(baos.toByteArray());
+		assertEquals(data, deserializedData);
+		assertEquals(data, serializer.dataFromBytes(serializer.dataToBytes(data)));
+	}
+
+	@Test
+	void testReadsChunkedStatesAfterUtfStrings() throws Exception {
+		// 新格式的大状态分块写入, 与旧格式的状态交替出现在同一个流中
+		Map<String, Object> legacy = Map.of("step", 1);
+		Map<String, Object> large = Map.of("text", "y".repeat(50_000), "step", 2);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		Serializer.writeUTF(serializer.objectMapper().writeValueAsString(legacy), oos);
+		serializer.writeData(large, oos);
+		Serializer.writeUTF(serializer.objectMapper().writeValueAsString(legacy), oos);
+		oos.writeInt(42);
+		oos.flush();
+
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		assertEquals(legacy, serializer.readData(ois));
+		assertEquals(large, serializer.readData(ois));
+		assertEquals(legacy, serializer.readData(ois));
+		assertEquals(42, ois.readInt());
+	}
+
+	@Test
+	void testLargeStatesOnOneStream() throws Exception {
+		// 多个大状态连续写入同一个流, 读取时每个状态都应停在自己的末尾
+		Map<String, Object> large = new HashMap<>();
+		large.put("text", "x".repeat(200_000));
+		large.put("unicode", "你好, 世界 😀".repeat(10_000));
+		Map<String, Object> small = Map.of("step", 3);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		serializer.writeData(large, oos);
+		serializer.writeData(small, oos);
+		serializer.writeData(large, oos);
+		oos.flush();
+
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		assertEquals(large, serializer.readData(ois));
+		assertEquals(small, serializer.readData(ois));
+		assertEquals(large, serializer.readData(ois));
+	}
+
+	@Test
+	void testStateIsNotModifiedByNormalization() throws Exception {
+		Map<String, Object> nested = new HashMap<>();
+		nested.put(null, "dropped");
+		nested.put("kept", "value");
+		Map<String, Object> data = new HashMap<>();
+		data.put("nested", nested);
+		data.put("future", CompletableFuture.completedFuture("done"));
+
+		Map<String, Object> deserializedData = serializer.dataFromBytes(serializer.dataToBytes(data));
+
+		assertEquals(Map.of("kept", "value"), deserializedData.get("nested"));
+		assertEquals(2, nested.size());
+		assertTrue(data.get("future") instanceof CompletableFuture);
+	}
+
 	private <T> T serializeAndDeserialize(T object) throws IOException, ClassNotFoundException {
 		// 将对象包装在Map中进行序列化
 		Map<String, Object> data = new HashMap<>();
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AppendableListTest {
+
+	private static List<Integer> range(int from, int to) {
+		return IntStream.range(from, to).boxed().toList();
+	}
+
+	@Test
+	public void testAppendedLeavesOriginalUnchanged() {
+		AppendableList<Integer> empty = AppendableList.empty();
+		AppendableList<Integer> list = empty;
+		for (int i = 0; i < 100; i++) {
+			list = list.appended(i);
+		}
+		AppendableList<Integer> snapshot = list;
+		AppendableList<Integer> next = list.appended(100);
+
+		assertEquals(0, empty.size());
+		assertEquals(range(0, 100), snapshot);
+		assertEquals(range(0, 101), next);
+	}
+
+	@Test
+	public void testAppendingFromSameSnapshotForks() {
+		AppendableList<Integer> base = AppendableList.of(range(0, 40));
+
+		AppendableList<Integer> first = base.appended(1000);
+		AppendableList<Integer> second = base.appended(2000);
+		AppendableList<Integer> third = first.appendedAll(List.of(3000, 3001));
+
+		assertEquals(40, base.size());
+		assertEquals(1000, first.get(40));
+		assertEquals(41, first.size());
+		assertEquals(2000, second.get(40));
+		assertEquals(41, second.size());
+		assertEquals(List.of(1000, 3000, 3001), third.subList(40, 43));
+	}
+
+	@Test
+	public void testMutatingOperationsDoNotAffectSharedLists() {
+		AppendableList<Integer> base = AppendableList.of(range(0, 70));
+		AppendableList<Integer> copy = base.appended(70);
+
+		copy.set(5, -5);
+		copy.remove(0);
+		copy.add(0, -1);
+		copy.add(71);
+
+		assertEquals(range(0, 70), base);
+		assertEquals(-1, copy.get(0));
+		assertEquals(-5, copy.get(5));
+		assertEquals(72, copy.size());
+	}
+
+	@Test
+	public void testRemovedFirst() {
+		AppendableList<String> list = AppendableList.of(List.of("a", "b", "c"));
+
+		assertEquals(List.of("a", "c"), list.removedFirst(new RemoveByHash<>("b")));
+		assertEquals(List.of("a", "b"), list.removedFirst(new RemoveByHash<>("c")));
+		assertSame(list, list.removedFirst(new RemoveByHash<>("d")));
+		assertEquals(List.of("a", "b", "c"), list);
+	}
+
+	@Test
+	public void testSerializesAsArrayList() throws Exception {
+		AppendableList<String> list = AppendableList.of(List.of("a", "b"));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(list);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Object result = in.readObject();
+			assertInstanceOf(ArrayList.class, result);
+			assertEquals(list, result);
+		}
+	}
+
+	@Test
+	public void testAppendStrategySharesHistory() {
+		AppendStrategy strategy = new AppendStrategy();
+		Object history = null;
+		for (int i = 0; i < 1000; i++) {
+			history = strategy.apply(history, List.of(i));
+		}
+		Object snapshot = history;
+		history = strategy.apply(history, "last");
+		history = strategy.apply(history, List.of(new RemoveByHash<>(0), "next"));
+
+		assertInstanceOf(AppendableList.class, history);
+		assertEquals(1000, ((List<?>) snapshot).size());
+		assertEquals(1001, ((List<?>) history).size());
+		assertEquals(1, ((List<?>) history).get(0));
+		assertEquals(List.of("last", "next"), ((List<?>) history).subList(999, 1001));
+		assertEquals(List.of("x"), strategy.apply(history, ReplaceAllWith.of("x")));
+	}
+
+}